@@ -0,0 +1,122 @@
+package domine.benchmarks;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Compara dos archivos de resultados de JMH en formato CSV (-rf csv), por ejemplo el de
+ * referencia (baseline.csv) con el de una ejecución nueva.
+ *
+ * Por cada benchmark y conjunto de expresiones muestra el tiempo por operación y los
+ * bytes asignados por operación (gc.alloc.rate.norm, si se usó -prof gc) de ambos
+ * archivos y su cociente. Un cociente de tiempo mayor que 1 + error relativo combinado
+ * se marca como regresión.
+ *
+ * Uso: java -cp target/benchmarks.jar domine.benchmarks.CompareResults baseline.csv resultados.csv
+ */
+public class CompareResults {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Uso: CompareResults <referencia.csv> <resultados.csv>");
+            System.exit(2);
+        }
+        Map<String, Row> baseline = read(Path.of(args[0]));
+        Map<String, Row> current = read(Path.of(args[1]));
+
+        System.out.printf("%-48s %12s %12s %7s   %10s %10s%n",
+                "Benchmark", "Referencia", "Actual", "Cociente", "B/op ref", "B/op act");
+        int regressions = 0;
+        for (Map.Entry<String, Row> entry : current.entrySet()) {
+            Row now = entry.getValue();
+            Row before = baseline.get(entry.getKey());
+            if (before == null || now.score == null) {
+                continue;
+            }
+            double ratio = now.score / before.score;
+            double tolerance = now.error / now.score + before.error / before.score;
+            boolean regression = ratio > 1 + tolerance;
+            regressions += regression ? 1 : 0;
+            System.out.printf(Locale.ROOT, "%-48s %9.1f %-2s %9.1f %-2s %6.2fx   %10s %10s%s%n",
+                    entry.getKey(), before.score, before.unit, now.score, now.unit, ratio,
+                    format(before.allocation), format(now.allocation), regression ? "  << regresión" : "");
+        }
+        System.out.printf("%nRegresiones fuera del margen de error: %d%n", regressions);
+    }
+
+    private static String format(Double bytes) {
+        return bytes == null ? "-" : String.format(Locale.ROOT, "%.0f", bytes);
+    }
+
+    /**
+     * Lee el CSV de JMH. Las filas secundarias de los profilers tienen el nombre del
+     * benchmark seguido de ":métrica" (por ejemplo "...tokenize:gc.alloc.rate.norm").
+     */
+    static Map<String, Row> read(Path file) throws IOException {
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        List<String> header = split(lines.get(0));
+        int paramColumn = -1;
+        for (int i = 0; i < header.size(); i++) {
+            if (header.get(i).startsWith("Param: ")) {
+                paramColumn = i;
+            }
+        }
+
+        Map<String, Row> rows = new LinkedHashMap<>();
+        for (String line : lines.subList(1, lines.size())) {
+            List<String> columns = split(line);
+            String benchmark = columns.get(0);
+            String metric = null;
+            int colon = benchmark.indexOf(':');
+            if (colon >= 0) {
+                metric = benchmark.substring(colon + 1).replace("·", "");
+                benchmark = benchmark.substring(0, colon);
+            }
+            String name = benchmark.substring(benchmark.lastIndexOf('.', benchmark.lastIndexOf('.') - 1) + 1)
+                    + (paramColumn >= 0 ? " [" + columns.get(paramColumn) + "]" : "");
+            Row row = rows.computeIfAbsent(name, n -> new Row());
+            double score = Double.parseDouble(columns.get(4));
+            if (metric == null) {
+                row.score = score;
+                row.error = columns.get(5).isEmpty() || columns.get(5).equals("NaN") ? 0 : Double.parseDouble(columns.get(5));
+                row.unit = columns.get(6).replace("/op", "");
+            } else if (metric.equals("gc.alloc.rate.norm")) {
+                row.allocation = score;
+            }
+        }
+        return rows;
+    }
+
+    private static List<String> split(String line) {
+        List<String> columns = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (c == ',' && !quoted) {
+                columns.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        columns.add(current.toString());
+        return columns;
+    }
+
+    static final class Row {
+        Double score;           // Tiempo por operación
+        double error;           // Error de la medición (99.9 %)
+        String unit;
+        Double allocation;      // Bytes asignados por operación
+    }
+}
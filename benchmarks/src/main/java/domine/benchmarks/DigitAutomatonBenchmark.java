@@ -0,0 +1,43 @@
+package domine.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import resources.digit.automaton.DigitAutomaton;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo de {@link DigitAutomaton#isCorrectDigit(String)} por literal, sobre los números
+ * que aparecen en cada conjunto de expresiones.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DigitAutomatonBenchmark {
+    private static final int LITERALS = 256; // Literales por invocación (el conjunto se repite si tiene menos)
+
+    @Param({"SHORT", "LONG", "NESTED", "NUMBERS", "TRIG"})
+    private ExpressionCorpus corpus;
+
+    private String[] literals;
+
+    @Setup
+    public void setup() throws Exception {
+        String[] found = corpus.getNumberLiterals();
+        literals = new String[LITERALS];
+        for (int i = 0; i < LITERALS; i++) {
+            literals[i] = found[i % found.length];
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LITERALS)
+    public void isCorrectDigit(Blackhole blackhole) {
+        for (String literal : literals) {
+            blackhole.consume(DigitAutomaton.isCorrectDigit(literal));
+        }
+    }
+}
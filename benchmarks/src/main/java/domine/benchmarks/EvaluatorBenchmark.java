@@ -0,0 +1,45 @@
+package domine.benchmarks;
+
+import domine.Lexer;
+import domine.Parser;
+import domine.ast.ASTNode;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo de {@link ASTNode#evaluate()} por expresión, con x = 0.7 e y = 1.3.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EvaluatorBenchmark {
+    @Param({"SHORT", "LONG", "NESTED", "NUMBERS", "TRIG"})
+    private ExpressionCorpus corpus;
+
+    private ASTNode[] trees;
+
+    @Setup
+    public void setup() throws Exception {
+        String[] expressions = corpus.getExpressions();
+        trees = new ASTNode[expressions.length];
+        for (int i = 0; i < expressions.length; i++) {
+            Parser parser = new Parser(new Lexer(expressions[i]).tokenize());
+            trees[i] = parser.parseToAST();
+            parser.getVariableValues().put("x", 0.7); // Los VariableNode leen este mapa
+            parser.getVariableValues().put("y", 1.3);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(16)
+    public void evaluate(Blackhole blackhole) throws Exception {
+        for (ASTNode tree : trees) {
+            blackhole.consume(tree.evaluate());
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package domine.benchmarks;
+
+import domine.Lexer;
+import domine.Token;
+import domine.TokenType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Conjuntos de expresiones usados por los benchmarks.
+ *
+ * Las expresiones se generan con semillas fijas, de modo que cada ejecución (y el
+ * archivo de resultados de referencia) mide exactamente las mismas entradas. Todas usan
+ * solo las variables x e y, y las divisiones son siempre por constantes distintas de
+ * cero para que la evaluación no falle.
+ */
+public enum ExpressionCorpus {
+    /** Expresiones de pocos tokens, como las que escribe un usuario */
+    SHORT {
+        @Override
+        String[] generate(Random random) {
+            return new String[]{
+                    "x + 1", "sin(x)", "2*y - 3", "x^2", "cos(x) * y", "(x + y) / 2",
+                    "tan(0.5)", "-x + 4", "x*y", "3.5 * sin(y)", "x / 4 - y", "2^x",
+                    "sen(x) + 1", "y - x*x", "cos(2*x)", "1 - y^2",
+            };
+        }
+    },
+    /** Sumas largas de términos simples (unos 300 tokens cada una) */
+    LONG {
+        @Override
+        String[] generate(Random random) {
+            String[] expressions = new String[16];
+            for (int i = 0; i < expressions.length; i++) {
+                StringBuilder sb = new StringBuilder(term(random));
+                for (int t = 1; t < 60; t++) {
+                    sb.append(random.nextBoolean() ? " + " : " - ").append(term(random));
+                }
+                expressions[i] = sb.toString();
+            }
+            return expressions;
+        }
+    },
+    /** Anidamiento profundo de paréntesis y funciones (profundidad 40) */
+    NESTED {
+        @Override
+        String[] generate(Random random) {
+            String[] expressions = new String[16];
+            for (int i = 0; i < expressions.length; i++) {
+                String expression = random.nextBoolean() ? "x" : "y";
+                for (int level = 0; level < 40; level++) {
+                    switch (random.nextInt(4)) {
+                        case 0:
+                            expression = "(" + expression + " + " + (1 + random.nextInt(9)) + ")";
+                            break;
+                        case 1:
+                            expression = "(" + expression + " * 0." + (1 + random.nextInt(9)) + ")";
+                            break;
+                        case 2:
+                            expression = "sin(" + expression + ")";
+                            break;
+                        default:
+                            expression = "cos(" + expression + " - y)";
+                    }
+                }
+                expressions[i] = expression;
+            }
+            return expressions;
+        }
+    },
+    /** Muchos literales numéricos: enteros, decimales y notación científica */
+    NUMBERS {
+        @Override
+        String[] generate(Random random) {
+            String[] expressions = new String[16];
+            for (int i = 0; i < expressions.length; i++) {
+                StringBuilder sb = new StringBuilder(number(random));
+                for (int t = 1; t < 40; t++) {
+                    sb.append(" ").append("+-*".charAt(random.nextInt(3))).append(" ").append(number(random));
+                }
+                expressions[i] = sb.toString();
+            }
+            return expressions;
+        }
+    },
+    /** Predominio de funciones trigonométricas */
+    TRIG {
+        @Override
+        String[] generate(Random random) {
+            String[] functions = {"sin", "cos", "tan", "sen"};
+            String[] expressions = new String[16];
+            for (int i = 0; i < expressions.length; i++) {
+                StringBuilder sb = new StringBuilder();
+                for (int t = 0; t < 20; t++) {
+                    if (t > 0) {
+                        sb.append(random.nextBoolean() ? " + " : " * ");
+                    }
+                    String f = functions[random.nextInt(functions.length)];
+                    String g = functions[random.nextInt(functions.length)];
+                    sb.append(f).append("(").append(g).append("(x) * ")
+                            .append(random.nextBoolean() ? "y" : "0.5").append(")");
+                }
+                expressions[i] = sb.toString();
+            }
+            return expressions;
+        }
+    };
+
+    private final String[] expressions = generate(new Random(ordinal() + 1));
+
+    abstract String[] generate(Random random);
+
+    public String[] getExpressions() {
+        return expressions.clone();
+    }
+
+    /**
+     * Lexemas de los números del conjunto, tal como los valida el autómata del Lexer.
+     */
+    public String[] getNumberLiterals() throws Exception {
+        List<String> literals = new ArrayList<>();
+        for (String expression : expressions) {
+            for (Token token : new Lexer(expression).tokenize()) {
+                if (token.getTokenType() == TokenType.DIGIT) {
+                    literals.add(token.getLexeme());
+                }
+            }
+        }
+        return literals.toArray(new String[0]);
+    }
+
+    private static String term(Random random) {
+        switch (random.nextInt(4)) {
+            case 0:
+                return random.nextInt(100) + "*x";
+            case 1:
+                return "y/" + (1 + random.nextInt(9));
+            case 2:
+                return "x^" + random.nextInt(4);
+            default:
+                return "(x - " + random.nextInt(10) + ")";
+        }
+    }
+
+    private static String number(Random random) {
+        switch (random.nextInt(3)) {
+            case 0:
+                return String.valueOf(random.nextInt(100000));
+            case 1:
+                return String.format(Locale.ROOT, "%.6f", random.nextDouble() * 1000);
+            default:
+                return (1 + random.nextInt(9)) + "." + random.nextInt(1000) + "E" + (random.nextInt(20) - 10);
+        }
+    }
+}
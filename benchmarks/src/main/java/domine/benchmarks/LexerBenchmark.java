@@ -0,0 +1,37 @@
+package domine.benchmarks;
+
+import domine.Lexer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo de {@link Lexer#tokenize()} por expresión (incluye crear el Lexer, que es como
+ * se usa en la aplicación: una instancia por entrada).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LexerBenchmark {
+    @Param({"SHORT", "LONG", "NESTED", "NUMBERS", "TRIG"})
+    private ExpressionCorpus corpus;
+
+    private String[] expressions;
+
+    @Setup
+    public void setup() {
+        expressions = corpus.getExpressions();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(16)
+    public void tokenize(Blackhole blackhole) throws Exception {
+        for (String expression : expressions) {
+            blackhole.consume(new Lexer(expression).tokenize());
+        }
+    }
+}
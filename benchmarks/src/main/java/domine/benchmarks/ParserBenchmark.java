@@ -0,0 +1,45 @@
+package domine.benchmarks;
+
+import domine.Lexer;
+import domine.Parser;
+import domine.Token;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo de construir el AST ({@link Parser#parseToAST()}) por expresión, a partir de los
+ * tokens ya generados.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParserBenchmark {
+    @Param({"SHORT", "LONG", "NESTED", "NUMBERS", "TRIG"})
+    private ExpressionCorpus corpus;
+
+    private List<Token>[] tokens;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() throws Exception {
+        String[] expressions = corpus.getExpressions();
+        tokens = new List[expressions.length];
+        for (int i = 0; i < expressions.length; i++) {
+            tokens[i] = new Lexer(expressions[i]).tokenize();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(16)
+    public void parseToAST(Blackhole blackhole) throws Exception {
+        for (List<Token> expression : tokens) {
+            blackhole.consume(new Parser(expression).parseToAST());
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package domine.formulas;
+
+import domine.aot.FormulaLibrary;
+
+/**
+ * Biblioteca de fórmulas de física: al compilar, FormulaProcessor genera en este paquete
+ * una clase por cada línea de formulas/fisica.properties (EnergiaCinetica, Distancia, ...).
+ */
+@FormulaLibrary("formulas/fisica.properties")
+public final class Fisica {
+
+    private Fisica() {
+    }
+}
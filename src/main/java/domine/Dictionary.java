@@ -10,9 +10,12 @@ import java.util.Map;
  * permitiendo la identificación rápida de tokens durante el análisis léxico.
  *
  * Funcionalidades:
- * - Mapea funciones trigonométricas (sin, cos, tan) con soporte para variantes (sen, Sin, SIN, etc.)
  * - Mapea operadores aritméticos (+, -, *, /, ^)
- * - Mapea delimitadores (paréntesis)
+ * - Mapea delimitadores (paréntesis y coma)
+ * - Mapea la asignación de variables locales (=) y el fin de definición (;)
+ *
+ * Los nombres de funciones no están aquí: el Lexer los busca en el
+ * {@link domine.functions.FunctionRegistry}, que admite registrar funciones nuevas.
  *
  * @author Compiladores - Trabajo Práctico 3
  * @version 1.0
@@ -26,27 +29,6 @@ public class Dictionary {
      * y símbolos especiales del lenguaje.
      */
     public Dictionary() {
-        // ========== Funciones Trigonométricas ==========
-        // Se aceptan múltiples variantes para soportar diferentes estilos de escritura
-
-        // Seno: sin, sen (español)
-        dictionary.put("sin", TokenType.SIN);
-        dictionary.put("sen", TokenType.SIN);
-        dictionary.put("Sin", TokenType.SIN);
-        dictionary.put("Sen", TokenType.SIN);
-        dictionary.put("SIN", TokenType.SIN);
-        dictionary.put("SEN", TokenType.SIN);
-
-        // Coseno: cos
-        dictionary.put("cos", TokenType.COS);
-        dictionary.put("Cos", TokenType.COS);
-        dictionary.put("COS", TokenType.COS);
-
-        // Tangente: tan
-        dictionary.put("tan", TokenType.TAN);
-        dictionary.put("Tan", TokenType.TAN);
-        dictionary.put("TAN", TokenType.TAN);
-
         // ========== Operadores Aritméticos ==========
         dictionary.put("+", TokenType.PLUS);     // Suma
         dictionary.put("-", TokenType.MINUS);    // Resta / Negación unaria
@@ -57,6 +39,11 @@ public class Dictionary {
         // ========== Delimitadores ==========
         dictionary.put("(", TokenType.LPARENT);  // Paréntesis izquierdo
         dictionary.put(")", TokenType.RPARENT);  // Paréntesis derecho
+        dictionary.put(",", TokenType.COMMA);    // Separador de argumentos
+
+        // ========== Variables locales ==========
+        dictionary.put("=", TokenType.ASSIGN);   // Asignación
+        dictionary.put(";", TokenType.SEMICOLON); // Fin de la definición
     }
 
     /**
@@ -66,9 +53,9 @@ public class Dictionary {
      * @return El TokenType correspondiente, o null si el lexema no está en el diccionario
      *
      * Ejemplo:
-     *   getTokenType("sin") -> TokenType.SIN
      *   getTokenType("+")   -> TokenType.PLUS
-     *   getTokenType("x")   -> null (es una variable, no está en el diccionario)
+     *   getTokenType(",")   -> TokenType.COMMA
+     *   getTokenType("x")   -> null (es una variable o función, no está en el diccionario)
      */
     public TokenType getTokenType(String lexeme) {
         return dictionary.get(lexeme);
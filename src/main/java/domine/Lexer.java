@@ -1,5 +1,14 @@
 package domine;
 
+import domine.errors.ErrorCode;
+import domine.errors.SyntaxException;
+import domine.functions.FunctionDefinition;
+import domine.functions.FunctionRegistry;
+import domine.limits.LimitExceededException;
+import domine.limits.ResourceLimits;
+import domine.metrics.Phase;
+import domine.metrics.PipelineMetrics;
+import domine.metrics.TokenizeEvent;
 import resources.message.ExpectedMessage;
 import java.util.ArrayList;
 import java.util.List;
@@ -17,13 +26,14 @@ import static resources.digit.automaton.DigitAutomaton.isCorrectDigit;
  * Tipos de tokens reconocidos:
  * - Números: enteros, decimales, notación científica (3, 0.5, .2, -2, 2E2, -25.32)
  * - Operadores: +, -, *, /, ^
- * - Funciones: sin, cos, tan
- * - Paréntesis: (, )
- * - Variables: x, y, z, cualquier identificador alfabético
+ * - Funciones: nombres registrados en el FunctionRegistry (sin, cos, sqrt, atan2, ...)
+ * - Paréntesis y separador de argumentos: (, ), ","
+ * - Definición de variables locales: =, ;
+ * - Variables: x, y, z, cualquier identificador que empiece con letra (x1, abc)
  *
  * Proceso de tokenización:
  *   Entrada:  "sin(x) + 2 * 3"
- *   Salida:   [SIN, LPARENT, VARIABLE(x), RPARENT, PLUS, DIGIT(2), MULTIPLY, DIGIT(3)]
+ *   Salida:   [FUNCTION(sin), LPARENT, VARIABLE(x), RPARENT, PLUS, DIGIT(2), MULTIPLY, DIGIT(3)]
  *
  * @author Compiladores - Trabajo Práctico 3
  * @version 1.0
@@ -32,6 +42,8 @@ public class Lexer {
     private String input;              // Cadena de entrada a tokenizar
     private int position;              // Posición actual en la cadena
     private final Dictionary dictionary; // Diccionario de palabras reservadas
+    private final ResourceLimits limits; // Límites de tamaño de la entrada
+    private final FunctionRegistry functions; // Funciones reconocidas
 
     /**
      * Constructor del Lexer.
@@ -42,9 +54,32 @@ public class Lexer {
      * significativos en este lenguaje (no afectan la semántica)
      */
     public Lexer(String input) {
-        this.input = input.replaceAll("\\s+", ""); // Eliminar todos los espacios en blanco
+        this(input, ResourceLimits.unlimited());
+    }
+
+    /**
+     * Constructor del Lexer con límites de recursos, para entradas no confiables.
+     *
+     * @param input Cadena de entrada que contiene la expresión a tokenizar
+     * @param limits Límites de longitud de la entrada y cantidad de tokens
+     */
+    public Lexer(String input, ResourceLimits limits) {
+        this(input, limits, FunctionRegistry.getDefault());
+    }
+
+    /**
+     * Constructor del Lexer con un registro de funciones propio.
+     *
+     * @param input Cadena de entrada que contiene la expresión a tokenizar
+     * @param limits Límites de longitud de la entrada y cantidad de tokens
+     * @param functions Registro donde se buscan los nombres de funciones
+     */
+    public Lexer(String input, ResourceLimits limits, FunctionRegistry functions) {
+        this.input = input;
         this.position = 0;
         this.dictionary = new Dictionary();
+        this.limits = limits;
+        this.functions = functions;
     }
 
     /**
@@ -52,49 +87,114 @@ public class Lexer {
      * Convierte la cadena de entrada en una lista de tokens.
      *
      * @return Lista de tokens identificados en la entrada
-     * @throws Exception Si encuentra un carácter no reconocido o un formato inválido
+     * @throws SyntaxException Si encuentra un carácter no reconocido o un formato inválido
+     * @throws LimitExceededException Si la entrada es demasiado larga o genera demasiados tokens
      *
      * Algoritmo:
+     * 0. Rechazar entradas más largas que el límite antes de recorrerlas
      * 1. Mientras haya caracteres por procesar:
      *    - Si es un dígito o punto, leer número completo
      *    - Si es una letra, leer identificador (función o variable)
      *    - Si es un operador/paréntesis, crear token correspondiente
      *    - Si no coincide con nada, lanzar error
+     *
+     * Con las métricas activadas ({@link PipelineMetrics}) se registra la duración en la
+     * etapa LEX, y con una grabación de JFR activa, un {@link TokenizeEvent} si supera su umbral.
      */
     public List<Token> tokenize() throws Exception {
+        PipelineMetrics metrics = PipelineMetrics.getDefault();
+        TokenizeEvent event = new TokenizeEvent();
+        if (!metrics.isEnabled() && !event.isEnabled()) {
+            return scan();
+        }
+        String source = input;
+        long start = System.nanoTime();
+        event.begin();
+        List<Token> tokens = null;
+        Throwable error = null;
+        try {
+            tokens = scan();
+            return tokens;
+        } catch (Throwable e) {
+            error = e;
+            throw e;
+        } finally {
+            if (metrics.isEnabled()) {
+                metrics.record(Phase.LEX, start, tokens == null);
+            }
+            event.finish(source, tokens, error);
+        }
+    }
+
+    /**
+     * Recorrido de la entrada que realiza tokenize().
+     */
+    private List<Token> scan() throws Exception {
+        if (input.length() > limits.getMaxInputLength()) {
+            throw new LimitExceededException("maxInputLength", limits.getMaxInputLength());
+        }
+        input = input.replaceAll("\\s+", ""); // Eliminar todos los espacios en blanco
+
         List<Token> tokens = new ArrayList<>();
 
         while (position < input.length()) {
-            char currentChar = input.charAt(position);
-
-            // ========== Reconocimiento de Números ==========
-            // Un número puede comenzar con:
-            // - Dígito: 3, 42
-            // - Punto: .5, .123
-            // - Signo menos seguido de dígito o punto: -2, -.5
-            if (Character.isDigit(currentChar) || currentChar == '.') {
-                tokens.add(readNumber());
-            }
-            // ========== Reconocimiento de Identificadores ==========
-            // Los identificadores comienzan con letra y pueden ser:
-            // - Funciones: sin, cos, tan
-            // - Variables: x, y, z, abc, etc.
-            else if (Character.isLetter(currentChar)) {
-                tokens.add(readIdentifier());
-            }
-            // ========== Reconocimiento de Operadores y Paréntesis ==========
-            else if (isOperatorOrParenthesis(currentChar)) {
-                tokens.add(readOperatorOrParenthesis());
-            }
-            // ========== Carácter No Reconocido ==========
-            else {
-                throw new Exception(ExpectedMessage.unRecognizedCharacter(currentChar, position));
+            if (tokens.size() >= limits.getMaxTokens()) {
+                throw new LimitExceededException("maxTokens", limits.getMaxTokens());
             }
+            tokens.add(next());
         }
 
         return tokens;
     }
 
+    /**
+     * Lee un solo token a partir de una posición de la entrada, que ya no debe tener espacios.
+     * Lo usa el análisis incremental ({@link domine.incremental.IncrementalParser}) para volver
+     * a tokenizar solo la parte del texto que cambió: el token depende únicamente de sus
+     * caracteres y del primero que lo sigue, de modo que desde el límite de un token se
+     * obtienen los mismos tokens que con tokenize().
+     *
+     * @param start Posición del primer carácter del token
+     * @param tokens Lista a la que se agrega el token leído
+     * @return Posición siguiente al token leído
+     * @throws SyntaxException Si encuentra un carácter no reconocido o un número inválido
+     */
+    public int readToken(int start, List<Token> tokens) throws Exception {
+        position = start;
+        tokens.add(next());
+        return position;
+    }
+
+    /**
+     * Reconoce el token que empieza en la posición actual.
+     */
+    private Token next() throws Exception {
+        char currentChar = input.charAt(position);
+
+        // ========== Reconocimiento de Números ==========
+        // Un número puede comenzar con:
+        // - Dígito: 3, 42
+        // - Punto: .5, .123
+        // - Signo menos seguido de dígito o punto: -2, -.5
+        if (Character.isDigit(currentChar) || currentChar == '.') {
+            return readNumber();
+        }
+        // ========== Reconocimiento de Identificadores ==========
+        // Los identificadores comienzan con letra y pueden ser:
+        // - Funciones: sin, cos, sqrt, ... (según el registro)
+        // - Variables: x, y, z, abc, etc.
+        else if (Character.isLetter(currentChar)) {
+            return readIdentifier();
+        }
+        // ========== Reconocimiento de Operadores y Paréntesis ==========
+        else if (isOperatorOrParenthesis(currentChar)) {
+            return readOperatorOrParenthesis();
+        }
+        // ========== Carácter No Reconocido ==========
+        throw new SyntaxException(ErrorCode.UNRECOGNIZED_CHARACTER,
+                ExpectedMessage.unRecognizedCharacter(currentChar, position));
+    }
+
     /**
      * Lee un número completo desde la posición actual.
      * Soporta múltiples formatos numéricos:
@@ -104,7 +204,7 @@ public class Lexer {
      * - Notación científica: 2E2, -1.5e-3
      *
      * @return Token de tipo DIGIT con el valor numérico parseado
-     * @throws Exception Si el formato del número es inválido
+     * @throws SyntaxException Si el formato del número es inválido
      *
      * Algoritmo:
      * 1. Leer signo opcional (-)
@@ -157,7 +257,7 @@ public class Lexer {
         // Paso 4: Validar formato con autómata de estados finitos
         // isCorrectDigit() verifica que el número esté bien formado
         if (!isCorrectDigit(numStr)) {
-            throw new Exception(ExpectedMessage.unValidNumberFormat(numStr));
+            throw new SyntaxException(ErrorCode.INVALID_NUMBER_FORMAT, ExpectedMessage.unValidNumberFormat(numStr));
         }
 
         // Paso 5: Crear token con el valor numérico
@@ -170,40 +270,44 @@ public class Lexer {
     }
 
     /**
-     * Lee un identificador completo (secuencia de letras).
-     * Puede ser una función trigonométrica o una variable.
+     * Lee un identificador completo: una letra seguida de letras o dígitos.
+     * Puede ser una función registrada o una variable.
      *
-     * @return Token de tipo función (SIN, COS, TAN) o VARIABLE
+     * @return Token de tipo FUNCTION (con la función ya enlazada) o VARIABLE
      *
      * Proceso:
-     * 1. Leer todas las letras consecutivas
-     * 2. Consultar diccionario para ver si es palabra reservada (función)
-     * 3. Si está en el diccionario -> Token de función
-     * 4. Si no está en el diccionario -> Token de variable
+     * 1. Leer todas las letras y dígitos consecutivos
+     * 2. Consultar el registro de funciones (sin distinguir mayúsculas)
+     * 3. Si está registrada -> Token de función
+     * 4. Si no está registrada -> Token de variable
      *
      * Ejemplos:
-     *   "sin" -> Token(SIN)
+     *   "sin" -> Token(FUNCTION, sin)
+     *   "SQRT" -> Token(FUNCTION, sqrt)
+     *   "atan2" -> Token(FUNCTION, atan2)
      *   "x"   -> Token(VARIABLE, "x")
      *   "abc" -> Token(VARIABLE, "abc")
+     *   "x1"  -> Token(VARIABLE, "x1")
      */
     private Token readIdentifier() {
         StringBuilder identifier = new StringBuilder();
 
-        // Leer todas las letras consecutivas
-        while (position < input.length() && Character.isLetter(input.charAt(position))) {
+        // Leer la letra inicial y las letras o dígitos que la siguen
+        while (position < input.length() && Character.isLetterOrDigit(input.charAt(position))) {
             identifier.append(input.charAt(position));
             position++;
         }
 
         String id = identifier.toString();
-        TokenType type = dictionary.getTokenType(id);
+        FunctionDefinition function = functions.lookup(id);
 
         Token token = new Token();
         token.setLexeme(id);
 
-        if (type != null) {
-            // Es una función trigonométrica reconocida
-            token.setTokenType(type);
+        if (function != null) {
+            // Es una función registrada: se enlaza aquí para no volver a buscarla
+            token.setTokenType(TokenType.FUNCTION);
+            token.setFunction(function);
         } else {
             // Es una variable (identificador no reconocido como palabra reservada)
             token.setTokenType(TokenType.VARIABLE);
@@ -218,7 +322,8 @@ public class Lexer {
      * @return Token correspondiente al operador o paréntesis
      *
      * Operadores reconocidos: +, -, *, /, ^
-     * Delimitadores: (, )
+     * Delimitadores: (, ), la coma que separa argumentos y el ; que cierra una definición
+     * Asignación: =
      */
     private Token readOperatorOrParenthesis() {
         String op = String.valueOf(input.charAt(position));
@@ -240,6 +345,7 @@ public class Lexer {
      * @return true si es operador o paréntesis, false en caso contrario
      */
     private boolean isOperatorOrParenthesis(char c) {
-        return c == '+' || c == '-' || c == '*' || c == '/' || c == '^' || c == '(' || c == ')';
+        return c == '+' || c == '-' || c == '*' || c == '/' || c == '^' || c == '(' || c == ')' || c == ','
+                || c == '=' || c == ';';
     }
 }
@@ -1,14 +1,27 @@
 package domine;
 
 import domine.ast.*;
+import domine.errors.ErrorCode;
+import domine.errors.SyntaxException;
+import domine.functions.FunctionDefinition;
+import domine.incremental.Subtree;
+import domine.limits.LimitExceededException;
+import domine.limits.ResourceLimits;
+import domine.metrics.ParseEvent;
+import domine.metrics.Phase;
+import domine.metrics.PipelineMetrics;
 import lombok.Getter;
 import resources.message.ExpectedMessage;
 import resources.message.Message;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
+import java.util.Set;
 
 /**
  * Analizador Sintáctico (Parser) Descendente Recursivo para expresiones matemáticas.
@@ -17,6 +30,7 @@ import java.util.Scanner;
  * y trigonométricas, construyendo un Árbol de Sintaxis Abstracta (AST) en el proceso.
  *
  * ========== GRAMÁTICA LL(1) IMPLEMENTADA ==========
+ * P  -> Variable = A ; P | A
  * A  -> B A'
  * A' -> + B A' | - B A' | λ
  * B  -> C B'
@@ -24,14 +38,19 @@ import java.util.Scanner;
  * C  -> U C'
  * C' -> ^ U C' | λ
  * U  -> -U | F
- * F  -> Función(A) | (A) | Digito | Variable
+ * F  -> Función(A L) | (A) | Digito | Variable
+ * L  -> , A L | λ
  *
  * Donde:
+ * - P maneja el programa: definiciones de variables locales seguidas de la expresión
+ *   resultado. Distinguir una definición de una expresión que empieza con una variable
+ *   requiere mirar un token más (el '='), única excepción a LL(1)
  * - A maneja suma y resta (precedencia más baja)
  * - B maneja multiplicación y división (precedencia media)
  * - C maneja potenciación (precedencia más alta, asociativa a la derecha)
  * - U maneja negación unaria
  * - F maneja factores: funciones, paréntesis, números y variables
+ * - L maneja los argumentos adicionales de las funciones de varios argumentos (atan2(y, x))
  *
  * ========== CARACTERÍSTICAS ==========
  * - Análisis descendente recursivo (cada no-terminal es una función)
@@ -40,10 +59,17 @@ import java.util.Scanner;
  * - Asociatividad correcta (potencia a la derecha)
  * - Detección y reporte de errores sintácticos
  * - Solicitud interactiva de valores para variables
+ * - Variables locales ("u = x^2 + sin(x); tan(u) * u + u"): cada expresión asignada se
+ *   calcula una vez por evaluación; redefinir una variable local o definir una que ya
+ *   se usó como variable libre es un error
+ * - Límites de anidamiento y cantidad de nodos (ver ResourceLimits) para evitar
+ *   desbordar la pila con entradas patológicas como "((((...))))" o "2^2^2^...^2"
+ * - Reutilización de los subárboles de argumentos y paréntesis de un análisis anterior
+ *   (ver domine.incremental.IncrementalParser)
  *
  * ========== PRECEDENCIA DE OPERADORES (de mayor a menor) ==========
  * 1. Negación unaria: -
- * 2. Funciones trigonométricas: sin(), cos(), tan()
+ * 2. Funciones: sin(), cos(), sqrt(), atan2(,), ... (ver FunctionRegistry)
  * 3. Paréntesis: ( )
  * 4. Potenciación: ^ (asociativa a la derecha)
  * 5. Multiplicación y División: *, /
@@ -75,6 +101,19 @@ public class Parser {
 
     private Scanner scanner;              // Scanner para leer valores de variables
 
+    private final ResourceLimits limits;  // Límites de anidamiento y de nodos
+    private int nesting;                  // Nivel de anidamiento actual del descenso recursivo
+    private int createdNodes;             // Nodos creados hasta el momento
+
+    private final Map<String, LocalBinding> locals = new HashMap<>(); // Variables locales definidas
+    private final Set<String> freeVariables = new HashSet<>();        // Variables libres usadas hasta ahora
+    private boolean defining;             // Se está leyendo la expresión asignada a una variable local
+    private int localReferences;          // Usos de variables locales creados hasta el momento
+
+    private final Subtree[] subtrees;     // Subárboles reutilizables por token inicial (o null)
+    @Getter
+    private int reusedSubtrees;           // Subárboles reutilizados en lugar de volver a analizarlos
+
     /**
      * Constructor del Parser.
      *
@@ -84,11 +123,43 @@ public class Parser {
      * las estructuras para almacenar el AST y los valores de variables.
      */
     public Parser(List<Token> tokens) {
+        this(tokens, ResourceLimits.unlimited());
+    }
+
+    /**
+     * Constructor del Parser con límites de recursos, para expresiones no confiables.
+     *
+     * @param tokens Lista de tokens generada por el Lexer
+     * @param limits Límites de anidamiento (maxDepth) y cantidad de nodos (maxNodes)
+     */
+    public Parser(List<Token> tokens, ResourceLimits limits) {
         this.tokens = tokens;
         this.currentTokenIndex = 0;
         this.currentToken = tokens.isEmpty() ? null : tokens.get(0);
         this.variableValues = new HashMap<>();
-        this.scanner = new Scanner(System.in);
+        this.limits = limits;
+        this.subtrees = null;
+    }
+
+    /**
+     * Constructor del Parser para el análisis incremental.
+     *
+     * Cada argumento de función y cada expresión entre paréntesis se guarda en subtrees, en
+     * la posición de su primer token. Si al llegar a esa posición ya hay un subárbol
+     * guardado, se reutiliza sin volver a analizar sus tokens; quien arma el arreglo debe
+     * garantizar que los tokens del subárbol y el que lo cierra no cambiaron.
+     *
+     * @param tokens Lista de tokens generada por el Lexer
+     * @param variableValues Valores de las variables, compartidos con los subárboles reutilizados
+     * @param subtrees Subárboles por token inicial, con una posición por token
+     */
+    public Parser(List<Token> tokens, Map<String, Double> variableValues, Subtree[] subtrees) {
+        this.tokens = tokens;
+        this.currentTokenIndex = 0;
+        this.currentToken = tokens.isEmpty() ? null : tokens.get(0);
+        this.variableValues = variableValues;
+        this.limits = ResourceLimits.unlimited();
+        this.subtrees = subtrees;
     }
 
     /**
@@ -99,6 +170,12 @@ public class Parser {
         this.tokens.clear();
         this.currentTokenIndex = 0;
         this.currentToken = null;
+        this.nesting = 0;
+        this.createdNodes = 0;
+        this.locals.clear();
+        this.freeVariables.clear();
+        this.defining = false;
+        this.localReferences = 0;
         astNode = null;
         // No cerramos el scanner para permitir múltiples expresiones
     }
@@ -108,16 +185,49 @@ public class Parser {
      * Construye el AST completo a partir de los tokens.
      *
      * @return Nodo raíz del AST
-     * @throws Exception Si hay errores sintácticos
+     * @throws SyntaxException Si hay errores sintácticos
+     *
+     * Verifica que todos los tokens sean consumidos (no queden tokens sin procesar).
+     * A diferencia de parse(), no solicita valores de variables ni evalúa, por lo que
+     * puede usarse de forma no interactiva (por ejemplo, desde el servidor HTTP).
      *
-     * Verifica que todos los tokens sean consumidos (no queden tokens sin procesar)
+     * Con las métricas activadas ({@link PipelineMetrics}) se registra la duración en la
+     * etapa PARSE y la cantidad de nodos y la altura del AST construido, y con una grabación
+     * de JFR activa, un {@link ParseEvent} si supera su umbral.
      */
-    private ASTNode parseToAST() throws Exception {
-        ASTNode root = A(); // Comenzar desde el símbolo inicial de la gramática
+    public ASTNode parseToAST() throws Exception {
+        PipelineMetrics metrics = PipelineMetrics.getDefault();
+        ParseEvent event = new ParseEvent();
+        if (!metrics.isEnabled() && !event.isEnabled()) {
+            return buildAST();
+        }
+        long start = System.nanoTime();
+        event.begin();
+        ASTNode root = null;
+        Throwable error = null;
+        try {
+            root = buildAST();
+            return root;
+        } catch (Throwable e) {
+            error = e;
+            throw e;
+        } finally {
+            if (metrics.isEnabled()) {
+                if (root != null) {
+                    metrics.recordTree(root);
+                }
+                metrics.record(Phase.PARSE, start, root == null);
+            }
+            event.finish(tokens, root, error);
+        }
+    }
+
+    private ASTNode buildAST() throws Exception {
+        ASTNode root = P(); // Comenzar desde el símbolo inicial de la gramática
 
         // Validar que no queden tokens sin procesar
         if (currentToken != null) {
-            throw new Exception(ExpectedMessage.unValidTokens());
+            throw new SyntaxException(ErrorCode.INVALID_TOKENS, ExpectedMessage.unValidTokens());
         }
 
         return root;
@@ -136,12 +246,29 @@ public class Parser {
      */
     public double parse() throws Exception {
         ASTNode ast = parseToAST();
+        PipelineMetrics metrics = PipelineMetrics.getDefault();
+        boolean measured = metrics.isEnabled();
 
         // Solicitar valores de variables antes de evaluar
+        long start = measured ? System.nanoTime() : 0;
         requestVariableValues(ast);
+        if (measured) {
+            metrics.record(Phase.BIND_VARIABLES, start, false);
+        }
         astNode = ast;
 
-        return ast.evaluate();
+        if (!measured) {
+            return ast.evaluate();
+        }
+        start = System.nanoTime();
+        boolean failed = true;
+        try {
+            double result = ast.evaluate();
+            failed = false;
+            return result;
+        } finally {
+            metrics.record(Phase.EVALUATE, start, failed);
+        }
     }
 
     /**
@@ -161,6 +288,10 @@ public class Parser {
 
             // Solo solicitar el valor si no lo tenemos aún
             if (!variableValues.containsKey(varName)) {
+                if (scanner == null) {
+                    // Se crea solo cuando realmente hay variables que solicitar
+                    scanner = new Scanner(System.in);
+                }
                 Message.askVariableName(varName);
                 double value = scanner.nextDouble();
                 variableValues.put(varName, value);
@@ -171,15 +302,77 @@ public class Parser {
             requestVariableValues(binOp.getLeft());
             requestVariableValues(binOp.getRight());
         } else if (node instanceof FunctionNode) {
-            // Caso recursivo: función -> revisar su argumento
+            // Caso recursivo: función -> revisar sus argumentos
             FunctionNode funcNode = (FunctionNode) node;
-            requestVariableValues(funcNode.getArgument());
+            for (ASTNode argument : funcNode.getArguments()) {
+                requestVariableValues(argument);
+            }
+        } else if (node instanceof LetNode) {
+            // Caso recursivo: definición local -> revisar la expresión asignada y el cuerpo
+            LetNode letNode = (LetNode) node;
+            requestVariableValues(letNode.getBinding().getValue());
+            requestVariableValues(letNode.getBody());
         }
-        // NumberNode no necesita procesamiento (no tiene variables)
+        // NumberNode y LocalVariableNode no necesitan procesamiento (sus valores no se piden)
     }
 
     // ========== MÉTODOS DE PARSING (Uno por cada no-terminal de la gramática) ==========
 
+    /**
+     * P -> Variable = A ; P | A
+     *
+     * Procesa las definiciones de variables locales y la expresión resultado.
+     * Las definiciones se leen en un lazo (no por recursión) y al final se anidan de
+     * derecha a izquierda: "u = ...; v = ...; r" -> Let(u, Let(v, r)).
+     *
+     * Errores:
+     * - Redefinir una variable local: "u = 1; u = 2; u"
+     * - Definir una variable que ya se usó como libre, incluida su propia definición:
+     *   "u = u + 1; u" o "v = x; x = 2; v"
+     * - Terminar el programa sin expresión resultado: "u = 1;"
+     *
+     * @return Nodo raíz del programa
+     */
+    private ASTNode P() throws Exception {
+        List<LocalBinding> definitions = new ArrayList<>();
+        while (isDefinition()) {
+            String name = currentToken.getLexeme();
+            if (locals.containsKey(name)) {
+                throw new SyntaxException(ErrorCode.REASSIGNED_VARIABLE, ExpectedMessage.reassignedVariable(name));
+            }
+            match(TokenType.VARIABLE);
+            match(TokenType.ASSIGN);
+            defining = true;
+            ASTNode value = A();
+            defining = false;
+            match(TokenType.SEMICOLON);
+            if (freeVariables.contains(name)) {
+                throw new SyntaxException(ErrorCode.USED_BEFORE_DEFINITION, ExpectedMessage.usedBeforeDefinition(name));
+            }
+            LocalBinding binding = new LocalBinding(name, definitions.size(), value);
+            locals.put(name, binding);
+            definitions.add(binding);
+        }
+        if (!definitions.isEmpty() && currentToken == null) {
+            throw new SyntaxException(ErrorCode.MISSING_RESULT, ExpectedMessage.missingResult());
+        }
+
+        ASTNode result = A();
+        for (int i = definitions.size() - 1; i >= 0; i--) {
+            result = track(new LetNode(definitions.get(i), result));
+        }
+        return result;
+    }
+
+    /**
+     * Una definición empieza con una variable seguida de '='.
+     */
+    private boolean isDefinition() {
+        return currentToken != null && currentToken.getTokenType() == TokenType.VARIABLE
+                && currentTokenIndex + 1 < tokens.size()
+                && tokens.get(currentTokenIndex + 1).getTokenType() == TokenType.ASSIGN;
+    }
+
     /**
      * A -> B A'
      *
@@ -189,8 +382,11 @@ public class Parser {
      * @return Nodo del AST que representa la expresión
      */
     private ASTNode A() throws Exception {
+        enterNesting(); // Cada paréntesis o argumento de función vuelve a entrar por A
         ASTNode left = B();
-        return A_prime(left);
+        ASTNode result = A_prime(left);
+        exitNesting();
+        return result;
     }
 
     /**
@@ -215,13 +411,13 @@ public class Parser {
             match(TokenType.PLUS);
             ASTNode right = B();
             // Crear nodo de suma y continuar procesando
-            ASTNode node = new BinaryOperationNode("+", inherited, right);
+            ASTNode node = track(new BinaryOperationNode("+", inherited, right));
             return A_prime(node);
         } else if (currentToken.getTokenType() == TokenType.MINUS) {
             match(TokenType.MINUS);
             ASTNode right = B();
             // Crear nodo de resta y continuar procesando
-            ASTNode node = new BinaryOperationNode("-", inherited, right);
+            ASTNode node = track(new BinaryOperationNode("-", inherited, right));
             return A_prime(node);
         }
 
@@ -253,12 +449,12 @@ public class Parser {
         if (currentToken.getTokenType() == TokenType.MULTIPLY) {
             match(TokenType.MULTIPLY);
             ASTNode right = C();
-            ASTNode node = new BinaryOperationNode("*", inherited, right);
+            ASTNode node = track(new BinaryOperationNode("*", inherited, right));
             return B_prime(node);
         } else if (currentToken.getTokenType() == TokenType.DIVIDE) {
             match(TokenType.DIVIDE);
             ASTNode right = C();
-            ASTNode node = new BinaryOperationNode("/", inherited, right);
+            ASTNode node = track(new BinaryOperationNode("/", inherited, right));
             return B_prime(node);
         }
 
@@ -294,11 +490,13 @@ public class Parser {
 
         if (currentToken.getTokenType() == TokenType.POWER) {
             match(TokenType.POWER);
+            enterNesting(); // Las torres de potencias recursan por la derecha
             ASTNode right = U();
             // CLAVE: Procesar recursivamente el lado derecho primero
             right = C_prime(right);
+            exitNesting();
             // Ahora crear el nodo con el subárbol derecho completo
-            return new BinaryOperationNode("^", inherited, right);
+            return track(new BinaryOperationNode("^", inherited, right));
         }
 
         return inherited;
@@ -317,15 +515,17 @@ public class Parser {
      */
     private ASTNode U() throws Exception {
         if (currentToken == null) {
-            throw new Exception("Expresión incompleta");
+            throw new SyntaxException(ErrorCode.INCOMPLETE_EXPRESSION, ExpectedMessage.incompleteExpression());
         }
 
         // Caso: Negación unaria -> -U
         if (currentToken.getTokenType() == TokenType.MINUS) {
             match(TokenType.MINUS);
+            enterNesting();
             ASTNode operand = U(); // Recursivamente procesar lo que sigue al '-'
+            exitNesting();
             // Crear un nodo especial que representa: 0 - operand
-            return new BinaryOperationNode("-", new NumberNode(0), operand);
+            return track(new BinaryOperationNode("-", track(new NumberNode(0)), operand));
         }
 
         // Caso: No hay negación, procesar factor
@@ -333,10 +533,12 @@ public class Parser {
     }
 
     /**
-     * F -> Función(A) | (A) | Digito | Variable
+     * F -> Función(A L) | (A) | Digito | Variable
+     * L -> , A L | λ
      *
      * Procesa los elementos atómicos de la expresión:
-     * - Funciones trigonométricas con sus argumentos
+     * - Llamadas a funciones con sus argumentos (la función ya viene enlazada en el token;
+     *   aquí se verifica que la cantidad de argumentos coincida con su aridad)
      * - Expresiones entre paréntesis
      * - Números
      * - Variables
@@ -347,26 +549,33 @@ public class Parser {
      */
     private ASTNode F() throws Exception {
         if (currentToken == null) {
-            throw new Exception("Expresión incompleta");
+            throw new SyntaxException(ErrorCode.INCOMPLETE_EXPRESSION, ExpectedMessage.incompleteExpression());
         }
 
-        // Caso 1: Función trigonométrica -> Función(A)
-        if (currentToken.getTokenType() == TokenType.SIN ||
-                currentToken.getTokenType() == TokenType.COS ||
-                currentToken.getTokenType() == TokenType.TAN) {
-
-            String functionName = currentToken.getLexeme();
-            match(currentToken.getTokenType());
+        // Caso 1: Llamada a función -> Función(A L)
+        if (currentToken.getTokenType() == TokenType.FUNCTION) {
+            Token functionToken = currentToken;
+            match(TokenType.FUNCTION);
             match(TokenType.LPARENT);
-            ASTNode argument = A();
+            List<ASTNode> arguments = new ArrayList<>();
+            arguments.add(argument());
+            while (currentToken != null && currentToken.getTokenType() == TokenType.COMMA) {
+                match(TokenType.COMMA);
+                arguments.add(argument());
+            }
             match(TokenType.RPARENT);
 
-            return new FunctionNode(functionName, argument);
+            FunctionDefinition function = functionToken.getFunction();
+            if (arguments.size() != function.getArity()) {
+                throw new SyntaxException(ErrorCode.WRONG_ARGUMENT_COUNT, ExpectedMessage.wrongArgumentCount(
+                        functionToken.getLexeme(), function.getArity(), arguments.size()));
+            }
+            return track(new FunctionNode(functionToken.getLexeme(), function, arguments));
         }
         // Caso 2: Expresión entre paréntesis -> (A)
         else if (currentToken.getTokenType() == TokenType.LPARENT) {
             match(TokenType.LPARENT);
-            ASTNode node = A();
+            ASTNode node = argument();
             match(TokenType.RPARENT);
             return node;
         }
@@ -374,37 +583,128 @@ public class Parser {
         else if (currentToken.getTokenType() == TokenType.DIGIT) {
             double value = currentToken.getValue();
             match(TokenType.DIGIT);
-            return new NumberNode(value);
+            return track(new NumberNode(value));
         }
-        // Caso 4: Variable simbólica -> Letra
+        // Caso 4: Variable local o simbólica -> Letra
         else if (currentToken.getTokenType() == TokenType.VARIABLE) {
             String varName = currentToken.getLexeme();
             match(TokenType.VARIABLE);
-            return new VariableNode(varName, variableValues);
+            LocalBinding binding = locals.get(varName);
+            if (binding != null) {
+                localReferences++;
+                return track(new LocalVariableNode(binding));
+            }
+            freeVariables.add(varName);
+            return track(new VariableNode(varName, variableValues));
         }
         // Token no esperado
         else {
-            throw new Exception(ExpectedMessage.unExpectedToken(currentToken.getLexeme()));
+            throw new SyntaxException(ErrorCode.UNEXPECTED_TOKEN,
+                    ExpectedMessage.unExpectedToken(currentToken.getLexeme()));
+        }
+    }
+
+    /**
+     * A dentro de paréntesis o como argumento de función.
+     *
+     * En el análisis incremental primero busca un subárbol ya construido que empiece en el
+     * token actual y, si puede usarse en este lugar, salta sus tokens; si no, analiza con A y
+     * guarda el resultado para el próximo análisis.
+     */
+    private ASTNode argument() throws Exception {
+        if (subtrees == null) {
+            return A();
+        }
+        int start = currentTokenIndex;
+        Subtree subtree = start < subtrees.length ? subtrees[start] : null;
+        if (subtree != null && canReuse(subtree)) {
+            currentTokenIndex = start + subtree.getLength() - 1;
+            advance();
+            createdNodes += subtree.getNode().getNodeCount();
+            reusedSubtrees++;
+            return subtree.getNode();
+        }
+        int references = localReferences;
+        ASTNode node = A();
+        subtrees[start] = new Subtree(currentTokenIndex - start, node, localReferences != references);
+        return node;
+    }
+
+    /**
+     * Un subárbol guardado puede usarse si no referencia variables locales (sus enlaces son
+     * de otro análisis) y ninguna de sus variables libres es local en este punto. Dentro de
+     * una definición, sus variables libres se registran como si se hubieran analizado, para
+     * detectar igual las variables usadas antes de definirse.
+     */
+    private boolean canReuse(Subtree subtree) {
+        if (subtree.isBound()) {
+            return false;
+        }
+        if (locals.isEmpty() && !defining) {
+            return true;
+        }
+        for (String name : subtree.getVariables()) {
+            if (locals.containsKey(name)) {
+                return false;
+            }
+        }
+        if (defining) {
+            Collections.addAll(freeVariables, subtree.getVariables());
+        }
+        return true;
+    }
+
+    // ========== CONTROL DE LÍMITES ==========
+
+    /**
+     * Registra la entrada a un nivel más de recursión y verifica el límite de anidamiento.
+     * Se comprueba antes de descender, de modo que una entrada patológica se rechaza
+     * sin llegar a agotar la pila.
+     */
+    private void enterNesting() throws LimitExceededException {
+        if (++nesting > limits.getMaxDepth()) {
+            throw new LimitExceededException("maxDepth", limits.getMaxDepth());
+        }
+    }
+
+    private void exitNesting() {
+        nesting--;
+    }
+
+    /**
+     * Contabiliza un nodo recién creado y verifica los límites de nodos y de altura del AST.
+     * La altura importa porque la evaluación del árbol también es recursiva.
+     *
+     * @param node Nodo recién creado
+     * @return El mismo nodo, para poder usarlo en línea
+     */
+    private ASTNode track(ASTNode node) throws LimitExceededException {
+        if (++createdNodes > limits.getMaxNodes()) {
+            throw new LimitExceededException("maxNodes", limits.getMaxNodes());
+        }
+        if (node.getDepth() > limits.getMaxDepth()) {
+            throw new LimitExceededException("maxDepth", limits.getMaxDepth());
         }
+        return node;
     }
 
     /**
      * Verifica que el token actual sea del tipo esperado y avanza al siguiente.
      *
      * @param expectedType Tipo de token que se espera encontrar
-     * @throws Exception Si el token actual no coincide con el esperado
+     * @throws SyntaxException Si el token actual no coincide con el esperado
      *
      * Este metodo es fundamental para el análisis sintáctico predictivo.
      * Valida que la secuencia de tokens siga las reglas de la gramática.
      */
     private void match(TokenType expectedType) throws Exception {
         if (currentToken == null) {
-            throw new Exception(ExpectedMessage.expectedTokenTypeButFound(
+            throw new SyntaxException(ErrorCode.EXPECTED_TOKEN, ExpectedMessage.expectedTokenTypeButFound(
                     expectedType, "el final de la expresión"));
         }
 
         if (currentToken.getTokenType() != expectedType) {
-            throw new Exception(ExpectedMessage.expectedTokenTypeButFound(
+            throw new SyntaxException(ErrorCode.EXPECTED_TOKEN, ExpectedMessage.expectedTokenTypeButFound(
                     expectedType, currentToken.getTokenType().toString()));
         }
 
@@ -1,5 +1,6 @@
 package domine;
 
+import domine.functions.FunctionDefinition;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -13,4 +14,5 @@ public class Token {
     String lexeme;
     TokenType tokenType;
     Double value;
+    FunctionDefinition function; // Función enlazada (solo en tokens FUNCTION)
 }
@@ -1,8 +1,8 @@
 package domine;
 
 public enum TokenType {
-    //Funciones
-    SIN, COS, TAN,
+    //Funciones (nombres del FunctionRegistry)
+    FUNCTION,
 
     //Operadores
     PLUS, MINUS, MULTIPLY, DIVIDE, POWER,
@@ -10,6 +10,12 @@ public enum TokenType {
     //Parentesis
     RPARENT, LPARENT,
 
+    //Separador de argumentos
+    COMMA,
+
+    //Definición de variables locales: nombre = expresión ;
+    ASSIGN, SEMICOLON,
+
     //Digitos
     DIGIT,
 
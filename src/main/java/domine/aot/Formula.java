@@ -0,0 +1,63 @@
+package domine.aot;
+
+import resources.message.ExpectedMessage;
+
+import java.util.Map;
+
+/**
+ * Fórmula lista para evaluarse: una clase generada en tiempo de compilación por
+ * {@link FormulaProcessor} o, si no hay una para la expresión, la expresión compilada en
+ * tiempo de ejecución que devuelve {@link FormulaCatalog}.
+ *
+ * Las variables se numeran como en {@link domine.compiler.CompiledExpression} (en el orden
+ * en que aparecen por primera vez), así que un mismo arreglo de valores sirve para ambas.
+ * Las implementaciones no guardan estado y pueden compartirse entre hilos.
+ */
+public interface Formula {
+
+    /**
+     * Nombre de la fórmula en su biblioteca, o null si se compiló en tiempo de ejecución.
+     */
+    String getName();
+
+    /**
+     * Texto original de la expresión.
+     */
+    String getSource();
+
+    /**
+     * Variables de la expresión: values[i] corresponde a getVariables()[i].
+     */
+    String[] getVariables();
+
+    /**
+     * @param values Valores de las variables en el orden de getVariables()
+     * @throws Exception Si se produce una división por cero
+     */
+    double evaluate(double[] values) throws Exception;
+
+    /**
+     * Indica si la fórmula se generó en tiempo de compilación.
+     */
+    default boolean isPrecompiled() {
+        return true;
+    }
+
+    /**
+     * Evalúa la fórmula tomando los valores de las variables de un mapa.
+     *
+     * @throws Exception Si falta alguna variable o se produce una división por cero
+     */
+    default double evaluate(Map<String, Double> bindings) throws Exception {
+        String[] variables = getVariables();
+        double[] values = new double[variables.length];
+        for (int i = 0; i < variables.length; i++) {
+            Double value = bindings.get(variables[i]);
+            if (value == null) {
+                throw new Exception(ExpectedMessage.unDefinedVariable(variables[i]));
+            }
+            values[i] = value;
+        }
+        return evaluate(values);
+    }
+}
@@ -0,0 +1,98 @@
+package domine.aot;
+
+import domine.compiler.ExpressionCache;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+/**
+ * Punto de acceso a las fórmulas: devuelve la clase generada en tiempo de compilación
+ * cuando hay una para la expresión y, si no, la expresión analizada y compilada en tiempo
+ * de ejecución (con una {@link ExpressionCache}, así que solo se analiza una vez).
+ *
+ * Las fórmulas precompiladas se buscan por texto sin tener en cuenta los espacios
+ * ("x^2 + 1" y "x^2+1" son la misma) o por su nombre en la biblioteca. Se descubren con
+ * ServiceLoader a partir de META-INF/services/domine.aot.Formula, que genera
+ * {@link FormulaProcessor}: basta con tener el jar de la biblioteca en el classpath.
+ *
+ * Ejemplo:
+ *   Formula formula = FormulaCatalog.getDefault().lookup("0.5 * m * v^2");
+ *   double energia = formula.evaluate(Map.of("m", 2.0, "v", 3.0));
+ */
+public final class FormulaCatalog {
+    private static final int RUNTIME_CAPACITY = 4096;
+    private static volatile FormulaCatalog defaultCatalog;
+
+    private final Map<String, Formula> bySource = new LinkedHashMap<>(); // Texto sin espacios -> fórmula
+    private final Map<String, Formula> byName = new LinkedHashMap<>();
+    private final ExpressionCache runtime;
+
+    /**
+     * @param precompiled Fórmulas generadas en tiempo de compilación
+     * @param runtime Caché para las expresiones que no tienen clase generada
+     */
+    public FormulaCatalog(Iterable<? extends Formula> precompiled, ExpressionCache runtime) {
+        for (Formula formula : precompiled) {
+            bySource.putIfAbsent(normalize(formula.getSource()), formula);
+            if (formula.getName() != null) {
+                byName.putIfAbsent(formula.getName(), formula);
+            }
+        }
+        this.runtime = runtime;
+    }
+
+    /**
+     * Catálogo con las fórmulas precompiladas del classpath, creado la primera vez que se pide.
+     */
+    public static FormulaCatalog getDefault() {
+        FormulaCatalog catalog = defaultCatalog;
+        if (catalog == null) {
+            synchronized (FormulaCatalog.class) {
+                catalog = defaultCatalog;
+                if (catalog == null) {
+                    catalog = new FormulaCatalog(ServiceLoader.load(Formula.class), new ExpressionCache(RUNTIME_CAPACITY));
+                    defaultCatalog = catalog;
+                }
+            }
+        }
+        return catalog;
+    }
+
+    /**
+     * Fórmula para la expresión: la precompilada si existe, o la compilada en tiempo de ejecución.
+     *
+     * @throws Exception Si no hay fórmula precompilada y la expresión tiene errores
+     */
+    public Formula lookup(String source) throws Exception {
+        Formula formula = bySource.get(normalize(source));
+        return formula != null ? formula : new RuntimeFormula(runtime.get(source));
+    }
+
+    /**
+     * Fórmula precompilada con ese nombre, o null si no hay ninguna.
+     */
+    public Formula get(String name) {
+        return byName.get(name);
+    }
+
+    /**
+     * Fórmulas precompiladas disponibles.
+     */
+    public Collection<Formula> getPrecompiled() {
+        return Collections.unmodifiableCollection(bySource.values());
+    }
+
+    private static String normalize(String source) {
+        StringBuilder sb = new StringBuilder(source.length());
+        for (int i = 0; i < source.length(); i++) {
+            char c = source.charAt(i);
+            if (!Character.isWhitespace(c)) {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,27 @@
+package domine.aot;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marca una clase como punto de entrada de una biblioteca de fórmulas: al compilar, el
+ * {@link FormulaProcessor} lee el archivo de recursos indicado (formato .properties,
+ * "nombre = expresión") y genera en el paquete de la clase una implementación de
+ * {@link Formula} por cada línea.
+ *
+ * Ejemplo:
+ *   @FormulaLibrary("formulas/cinematica.properties")
+ *   public final class Cinematica {
+ *   }
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface FormulaLibrary {
+
+    /**
+     * Ruta del archivo de definiciones dentro de los recursos (src/main/resources).
+     */
+    String value();
+}
@@ -0,0 +1,139 @@
+package domine.aot;
+
+import domine.Lexer;
+import domine.Parser;
+import domine.ast.ASTNode;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.TreeSet;
+
+/**
+ * Procesador de anotaciones que compila las bibliotecas de fórmulas durante la compilación
+ * del proyecto que las contiene (ver {@link FormulaLibrary}).
+ *
+ * Por cada clase anotada lee el archivo de definiciones de los recursos ya copiados a la
+ * salida de la compilación (Maven los copia en process-resources, antes de compile), pasa
+ * cada expresión por Lexer y Parser y escribe una clase con {@link JavaSourceGenerator}; el
+ * compilador compila esas clases en la ronda siguiente. Al terminar registra todas las
+ * clases generadas en META-INF/services/domine.aot.Formula para que {@link FormulaCatalog}
+ * las encuentre con ServiceLoader.
+ *
+ * El nombre de cada clase sale del nombre de la fórmula: "energia.cinetica" -> EnergiaCinetica.
+ * Una expresión con errores detiene la compilación con el mensaje del analizador, igual que
+ * un error de sintaxis en el código Java.
+ *
+ * No se registra como servicio de javax.annotation.processing.Processor (se activaría en
+ * cualquier proyecto que dependa de este); el proyecto de fórmulas lo declara en la
+ * configuración de maven-compiler-plugin:
+ *   <annotationProcessors>
+ *     <annotationProcessor>domine.aot.FormulaProcessor</annotationProcessor>
+ *   </annotationProcessors>
+ */
+@SupportedAnnotationTypes("domine.aot.FormulaLibrary")
+public class FormulaProcessor extends AbstractProcessor {
+    static final String SERVICE = "META-INF/services/" + Formula.class.getName();
+
+    private final List<String> generated = new ArrayList<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(java.util.Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getElementsAnnotatedWith(FormulaLibrary.class)) {
+            FormulaLibrary library = element.getAnnotation(FormulaLibrary.class);
+            String packageName = processingEnv.getElementUtils().getPackageOf(element).getQualifiedName().toString();
+            Properties definitions = new Properties();
+            try (Reader reader = processingEnv.getFiler()
+                    .getResource(StandardLocation.CLASS_OUTPUT, "", library.value()).openReader(true)) {
+                definitions.load(reader);
+            } catch (IOException e) {
+                error(element, library.value() + ": " + e.getMessage());
+                continue;
+            }
+            for (String name : new TreeSet<>(definitions.stringPropertyNames())) {
+                generate(element, packageName, name, definitions.getProperty(name).trim());
+            }
+        }
+        if (roundEnv.processingOver() && !generated.isEmpty()) {
+            writeServices(processingEnv.getFiler());
+        }
+        return true;
+    }
+
+    private void generate(Element element, String packageName, String name, String source) {
+        String className = className(name);
+        if (className.isEmpty() || !SourceVersion.isName(className)) {
+            error(element, "\"" + name + "\": el nombre no produce un nombre de clase válido");
+            return;
+        }
+        ASTNode ast;
+        try {
+            ast = new Parser(new Lexer(source).tokenize()).parseToAST();
+        } catch (Exception e) {
+            error(element, "\"" + name + "\": " + e.getMessage());
+            return;
+        }
+        String qualifiedName = packageName.isEmpty() ? className : packageName + "." + className;
+        try (Writer writer = processingEnv.getFiler().createSourceFile(qualifiedName, element).openWriter()) {
+            writer.write(JavaSourceGenerator.generate(packageName, className, name, source, ast));
+        } catch (IOException e) {
+            error(element, qualifiedName + ": " + e.getMessage());
+            return;
+        }
+        generated.add(qualifiedName);
+    }
+
+    private void writeServices(Filer filer) {
+        try {
+            FileObject file = filer.createResource(StandardLocation.CLASS_OUTPUT, "", SERVICE);
+            try (Writer writer = file.openWriter()) {
+                for (String qualifiedName : generated) {
+                    writer.write(qualifiedName);
+                    writer.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, SERVICE + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * "energia.cinetica", "energia_cinetica" o "energiaCinetica" -> "EnergiaCinetica".
+     */
+    static String className(String name) {
+        StringBuilder sb = new StringBuilder();
+        boolean upper = true;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (!Character.isLetterOrDigit(c)) {
+                upper = true;
+            } else {
+                sb.append(upper ? Character.toUpperCase(c) : c);
+                upper = false;
+            }
+        }
+        return sb.toString();
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
@@ -0,0 +1,221 @@
+package domine.aot;
+
+import domine.ast.*;
+import domine.functions.FunctionDefinition;
+import domine.functions.FunctionRegistry;
+import domine.functions.StandardFunctions;
+import resources.message.ExpectedMessage;
+
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Traduce un AST a una clase Java que implementa {@link Formula} con código de línea recta:
+ * una variable local double por operación, sin pila, sin recorrido del árbol y sin
+ * decodificar instrucciones. El JIT la compila como cualquier método con aritmética.
+ *
+ * Traducción de cada nodo:
+ * - NumberNode          -> literal double (exacto: Double.toString se lee de vuelta igual)
+ * - VariableNode        -> vN, leída una vez de values[N] al principio del método
+ * - BinaryOperationNode -> tK = a op b; Math.pow para ^; la división comprueba el divisor
+ *                          y lanza ExpectedMessage.dividedByZero() como el evaluador
+ * - FunctionNode        -> Math.sin, Math.atan2, ... para las funciones predefinidas; las
+ *                          demás se buscan por nombre en el FunctionRegistry compartido al
+ *                          cargar la clase y se invocan con FunctionDefinition.invoke
+ * - LetNode             -> lK = valor, calculada una vez antes del cuerpo
+ * - LocalVariableNode   -> lK
+ *
+ * Los resultados son idénticos bit a bit a los de CompiledExpression.evaluate con
+ * TrigAccuracy.EXACT.
+ */
+public final class JavaSourceGenerator {
+    private static final Map<FunctionDefinition, String> MATH = new IdentityHashMap<>();
+
+    static {
+        MATH.put(StandardFunctions.SIN, "Math.sin");
+        MATH.put(StandardFunctions.COS, "Math.cos");
+        MATH.put(StandardFunctions.TAN, "Math.tan");
+        MATH.put(StandardFunctions.ASIN, "Math.asin");
+        MATH.put(StandardFunctions.ACOS, "Math.acos");
+        MATH.put(StandardFunctions.ATAN, "Math.atan");
+        MATH.put(StandardFunctions.ATAN2, "Math.atan2");
+        MATH.put(StandardFunctions.SQRT, "Math.sqrt");
+        MATH.put(StandardFunctions.EXP, "Math.exp");
+        MATH.put(StandardFunctions.LOG, "Math.log");
+        MATH.put(StandardFunctions.ABS, "Math.abs");
+    }
+
+    private final StringBuilder body = new StringBuilder();
+    private final Map<String, Integer> variableIndex = new LinkedHashMap<>();
+    private final Map<String, FunctionDefinition> registered = new LinkedHashMap<>(); // Campo -> función del registro
+    private final Map<LocalBinding, String> locals = new IdentityHashMap<>();
+    private int temporaries;
+
+    private JavaSourceGenerator() {
+    }
+
+    /**
+     * Genera el código fuente de la clase.
+     *
+     * @param packageName Paquete de la clase ("" para el paquete por defecto)
+     * @param className Nombre simple de la clase
+     * @param name Nombre de la fórmula (lo devuelve getName())
+     * @param source Texto original de la expresión
+     * @param root AST de la expresión
+     * @return Código fuente Java
+     */
+    public static String generate(String packageName, String className, String name, String source, ASTNode root) {
+        JavaSourceGenerator generator = new JavaSourceGenerator();
+        String result = generator.emit(root);
+
+        StringBuilder sb = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            sb.append("package ").append(packageName).append(";\n\n");
+        }
+        sb.append("/**\n");
+        sb.append(" * Fórmula \"").append(name).append("\" compilada en tiempo de compilación por FormulaProcessor.\n");
+        sb.append(" * No editar: se genera de nuevo en cada compilación.\n");
+        sb.append(" */\n");
+        sb.append("public final class ").append(className).append(" implements domine.aot.Formula {\n");
+        sb.append("    private static final String[] VARIABLES = {");
+        int i = 0;
+        for (String variable : generator.variableIndex.keySet()) {
+            sb.append(i++ > 0 ? ", " : "").append(quote(variable));
+        }
+        sb.append("};\n");
+        for (Map.Entry<String, FunctionDefinition> function : generator.registered.entrySet()) {
+            sb.append("    private static final domine.functions.FunctionDefinition ").append(function.getKey())
+                    .append(" = domine.aot.JavaSourceGenerator.function(").append(quote(function.getValue().getName()))
+                    .append(", ").append(function.getValue().getArity()).append(");\n");
+        }
+        sb.append('\n');
+        sb.append("    @Override\n    public String getName() {\n        return ").append(quote(name)).append(";\n    }\n\n");
+        sb.append("    @Override\n    public String getSource() {\n        return ").append(quote(source)).append(";\n    }\n\n");
+        sb.append("    @Override\n    public String[] getVariables() {\n        return VARIABLES.clone();\n    }\n\n");
+        sb.append("    @Override\n    public double evaluate(double[] values) throws Exception {\n");
+        for (Map.Entry<String, Integer> variable : generator.variableIndex.entrySet()) {
+            sb.append("        double v").append(variable.getValue()).append(" = values[").append(variable.getValue())
+                    .append("]; // ").append(variable.getKey()).append('\n');
+        }
+        sb.append(generator.body);
+        sb.append("        return ").append(result).append(";\n");
+        sb.append("    }\n");
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    /**
+     * Función del registro compartido para las clases generadas que llaman a funciones propias.
+     *
+     * @throws IllegalStateException Si la función no está registrada (o con otra aridad) al cargar la clase
+     */
+    public static FunctionDefinition function(String name, int arity) {
+        FunctionDefinition function = FunctionRegistry.getDefault().lookup(name);
+        if (function == null) {
+            throw new IllegalStateException(ExpectedMessage.unknownFunction(name));
+        }
+        if (function.getArity() != arity) {
+            throw new IllegalStateException(ExpectedMessage.wrongArgumentCount(name, arity, function.getArity()));
+        }
+        return function;
+    }
+
+    /**
+     * Emite el código que calcula el nodo y devuelve una expresión atómica con su valor
+     * (literal, variable o temporal).
+     */
+    private String emit(ASTNode node) {
+        if (node instanceof NumberNode) {
+            return literal(((NumberNode) node).getValue());
+        } else if (node instanceof VariableNode) {
+            String name = ((VariableNode) node).getName();
+            return "v" + variableIndex.computeIfAbsent(name, n -> variableIndex.size());
+        } else if (node instanceof BinaryOperationNode) {
+            BinaryOperationNode binOp = (BinaryOperationNode) node;
+            String left = emit(binOp.getLeft());
+            String right = emit(binOp.getRight());
+            String operator = binOp.getOperator();
+            if (operator.equals("/") && !(binOp.getRight() instanceof NumberNode
+                    && !NumberNode.isConstant(binOp.getRight(), 0))) {
+                body.append("        if (").append(right).append(" == 0) {\n")
+                        .append("            throw new Exception(resources.message.ExpectedMessage.dividedByZero());\n")
+                        .append("        }\n");
+            }
+            return temporary(operator.equals("^") ? "Math.pow(" + left + ", " + right + ")"
+                    : left + " " + operator + " " + right);
+        } else if (node instanceof FunctionNode) {
+            FunctionNode funcNode = (FunctionNode) node;
+            StringBuilder arguments = new StringBuilder();
+            for (ASTNode argument : funcNode.getArguments()) {
+                arguments.append(arguments.length() > 0 ? ", " : "").append(emit(argument));
+            }
+            FunctionDefinition function = funcNode.getFunction();
+            String math = MATH.get(function);
+            if (math != null) {
+                return temporary(math + "(" + arguments + ")");
+            }
+            String field = "F" + registered.size();
+            for (Map.Entry<String, FunctionDefinition> entry : registered.entrySet()) {
+                if (entry.getValue() == function) {
+                    field = entry.getKey();
+                }
+            }
+            registered.put(field, function);
+            boolean direct = function.getArity() == 1 || function.getArity() == 2;
+            return temporary(direct ? field + ".invoke(" + arguments + ")"
+                    : field + ".invoke(new double[]{" + arguments + "})");
+        } else if (node instanceof LetNode) {
+            LetNode letNode = (LetNode) node;
+            LocalBinding binding = letNode.getBinding();
+            String value = emit(binding.getValue());
+            String local = "l" + locals.size();
+            body.append("        double ").append(local).append(" = ").append(value)
+                    .append("; // ").append(binding.getName()).append('\n');
+            locals.put(binding, local);
+            return emit(letNode.getBody());
+        } else if (node instanceof LocalVariableNode) {
+            LocalBinding binding = ((LocalVariableNode) node).getBinding();
+            String local = locals.get(binding);
+            if (local == null) {
+                throw new IllegalArgumentException(ExpectedMessage.usedBeforeDefinition(binding.getName()));
+            }
+            return local;
+        }
+        throw new IllegalArgumentException(ExpectedMessage.unExpectedToken(String.valueOf(node)));
+    }
+
+    private String temporary(String expression) {
+        String name = "t" + temporaries++;
+        body.append("        double ").append(name).append(" = ").append(expression).append(";\n");
+        return name;
+    }
+
+    private static String literal(double value) {
+        if (Double.isNaN(value)) {
+            return "Double.NaN";
+        } else if (Double.isInfinite(value)) {
+            return value > 0 ? "Double.POSITIVE_INFINITY" : "Double.NEGATIVE_INFINITY";
+        }
+        String text = Double.toString(value);
+        return value < 0 || text.startsWith("-") ? "(" + text + ")" : text;
+    }
+
+    /**
+     * Literal de cadena de Java (los caracteres fuera de ASCII como escapes \\uXXXX).
+     */
+    private static String quote(String text) {
+        StringBuilder sb = new StringBuilder("\"");
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20 || c > 0x7E) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
@@ -0,0 +1,44 @@
+package domine.aot;
+
+import domine.compiler.CompiledExpression;
+
+/**
+ * Fórmula sin clase generada: delega en la expresión compilada en tiempo de ejecución.
+ */
+final class RuntimeFormula implements Formula {
+    private final CompiledExpression compiled;
+
+    RuntimeFormula(CompiledExpression compiled) {
+        this.compiled = compiled;
+    }
+
+    @Override
+    public String getName() {
+        return null;
+    }
+
+    @Override
+    public String getSource() {
+        return compiled.getSource();
+    }
+
+    @Override
+    public String[] getVariables() {
+        return compiled.getVariables().clone();
+    }
+
+    @Override
+    public double evaluate(double[] values) throws Exception {
+        return compiled.evaluate(values);
+    }
+
+    @Override
+    public boolean isPrecompiled() {
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return compiled.getSource();
+    }
+}
@@ -1,9 +1,24 @@
 package domine.ast;
 
+import domine.render.TreeRenderer;
+import lombok.Getter;
+
 /**
  * Clase abstracta base para todos los nodos del AST
  */
+@Getter
 public abstract class ASTNode {
+    private final int depth;      // Altura del subárbol (una hoja tiene altura 1)
+    private final int nodeCount;  // Cantidad de nodos del subárbol, incluido este
+
+    /**
+     * Como los nodos se construyen de abajo hacia arriba, la altura y el tamaño
+     * se calculan en O(1) a partir de los hijos, sin recorrer el árbol.
+     */
+    protected ASTNode(int depth, int nodeCount) {
+        this.depth = depth;
+        this.nodeCount = nodeCount;
+    }
     /**
      * Metodo abstracto para evaluar el nodo
      * @return El valor numérico del nodo
@@ -11,11 +26,16 @@ public abstract class ASTNode {
     public abstract double evaluate() throws Exception;
 
     /**
-     * Metodo abstracto para representar el árbol en formato texto
+     * Metodo para representar el árbol en formato texto
      * @param indent Nivel de indentación
      * @return Representación en texto del árbol
+     *
+     * Para árboles grandes conviene escribirlo directamente en un Writer con
+     * {@link TreeRenderer}, que además admite límites de tamaño y profundidad.
      */
-    public abstract String toTreeString(String indent);
+    public String toTreeString(String indent) {
+        return new TreeRenderer().render(this, indent);
+    }
 
     @Override
     public String toString() {
@@ -13,6 +13,7 @@ public class BinaryOperationNode extends ASTNode {
     private final ASTNode right;
 
     public BinaryOperationNode(String operator, ASTNode left, ASTNode right) {
+        super(1 + Math.max(left.getDepth(), right.getDepth()), 1 + left.getNodeCount() + right.getNodeCount());
         this.operator = operator;
         this.left = left;
         this.right = right;
@@ -37,13 +38,4 @@ public class BinaryOperationNode extends ASTNode {
             default -> throw new Exception(ExpectedMessage.unknownOperator(operator));
         };
     }
-
-    @Override
-    public String toTreeString(String indent) {
-        StringBuilder sb = new StringBuilder();
-        sb.append(indent).append("BinaryOp(").append(operator).append(")\n");
-        sb.append(left.toTreeString(indent + "  ├─ ")).append("\n");
-        sb.append(right.toTreeString(indent + "  └─ "));
-        return sb.toString();
-    }
 }
@@ -0,0 +1,125 @@
+package domine.ast;
+
+import lombok.Getter;
+
+/**
+ * Memoria de resultados recientes para un punto de llamada de función ({@link FunctionNode}).
+ *
+ * Es una caché de correspondencia directa: el patrón de bits del argumento elige una de
+ * SIZE entradas, que guarda el último argumento y resultado que cayó en ella. Cuando el
+ * argumento se repite en filas consecutivas (por ejemplo, sin(y) mientras solo cambia x)
+ * se evita recalcular la función.
+ *
+ * La memoria se vigila a sí misma por ventanas de WINDOW consultas: si en una ventana la
+ * tasa de aciertos queda por debajo de MIN_HIT_RATIO, se desactiva durante BACKOFF
+ * llamadas (que pasan directo a la función con el costo de un contador) y luego vuelve a
+ * probar. Así no penaliza argumentos que casi nunca se repiten.
+ *
+ * No es segura para uso concurrente, igual que la evaluación del AST.
+ */
+public final class CallSiteMemo {
+    private static final int BITS = 5;
+    private static final int SIZE = 1 << BITS;          // Entradas
+    private static final int WINDOW = 1024;             // Consultas por ventana de medición
+    private static final double MIN_HIT_RATIO = 0.25;   // Por debajo, la memoria cuesta más de lo que ahorra
+    private static final int BACKOFF = 64 * WINDOW;     // Llamadas sin memoria antes de volver a probar
+
+    private final long[] keys = new long[SIZE];
+    private final double[] results = new double[SIZE];
+    private final boolean[] filled = new boolean[SIZE];
+
+    @Getter
+    private long lookups;       // Consultas totales
+    @Getter
+    private long hits;          // Aciertos totales
+    @Getter
+    private long bypassed;      // Llamadas que no consultaron la memoria por estar desactivada
+    private int windowLookups;
+    private int windowHits;
+    private int bypassRemaining;
+
+    /**
+     * Indica si la llamada actual debe consultar la memoria.
+     */
+    public boolean isActive() {
+        if (bypassRemaining > 0) {
+            bypassRemaining--;
+            bypassed++;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Entrada que corresponde a un argumento.
+     */
+    public int slot(long bits) {
+        long h = (bits ^ (bits >>> 29)) * 0x9E3779B97F4A7C15L; // Mezcla: dispersa los bits bajos y altos
+        return (int) (h >>> (64 - BITS));
+    }
+
+    /**
+     * Comprueba si la entrada contiene el argumento y actualiza los contadores.
+     */
+    public boolean hit(int slot, long bits) {
+        boolean hit = filled[slot] && keys[slot] == bits;
+        lookups++;
+        windowLookups++;
+        if (hit) {
+            hits++;
+            windowHits++;
+        }
+        if (windowLookups == WINDOW) {
+            if (windowHits < MIN_HIT_RATIO * WINDOW) {
+                bypassRemaining = BACKOFF;
+            }
+            windowLookups = 0;
+            windowHits = 0;
+        }
+        return hit;
+    }
+
+    public double result(int slot) {
+        return results[slot];
+    }
+
+    public void store(int slot, long bits, double result) {
+        keys[slot] = bits;
+        results[slot] = result;
+        filled[slot] = true;
+    }
+
+    public double getHitRatio() {
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    /**
+     * Activa o desactiva la memoria en todas las funciones de un árbol.
+     *
+     * @return Cantidad de puntos de llamada afectados (funciones de un argumento)
+     */
+    public static int setEnabled(ASTNode node, boolean enabled) {
+        if (node instanceof BinaryOperationNode) {
+            BinaryOperationNode binOp = (BinaryOperationNode) node;
+            return setEnabled(binOp.getLeft(), enabled) + setEnabled(binOp.getRight(), enabled);
+        } else if (node instanceof FunctionNode) {
+            FunctionNode funcNode = (FunctionNode) node;
+            funcNode.setMemoization(enabled);
+            int affected = funcNode.getArguments().size() == 1 ? 1 : 0; // Solo se memorizan funciones de un argumento
+            for (ASTNode argument : funcNode.getArguments()) {
+                affected += setEnabled(argument, enabled);
+            }
+            return affected;
+        } else if (node instanceof LetNode) {
+            LetNode letNode = (LetNode) node;
+            return setEnabled(letNode.getBinding().getValue(), enabled) + setEnabled(letNode.getBody(), enabled);
+        }
+        return 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("consultas: %d, aciertos: %.1f%%, llamadas sin memoria: %d",
+                lookups, 100 * getHitRatio(), bypassed);
+    }
+}
@@ -1,42 +1,78 @@
 package domine.ast;
 
+import domine.functions.FunctionDefinition;
+import lombok.AccessLevel;
 import lombok.Getter;
-import resources.message.ExpectedMessage;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 /**
- * Nodo que representa una función trigonométrica (sin, cos, tan)
+ * Nodo que representa la llamada a una función registrada (sin, cos, sqrt, atan2, ...).
+ *
+ * La función se enlaza al construir el nodo (en el Parser), así que evaluar la llamada
+ * es invocar directamente su implementación, sin buscarla por nombre.
  */
 @Getter
 public class FunctionNode extends ASTNode {
-    private final String functionName;
-    private final ASTNode argument;
+    private final String functionName;          // Nombre tal como se escribió (sen, SIN, ...)
+    private final FunctionDefinition function;
+    private final List<ASTNode> arguments;
+    @Getter(AccessLevel.NONE)
+    private final ASTNode[] argumentNodes;      // Los mismos argumentos, para evaluar sin pasar por la lista
+    private CallSiteMemo memo; // Memoria opcional de resultados recientes (null si está desactivada)
 
-    public FunctionNode(String functionName, ASTNode argument) {
+    public FunctionNode(String functionName, FunctionDefinition function, List<ASTNode> arguments) {
+        super(1 + arguments.stream().mapToInt(ASTNode::getDepth).max().orElse(0),
+                1 + arguments.stream().mapToInt(ASTNode::getNodeCount).sum());
+        if (arguments.size() != function.getArity()) {
+            throw new IllegalArgumentException("La función " + functionName + " espera "
+                    + function.getArity() + " argumento(s): " + arguments.size());
+        }
         this.functionName = functionName;
-        this.argument = argument;
+        this.function = function;
+        this.argumentNodes = arguments.toArray(new ASTNode[0]);
+        this.arguments = Collections.unmodifiableList(Arrays.asList(argumentNodes.clone()));
     }
 
-    @Override
-    public double evaluate() throws Exception {
-        double argValue = argument.evaluate();
-
-        return switch (functionName.toLowerCase()) {
-            case "sen", "sin" -> Math.sin(argValue);
-            case "cos" -> Math.cos(argValue);
-            case "tan" -> Math.tan(argValue);
-            default -> throw new Exception(ExpectedMessage.unknownFunction(functionName));
-        };
+    public FunctionNode(String functionName, FunctionDefinition function, ASTNode argument) {
+        this(functionName, function, Collections.singletonList(argument));
+    }
+
+    /**
+     * Activa o desactiva la memoria de resultados de este punto de llamada.
+     * Solo se aplica a funciones de un argumento; en las demás no tiene efecto.
+     */
+    public void setMemoization(boolean enabled) {
+        memo = enabled && function.getArity() == 1 ? (memo != null ? memo : new CallSiteMemo()) : null;
     }
 
     @Override
-    public String toTreeString(String indent) {
-        return indent + "FunctionNode(" + functionName + ")\n" +
-                argument.toTreeString(indent + "  └─ ");
-        /*
-        StringBuilder sb = new StringBuilder();
-        sb.append(indent).append("FunctionNode(").append(functionName).append(")\n");
-        sb.append(argument.toTreeString(indent + "  └─ "));
-        return sb.toString();
-         */
+    public double evaluate() throws Exception {
+        if (argumentNodes.length != 1) {
+            if (argumentNodes.length == 2) {
+                return function.invoke(argumentNodes[0].evaluate(), argumentNodes[1].evaluate());
+            }
+            double[] values = new double[argumentNodes.length];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = argumentNodes[i].evaluate();
+            }
+            return function.invoke(values);
+        }
+
+        double argValue = argumentNodes[0].evaluate();
+
+        if (memo != null && memo.isActive()) {
+            long bits = Double.doubleToRawLongBits(argValue);
+            int slot = memo.slot(bits);
+            if (memo.hit(slot, bits)) {
+                return memo.result(slot);
+            }
+            double result = function.invoke(argValue);
+            memo.store(slot, bits, result);
+            return result;
+        }
+        return function.invoke(argValue);
     }
 }
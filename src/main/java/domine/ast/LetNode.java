@@ -0,0 +1,29 @@
+package domine.ast;
+
+import lombok.Getter;
+
+/**
+ * Nodo que define una variable local y evalúa el resto del programa con ella:
+ * primero calcula la expresión asignada y la guarda en la celda de la variable,
+ * luego evalúa el cuerpo.
+ *
+ * "u = x^2; v = u + 1; u * v" se representa como Let(u, x^2, Let(v, u + 1, u * v)).
+ */
+@Getter
+public class LetNode extends ASTNode {
+    private final LocalBinding binding;
+    private final ASTNode body;
+
+    public LetNode(LocalBinding binding, ASTNode body) {
+        super(1 + Math.max(binding.getValue().getDepth(), body.getDepth()),
+                1 + binding.getValue().getNodeCount() + body.getNodeCount());
+        this.binding = binding;
+        this.body = body;
+    }
+
+    @Override
+    public double evaluate() throws Exception {
+        binding.store(binding.getValue().evaluate());
+        return body.evaluate();
+    }
+}
@@ -0,0 +1,32 @@
+package domine.ast;
+
+import lombok.Getter;
+
+/**
+ * Variable local de un programa: "u = x^2 + sin(x); tan(u) * u + u".
+ *
+ * Guarda el nombre, la expresión asignada y la celda (slot) donde {@link LetNode} deja
+ * su valor en cada evaluación. Las apariciones de la variable ({@link LocalVariableNode})
+ * leen la celda, así que la expresión asignada se calcula una sola vez por evaluación
+ * aunque se use muchas veces.
+ *
+ * Los evaluadores alternativos (compilador, intervalos, diferenciación, ...) identifican
+ * la variable por la instancia y no por el nombre.
+ */
+@Getter
+public final class LocalBinding {
+    private final String name;
+    private final int slot;         // Posición en el orden de definición del programa
+    private final ASTNode value;    // Expresión asignada
+    private double current;         // Último valor calculado
+
+    public LocalBinding(String name, int slot, ASTNode value) {
+        this.name = name;
+        this.slot = slot;
+        this.value = value;
+    }
+
+    void store(double value) {
+        current = value;
+    }
+}
@@ -0,0 +1,22 @@
+package domine.ast;
+
+import lombok.Getter;
+
+/**
+ * Nodo que representa el uso de una variable local: lee el valor que el
+ * {@link LetNode} correspondiente guardó en la celda de la variable.
+ */
+@Getter
+public class LocalVariableNode extends ASTNode {
+    private final LocalBinding binding;
+
+    public LocalVariableNode(LocalBinding binding) {
+        super(1, 1);
+        this.binding = binding;
+    }
+
+    @Override
+    public double evaluate() {
+        return binding.getCurrent();
+    }
+}
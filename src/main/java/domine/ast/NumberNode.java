@@ -10,6 +10,7 @@ public class NumberNode extends ASTNode {
     private final double value;
 
     public NumberNode(double value) {
+        super(1, 1);
         this.value = value;
     }
 
@@ -18,8 +19,11 @@ public class NumberNode extends ASTNode {
         return value;
     }
 
-    @Override
-    public String toTreeString(String indent) {
-        return indent + "NumberNode(" + value + ")";
+    /**
+     * @return true si el nodo es un número constante con ese valor (por ejemplo el
+     *         exponente 2 de x^2)
+     */
+    public static boolean isConstant(ASTNode node, double value) {
+        return node instanceof NumberNode && ((NumberNode) node).value == value;
     }
 }
@@ -14,6 +14,7 @@ public class VariableNode extends ASTNode {
     private final Map<String, Double> variableValues;
 
     public VariableNode(String name, Map<String, Double> variableValues) {
+        super(1, 1);
         this.name = name;
         this.variableValues = variableValues;
     }
@@ -25,9 +26,4 @@ public class VariableNode extends ASTNode {
         }
         return variableValues.get(name);
     }
-
-    @Override
-    public String toTreeString(String indent) {
-        return indent + "VariableNode(" + name + ")";
-    }
 }
@@ -0,0 +1,471 @@
+package domine.compiler;
+
+import domine.errors.ErrorBuffer;
+import domine.errors.ErrorCode;
+import domine.functions.FunctionDefinition;
+import domine.metrics.EvaluateBatchEvent;
+import domine.metrics.Fingerprint;
+import domine.metrics.Phase;
+import domine.metrics.PipelineMetrics;
+import lombok.Getter;
+import resources.message.ExpectedMessage;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Expresión compilada a un programa postfijo para una máquina de pila.
+ *
+ * A diferencia del AST, una expresión compilada no guarda estado entre evaluaciones:
+ * los valores de las variables se reciben como argumento y la pila se crea en cada
+ * llamada. Por ello una misma instancia puede compartirse entre hilos y reutilizarse
+ * para evaluar la expresión con distintos valores sin volver a analizarla.
+ *
+ * Ejemplo:
+ *   Expresión: "sin(x) + 2"
+ *   Programa:  LOAD x, SIN, CONST 2, ADD
+ *
+ *   Expresión: "u = x^2; u * u"
+ *   Programa:  LOAD x, CONST 2, POW, STORE u, LOCAL u, LOCAL u, MUL
+ */
+@Getter
+public class CompiledExpression {
+    private static final int BATCH_BLOCK = 256; // Filas por bloque en evaluateBatch (la pila cabe en caché L1/L2)
+
+    private final String source;        // Texto original de la expresión
+    private final int[] code;           // Instrucciones codificadas (ver OpCode)
+    private final double[] constants;   // Tabla de constantes
+    private final String[] variables;   // Tabla de variables (índice -> nombre)
+    private final FunctionDefinition[] functions; // Tabla de funciones llamadas con CALL
+    private final int localSlots;       // Cantidad de variables locales (STORE / LOCAL)
+    private final int maxStack;         // Profundidad máxima de pila requerida
+    private final long fingerprint;     // Huella del texto (ver Fingerprint), para los eventos de JFR
+
+    public CompiledExpression(String source, int[] code, double[] constants, String[] variables,
+                              FunctionDefinition[] functions, int localSlots, int maxStack) {
+        this(source, code, constants, variables, functions, localSlots, maxStack,
+                source != null ? Fingerprint.of(source) : 0);
+    }
+
+    /**
+     * Con la huella ya calculada (al cargar una {@link ExpressionSnapshot}).
+     */
+    CompiledExpression(String source, int[] code, double[] constants, String[] variables,
+                       FunctionDefinition[] functions, int localSlots, int maxStack, long fingerprint) {
+        this.source = source;
+        this.code = code;
+        this.constants = constants;
+        this.variables = variables;
+        this.functions = functions;
+        this.localSlots = localSlots;
+        this.maxStack = maxStack;
+        this.fingerprint = fingerprint;
+    }
+
+    /**
+     * Obtiene el índice de una variable en la tabla de variables.
+     *
+     * @param name Nombre de la variable
+     * @return Índice de la variable, o -1 si la expresión no la utiliza
+     */
+    public int indexOf(String name) {
+        for (int i = 0; i < variables.length; i++) {
+            if (variables[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Evalúa la expresión tomando los valores de las variables de un mapa.
+     *
+     * @param bindings Valores de las variables por nombre
+     * @return Resultado de la evaluación
+     * @throws Exception Si falta alguna variable o se produce una división por cero
+     *
+     * Con las métricas activadas ({@link PipelineMetrics}) se registran la búsqueda de los
+     * valores (etapa BIND_VARIABLES) y la ejecución (etapa EVALUATE).
+     */
+    public double evaluate(Map<String, Double> bindings) throws Exception {
+        PipelineMetrics metrics = PipelineMetrics.getDefault();
+        if (!metrics.isEnabled()) {
+            return evaluate(bind(bindings));
+        }
+        long start = System.nanoTime();
+        boolean failed = true;
+        double[] values;
+        try {
+            values = bind(bindings);
+            failed = false;
+        } finally {
+            metrics.record(Phase.BIND_VARIABLES, start, failed);
+        }
+        start = System.nanoTime();
+        failed = true;
+        try {
+            double result = evaluate(values);
+            failed = false;
+            return result;
+        } finally {
+            metrics.record(Phase.EVALUATE, start, failed);
+        }
+    }
+
+    private double[] bind(Map<String, Double> bindings) throws Exception {
+        double[] values = new double[variables.length];
+        for (int i = 0; i < variables.length; i++) {
+            Double value = bindings.get(variables[i]);
+            if (value == null) {
+                throw new Exception(ExpectedMessage.unDefinedVariable(variables[i]));
+            }
+            values[i] = value;
+        }
+        return values;
+    }
+
+    /**
+     * Evalúa la expresión con los valores de las variables en el orden de la tabla de variables.
+     *
+     * @param values Valores de las variables (values[i] corresponde a variables[i])
+     * @return Resultado de la evaluación
+     * @throws Exception Si se produce una división por cero
+     */
+    public double evaluate(double[] values) throws Exception {
+        return evaluate(values, TrigAccuracy.EXACT);
+    }
+
+    /**
+     * Evalúa la expresión con la precisión indicada para sin, cos y tan.
+     *
+     * @param values Valores de las variables (values[i] corresponde a variables[i])
+     * @param accuracy Nivel de precisión de las funciones trigonométricas
+     * @return Resultado de la evaluación
+     * @throws Exception Si se produce una división por cero
+     */
+    public double evaluate(double[] values, TrigAccuracy accuracy) throws Exception {
+        return run(values, accuracy, null, 0);
+    }
+
+    /**
+     * Evalúa la expresión sin lanzar excepciones, para procesar filas una a una: si se
+     * produce una división por cero se anota el error en el registro y se devuelve su
+     * valor centinela.
+     *
+     * @param values Valores de las variables (values[i] corresponde a variables[i])
+     * @param accuracy Nivel de precisión de las funciones trigonométricas
+     * @param errors Registro donde se anotan los errores
+     * @param row Fila con la que se anota el error
+     * @return Resultado de la evaluación, o errors.getSentinel() si hubo un error
+     */
+    public double evaluate(double[] values, TrigAccuracy accuracy, ErrorBuffer errors, int row) {
+        try {
+            return run(values, accuracy, errors, row);
+        } catch (Exception e) {
+            throw new IllegalStateException(e); // Con un registro de errores run no lanza excepciones
+        }
+    }
+
+    /**
+     * Como {@link #evaluate(double[], TrigAccuracy, ErrorBuffer, int)}, con los valores de
+     * las variables por nombre: una variable sin valor se anota como UNDEFINED_VARIABLE.
+     */
+    public double evaluate(Map<String, Double> bindings, ErrorBuffer errors, int row) {
+        double[] values = new double[variables.length];
+        for (int i = 0; i < variables.length; i++) {
+            Double value = bindings.get(variables[i]);
+            if (value == null) {
+                errors.record(row, ErrorCode.UNDEFINED_VARIABLE);
+                return errors.getSentinel();
+            }
+            values[i] = value;
+        }
+        return evaluate(values, TrigAccuracy.EXACT, errors, row);
+    }
+
+    /**
+     * Ejecuta el programa. Sin registro de errores (errors == null) una división por cero
+     * lanza la excepción de siempre; con registro se termina la ejecución, se anota el
+     * error y se devuelve el centinela.
+     */
+    private double run(double[] values, TrigAccuracy accuracy, ErrorBuffer errors, int row) throws Exception {
+        double[] stack = new double[maxStack];
+        double[] locals = localSlots == 0 ? stack : new double[localSlots];
+        int top = -1;
+
+        for (int instruction : code) {
+            switch (OpCode.opcode(instruction)) {
+                case OpCode.CONST:
+                    stack[++top] = constants[OpCode.operand(instruction)];
+                    break;
+                case OpCode.LOAD:
+                    stack[++top] = values[OpCode.operand(instruction)];
+                    break;
+                case OpCode.ADD:
+                    top--;
+                    stack[top] = stack[top] + stack[top + 1];
+                    break;
+                case OpCode.SUB:
+                    top--;
+                    stack[top] = stack[top] - stack[top + 1];
+                    break;
+                case OpCode.MUL:
+                    top--;
+                    stack[top] = stack[top] * stack[top + 1];
+                    break;
+                case OpCode.DIV:
+                    top--;
+                    if (stack[top + 1] == 0) {
+                        if (errors == null) {
+                            throw new Exception(ExpectedMessage.dividedByZero());
+                        }
+                        errors.record(row, ErrorCode.DIVIDED_BY_ZERO);
+                        return errors.getSentinel();
+                    }
+                    stack[top] = stack[top] / stack[top + 1];
+                    break;
+                case OpCode.POW:
+                    top--;
+                    stack[top] = Math.pow(stack[top], stack[top + 1]);
+                    break;
+                case OpCode.SIN:
+                    stack[top] = accuracy.sin(stack[top]);
+                    break;
+                case OpCode.COS:
+                    stack[top] = accuracy.cos(stack[top]);
+                    break;
+                case OpCode.TAN:
+                    stack[top] = accuracy.tan(stack[top]);
+                    break;
+                case OpCode.CALL:
+                    top = call(functions[OpCode.operand(instruction)], stack, top);
+                    break;
+                case OpCode.STORE:
+                    locals[OpCode.operand(instruction)] = stack[top--];
+                    break;
+                case OpCode.LOCAL:
+                    stack[++top] = locals[OpCode.operand(instruction)];
+                    break;
+                default:
+                    throw new IllegalStateException("Instrucción inválida: " + instruction);
+            }
+        }
+
+        return stack[0];
+    }
+
+    /**
+     * Evalúa la expresión para muchas filas de valores (modo por lotes).
+     *
+     * Las filas se procesan en bloques: cada instrucción se aplica a todas las filas del
+     * bloque antes de pasar a la siguiente, lo que reparte el costo de decodificar el
+     * programa entre las filas y deja lazos simples que el JIT puede optimizar.
+     *
+     * @param columns Valores de las variables por columnas: columns[i][fila] corresponde a variables[i]
+     * @param output Resultados, uno por fila (su longitud determina el número de filas)
+     * @param accuracy Nivel de precisión de las funciones trigonométricas
+     * @throws Exception Si se produce una división por cero en alguna fila
+     */
+    public void evaluateBatch(double[][] columns, double[] output, TrigAccuracy accuracy) throws Exception {
+        batch(columns, output, accuracy, null);
+    }
+
+    /**
+     * Evalúa la expresión para muchas filas sin lanzar excepciones: las filas en las que se
+     * produce una división por cero reciben el valor centinela del registro y se anotan en
+     * él (una vez por fila), y el resto del lote se evalúa normalmente.
+     *
+     * Es el modo para lotes en los que una parte de las filas falla: no se crea ninguna
+     * excepción ni mensaje por fila.
+     *
+     * @param columns Valores de las variables por columnas: columns[i][fila] corresponde a variables[i]
+     * @param output Resultados, uno por fila (su longitud determina el número de filas)
+     * @param accuracy Nivel de precisión de las funciones trigonométricas
+     * @param errors Registro donde se anotan las filas con error
+     */
+    public void evaluateBatch(double[][] columns, double[] output, TrigAccuracy accuracy, ErrorBuffer errors) {
+        try {
+            batch(columns, output, accuracy, errors);
+        } catch (Exception e) {
+            throw new IllegalStateException(e); // Con un registro de errores runBatch no lanza excepciones
+        }
+    }
+
+    private void batch(double[][] columns, double[] output, TrigAccuracy accuracy, ErrorBuffer errors) throws Exception {
+        EvaluateBatchEvent event = new EvaluateBatchEvent();
+        if (!event.isEnabled()) {
+            runBatch(columns, output, accuracy, errors);
+            return;
+        }
+        event.begin();
+        Throwable error = null;
+        try {
+            runBatch(columns, output, accuracy, errors);
+        } catch (Throwable e) {
+            error = e;
+            throw e;
+        } finally {
+            event.finish(fingerprint, output.length, 1, code.length, error);
+        }
+    }
+
+    private void runBatch(double[][] columns, double[] output, TrigAccuracy accuracy, ErrorBuffer errors)
+            throws Exception {
+        if (columns.length < variables.length) {
+            throw new IllegalArgumentException("Se esperaban " + variables.length + " columnas: " + columns.length);
+        }
+        int rows = output.length;
+        int block = Math.min(rows, BATCH_BLOCK);
+        double[][] stack = new double[maxStack][block];
+        double[][] locals = new double[localSlots][block];
+        boolean[] failed = errors == null ? null : new boolean[block]; // Filas del bloque con división por cero
+        boolean blockFailed = false;
+
+        for (int start = 0; start < rows; start += block) {
+            int n = Math.min(block, rows - start);
+            int top = -1;
+            for (int instruction : code) {
+                switch (OpCode.opcode(instruction)) {
+                    case OpCode.CONST:
+                        Arrays.fill(stack[++top], 0, n, constants[OpCode.operand(instruction)]);
+                        break;
+                    case OpCode.LOAD:
+                        System.arraycopy(columns[OpCode.operand(instruction)], start, stack[++top], 0, n);
+                        break;
+                    case OpCode.ADD: {
+                        double[] a = stack[--top], b = stack[top + 1];
+                        for (int i = 0; i < n; i++) {
+                            a[i] += b[i];
+                        }
+                        break;
+                    }
+                    case OpCode.SUB: {
+                        double[] a = stack[--top], b = stack[top + 1];
+                        for (int i = 0; i < n; i++) {
+                            a[i] -= b[i];
+                        }
+                        break;
+                    }
+                    case OpCode.MUL: {
+                        double[] a = stack[--top], b = stack[top + 1];
+                        for (int i = 0; i < n; i++) {
+                            a[i] *= b[i];
+                        }
+                        break;
+                    }
+                    case OpCode.DIV: {
+                        double[] a = stack[--top], b = stack[top + 1];
+                        for (int i = 0; i < n; i++) {
+                            if (b[i] == 0) {
+                                if (errors == null) {
+                                    throw new Exception(ExpectedMessage.dividedByZero());
+                                }
+                                failed[i] = true;
+                                blockFailed = true;
+                            }
+                            a[i] /= b[i];
+                        }
+                        break;
+                    }
+                    case OpCode.POW: {
+                        double[] a = stack[--top], b = stack[top + 1];
+                        for (int i = 0; i < n; i++) {
+                            a[i] = Math.pow(a[i], b[i]);
+                        }
+                        break;
+                    }
+                    case OpCode.SIN: {
+                        double[] a = stack[top];
+                        for (int i = 0; i < n; i++) {
+                            a[i] = accuracy.sin(a[i]);
+                        }
+                        break;
+                    }
+                    case OpCode.COS: {
+                        double[] a = stack[top];
+                        for (int i = 0; i < n; i++) {
+                            a[i] = accuracy.cos(a[i]);
+                        }
+                        break;
+                    }
+                    case OpCode.TAN: {
+                        double[] a = stack[top];
+                        for (int i = 0; i < n; i++) {
+                            a[i] = accuracy.tan(a[i]);
+                        }
+                        break;
+                    }
+                    case OpCode.CALL:
+                        top = callBatch(functions[OpCode.operand(instruction)], stack, top, n);
+                        break;
+                    case OpCode.STORE: {
+                        // Intercambiar los arreglos evita copiar: el nivel de la pila queda libre
+                        int slot = OpCode.operand(instruction);
+                        double[] value = stack[top];
+                        stack[top--] = locals[slot];
+                        locals[slot] = value;
+                        break;
+                    }
+                    case OpCode.LOCAL:
+                        System.arraycopy(locals[OpCode.operand(instruction)], 0, stack[++top], 0, n);
+                        break;
+                    default:
+                        throw new IllegalStateException("Instrucción inválida: " + instruction);
+                }
+            }
+            System.arraycopy(stack[0], 0, output, start, n);
+            if (blockFailed) {
+                for (int i = 0; i < n; i++) {
+                    if (failed[i]) {
+                        output[start + i] = errors.getSentinel();
+                        errors.record(start + i, ErrorCode.DIVIDED_BY_ZERO);
+                        failed[i] = false;
+                    }
+                }
+                blockFailed = false;
+            }
+        }
+    }
+
+    /**
+     * Aplica una función a los aridad valores del tope de la pila.
+     *
+     * @return Nuevo tope de la pila
+     */
+    private static int call(FunctionDefinition function, double[] stack, int top) {
+        int arity = function.getArity();
+        if (arity == 1) {
+            stack[top] = function.invoke(stack[top]);
+            return top;
+        }
+        int base = top - arity + 1;
+        stack[base] = arity == 2 ? function.invoke(stack[base], stack[top])
+                : function.invoke(Arrays.copyOfRange(stack, base, top + 1));
+        return base;
+    }
+
+    private static int callBatch(FunctionDefinition function, double[][] stack, int top, int n) {
+        int arity = function.getArity();
+        int base = top - arity + 1;
+        double[] a = stack[base];
+        if (arity == 1) {
+            for (int i = 0; i < n; i++) {
+                a[i] = function.invoke(a[i]);
+            }
+        } else if (arity == 2) {
+            double[] b = stack[top];
+            for (int i = 0; i < n; i++) {
+                a[i] = function.invoke(a[i], b[i]);
+            }
+        } else {
+            double[] arguments = new double[arity];
+            for (int i = 0; i < n; i++) {
+                for (int k = 0; k < arity; k++) {
+                    arguments[k] = stack[base + k][i];
+                }
+                a[i] = function.invoke(arguments);
+            }
+        }
+        return base;
+    }
+}
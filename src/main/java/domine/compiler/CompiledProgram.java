@@ -0,0 +1,430 @@
+package domine.compiler;
+
+import domine.errors.ErrorBuffer;
+import domine.errors.ErrorCode;
+import domine.functions.FunctionDefinition;
+import domine.metrics.EvaluateBatchEvent;
+import domine.metrics.Fingerprint;
+import lombok.AccessLevel;
+import lombok.Getter;
+import resources.message.ExpectedMessage;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Programa de varias salidas compilado por {@link ProgramCompiler}: un conjunto de
+ * expresiones con nombre que comparten sus subexpresiones comunes.
+ *
+ * Cada instrucción lee uno o dos registros y escribe otro (código de tres direcciones).
+ * Los primeros registros contienen las constantes y los siguientes las variables; el
+ * resto son resultados intermedios que se reutilizan a medida que dejan de usarse.
+ *
+ * Al igual que {@link CompiledExpression}, no guarda estado entre evaluaciones y puede
+ * compartirse entre hilos.
+ *
+ * Ejemplo:
+ *   x = sin(t)*r, y = cos(t)*r      (r0 = t, r1 = r)
+ *   Programa: r2 = SIN r0, r2 = MUL r2 r1, r3 = COS r0, r3 = MUL r1 r3
+ *   Salidas:  x <- r2, y <- r3
+ */
+@Getter
+public class CompiledProgram {
+    private static final int BATCH_BLOCK = 256; // Filas por bloque en evaluateBatch
+
+    private final String[] outputs;             // Nombre de cada salida
+    private final String[] variables;           // Tabla de variables (índice -> nombre)
+    @Getter(AccessLevel.NONE)
+    private final int[] variableRegisters;      // Registro de cada variable (-1 si ninguna salida la usa)
+    @Getter(AccessLevel.NONE)
+    private final int[] outputRegisters;        // Registro del resultado de cada salida
+    @Getter(AccessLevel.NONE)
+    private final double[] registerTemplate;    // Registros iniciales (las constantes ya cargadas)
+    @Getter(AccessLevel.NONE)
+    private final int[] code;                   // Código de operación de cada instrucción (ver OpCode)
+    @Getter(AccessLevel.NONE)
+    private final int[] target;                 // Registro destino
+    @Getter(AccessLevel.NONE)
+    private final int[] first;                  // Primer operando
+    @Getter(AccessLevel.NONE)
+    private final int[] second;                 // Segundo operando (-1 en las funciones)
+    @Getter(AccessLevel.NONE)
+    private final int[][] callArguments;        // Registros de los argumentos de las instrucciones CALL
+    @Getter(AccessLevel.NONE)
+    private final FunctionDefinition[] functions; // Función de las instrucciones CALL
+    private final long functionCalls;           // Llamadas a funciones por fila
+    private final long separateOperations;      // Operaciones por fila evaluando cada salida por separado
+    private final long separateFunctionCalls;   // Llamadas por fila evaluando cada salida por separado
+    private final long fingerprint;             // Huella de las salidas y del código, para los eventos de JFR
+
+    CompiledProgram(String[] outputs, String[] variables, int[] variableRegisters, int[] outputRegisters,
+                    double[] registerTemplate, int[] code, int[] target, int[] first, int[] second,
+                    int[][] callArguments, FunctionDefinition[] functions, long functionCalls,
+                    long separateOperations, long separateFunctionCalls) {
+        this.outputs = outputs;
+        this.variables = variables;
+        this.variableRegisters = variableRegisters;
+        this.outputRegisters = outputRegisters;
+        this.registerTemplate = registerTemplate;
+        this.code = code;
+        this.target = target;
+        this.first = first;
+        this.second = second;
+        this.callArguments = callArguments;
+        this.functions = functions;
+        this.functionCalls = functionCalls;
+        this.separateOperations = separateOperations;
+        this.separateFunctionCalls = separateFunctionCalls;
+        this.fingerprint = fingerprint(outputs, code, target, first, second);
+    }
+
+    /**
+     * Un programa no conserva el texto de sus expresiones: se identifica por los nombres de
+     * las salidas y las instrucciones, que son las mismas cada vez que se compila.
+     */
+    private static long fingerprint(String[] outputs, int[]... instructions) {
+        long hash = Fingerprint.EMPTY;
+        for (String output : outputs) {
+            hash = Fingerprint.add(Fingerprint.add(hash, output), ';');
+        }
+        for (int[] column : instructions) {
+            for (int value : column) {
+                hash = Fingerprint.add(hash, value);
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Operaciones por fila (instrucciones del programa).
+     */
+    public int getOperations() {
+        return code.length;
+    }
+
+    public int getRegisters() {
+        return registerTemplate.length;
+    }
+
+    /**
+     * @param name Nombre de la variable
+     * @return Índice de la variable, o -1 si el programa no la utiliza
+     */
+    public int indexOf(String name) {
+        for (int i = 0; i < variables.length; i++) {
+            if (variables[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Evalúa todas las salidas tomando los valores de las variables de un mapa.
+     *
+     * @param bindings Valores de las variables por nombre
+     * @return Valor de cada salida por nombre, en el orden de las salidas
+     * @throws Exception Si falta alguna variable o se produce una división por cero
+     */
+    public Map<String, Double> evaluate(Map<String, Double> bindings) throws Exception {
+        double[] values = new double[variables.length];
+        for (int i = 0; i < variables.length; i++) {
+            Double value = bindings.get(variables[i]);
+            if (value == null) {
+                throw new Exception(ExpectedMessage.unDefinedVariable(variables[i]));
+            }
+            values[i] = value;
+        }
+        double[] results = new double[outputs.length];
+        evaluate(values, results, TrigAccuracy.EXACT);
+
+        Map<String, Double> named = new LinkedHashMap<>();
+        for (int i = 0; i < outputs.length; i++) {
+            named.put(outputs[i], results[i]);
+        }
+        return named;
+    }
+
+    /**
+     * Evalúa todas las salidas para una fila de valores.
+     *
+     * @param values Valores de las variables (values[i] corresponde a variables[i])
+     * @param results Resultados (results[k] corresponde a outputs[k])
+     * @param accuracy Nivel de precisión de las funciones trigonométricas
+     * @throws Exception Si se produce una división por cero
+     */
+    public void evaluate(double[] values, double[] results, TrigAccuracy accuracy) throws Exception {
+        double[] r = registerTemplate.clone();
+        for (int i = 0; i < variableRegisters.length; i++) {
+            if (variableRegisters[i] >= 0) {
+                r[variableRegisters[i]] = values[i];
+            }
+        }
+
+        for (int pc = 0; pc < code.length; pc++) {
+            double a = r[first[pc]];
+            switch (code[pc]) {
+                case OpCode.ADD:
+                    r[target[pc]] = a + r[second[pc]];
+                    break;
+                case OpCode.SUB:
+                    r[target[pc]] = a - r[second[pc]];
+                    break;
+                case OpCode.MUL:
+                    r[target[pc]] = a * r[second[pc]];
+                    break;
+                case OpCode.DIV:
+                    double b = r[second[pc]];
+                    if (b == 0) {
+                        throw new Exception(ExpectedMessage.dividedByZero());
+                    }
+                    r[target[pc]] = a / b;
+                    break;
+                case OpCode.POW:
+                    r[target[pc]] = Math.pow(a, r[second[pc]]);
+                    break;
+                case OpCode.SIN:
+                    r[target[pc]] = accuracy.sin(a);
+                    break;
+                case OpCode.COS:
+                    r[target[pc]] = accuracy.cos(a);
+                    break;
+                case OpCode.TAN:
+                    r[target[pc]] = accuracy.tan(a);
+                    break;
+                case OpCode.CALL:
+                    r[target[pc]] = call(functions[pc], callArguments[pc], r);
+                    break;
+                default:
+                    throw new IllegalStateException("Instrucción inválida: " + code[pc]);
+            }
+        }
+
+        for (int k = 0; k < outputRegisters.length; k++) {
+            results[k] = r[outputRegisters[k]];
+        }
+    }
+
+    /**
+     * Evalúa todas las salidas para muchas filas (modo por lotes).
+     *
+     * Como en {@link CompiledExpression#evaluateBatch}, cada instrucción se aplica a un
+     * bloque de filas antes de pasar a la siguiente. Los registros son columnas del tamaño
+     * del bloque; al reutilizarse, el conjunto de trabajo es de registros × bloque valores
+     * aunque el programa tenga muchas salidas.
+     *
+     * @param columns Valores de las variables por columnas: columns[i][fila] corresponde a variables[i]
+     * @param results Resultados por columnas: results[k][fila] corresponde a outputs[k]
+     *                (la longitud de las columnas determina el número de filas)
+     * @param accuracy Nivel de precisión de las funciones trigonométricas
+     * @throws Exception Si se produce una división por cero en alguna fila
+     */
+    public void evaluateBatch(double[][] columns, double[][] results, TrigAccuracy accuracy) throws Exception {
+        batch(columns, results, accuracy, null);
+    }
+
+    /**
+     * Evalúa todas las salidas para muchas filas sin lanzar excepciones: en las filas con
+     * una división por cero todas las salidas reciben el valor centinela del registro y la
+     * fila se anota en él una vez (ver {@link CompiledExpression#evaluateBatch(double[][],
+     * double[], TrigAccuracy, ErrorBuffer)}).
+     *
+     * @param errors Registro donde se anotan las filas con error
+     */
+    public void evaluateBatch(double[][] columns, double[][] results, TrigAccuracy accuracy, ErrorBuffer errors) {
+        try {
+            batch(columns, results, accuracy, errors);
+        } catch (Exception e) {
+            throw new IllegalStateException(e); // Con un registro de errores runBatch no lanza excepciones
+        }
+    }
+
+    private void batch(double[][] columns, double[][] results, TrigAccuracy accuracy, ErrorBuffer errors)
+            throws Exception {
+        EvaluateBatchEvent event = new EvaluateBatchEvent();
+        if (!event.isEnabled()) {
+            runBatch(columns, results, accuracy, errors);
+            return;
+        }
+        event.begin();
+        Throwable error = null;
+        try {
+            runBatch(columns, results, accuracy, errors);
+        } catch (Throwable e) {
+            error = e;
+            throw e;
+        } finally {
+            event.finish(fingerprint, results.length > 0 ? results[0].length : 0, outputs.length, code.length, error);
+        }
+    }
+
+    private void runBatch(double[][] columns, double[][] results, TrigAccuracy accuracy, ErrorBuffer errors)
+            throws Exception {
+        if (columns.length < variables.length) {
+            throw new IllegalArgumentException("Se esperaban " + variables.length + " columnas: " + columns.length);
+        }
+        if (results.length < outputs.length) {
+            throw new IllegalArgumentException("Se esperaban " + outputs.length + " columnas de salida: " + results.length);
+        }
+        int rows = results[0].length;
+        int block = Math.min(rows, BATCH_BLOCK);
+        double[][] r = new double[registerTemplate.length][block];
+        for (int i = 0; i < registerTemplate.length; i++) {
+            Arrays.fill(r[i], registerTemplate[i]); // Las constantes no cambian entre bloques
+        }
+        boolean[] failed = errors == null ? null : new boolean[block]; // Filas del bloque con división por cero
+        boolean blockFailed = false;
+
+        for (int start = 0; start < rows; start += block) {
+            int n = Math.min(block, rows - start);
+            for (int i = 0; i < variableRegisters.length; i++) {
+                if (variableRegisters[i] >= 0) {
+                    System.arraycopy(columns[i], start, r[variableRegisters[i]], 0, n);
+                }
+            }
+            for (int pc = 0; pc < code.length; pc++) {
+                double[] t = r[target[pc]];
+                double[] a = r[first[pc]];
+                switch (code[pc]) {
+                    case OpCode.ADD: {
+                        double[] b = r[second[pc]];
+                        for (int i = 0; i < n; i++) {
+                            t[i] = a[i] + b[i];
+                        }
+                        break;
+                    }
+                    case OpCode.SUB: {
+                        double[] b = r[second[pc]];
+                        for (int i = 0; i < n; i++) {
+                            t[i] = a[i] - b[i];
+                        }
+                        break;
+                    }
+                    case OpCode.MUL: {
+                        double[] b = r[second[pc]];
+                        for (int i = 0; i < n; i++) {
+                            t[i] = a[i] * b[i];
+                        }
+                        break;
+                    }
+                    case OpCode.DIV: {
+                        double[] b = r[second[pc]];
+                        for (int i = 0; i < n; i++) {
+                            if (b[i] == 0) {
+                                if (errors == null) {
+                                    throw new Exception(ExpectedMessage.dividedByZero());
+                                }
+                                failed[i] = true;
+                                blockFailed = true;
+                            }
+                            t[i] = a[i] / b[i];
+                        }
+                        break;
+                    }
+                    case OpCode.POW: {
+                        double[] b = r[second[pc]];
+                        for (int i = 0; i < n; i++) {
+                            t[i] = Math.pow(a[i], b[i]);
+                        }
+                        break;
+                    }
+                    case OpCode.SIN:
+                        for (int i = 0; i < n; i++) {
+                            t[i] = accuracy.sin(a[i]);
+                        }
+                        break;
+                    case OpCode.COS:
+                        for (int i = 0; i < n; i++) {
+                            t[i] = accuracy.cos(a[i]);
+                        }
+                        break;
+                    case OpCode.TAN:
+                        for (int i = 0; i < n; i++) {
+                            t[i] = accuracy.tan(a[i]);
+                        }
+                        break;
+                    case OpCode.CALL:
+                        callBatch(functions[pc], callArguments[pc], r, t, n);
+                        break;
+                    default:
+                        throw new IllegalStateException("Instrucción inválida: " + code[pc]);
+                }
+            }
+            for (int k = 0; k < outputRegisters.length; k++) {
+                System.arraycopy(r[outputRegisters[k]], 0, results[k], start, n);
+            }
+            if (blockFailed) {
+                for (int i = 0; i < n; i++) {
+                    if (failed[i]) {
+                        for (int k = 0; k < outputRegisters.length; k++) {
+                            results[k][start + i] = errors.getSentinel();
+                        }
+                        errors.record(start + i, ErrorCode.DIVIDED_BY_ZERO);
+                        failed[i] = false;
+                    }
+                }
+                blockFailed = false;
+            }
+        }
+    }
+
+    private static double call(FunctionDefinition function, int[] arguments, double[] r) {
+        switch (arguments.length) {
+            case 1:
+                return function.invoke(r[arguments[0]]);
+            case 2:
+                return function.invoke(r[arguments[0]], r[arguments[1]]);
+            default:
+                double[] values = new double[arguments.length];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = r[arguments[i]];
+                }
+                return function.invoke(values);
+        }
+    }
+
+    private static void callBatch(FunctionDefinition function, int[] arguments, double[][] r, double[] t, int n) {
+        double[] a = r[arguments[0]];
+        if (arguments.length == 1) {
+            for (int i = 0; i < n; i++) {
+                t[i] = function.invoke(a[i]);
+            }
+        } else if (arguments.length == 2) {
+            double[] b = r[arguments[1]];
+            for (int i = 0; i < n; i++) {
+                t[i] = function.invoke(a[i], b[i]);
+            }
+        } else {
+            double[] values = new double[arguments.length];
+            for (int i = 0; i < n; i++) {
+                for (int k = 0; k < values.length; k++) {
+                    values[k] = r[arguments[k]][i];
+                }
+                t[i] = function.invoke(values);
+            }
+        }
+    }
+
+    /**
+     * Listado legible del programa, una instrucción por línea.
+     */
+    public String disassemble() {
+        String[] names = {"CONST", "LOAD", "ADD", "SUB", "MUL", "DIV", "POW", "SIN", "COS", "TAN", "CALL"};
+        StringBuilder sb = new StringBuilder();
+        for (int pc = 0; pc < code.length; pc++) {
+            sb.append('r').append(target[pc]).append(" = ")
+                    .append(code[pc] == OpCode.CALL ? functions[pc].getName().toUpperCase() : names[code[pc]]);
+            int[] operands = code[pc] == OpCode.CALL ? callArguments[pc]
+                    : second[pc] >= 0 ? new int[]{first[pc], second[pc]} : new int[]{first[pc]};
+            for (int operand : operands) {
+                sb.append(" r").append(operand);
+            }
+            sb.append('\n');
+        }
+        for (int k = 0; k < outputs.length; k++) {
+            sb.append(outputs[k]).append(" <- r").append(outputRegisters[k]).append('\n');
+        }
+        return sb.toString();
+    }
+}
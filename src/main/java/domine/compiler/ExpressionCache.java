@@ -0,0 +1,142 @@
+package domine.compiler;
+
+import domine.Lexer;
+import domine.Parser;
+import domine.Token;
+import domine.ast.ASTNode;
+import domine.limits.ResourceLimits;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caché concurrente de expresiones compiladas indexada por el texto de la expresión.
+ *
+ * Permite que varias peticiones (o hilos) que evalúan la misma expresión compartan
+ * el resultado del análisis léxico, sintáctico y de la compilación. Las expresiones
+ * con errores no se almacenan: el error se propaga al llamador en cada intento.
+ *
+ * La caché tiene una capacidad máxima; al superarla se descarta la entrada más antigua
+ * (orden FIFO). Las claves se encolan al insertarse en una ConcurrentLinkedQueue, de modo
+ * que cada descarte cuesta O(1) sin coordinar un orden LRU entre hilos. Recorrer el mapa
+ * desde el principio para elegir la víctima, en cambio, atraviesa cada vez más celdas
+ * vacías de la tabla: O(capacidad) por fallo.
+ *
+ * Las expresiones se analizan con los {@link ResourceLimits} de la caché, por lo que
+ * toda expresión almacenada ya superó el control de admisión.
+ */
+public class ExpressionCache {
+    private final ConcurrentHashMap<String, CompiledExpression> entries = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<String> insertionOrder = new ConcurrentLinkedQueue<>(); // Claves de entries
+    private final int capacity;
+    @Getter
+    private final ResourceLimits limits;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public ExpressionCache(int capacity) {
+        this(capacity, ResourceLimits.unlimited());
+    }
+
+    public ExpressionCache(int capacity, ResourceLimits limits) {
+        this.capacity = capacity;
+        this.limits = limits;
+    }
+
+    /**
+     * Obtiene la expresión compilada, analizándola y compilándola si no estaba en caché.
+     *
+     * @param source Texto de la expresión
+     * @return Expresión compilada
+     * @throws Exception Si la expresión tiene errores léxicos o sintácticos o supera los límites
+     */
+    public CompiledExpression get(String source) throws Exception {
+        CompiledExpression compiled = entries.get(source);
+        if (compiled != null) {
+            hits.increment();
+            return compiled;
+        }
+
+        misses.increment();
+        compiled = compile(source, limits);
+
+        if (entries.size() >= capacity) {
+            evictOne();
+        }
+        CompiledExpression previous = entries.putIfAbsent(source, compiled);
+        if (previous != null) {
+            return previous;
+        }
+        insertionOrder.add(source);
+        return compiled;
+    }
+
+    /**
+     * Ejecuta el pipeline completo: Lexer -> Parser -> ExpressionCompiler.
+     */
+    public static CompiledExpression compile(String source, ResourceLimits limits) throws Exception {
+        Lexer lexer = new Lexer(source, limits);
+        List<Token> tokens = lexer.tokenize();
+        Parser parser = new Parser(tokens, limits);
+        ASTNode ast = parser.parseToAST();
+        return ExpressionCompiler.compile(source, ast);
+    }
+
+    /**
+     * Guarda las expresiones de la caché en una instantánea binaria ({@link ExpressionSnapshot}).
+     */
+    public void save(Path file) throws IOException {
+        ExpressionSnapshot.write(file, new ArrayList<>(entries.values()));
+    }
+
+    /**
+     * Agrega a la caché las expresiones de una instantánea, sin volver a analizarlas, hasta
+     * completar su capacidad. Las expresiones se guardaron ya compiladas, así que no se
+     * vuelven a comprobar los límites de la caché.
+     *
+     * @return Cantidad de expresiones agregadas
+     * @throws Exception Si la instantánea no es válida o llama a funciones que no están registradas
+     */
+    public int load(Path file) throws Exception {
+        int added = 0;
+        for (CompiledExpression compiled : ExpressionSnapshot.read(file)) {
+            if (entries.size() >= capacity) {
+                break;
+            }
+            if (compiled.getSource() != null && entries.putIfAbsent(compiled.getSource(), compiled) == null) {
+                insertionOrder.add(compiled.getSource());
+                added++;
+            }
+        }
+        return added;
+    }
+
+    /**
+     * Descarta la entrada más antigua. Las entradas solo se quitan aquí y cada clave se
+     * encola una sola vez (al ganar el putIfAbsent), así que la cola y el mapa coinciden.
+     */
+    private void evictOne() {
+        String oldest = insertionOrder.poll();
+        if (oldest != null) {
+            entries.remove(oldest);
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+}
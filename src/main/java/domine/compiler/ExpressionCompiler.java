@@ -0,0 +1,178 @@
+package domine.compiler;
+
+import domine.ast.*;
+import domine.functions.FunctionDefinition;
+import domine.functions.StandardFunctions;
+import domine.metrics.CompileEvent;
+import resources.message.ExpectedMessage;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compilador de AST a programa postfijo ({@link CompiledExpression}).
+ *
+ * Recorre el árbol en postorden emitiendo una instrucción por nodo:
+ * - NumberNode          -> CONST índice
+ * - VariableNode        -> LOAD índice
+ * - BinaryOperationNode -> (izquierdo) (derecho) ADD | SUB | MUL | DIV | POW
+ * - FunctionNode        -> (argumentos) SIN | COS | TAN | CALL índice
+ * - LetNode             -> (valor) STORE índice (cuerpo)
+ * - LocalVariableNode   -> LOCAL índice
+ *
+ * Las constantes repetidas comparten entrada en la tabla de constantes y las variables
+ * se numeran en el orden en que aparecen por primera vez en la expresión. sin, cos y tan
+ * tienen instrucción propia (admiten los niveles de precisión de {@link TrigAccuracy});
+ * el resto de las funciones se llaman a través de la tabla de funciones.
+ *
+ * El valor de una variable local se calcula una sola vez (antes del cuerpo que la usa)
+ * y cada uso la lee de su posición con LOCAL.
+ */
+public class ExpressionCompiler {
+    private final List<Integer> code = new ArrayList<>();
+    private final List<Double> constants = new ArrayList<>();
+    private final Map<Long, Integer> constantIndex = new LinkedHashMap<>();
+    private final Map<String, Integer> variableIndex = new LinkedHashMap<>();
+    private final Map<FunctionDefinition, Integer> functionIndex = new LinkedHashMap<>();
+    private final Map<LocalBinding, Integer> localIndex = new IdentityHashMap<>();
+    private int depth;
+    private int maxDepth;
+
+    private ExpressionCompiler() {
+    }
+
+    /**
+     * Compila un AST.
+     *
+     * @param source Texto original de la expresión (solo informativo)
+     * @param root Raíz del AST
+     * @return Expresión compilada lista para evaluarse
+     * @throws Exception Si el AST contiene una función u operador desconocido
+     *
+     * Con una grabación de JFR activa se registra un {@link CompileEvent} si supera su umbral.
+     */
+    public static CompiledExpression compile(String source, ASTNode root) throws Exception {
+        CompileEvent event = new CompileEvent();
+        if (!event.isEnabled()) {
+            return generate(source, root);
+        }
+        event.begin();
+        CompiledExpression compiled = null;
+        Throwable error = null;
+        try {
+            compiled = generate(source, root);
+            return compiled;
+        } catch (Throwable e) {
+            error = e;
+            throw e;
+        } finally {
+            event.finish(compiled != null ? compiled.getFingerprint() : 0, 1, root.getNodeCount(),
+                    compiled != null ? compiled.getCode().length : -1, error);
+        }
+    }
+
+    private static CompiledExpression generate(String source, ASTNode root) throws Exception {
+        ExpressionCompiler compiler = new ExpressionCompiler();
+        compiler.emit(root);
+
+        int[] code = new int[compiler.code.size()];
+        for (int i = 0; i < code.length; i++) {
+            code[i] = compiler.code.get(i);
+        }
+        double[] constants = new double[compiler.constants.size()];
+        for (int i = 0; i < constants.length; i++) {
+            constants[i] = compiler.constants.get(i);
+        }
+        String[] variables = compiler.variableIndex.keySet().toArray(new String[0]);
+        FunctionDefinition[] functions = compiler.functionIndex.keySet().toArray(new FunctionDefinition[0]);
+
+        return new CompiledExpression(source, code, constants, variables, functions,
+                compiler.localIndex.size(), compiler.maxDepth);
+    }
+
+    private void emit(ASTNode node) throws Exception {
+        if (node instanceof NumberNode) {
+            double value = ((NumberNode) node).getValue();
+            int index = constantIndex.computeIfAbsent(Double.doubleToLongBits(value), bits -> {
+                constants.add(value);
+                return constants.size() - 1;
+            });
+            push(OpCode.encode(OpCode.CONST, index));
+        } else if (node instanceof VariableNode) {
+            String name = ((VariableNode) node).getName();
+            int index = variableIndex.computeIfAbsent(name, n -> variableIndex.size());
+            push(OpCode.encode(OpCode.LOAD, index));
+        } else if (node instanceof BinaryOperationNode) {
+            BinaryOperationNode binOp = (BinaryOperationNode) node;
+            emit(binOp.getLeft());
+            emit(binOp.getRight());
+            code.add(binaryOpCode(binOp.getOperator()));
+            depth--; // Dos operandos se reducen a un resultado
+        } else if (node instanceof FunctionNode) {
+            FunctionNode funcNode = (FunctionNode) node;
+            for (ASTNode argument : funcNode.getArguments()) {
+                emit(argument);
+            }
+            FunctionDefinition function = funcNode.getFunction();
+            int opcode = functionOpCode(function);
+            if (opcode == OpCode.CALL) {
+                int index = functionIndex.computeIfAbsent(function, f -> functionIndex.size());
+                code.add(OpCode.encode(OpCode.CALL, index));
+            } else {
+                code.add(opcode);
+            }
+            depth -= function.getArity() - 1; // Los argumentos se reducen a un resultado
+        } else if (node instanceof LetNode) {
+            LetNode letNode = (LetNode) node;
+            emit(letNode.getBinding().getValue());
+            int index = localIndex.size();
+            localIndex.put(letNode.getBinding(), index);
+            code.add(OpCode.encode(OpCode.STORE, index));
+            depth--; // El valor sale de la pila hacia la variable local
+            emit(letNode.getBody());
+        } else if (node instanceof LocalVariableNode) {
+            LocalBinding binding = ((LocalVariableNode) node).getBinding();
+            Integer index = localIndex.get(binding);
+            if (index == null) {
+                throw new Exception(ExpectedMessage.usedBeforeDefinition(binding.getName()));
+            }
+            push(OpCode.encode(OpCode.LOCAL, index));
+        } else {
+            throw new Exception(ExpectedMessage.unExpectedToken(String.valueOf(node)));
+        }
+    }
+
+    private void push(int instruction) {
+        code.add(instruction);
+        depth++;
+        maxDepth = Math.max(maxDepth, depth);
+    }
+
+    public static int binaryOpCode(String operator) throws Exception {
+        return switch (operator) {
+            case "+" -> OpCode.ADD;
+            case "-" -> OpCode.SUB;
+            case "*" -> OpCode.MUL;
+            case "/" -> OpCode.DIV;
+            case "^" -> OpCode.POW;
+            default -> throw new Exception(ExpectedMessage.unknownOperator(operator));
+        };
+    }
+
+    /**
+     * Instrucción propia de la función (SIN, COS, TAN) o CALL si se llama por la tabla de funciones.
+     */
+    public static int functionOpCode(FunctionDefinition function) {
+        if (function == StandardFunctions.SIN) {
+            return OpCode.SIN;
+        } else if (function == StandardFunctions.COS) {
+            return OpCode.COS;
+        } else if (function == StandardFunctions.TAN) {
+            return OpCode.TAN;
+        }
+        return OpCode.CALL;
+    }
+}
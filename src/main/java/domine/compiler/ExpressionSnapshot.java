@@ -0,0 +1,404 @@
+package domine.compiler;
+
+import domine.functions.FunctionDefinition;
+import domine.functions.FunctionRegistry;
+import resources.message.ExpectedMessage;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Formato binario para guardar expresiones compiladas en disco y cargarlas sin volver a
+ * pasar por el Lexer, el Parser y el compilador (por ejemplo, al reiniciar un servicio
+ * con cientos de miles de fórmulas registradas).
+ *
+ * Estructura del archivo (los enteros marcados "var" usan 7 bits por byte, como LEB128,
+ * así que los valores pequeños ocupan un byte; el resto es big-endian):
+ *
+ *   int     MAGIC ("DMSN")
+ *   short   VERSION
+ *   var     cantidad de nombres, y por cada uno: var longitud, bytes UTF-8
+ *   var     cantidad de expresiones, y por cada una:
+ *             var     longitud del texto en UTF-8 más uno (0 si no tiene), bytes
+ *             long    huella del texto (ver Fingerprint), para no recalcularla al cargar
+ *             var     cantidad de instrucciones, y por cada una: byte código de operación,
+ *                     var operando (solo CONST, LOAD, CALL, STORE y LOCAL)
+ *             var     cantidad de constantes, y por cada una: byte escala s y var k en
+ *                     zigzag, con valor k / 10^s; o byte 0xFF y el double completo
+ *             var     cantidad de variables, var índices en la tabla de nombres
+ *             var     cantidad de funciones, y por cada una: var índice del nombre, byte aridad
+ *             var     variables locales
+ *             var     profundidad máxima de pila
+ *   int     CRC-32C de todos los bytes anteriores
+ *
+ * Las constantes escritas con pocos decimales (2.5, 0.001, 42) se guardan como un entero
+ * y una escala: la división k / 10^s entre dos doubles exactos redondea igual que el
+ * análisis del texto decimal, así que se recupera el mismo double.
+ *
+ * Los nombres de variables y funciones se guardan una sola vez en la tabla de nombres, y
+ * las expresiones cargadas comparten esas instancias. Las funciones se guardan por nombre
+ * y aridad y se enlazan al cargar con el FunctionRegistry indicado, porque su
+ * implementación no se puede serializar.
+ *
+ * La carga lee el archivo mapeado en memoria, verifica la suma de control y luego cada
+ * programa (operandos dentro de sus tablas y pila suficiente, como el verificador de
+ * bytecode de la JVM), de modo que un archivo dañado o de otra versión produce un error
+ * al cargar y no durante la evaluación.
+ *
+ * Ejemplo:
+ *   ExpressionSnapshot.write(Path.of("formulas.bin"), compiladas);
+ *   List<CompiledExpression> cargadas = ExpressionSnapshot.read(Path.of("formulas.bin"));
+ */
+public final class ExpressionSnapshot {
+    public static final int MAGIC = 0x444D534E; // "DMSN"
+    public static final short VERSION = 1;
+    // Potencias de diez exactas en double (10^22 es la mayor), para las constantes con escala
+    private static final double[] POWERS_OF_TEN = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
+    private ExpressionSnapshot() {
+    }
+
+    /**
+     * Guarda las expresiones. El archivo se escribe primero con otro nombre y se reemplaza
+     * al terminar, así que una escritura interrumpida no deja un archivo a medias.
+     */
+    public static void write(Path file, Collection<CompiledExpression> expressions) throws IOException {
+        Map<String, Integer> names = new LinkedHashMap<>();
+        for (CompiledExpression expression : expressions) {
+            for (String variable : expression.getVariables()) {
+                names.putIfAbsent(variable, names.size());
+            }
+            for (FunctionDefinition function : expression.getFunctions()) {
+                names.putIfAbsent(function.getName(), names.size());
+            }
+        }
+
+        Path directory = file.toAbsolutePath().getParent();
+        Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            CRC32C checksum = new CRC32C();
+            try (OutputStream raw = new BufferedOutputStream(Files.newOutputStream(temporary), 1 << 16)) {
+                DataOutputStream out = new DataOutputStream(new CheckedOutputStream(raw, checksum));
+                out.writeInt(MAGIC);
+                out.writeShort(VERSION);
+                writeVar(out, names.size());
+                for (String name : names.keySet()) {
+                    writeString(out, name);
+                }
+                writeVar(out, expressions.size());
+                for (CompiledExpression expression : expressions) {
+                    writeString(out, expression.getSource());
+                    out.writeLong(expression.getFingerprint());
+                    writeVar(out, expression.getCode().length);
+                    for (int instruction : expression.getCode()) {
+                        int opcode = OpCode.opcode(instruction);
+                        out.writeByte(opcode);
+                        if (hasOperand(opcode)) {
+                            writeVar(out, OpCode.operand(instruction));
+                        }
+                    }
+                    writeVar(out, expression.getConstants().length);
+                    for (double constant : expression.getConstants()) {
+                        writeConstant(out, constant);
+                    }
+                    writeVar(out, expression.getVariables().length);
+                    for (String variable : expression.getVariables()) {
+                        writeVar(out, names.get(variable));
+                    }
+                    writeVar(out, expression.getFunctions().length);
+                    for (FunctionDefinition function : expression.getFunctions()) {
+                        writeVar(out, names.get(function.getName()));
+                        out.writeByte(function.getArity());
+                    }
+                    writeVar(out, expression.getLocalSlots());
+                    writeVar(out, expression.getMaxStack());
+                }
+                out.flush();
+                new DataOutputStream(raw).writeInt((int) checksum.getValue());
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Carga las expresiones enlazando sus funciones con el registro compartido.
+     */
+    public static List<CompiledExpression> read(Path file) throws Exception {
+        return read(file, FunctionRegistry.getDefault());
+    }
+
+    /**
+     * Carga las expresiones en el orden en que se guardaron.
+     *
+     * @param registry Registro con el que se enlazan las funciones llamadas con CALL
+     * @throws Exception Si el archivo no es una instantánea válida de esta versión, está
+     *                   dañado, o llama a una función que no está en el registro (o tiene otra aridad)
+     */
+    public static List<CompiledExpression> read(Path file, FunctionRegistry registry) throws Exception {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        int size = buffer.capacity();
+        if (size < 12 || buffer.getInt(0) != MAGIC) {
+            throw new Exception(ExpectedMessage.invalidSnapshot("no es una instantánea de expresiones"));
+        }
+        if (buffer.getShort(4) != VERSION) {
+            throw new Exception(ExpectedMessage.invalidSnapshot("versión " + buffer.getShort(4)
+                    + " no soportada (se esperaba " + VERSION + ")"));
+        }
+        CRC32C checksum = new CRC32C();
+        checksum.update(buffer.duplicate().limit(size - 4));
+        if ((int) checksum.getValue() != buffer.getInt(size - 4)) {
+            throw new Exception(ExpectedMessage.invalidSnapshot("la suma de control no coincide"));
+        }
+
+        ByteBuffer in = buffer.duplicate().position(6).limit(size - 4);
+        try {
+            String[] names = new String[count(in, 1)];
+            for (int i = 0; i < names.length; i++) {
+                names[i] = readString(in);
+            }
+            int count = count(in, 1);
+            List<CompiledExpression> expressions = new ArrayList<>(count);
+            for (int e = 0; e < count; e++) {
+                String source = readString(in);
+                long fingerprint = in.getLong();
+                int[] code = new int[count(in, 1)];
+                for (int i = 0; i < code.length; i++) {
+                    int opcode = in.get() & 0xFF;
+                    code[i] = hasOperand(opcode) ? OpCode.encode(opcode, readVar(in)) : opcode;
+                }
+                double[] constants = new double[count(in, 2)];
+                for (int i = 0; i < constants.length; i++) {
+                    constants[i] = readConstant(in);
+                }
+                String[] variables = new String[count(in, 1)];
+                for (int i = 0; i < variables.length; i++) {
+                    variables[i] = names[index(readVar(in), names.length)];
+                }
+                FunctionDefinition[] functions = new FunctionDefinition[count(in, 2)];
+                for (int i = 0; i < functions.length; i++) {
+                    functions[i] = resolve(names[index(readVar(in), names.length)], in.get(), registry);
+                }
+                int localSlots = readVar(in);
+                int maxStack = readVar(in);
+                verify(code, constants.length, variables.length, functions, localSlots, maxStack);
+                expressions.add(new CompiledExpression(source, code, constants, variables, functions,
+                        localSlots, maxStack, fingerprint));
+            }
+            if (in.hasRemaining()) {
+                throw new Exception(ExpectedMessage.invalidSnapshot("datos adicionales después de la última expresión"));
+            }
+            return expressions;
+        } catch (BufferUnderflowException e) {
+            throw new Exception(ExpectedMessage.invalidSnapshot("el archivo termina antes de tiempo"));
+        }
+    }
+
+    // ========== Codificación ==========
+
+    private static boolean hasOperand(int opcode) {
+        return opcode == OpCode.CONST || opcode == OpCode.LOAD || opcode == OpCode.CALL
+                || opcode == OpCode.STORE || opcode == OpCode.LOCAL;
+    }
+
+    private static void writeVar(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVar(ByteBuffer in) throws Exception {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new Exception(ExpectedMessage.invalidSnapshot("entero mal codificado"));
+    }
+
+    /**
+     * Escribe la constante como k / 10^s con la menor escala que la reproduce exactamente,
+     * o el double completo si ninguna lo hace (o si es -0.0, NaN o infinita).
+     */
+    private static void writeConstant(DataOutputStream out, double value) throws IOException {
+        if (!Double.isFinite(value) || Double.doubleToRawLongBits(value) == Double.doubleToRawLongBits(-0.0)) {
+            out.writeByte(0xFF);
+            out.writeDouble(value);
+            return;
+        }
+        for (int scale = 0; scale < POWERS_OF_TEN.length; scale++) {
+            double scaled = value * POWERS_OF_TEN[scale];
+            if (Math.abs(scaled) < 1L << 53) {
+                long k = Math.round(scaled);
+                if (k / POWERS_OF_TEN[scale] == value) {
+                    out.writeByte(scale);
+                    long zigzag = (k << 1) ^ (k >> 63);
+                    while ((zigzag & ~0x7FL) != 0) {
+                        out.writeByte((int) (zigzag & 0x7F) | 0x80);
+                        zigzag >>>= 7;
+                    }
+                    out.writeByte((int) zigzag);
+                    return;
+                }
+            }
+        }
+        out.writeByte(0xFF);
+        out.writeDouble(value);
+    }
+
+    private static double readConstant(ByteBuffer in) throws Exception {
+        int scale = in.get() & 0xFF;
+        if (scale == 0xFF) {
+            return in.getDouble();
+        }
+        if (scale >= POWERS_OF_TEN.length) {
+            throw new Exception(ExpectedMessage.invalidSnapshot("escala de constante inválida: " + scale));
+        }
+        long zigzag = 0;
+        for (int shift = 0; ; shift += 7) {
+            if (shift > 56) {
+                throw new Exception(ExpectedMessage.invalidSnapshot("constante mal codificada"));
+            }
+            int b = in.get();
+            zigzag |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                break;
+            }
+        }
+        long k = (zigzag >>> 1) ^ -(zigzag & 1);
+        return k / POWERS_OF_TEN[scale];
+    }
+
+    private static void writeString(DataOutputStream out, String text) throws IOException {
+        if (text == null) {
+            writeVar(out, 0);
+            return;
+        }
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        writeVar(out, bytes.length + 1);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) throws Exception {
+        int length = readVar(in) - 1;
+        if (length == -1) {
+            return null;
+        }
+        if (length < 0 || length > in.remaining()) {
+            throw new Exception(ExpectedMessage.invalidSnapshot("longitud de texto inválida: " + length));
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Lee una cantidad de elementos y comprueba que quepan en lo que queda del archivo.
+     *
+     * @param bytesPerElement Tamaño mínimo de cada elemento
+     */
+    private static int count(ByteBuffer in, int bytesPerElement) throws Exception {
+        int count = readVar(in);
+        if (count < 0 || (long) count * bytesPerElement > in.remaining()) {
+            throw new Exception(ExpectedMessage.invalidSnapshot("cantidad inválida: " + count));
+        }
+        return count;
+    }
+
+    private static int index(int index, int size) throws Exception {
+        if (index < 0 || index >= size) {
+            throw new Exception(ExpectedMessage.invalidSnapshot("índice fuera de rango: " + index));
+        }
+        return index;
+    }
+
+    private static FunctionDefinition resolve(String name, int arity, FunctionRegistry registry) throws Exception {
+        FunctionDefinition function = registry.lookup(name);
+        if (function == null) {
+            throw new Exception(ExpectedMessage.unknownFunction(name));
+        }
+        if (function.getArity() != arity) {
+            throw new Exception(ExpectedMessage.wrongArgumentCount(name, function.getArity(), arity));
+        }
+        return function;
+    }
+
+    /**
+     * Comprueba que cada operando esté dentro de su tabla, que la pila no quede vacía ni
+     * supere maxStack, que cada variable local se guarde antes de leerse y que el programa
+     * deje exactamente un resultado.
+     */
+    private static void verify(int[] code, int constants, int variables, FunctionDefinition[] functions,
+                               int localSlots, int maxStack) throws Exception {
+        boolean[] stored = new boolean[Math.max(0, localSlots)];
+        int depth = 0;
+        for (int instruction : code) {
+            int operand = OpCode.operand(instruction);
+            int pops;
+            int pushes = 1;
+            switch (OpCode.opcode(instruction)) {
+                case OpCode.CONST -> {
+                    index(operand, constants);
+                    pops = 0;
+                }
+                case OpCode.LOAD -> {
+                    index(operand, variables);
+                    pops = 0;
+                }
+                case OpCode.ADD, OpCode.SUB, OpCode.MUL, OpCode.DIV, OpCode.POW -> pops = 2;
+                case OpCode.SIN, OpCode.COS, OpCode.TAN -> pops = 1;
+                case OpCode.CALL -> pops = functions[index(operand, functions.length)].getArity();
+                case OpCode.STORE -> {
+                    stored[index(operand, stored.length)] = true;
+                    pops = 1;
+                    pushes = 0;
+                }
+                case OpCode.LOCAL -> {
+                    if (!stored[index(operand, stored.length)]) {
+                        throw new Exception(ExpectedMessage.invalidSnapshot("variable local leída antes de guardarse"));
+                    }
+                    pops = 0;
+                }
+                default -> throw new Exception(ExpectedMessage.invalidSnapshot("instrucción inválida: " + instruction));
+            }
+            if (depth < pops) {
+                throw new Exception(ExpectedMessage.invalidSnapshot("la pila queda vacía"));
+            }
+            depth += pushes - pops;
+            if (depth > maxStack) {
+                throw new Exception(ExpectedMessage.invalidSnapshot("la pila supera el máximo declarado"));
+            }
+        }
+        if (depth != 1) {
+            throw new Exception(ExpectedMessage.invalidSnapshot("el programa no deja un único resultado"));
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package domine.compiler;
+
+/**
+ * Códigos de operación de la máquina de pila usada por {@link CompiledExpression}.
+ *
+ * Cada instrucción se codifica en un único entero: los 8 bits bajos contienen el
+ * código de operación y los bits altos el operando (índice de constante, de variable,
+ * de función o de variable local).
+ *
+ *   instrucción = opcode | (operando << 8)
+ */
+public final class OpCode {
+    /** Apila una constante: operando = índice en la tabla de constantes */
+    public static final int CONST = 0;
+    /** Apila el valor de una variable: operando = índice en la tabla de variables */
+    public static final int LOAD = 1;
+
+    // ========== Operadores binarios (desapilan dos valores, apilan uno) ==========
+    public static final int ADD = 2;
+    public static final int SUB = 3;
+    public static final int MUL = 4;
+    public static final int DIV = 5;
+    public static final int POW = 6;
+
+    // ========== Funciones (desapilan un valor, apilan uno) ==========
+    public static final int SIN = 7;
+    public static final int COS = 8;
+    public static final int TAN = 9;
+    /** Llama a una función del registro: operando = índice en la tabla de funciones.
+     *  Desapila tantos valores como la aridad de la función y apila el resultado */
+    public static final int CALL = 10;
+
+    // ========== Variables locales ==========
+    /** Desapila un valor y lo guarda en una variable local: operando = índice de la variable local */
+    public static final int STORE = 11;
+    /** Apila el valor de una variable local: operando = índice de la variable local */
+    public static final int LOCAL = 12;
+
+    private OpCode() {
+    }
+
+    public static int encode(int opcode, int operand) {
+        return opcode | (operand << 8);
+    }
+
+    public static int opcode(int instruction) {
+        return instruction & 0xFF;
+    }
+
+    public static int operand(int instruction) {
+        return instruction >>> 8;
+    }
+}
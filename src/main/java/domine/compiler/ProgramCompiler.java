@@ -0,0 +1,361 @@
+package domine.compiler;
+
+import domine.Lexer;
+import domine.Parser;
+import domine.ast.*;
+import domine.functions.FunctionDefinition;
+import domine.metrics.CompileEvent;
+import resources.message.ExpectedMessage;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compilador de varias expresiones con nombre a un único programa ({@link CompiledProgram})
+ * que calcula todas las salidas en una sola pasada.
+ *
+ * 1. Los AST de todas las salidas se unen en un grafo acíclico en el que cada
+ *    subexpresión aparece una sola vez (hash-consing): sin(t) en "sin(t)*r" y en
+ *    "sin(t)^2" es el mismo nodo, igual que las constantes y las variables repetidas.
+ *    La suma y el producto se normalizan ordenando sus operandos, así que x*y y y*x
+ *    también se comparten.
+ * 2. Se descartan los nodos que ninguna salida usa. Las definiciones de variables locales
+ *    se conservan aunque su valor no se use: como en ASTNode.evaluate() y en
+ *    {@link CompiledExpression}, "a = 1/0; 5" produce la división por cero.
+ * 3. Los nodos se convierten en instrucciones de tres direcciones sobre registros. El
+ *    registro de un resultado intermedio se libera tras su último uso y lo reutiliza la
+ *    instrucción siguiente, de modo que la cantidad de registros (y de columnas en el
+ *    modo por lotes) depende del ancho del grafo y no de su tamaño.
+ *
+ * Ejemplo:
+ *   x = sin(t)*r, y = cos(t)*r, m = sin(t)^2 + cos(t)^2
+ *   -> sin(t) y cos(t) se calculan una vez por fila para las tres salidas
+ */
+public class ProgramCompiler {
+    // ========== Grafo (nodos únicos en orden topológico) ==========
+    private final List<Integer> op = new ArrayList<>();
+    private final List<int[]> children = new ArrayList<>();
+    private final List<FunctionDefinition> functions = new ArrayList<>();
+    private final List<Double> constants = new ArrayList<>();
+    private final List<Integer> variables = new ArrayList<>();     // Índice de variable de los nodos LOAD
+    private final Map<Key, Integer> unique = new HashMap<>();
+    private final Map<String, Integer> variableIndex = new LinkedHashMap<>();
+    private final Map<LocalBinding, Integer> localNodes = new IdentityHashMap<>();
+    private final List<Integer> definitions = new ArrayList<>();   // Nodo del valor de cada variable local
+
+    private long separateOperations;      // Operaciones si cada salida se evaluara por separado
+    private long separateCalls;           // Llamadas a funciones si cada salida se evaluara por separado
+
+    private ProgramCompiler() {
+    }
+
+    /**
+     * Analiza y compila un conjunto de expresiones con nombre.
+     *
+     * @param sources Nombre de cada salida -> texto de la expresión, en el orden de las salidas
+     * @return Programa que calcula todas las salidas
+     * @throws Exception Si alguna expresión tiene errores léxicos o sintácticos
+     */
+    public static CompiledProgram compile(Map<String, String> sources) throws Exception {
+        Map<String, ASTNode> trees = new LinkedHashMap<>();
+        for (Map.Entry<String, String> entry : sources.entrySet()) {
+            trees.put(entry.getKey(), new Parser(new Lexer(entry.getValue()).tokenize()).parseToAST());
+        }
+        return compileTrees(trees);
+    }
+
+    /**
+     * Compila un conjunto de AST con nombre.
+     *
+     * @param outputs Nombre de cada salida -> raíz de su AST, en el orden de las salidas
+     * @return Programa que calcula todas las salidas
+     * @throws Exception Si algún AST contiene una función u operador desconocido
+     *
+     * Con una grabación de JFR activa se registra un {@link CompileEvent} si supera su umbral.
+     */
+    public static CompiledProgram compileTrees(Map<String, ASTNode> outputs) throws Exception {
+        if (outputs.isEmpty()) {
+            throw new IllegalArgumentException("El programa debe tener al menos una salida");
+        }
+        CompileEvent event = new CompileEvent();
+        if (!event.isEnabled()) {
+            return generate(outputs);
+        }
+        event.begin();
+        CompiledProgram compiled = null;
+        Throwable error = null;
+        try {
+            compiled = generate(outputs);
+            return compiled;
+        } catch (Throwable e) {
+            error = e;
+            throw e;
+        } finally {
+            long nodes = 0;
+            for (ASTNode root : outputs.values()) {
+                nodes += root.getNodeCount();
+            }
+            event.finish(compiled != null ? compiled.getFingerprint() : 0, outputs.size(), nodes,
+                    compiled != null ? compiled.getOperations() : -1, error);
+        }
+    }
+
+    private static CompiledProgram generate(Map<String, ASTNode> outputs) throws Exception {
+        ProgramCompiler compiler = new ProgramCompiler();
+        int[] roots = new int[outputs.size()];
+        int k = 0;
+        for (ASTNode root : outputs.values()) {
+            roots[k++] = compiler.add(root);
+            compiler.countSeparate(root);
+        }
+        return compiler.allocate(outputs.keySet().toArray(new String[0]), roots);
+    }
+
+    // ========== Construcción del grafo ==========
+
+    /**
+     * Agrega el subárbol al grafo y devuelve el índice de su nodo (existente o nuevo).
+     */
+    private int add(ASTNode node) throws Exception {
+        if (node instanceof NumberNode) {
+            double value = ((NumberNode) node).getValue();
+            return intern(OpCode.CONST, Double.doubleToLongBits(value), null, null, value, -1);
+        } else if (node instanceof VariableNode) {
+            String name = ((VariableNode) node).getName();
+            int index = variableIndex.computeIfAbsent(name, n -> variableIndex.size());
+            return intern(OpCode.LOAD, index, null, null, 0, index);
+        } else if (node instanceof BinaryOperationNode) {
+            BinaryOperationNode binOp = (BinaryOperationNode) node;
+            int a = add(binOp.getLeft());
+            int b = add(binOp.getRight());
+            int code = ExpressionCompiler.binaryOpCode(binOp.getOperator());
+            if ((code == OpCode.ADD || code == OpCode.MUL) && a > b) {
+                int swap = a; // Operación conmutativa: un solo orden canónico de operandos
+                a = b;
+                b = swap;
+            }
+            return intern(code, 0, new int[]{a, b}, null, 0, -1);
+        } else if (node instanceof FunctionNode) {
+            FunctionNode funcNode = (FunctionNode) node;
+            int[] arguments = new int[funcNode.getArguments().size()];
+            for (int i = 0; i < arguments.length; i++) {
+                arguments[i] = add(funcNode.getArguments().get(i));
+            }
+            int code = ExpressionCompiler.functionOpCode(funcNode.getFunction());
+            return intern(code, 0, arguments, code == OpCode.CALL ? funcNode.getFunction() : null, 0, -1);
+        } else if (node instanceof LetNode) {
+            LetNode letNode = (LetNode) node;
+            int value = add(letNode.getBinding().getValue());
+            localNodes.put(letNode.getBinding(), value);
+            definitions.add(value);
+            return add(letNode.getBody());
+        } else if (node instanceof LocalVariableNode) {
+            LocalBinding binding = ((LocalVariableNode) node).getBinding();
+            Integer index = localNodes.get(binding);
+            if (index == null) {
+                throw new Exception(ExpectedMessage.usedBeforeDefinition(binding.getName()));
+            }
+            return index;
+        }
+        throw new Exception(ExpectedMessage.unExpectedToken(String.valueOf(node)));
+    }
+
+    private int intern(int code, long operand, int[] arguments, FunctionDefinition function,
+                       double constant, int variable) {
+        Key key = new Key(code, operand, arguments, function);
+        Integer existing = unique.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        int index = op.size();
+        op.add(code);
+        children.add(arguments);
+        functions.add(function);
+        constants.add(constant);
+        variables.add(variable);
+        unique.put(key, index);
+        return index;
+    }
+
+    /**
+     * Operaciones que haría la evaluación de la salida por separado (cada variable local
+     * una vez, como en {@link CompiledExpression}).
+     */
+    private void countSeparate(ASTNode node) {
+        if (node instanceof BinaryOperationNode) {
+            separateOperations++;
+            countSeparate(((BinaryOperationNode) node).getLeft());
+            countSeparate(((BinaryOperationNode) node).getRight());
+        } else if (node instanceof FunctionNode) {
+            separateOperations++;
+            separateCalls++;
+            for (ASTNode argument : ((FunctionNode) node).getArguments()) {
+                countSeparate(argument);
+            }
+        } else if (node instanceof LetNode) {
+            countSeparate(((LetNode) node).getBinding().getValue());
+            countSeparate(((LetNode) node).getBody());
+        }
+    }
+
+    // ========== Asignación de registros ==========
+
+    /**
+     * Convierte el grafo en instrucciones sobre registros.
+     *
+     * Registros: primero las constantes, luego las variables y después los resultados
+     * intermedios. Los de las salidas no se liberan (se copian al final de cada fila o
+     * bloque); los demás vuelven a la lista libre tras su último uso, o enseguida si nadie
+     * los usa (definiciones locales que solo se evalúan por sus errores).
+     */
+    private CompiledProgram allocate(String[] outputNames, int[] roots) {
+        int nodes = op.size();
+        boolean[] live = new boolean[nodes];
+        boolean[] output = new boolean[nodes];
+        for (int root : roots) {
+            live[root] = true;
+            output[root] = true;
+        }
+        for (int definition : definitions) {
+            live[definition] = true;
+        }
+        int[] lastUse = new int[nodes];
+        for (int node = nodes - 1; node >= 0; node--) {
+            if (live[node] && children.get(node) != null) {
+                for (int child : children.get(node)) {
+                    live[child] = true;
+                    lastUse[child] = Math.max(lastUse[child], node);
+                }
+            }
+        }
+
+        int[] register = new int[nodes];
+        List<Double> initial = new ArrayList<>();
+        for (int node = 0; node < nodes; node++) {
+            if (live[node] && op.get(node) == OpCode.CONST) {
+                register[node] = initial.size();
+                initial.add(constants.get(node));
+            }
+        }
+        int constantRegisters = initial.size();
+        int[] variableRegister = new int[variableIndex.size()];
+        Arrays.fill(variableRegister, -1); // Variable que solo aparece en código que no se usa
+        int registers = constantRegisters;
+        for (int node = 0; node < nodes; node++) {
+            if (live[node] && op.get(node) == OpCode.LOAD) {
+                register[node] = registers;
+                variableRegister[variables.get(node)] = registers++;
+            }
+        }
+
+        Deque<Integer> free = new ArrayDeque<>();
+        List<int[]> instructions = new ArrayList<>(); // {op, destino, a, b}
+        List<int[]> callArguments = new ArrayList<>();
+        List<FunctionDefinition> callFunctions = new ArrayList<>();
+        long calls = 0;
+        for (int node = 0; node < nodes; node++) {
+            int code = op.get(node);
+            if (!live[node] || code == OpCode.CONST || code == OpCode.LOAD) {
+                continue;
+            }
+            int[] args = children.get(node);
+            int[] argumentRegisters = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                argumentRegisters[i] = register[args[i]];
+            }
+            // Liberar antes de asignar permite escribir el resultado sobre un operando
+            for (int i = 0; i < args.length; i++) {
+                int child = args[i];
+                boolean repeated = false;
+                for (int j = 0; j < i; j++) {
+                    repeated |= args[j] == child;
+                }
+                int childCode = op.get(child);
+                if (!repeated && lastUse[child] == node && !output[child]
+                        && childCode != OpCode.CONST && childCode != OpCode.LOAD) {
+                    free.push(register[child]);
+                }
+            }
+            register[node] = free.isEmpty() ? registers++ : free.pop();
+
+            if (code >= OpCode.SIN && code <= OpCode.CALL) {
+                calls++;
+            }
+            instructions.add(new int[]{code, register[node], argumentRegisters[0],
+                    argumentRegisters.length > 1 ? argumentRegisters[1] : -1});
+            callArguments.add(code == OpCode.CALL ? argumentRegisters : null);
+            callFunctions.add(functions.get(node));
+            if (lastUse[node] == 0 && !output[node]) {
+                free.push(register[node]); // Sin usos: el nodo 0 es siempre una hoja
+            }
+        }
+
+        double[] registerTemplate = new double[registers];
+        for (int i = 0; i < constantRegisters; i++) {
+            registerTemplate[i] = initial.get(i);
+        }
+        int[] outputRegisters = new int[roots.length];
+        for (int i = 0; i < roots.length; i++) {
+            outputRegisters[i] = register[roots[i]];
+        }
+        int[][] code = instructions.toArray(new int[0][]);
+        int[] opcodes = new int[code.length];
+        int[] targets = new int[code.length];
+        int[] first = new int[code.length];
+        int[] second = new int[code.length];
+        for (int i = 0; i < code.length; i++) {
+            opcodes[i] = code[i][0];
+            targets[i] = code[i][1];
+            first[i] = code[i][2];
+            second[i] = code[i][3];
+        }
+
+        return new CompiledProgram(outputNames, variableIndex.keySet().toArray(new String[0]),
+                variableRegister, outputRegisters, registerTemplate, opcodes, targets, first, second,
+                callArguments.toArray(new int[0][]), callFunctions.toArray(new FunctionDefinition[0]),
+                calls, separateOperations, separateCalls);
+    }
+
+    /**
+     * Identidad estructural de un nodo: operación, operando (bits de la constante o índice
+     * de la variable), nodos hijos y función. Las funciones se comparan por instancia.
+     */
+    private static final class Key {
+        private final int code;
+        private final long operand;
+        private final int[] arguments;
+        private final FunctionDefinition function;
+        private final int hash;
+
+        Key(int code, long operand, int[] arguments, FunctionDefinition function) {
+            this.code = code;
+            this.operand = operand;
+            this.arguments = arguments;
+            this.function = function;
+            this.hash = 31 * (31 * (31 * code + Long.hashCode(operand)) + Arrays.hashCode(arguments))
+                    + System.identityHashCode(function);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return code == key.code && operand == key.operand && function == key.function
+                    && Arrays.equals(arguments, key.arguments);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
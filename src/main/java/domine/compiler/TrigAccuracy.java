@@ -0,0 +1,139 @@
+package domine.compiler;
+
+import java.util.Arrays;
+
+/**
+ * Niveles de precisión para sin, cos y tan en la evaluación de expresiones compiladas.
+ *
+ * EXACT usa Math.sin/cos/tan (error menor a 1 ulp). Los demás niveles reducen el argumento
+ * a r ∈ [-π/4, π/4] y evalúan polinomios en r² ajustados en los nodos de Chebyshev
+ * (casi minimax), lo que evita el costo de la reducción exacta y de los polinomios de
+ * grado alto de Math.
+ *
+ * Error relativo máximo respecto de Math, medido en todo el rango de los double
+ * (ver TrigAccuracyBenchmark):
+ *
+ *   Nivel    sin, cos, tan    Grado (sin, cos)
+ *   HIGH     1e-10            9, 8
+ *   MEDIUM   5e-8             7, 6
+ *   LOW      2e-5             5, 4
+ *
+ * Cerca de los ceros de sin y cos el error relativo se mantiene porque la reducción del
+ * argumento usa π/2 en tres partes (Cody–Waite), precisa para |x| < 2^19·π/2. Para
+ * argumentos mayores, infinitos o NaN todos los niveles recurren a Math, por lo que la
+ * cota se cumple también con argumentos grandes (sin ganancia de velocidad en ese caso).
+ */
+public enum TrigAccuracy {
+    EXACT(null, null),
+    HIGH(new double[]{0.9999999999956731, -0.16666666631591234, 0.008333328782465054,
+            -0.0001983920221404395, 2.7173457003682277e-06},
+            new double[]{0.9999999999524893, -0.499999996148574, 0.04166661669251971,
+                    -0.0013886617999333238, 2.4379831225809187e-05}),
+    MEDIUM(new double[]{0.9999999969177035, -0.16666650673996758, 0.008332035785597875,
+            -0.0001950390425094943},
+            new double[]{0.9999999723284944, -0.4999985641918234, 0.04165501492488942,
+                    -0.0013585779264897312}),
+    LOW(new double[]{0.9999985632639605, -0.1666247219458651, 0.008151506332465953},
+            new double[]{0.9999899797834089, -0.4997074250061803, 0.04039737638404761});
+
+    // π/2 en tres partes: las dos primeras con 33 bits significativos, de modo que k·PIO2_1
+    // y k·PIO2_2 son exactos para |k| < 2^20
+    private static final double PIO2_1 = 1.57079632673412561417e+00;
+    private static final double PIO2_2 = 6.07710050630396597660e-11;
+    private static final double PIO2_3 = 2.02226624879595063154e-21;
+    private static final double TWO_OVER_PI = 6.36619772367581382433e-01;
+    private static final double SHIFTER = 0x1.8p52; // Sumarlo redondea al entero más cercano (sin Math.round)
+    private static final double REDUCTION_LIMIT = 0x1p19 * Math.PI / 2;
+
+    private final boolean exact;
+    private final int degree;               // Grado de los polinomios en r² (2, 3 o 4)
+    private final double s0, s1, s2, s3, s4; // sin(r) = r·(s0 + s1·r² + s2·r⁴ + ...)
+    private final double c0, c1, c2, c3, c4; // cos(r) = c0 + c1·r² + c2·r⁴ + ...
+
+    TrigAccuracy(double[] sinCoefficients, double[] cosCoefficients) {
+        this.exact = sinCoefficients == null;
+        double[] s = exact ? new double[5] : Arrays.copyOf(sinCoefficients, 5);
+        double[] c = exact ? new double[5] : Arrays.copyOf(cosCoefficients, 5);
+        this.degree = exact ? 0 : sinCoefficients.length - 1;
+        this.s0 = s[0]; this.s1 = s[1]; this.s2 = s[2]; this.s3 = s[3]; this.s4 = s[4];
+        this.c0 = c[0]; this.c1 = c[1]; this.c2 = c[2]; this.c3 = c[3]; this.c4 = c[4];
+    }
+
+    public double sin(double x) {
+        if (exact || !(Math.abs(x) <= REDUCTION_LIMIT)) {
+            return Math.sin(x);
+        }
+        double shifted = x * TWO_OVER_PI + SHIFTER;
+        long k = Double.doubleToRawLongBits(shifted); // Los bits bajos son los de round(x·2/π)
+        double r = reduce(x, shifted - SHIFTER);
+        // Cuadrante k: sin, cos, -sin, -cos
+        return select(sinKernel(r), cosKernel(r), k, k);
+    }
+
+    public double cos(double x) {
+        if (exact || !(Math.abs(x) <= REDUCTION_LIMIT)) {
+            return Math.cos(x);
+        }
+        double shifted = x * TWO_OVER_PI + SHIFTER;
+        long k = Double.doubleToRawLongBits(shifted); // Los bits bajos son los de round(x·2/π)
+        double r = reduce(x, shifted - SHIFTER);
+        // Cuadrante k: cos, -sin, -cos, sin
+        return select(cosKernel(r), sinKernel(r), k, k + 1);
+    }
+
+    public double tan(double x) {
+        if (exact || !(Math.abs(x) <= REDUCTION_LIMIT)) {
+            return Math.tan(x);
+        }
+        double shifted = x * TWO_OVER_PI + SHIFTER;
+        long k = Double.doubleToRawLongBits(shifted); // Los bits bajos son los de round(x·2/π)
+        double r = reduce(x, shifted - SHIFTER);
+        double s = sinKernel(r);
+        double c = cosKernel(r);
+        // Cuadrante par: s / c; impar: -c / s
+        return select(s, c, k, (k & 1) << 1) / select(c, s, k, 0);
+    }
+
+    /**
+     * r = x - k·π/2, restando las tres partes de π/2 de mayor a menor.
+     */
+    private static double reduce(double x, double k) {
+        return ((x - k * PIO2_1) - k * PIO2_2) - k * PIO2_3;
+    }
+
+    /**
+     * Elige even si k es par u odd si es impar, y le cambia el signo si el bit 1 de sign
+     * está activo. Se resuelve con aritmética de bits en lugar de saltos: el cuadrante de
+     * argumentos aleatorios no es predecible y un salto mal predicho cuesta más que ambos
+     * polinomios.
+     */
+    private static double select(double even, double odd, long k, long sign) {
+        long mask = -(k & 1); // 0 si k es par, todos los bits en 1 si es impar
+        long bits = (Double.doubleToRawLongBits(even) & ~mask) | (Double.doubleToRawLongBits(odd) & mask);
+        return Double.longBitsToDouble(bits ^ ((sign & 2) << 62));
+    }
+
+    private double sinKernel(double r) {
+        double t = r * r;
+        switch (degree) {
+            case 2:
+                return r * (s0 + t * (s1 + t * s2));
+            case 3:
+                return r * (s0 + t * (s1 + t * (s2 + t * s3)));
+            default:
+                return r * (s0 + t * (s1 + t * (s2 + t * (s3 + t * s4))));
+        }
+    }
+
+    private double cosKernel(double r) {
+        double t = r * r;
+        switch (degree) {
+            case 2:
+                return c0 + t * (c1 + t * c2);
+            case 3:
+                return c0 + t * (c1 + t * (c2 + t * c3));
+            default:
+                return c0 + t * (c1 + t * (c2 + t * (c3 + t * c4)));
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package domine.compiler;
+
+import lombok.Getter;
+import resources.message.ExpectedMessage;
+
+import java.util.Map;
+
+/**
+ * Vista de una expresión compilada como función de una sola variable, con el resto de
+ * variables fijas. Es la forma en que la usan el muestreo, la búsqueda de raíces y la
+ * integración numérica.
+ *
+ * Al igual que {@link CompiledExpression}, no guarda estado entre evaluaciones y puede
+ * usarse desde varios hilos a la vez.
+ */
+public class UnivariateFunction {
+    @Getter
+    private final CompiledExpression expression;
+    @Getter
+    private final String variable;
+    private final int slot;         // Posición de la variable en la tabla de variables (-1 si no aparece)
+    private final double[] fixed;   // Valores del resto de variables
+
+    /**
+     * @param expression Expresión compilada
+     * @param variable Variable libre
+     * @param others Valores fijos del resto de variables de la expresión
+     * @throws Exception Si falta el valor de alguna otra variable
+     */
+    public UnivariateFunction(CompiledExpression expression, String variable, Map<String, Double> others)
+            throws Exception {
+        this.expression = expression;
+        this.variable = variable;
+        this.slot = expression.indexOf(variable);
+        this.fixed = new double[expression.getVariables().length];
+        for (int i = 0; i < fixed.length; i++) {
+            if (i == slot) {
+                continue;
+            }
+            Double value = others.get(expression.getVariables()[i]);
+            if (value == null) {
+                throw new Exception(ExpectedMessage.unDefinedVariable(expression.getVariables()[i]));
+            }
+            fixed[i] = value;
+        }
+    }
+
+    /**
+     * Valor de la expresión en x; NaN si no está definida (división por cero).
+     */
+    public double valueAt(double x) {
+        double[] values = fixed.clone();
+        if (slot >= 0) {
+            values[slot] = x;
+        }
+        try {
+            return expression.evaluate(values);
+        } catch (Exception e) {
+            return Double.NaN;
+        }
+    }
+}
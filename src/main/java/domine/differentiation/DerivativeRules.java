@@ -0,0 +1,44 @@
+package domine.differentiation;
+
+import domine.ast.FunctionNode;
+import domine.functions.FunctionDefinition;
+import resources.message.ExpectedMessage;
+
+/**
+ * Derivadas locales de cada operación, compartidas por los modos hacia adelante y reverso.
+ */
+final class DerivativeRules {
+
+    private DerivativeRules() {
+    }
+
+    /**
+     * ∂(u^v)/∂u = v·u^(v-1)
+     */
+    static double powByBase(double u, double v) {
+        return v == 0 ? 0 : v * Math.pow(u, v - 1);
+    }
+
+    /**
+     * ∂(u^v)/∂v = u^v·ln(u)
+     *
+     * Si u^v = 0 la derivada se toma como 0 (límite de 0·ln(0) cuando v > 0) en lugar de NaN.
+     */
+    static double powByExponent(double u, double result) {
+        return result == 0 ? 0 : result * Math.log(u);
+    }
+
+    /**
+     * Función de la llamada, si tiene derivadas registradas. Las derivadas de las funciones
+     * predefinidas están en {@link domine.functions.StandardFunctions}: por ejemplo,
+     * tan'(a) se calcula como 1/cos²(a), exacta incluso cerca de los polos, donde las
+     * diferencias finitas pierden toda la precisión.
+     */
+    static FunctionDefinition differentiable(FunctionNode funcNode) throws Exception {
+        FunctionDefinition function = funcNode.getFunction();
+        if (!function.isDifferentiable()) {
+            throw new Exception(ExpectedMessage.noDerivative(funcNode.getFunctionName()));
+        }
+        return function;
+    }
+}
@@ -0,0 +1,75 @@
+package domine.differentiation;
+
+/**
+ * Número dual con varias direcciones de derivación: a + Σ bᵢ·εᵢ, con εᵢ·εⱼ = 0.
+ *
+ * La parte real es el valor de la expresión y cada componente de la parte dual es la
+ * derivada respecto de una de las variables sembradas. Propagar duales a través de
+ * las operaciones aplica la regla de la cadena en una sola pasada hacia adelante.
+ */
+public final class Dual {
+    final double value;
+    final double[] tangent;
+
+    Dual(double value, double[] tangent) {
+        this.value = value;
+        this.tangent = tangent;
+    }
+
+    static Dual constant(double value, int directions) {
+        return new Dual(value, new double[directions]);
+    }
+
+    static Dual variable(double value, int directions, int seed) {
+        double[] tangent = new double[directions];
+        if (seed >= 0) {
+            tangent[seed] = 1.0;
+        }
+        return new Dual(value, tangent);
+    }
+
+    /**
+     * Combina las partes duales de dos operandos: da·this' + db·other'.
+     */
+    Dual combine(double value, double da, Dual other, double db) {
+        double[] result = new double[tangent.length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = da * tangent[i] + db * other.tangent[i];
+        }
+        return new Dual(value, result);
+    }
+
+    /**
+     * Aplica una función de una variable: f(a) + f'(a)·b·ε.
+     */
+    Dual chain(double value, double derivative) {
+        double[] result = new double[tangent.length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = derivative * tangent[i];
+        }
+        return new Dual(value, result);
+    }
+
+    /**
+     * Aplica una función de varias variables: Σ ∂f/∂aᵢ · aᵢ'.
+     */
+    static Dual combine(double value, Dual[] arguments, double[] partials) {
+        double[] result = new double[arguments[0].tangent.length];
+        for (int k = 0; k < arguments.length; k++) {
+            double[] tangent = arguments[k].tangent;
+            for (int i = 0; i < result.length; i++) {
+                result[i] += partials[k] * tangent[i];
+            }
+        }
+        return new Dual(value, result);
+    }
+
+    boolean isConstant() {
+        for (double t : tangent) {
+            if (t != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
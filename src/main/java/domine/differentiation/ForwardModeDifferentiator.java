@@ -0,0 +1,143 @@
+package domine.differentiation;
+
+import domine.ast.*;
+import domine.functions.FunctionDefinition;
+import resources.message.ExpectedMessage;
+
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Diferenciación automática en modo hacia adelante mediante números duales.
+ *
+ * Recorre el AST una sola vez propagando, junto a cada valor, su derivada respecto de
+ * cada variable solicitada. El costo crece con la cantidad de variables pedidas, por lo
+ * que conviene cuando son pocas; para el gradiente completo de muchas variables es
+ * preferible {@link ReverseModeDifferentiator}.
+ *
+ * El número dual de una variable local se calcula una vez y se reutiliza en cada
+ * aparición (los duales son inmutables).
+ *
+ * Ejemplo:
+ *   f(x, y) = sin(x) * y, en x = 0, y = 2
+ *   derivative(f, {x: 0, y: 2}, "x") -> cos(0) * 2 = 2
+ */
+public class ForwardModeDifferentiator {
+    private final Map<String, Double> values;
+    private final Map<String, Integer> seeds;
+    private final Map<LocalBinding, Dual> locals = new IdentityHashMap<>();
+
+    private ForwardModeDifferentiator(Map<String, Double> values, Map<String, Integer> seeds) {
+        this.values = values;
+        this.seeds = seeds;
+    }
+
+    /**
+     * Derivada de la expresión respecto de una variable.
+     *
+     * @param root Raíz del AST
+     * @param values Valores de las variables
+     * @param variable Variable respecto de la cual derivar
+     * @return ∂f/∂variable
+     * @throws Exception Si falta una variable, hay división por cero o una función desconocida
+     */
+    public static double derivative(ASTNode root, Map<String, Double> values, String variable) throws Exception {
+        return gradient(root, values, List.of(variable)).get(variable);
+    }
+
+    /**
+     * Derivadas parciales respecto de las variables indicadas, en una sola pasada.
+     *
+     * @param root Raíz del AST
+     * @param values Valores de las variables
+     * @param variables Variables respecto de las cuales derivar
+     * @return Valor y derivadas parciales
+     * @throws Exception Si falta una variable, hay división por cero o una función desconocida
+     */
+    public static Gradient gradient(ASTNode root, Map<String, Double> values, List<String> variables) throws Exception {
+        Map<String, Integer> seeds = new LinkedHashMap<>();
+        for (String variable : variables) {
+            seeds.putIfAbsent(variable, seeds.size());
+        }
+
+        Dual result = new ForwardModeDifferentiator(values, seeds).evaluate(root);
+
+        Map<String, Double> partials = new LinkedHashMap<>();
+        for (Map.Entry<String, Integer> seed : seeds.entrySet()) {
+            partials.put(seed.getKey(), result.tangent[seed.getValue()]);
+        }
+        return new Gradient(result.value, partials);
+    }
+
+    private Dual evaluate(ASTNode node) throws Exception {
+        int directions = seeds.size();
+
+        if (node instanceof NumberNode) {
+            return Dual.constant(((NumberNode) node).getValue(), directions);
+        } else if (node instanceof VariableNode) {
+            String name = ((VariableNode) node).getName();
+            Double value = values.get(name);
+            if (value == null) {
+                throw new Exception(ExpectedMessage.unDefinedVariable(name));
+            }
+            return Dual.variable(value, directions, seeds.getOrDefault(name, -1));
+        } else if (node instanceof BinaryOperationNode) {
+            BinaryOperationNode binOp = (BinaryOperationNode) node;
+            Dual a = evaluate(binOp.getLeft());
+            Dual b = evaluate(binOp.getRight());
+            double u = a.value;
+            double v = b.value;
+
+            switch (binOp.getOperator()) {
+                case "+":
+                    return a.combine(u + v, 1, b, 1);
+                case "-":
+                    return a.combine(u - v, 1, b, -1);
+                case "*":
+                    return a.combine(u * v, v, b, u);
+                case "/":
+                    if (v == 0) {
+                        throw new Exception(ExpectedMessage.dividedByZero());
+                    }
+                    return a.combine(u / v, 1 / v, b, -u / (v * v));
+                case "^":
+                    double result = Math.pow(u, v);
+                    // Con exponente constante se omite el término ln(u), que sería NaN para u < 0
+                    double byExponent = b.isConstant() ? 0 : DerivativeRules.powByExponent(u, result);
+                    return a.combine(result, DerivativeRules.powByBase(u, v), b, byExponent);
+                default:
+                    throw new Exception(ExpectedMessage.unknownOperator(binOp.getOperator()));
+            }
+        } else if (node instanceof FunctionNode) {
+            FunctionNode funcNode = (FunctionNode) node;
+            FunctionDefinition function = DerivativeRules.differentiable(funcNode);
+            List<ASTNode> arguments = funcNode.getArguments();
+            if (arguments.size() == 1) {
+                Dual a = evaluate(arguments.get(0));
+                return a.chain(function.invoke(a.value), function.derivative(a.value));
+            }
+            Dual[] duals = new Dual[arguments.size()];
+            double[] point = new double[duals.length];
+            for (int i = 0; i < duals.length; i++) {
+                duals[i] = evaluate(arguments.get(i));
+                point[i] = duals[i].value;
+            }
+            return Dual.combine(function.invoke(point), duals, function.partials(point));
+        } else if (node instanceof LetNode) {
+            LetNode letNode = (LetNode) node;
+            locals.put(letNode.getBinding(), evaluate(letNode.getBinding().getValue()));
+            return evaluate(letNode.getBody());
+        } else if (node instanceof LocalVariableNode) {
+            LocalBinding binding = ((LocalVariableNode) node).getBinding();
+            Dual local = locals.get(binding);
+            if (local == null) {
+                throw new Exception(ExpectedMessage.usedBeforeDefinition(binding.getName()));
+            }
+            return local;
+        }
+
+        throw new Exception(ExpectedMessage.unExpectedToken(String.valueOf(node)));
+    }
+}
@@ -0,0 +1,33 @@
+package domine.differentiation;
+
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Resultado de una diferenciación: valor de la expresión y derivadas parciales por variable.
+ */
+@Getter
+public class Gradient {
+    private final double value;                 // f(x)
+    private final Map<String, Double> partials; // ∂f/∂variable
+
+    public Gradient(double value, Map<String, Double> partials) {
+        this.value = value;
+        this.partials = Collections.unmodifiableMap(partials);
+    }
+
+    /**
+     * Derivada parcial respecto de una variable. Una variable que no aparece en la
+     * expresión tiene derivada 0.
+     */
+    public double get(String variable) {
+        return partials.getOrDefault(variable, 0.0);
+    }
+
+    @Override
+    public String toString() {
+        return "Gradient(value=" + value + ", partials=" + partials + ")";
+    }
+}
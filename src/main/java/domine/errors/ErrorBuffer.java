@@ -0,0 +1,117 @@
+package domine.errors;
+
+import domine.metrics.PipelineMetrics;
+
+import java.util.Arrays;
+
+/**
+ * Registro de errores de la evaluación sin excepciones: en lugar de lanzar un error por
+ * cada fila que falla, el evaluador escribe un valor centinela (NaN por omisión) como
+ * resultado de la fila y anota aquí la fila y el código del error.
+ *
+ * Cada error ocupa 5 bytes (índice de fila y código) y no se construye ningún mensaje; si
+ * hace falta el texto, se obtiene después con los métodos de ExpectedMessage a partir del
+ * código. Con las métricas activadas los errores se siguen contando en
+ * {@link PipelineMetrics} por tipo, como con las excepciones.
+ *
+ * Ejemplo:
+ *   ErrorBuffer errors = new ErrorBuffer();
+ *   compiled.evaluateBatch(columns, output, TrigAccuracy.EXACT, errors);
+ *   for (int i = 0; i < errors.size(); i++) {
+ *       System.out.println(errors.getRow(i) + ": " + errors.getCode(i));
+ *   }
+ *
+ * No es seguro para varios hilos: se usa uno por lote.
+ */
+public class ErrorBuffer {
+    private final double sentinel;
+    private int[] rows = new int[16];
+    private byte[] codes = new byte[16];
+    private int size;
+
+    public ErrorBuffer() {
+        this(Double.NaN);
+    }
+
+    /**
+     * @param sentinel Resultado que se escribe en las filas con error
+     */
+    public ErrorBuffer(double sentinel) {
+        this.sentinel = sentinel;
+    }
+
+    /**
+     * Anota un error en una fila.
+     */
+    public void record(int row, ErrorCode code) {
+        if (size == rows.length) {
+            rows = Arrays.copyOf(rows, size * 2);
+            codes = Arrays.copyOf(codes, size * 2);
+        }
+        rows[size] = row;
+        codes[size] = (byte) code.ordinal();
+        size++;
+        PipelineMetrics.getDefault().recordError(code.getType());
+    }
+
+    /**
+     * Resultado que se escribe en las filas con error.
+     */
+    public double getSentinel() {
+        return sentinel;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Fila del i-ésimo error (en el orden en que se anotaron).
+     */
+    public int getRow(int i) {
+        checkIndex(i);
+        return rows[i];
+    }
+
+    public ErrorCode getCode(int i) {
+        checkIndex(i);
+        return ErrorCode.of(codes[i]);
+    }
+
+    /**
+     * Cantidad de errores de un tipo.
+     */
+    public int count(ErrorCode code) {
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            count += codes[i] == code.ordinal() ? 1 : 0;
+        }
+        return count;
+    }
+
+    /**
+     * Vacía el registro para reutilizarlo en otro lote.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    private void checkIndex(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("Error " + i + " de " + size);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("ErrorBuffer[");
+        for (int i = 0; i < Math.min(size, 10); i++) {
+            sb.append(i > 0 ? ", " : "").append(rows[i]).append(':').append(ErrorCode.of(codes[i]));
+        }
+        return sb.append(size > 10 ? ", ... (" + size + ")]" : "]").toString();
+    }
+}
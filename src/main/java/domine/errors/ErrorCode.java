@@ -0,0 +1,43 @@
+package domine.errors;
+
+/**
+ * Tipo de error, sin texto: lo que se guarda en un {@link ErrorBuffer} y lo que lleva una
+ * {@link SyntaxException}. El nombre de tipo coincide con el método de ExpectedMessage que
+ * construye el mensaje (y con el contador de errores de PipelineMetrics).
+ */
+public enum ErrorCode {
+    // Análisis léxico y sintáctico
+    UNRECOGNIZED_CHARACTER("unRecognizedCharacter"),
+    INVALID_NUMBER_FORMAT("unValidNumberFormat"),
+    INVALID_TOKENS("unValidTokens"),
+    UNEXPECTED_TOKEN("unExpectedToken"),
+    EXPECTED_TOKEN("expectedTokenTypeButFound"),
+    INCOMPLETE_EXPRESSION("incompleteExpression"),
+    WRONG_ARGUMENT_COUNT("wrongArgumentCount"),
+    REASSIGNED_VARIABLE("reassignedVariable"),
+    USED_BEFORE_DEFINITION("usedBeforeDefinition"),
+    MISSING_RESULT("missingResult"),
+
+    // Evaluación
+    DIVIDED_BY_ZERO("dividedByZero"),
+    UNDEFINED_VARIABLE("unDefinedVariable");
+
+    private static final ErrorCode[] VALUES = values();
+
+    private final String type;
+
+    ErrorCode(String type) {
+        this.type = type;
+    }
+
+    /**
+     * Nombre del tipo de error en ExpectedMessage y en las métricas.
+     */
+    public String getType() {
+        return type;
+    }
+
+    static ErrorCode of(int ordinal) {
+        return VALUES[ordinal];
+    }
+}
@@ -0,0 +1,23 @@
+package domine.errors;
+
+import lombok.Getter;
+
+/**
+ * Error léxico o sintáctico de una expresión (lo lanzan Lexer y Parser).
+ *
+ * No guarda la traza de la pila: el error está en el texto de la expresión, no en el
+ * código que la analiza, y llenar la traza era la mayor parte del costo de rechazar una
+ * expresión mal escrita. El tipo de error está en getCode(); el mensaje es el mismo texto
+ * de ExpectedMessage de siempre.
+ */
+@Getter
+public class SyntaxException extends Exception {
+    private static final long serialVersionUID = 1L;
+
+    private final ErrorCode code;
+
+    public SyntaxException(ErrorCode code, String message) {
+        super(message, null, false, false);
+        this.code = code;
+    }
+}
@@ -0,0 +1,344 @@
+package domine.explain;
+
+import domine.ast.*;
+import domine.functions.FunctionDefinition;
+import domine.functions.StandardFunctions;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Costo estimado de evaluar cada tipo de nodo del AST, en nanosegundos por evaluación del
+ * nodo (sin sus hijos), medido en esta máquina.
+ *
+ * Los pesos se calibran evaluando árboles de prueba con {@link ASTNode#evaluate()} y
+ * comparándolos entre sí, así que incluyen el costo de recorrer el árbol y no solo el de
+ * la operación:
+ * - Número: una suma balanceada de 16 constantes, repartida entre sus 31 nodos
+ * - Variable: la misma suma con la variable x, menos la de constantes
+ * - Operador: la suma de 16 términos "x op k" menos la suma de 16 x (descontado el nodo k).
+ *   La potencia con exponente constante 2 se mide aparte ("^2"), porque Math.pow la
+ *   resuelve como un producto y cuesta mucho menos que un exponente cualquiera
+ * - Función: la suma de 16 llamadas f(x, ..., x) menos la suma de 16 x (descontadas las
+ *   variables de los argumentos restantes)
+ *
+ * Cada árbol se calienta antes de medirlo (para que el primero no cargue con el resto de
+ * la compilación del JIT) y se mide varias veces por pasada, tomando el mejor tiempo, que
+ * es el menos afectado por interrupciones del hilo. El valor de x se cambia una vez por
+ * bloque de evaluaciones, no en cada una, para no medir el mapa de variables. El peso es la
+ * mediana de las diferencias de varias pasadas; una diferencia que no es positiva es ruido
+ * de la medición y se descarta (se hacen pasadas extra hasta reunir suficientes). Leer y
+ * definir una variable local cuestan lo que un número (leer un campo y guardarlo).
+ *
+ * getDefault() calibra una sola vez, la primera vez que se usa, las operaciones y las
+ * funciones predefinidas. Las funciones propias (registradas en un FunctionRegistry) se
+ * calibran la primera vez que aparecen en una expresión.
+ */
+public final class CostModel {
+    public static final String NUMBER = "número";
+    public static final String VARIABLE = "variable";
+    public static final String LOCAL_VARIABLE = "variable local";
+    public static final String LOCAL_DEFINITION = "definición local";
+    public static final String SQUARE = "^2";
+
+    private static final int TERMS = 16;            // Términos de cada árbol de prueba
+    private static final int EVALUATIONS = 8_192;   // Evaluaciones por medición
+    private static final int BLOCK = 64;            // Evaluaciones con el mismo valor de x
+    private static final int ROUNDS = 3;            // Mediciones por árbol y pasada (se toma la mejor)
+    private static final int PASSES = 5;            // Pasadas de las que se toma la mediana
+    private static final int MAX_PASSES = 15;       // Pasadas como máximo si hay diferencias no positivas
+    private static final double[] ARGUMENTS = new double[1024]; // Valores de x: dentro del dominio de todas las funciones
+    private static final String[] OPERATORS = {"+", "-", "*", "/", "^", SQUARE};
+    private static final FunctionDefinition[] STANDARD = {
+            StandardFunctions.SIN, StandardFunctions.COS, StandardFunctions.TAN, StandardFunctions.ASIN,
+            StandardFunctions.ACOS, StandardFunctions.ATAN, StandardFunctions.ATAN2, StandardFunctions.SQRT,
+            StandardFunctions.EXP, StandardFunctions.LOG, StandardFunctions.ABS};
+    private static final Map<String, Double> VALUES = new HashMap<>(); // Valor de x en los árboles de prueba
+    private static final VariableNode X = new VariableNode("x", VALUES);
+    private static volatile CostModel defaultModel;
+    private static double sink; // Evita que el JIT descarte las evaluaciones de prueba
+
+    static {
+        for (int i = 0; i < ARGUMENTS.length; i++) {
+            ARGUMENTS[i] = 0.1 + 0.8 * i / ARGUMENTS.length;
+        }
+    }
+
+    private final Map<String, Double> weights;              // Nodos y operadores
+    private final Map<FunctionDefinition, Double> functions = new ConcurrentHashMap<>();
+
+    private CostModel(Map<String, Double> weights) {
+        this.weights = weights;
+    }
+
+    /**
+     * Modelo calibrado en esta máquina (se calibra en la primera llamada).
+     *
+     * La calibración bloquea la primera llamada (y con ella el primer explain) alrededor
+     * de un segundo y medio; los hilos que llaman mientras tanto esperan a que termine.
+     * Conviene llamarlo al arrancar si la primera respuesta tiene que ser rápida.
+     */
+    public static CostModel getDefault() {
+        CostModel model = defaultModel;
+        if (model == null) {
+            synchronized (CostModel.class) {
+                model = defaultModel;
+                if (model == null) {
+                    model = calibrate();
+                    defaultModel = model;
+                }
+            }
+        }
+        return model;
+    }
+
+    /**
+     * Costo propio de un operador ("+", "-", "*", "/", "^", "^2") o de un tipo de nodo
+     * (NUMBER, VARIABLE, LOCAL_VARIABLE, LOCAL_DEFINITION), en ns.
+     */
+    public double weight(String kind) {
+        Double weight = weights.get(kind);
+        if (weight == null) {
+            throw new IllegalArgumentException("Tipo de nodo desconocido: " + kind);
+        }
+        return weight;
+    }
+
+    /**
+     * Costo propio de una llamada a la función (sin sus argumentos), en ns. Las funciones
+     * que no se calibraron todavía se miden ahora.
+     */
+    public double weight(FunctionDefinition function) {
+        return functions.computeIfAbsent(function, this::measure);
+    }
+
+    /**
+     * Costo propio de un nodo (sin sus hijos), en ns.
+     */
+    public double weight(ASTNode node) {
+        return weight(kind(node), node);
+    }
+
+    /**
+     * Nombre con el que se agrupa el costo de un nodo: el operador, la función o el tipo de nodo.
+     */
+    static String kind(ASTNode node) {
+        if (node instanceof NumberNode) {
+            return NUMBER;
+        } else if (node instanceof VariableNode) {
+            return VARIABLE;
+        } else if (node instanceof BinaryOperationNode) {
+            BinaryOperationNode binOp = (BinaryOperationNode) node;
+            if (binOp.getOperator().equals("^") && NumberNode.isConstant(binOp.getRight(), 2)) {
+                return SQUARE;
+            }
+            return binOp.getOperator();
+        } else if (node instanceof FunctionNode) {
+            return ((FunctionNode) node).getFunction().getName();
+        } else if (node instanceof LetNode) {
+            return LOCAL_DEFINITION;
+        } else if (node instanceof LocalVariableNode) {
+            return LOCAL_VARIABLE;
+        }
+        throw new IllegalArgumentException("Nodo desconocido: " + node.getClass().getSimpleName());
+    }
+
+    double weight(String kind, ASTNode node) {
+        return node instanceof FunctionNode ? weight(((FunctionNode) node).getFunction()) : weight(kind);
+    }
+
+    // ========== Calibración ==========
+
+    private static CostModel calibrate() {
+        List<String> kinds = new ArrayList<>();
+        List<Probe> probes = new ArrayList<>();
+        kinds.add(NUMBER);
+        probes.add(new Probe(sum(Collections.nCopies(TERMS, new NumberNode(1.5))),
+                (t, constants, variables) -> number(t)));
+        kinds.add(VARIABLE);
+        probes.add(new Probe(sum(Collections.nCopies(TERMS, X)),
+                (t, constants, variables) -> variable(constants, t)));
+        for (String operator : OPERATORS) {
+            double k = switch (operator) {
+                case "/" -> 3.0;
+                case "^" -> 2.5;
+                case SQUARE -> 2.0;
+                default -> 1.5;
+            };
+            List<ASTNode> terms = new ArrayList<>();
+            for (int i = 0; i < TERMS; i++) {
+                terms.add(new BinaryOperationNode(operator.substring(0, 1), X, new NumberNode(k)));
+            }
+            kinds.add(operator);
+            probes.add(new Probe(sum(terms), (t, constants, variables) -> (t - variables) / TERMS - number(constants)));
+        }
+        for (FunctionDefinition function : STANDARD) {
+            kinds.add(null);
+            probes.add(probe(function));
+        }
+
+        double[] measured = run(probes);
+        Map<String, Double> weights = new LinkedHashMap<>();
+        for (int i = 0; i < 2 + OPERATORS.length; i++) {
+            weights.put(kinds.get(i), measured[i]);
+        }
+        weights.put(LOCAL_VARIABLE, weights.get(NUMBER));
+        weights.put(LOCAL_DEFINITION, weights.get(NUMBER));
+        CostModel model = new CostModel(Collections.unmodifiableMap(weights));
+        for (int i = 0; i < STANDARD.length; i++) {
+            model.functions.put(STANDARD[i], measured[2 + OPERATORS.length + i]);
+        }
+        return model;
+    }
+
+    private double measure(FunctionDefinition function) {
+        return run(List.of(probe(function)))[0];
+    }
+
+    /**
+     * Suma de 16 llamadas f(x, ..., x), descontadas la suma de 16 x y las variables de los
+     * argumentos restantes.
+     */
+    private static Probe probe(FunctionDefinition function) {
+        List<ASTNode> terms = new ArrayList<>();
+        for (int i = 0; i < TERMS; i++) {
+            terms.add(new FunctionNode(function.getName(), function, Collections.nCopies(function.getArity(), X)));
+        }
+        return new Probe(sum(terms), (t, constants, variables) ->
+                (t - variables) / TERMS - (function.getArity() - 1) * variable(constants, variables));
+    }
+
+    private static double number(double constants) {
+        return constants / (2 * TERMS - 1);
+    }
+
+    private static double variable(double constants, double variables) {
+        return number(constants) + (variables - constants) / TERMS;
+    }
+
+    /**
+     * Calienta los árboles de prueba y los mide en varias pasadas. En cada pasada se miden
+     * también las sumas de constantes y de x, que son la base de las diferencias. Las
+     * calibraciones no se superponen: comparten el valor de x y se molestarían al medir.
+     *
+     * @return Peso de cada prueba: la mediana de sus estimaciones positivas
+     * @throws IllegalStateException Si una prueba no da ninguna estimación positiva
+     */
+    private static synchronized double[] run(List<Probe> probes) {
+        ASTNode constants = sum(Collections.nCopies(TERMS, new NumberNode(1.5)));
+        ASTNode variables = sum(Collections.nCopies(TERMS, X));
+        time(constants);
+        time(variables);
+        for (Probe probe : probes) {
+            time(probe.tree);
+        }
+
+        int required = PASSES / 2 + 1;
+        for (int pass = 0; pass < MAX_PASSES; pass++) {
+            double c = time(constants);
+            double v = time(variables);
+            boolean enough = true;
+            for (Probe probe : probes) {
+                double estimate = probe.estimate.weight(time(probe.tree), c, v);
+                if (estimate > 0) {
+                    probe.samples.add(estimate);
+                }
+                enough &= probe.samples.size() >= required;
+            }
+            if (pass + 1 >= PASSES && enough) {
+                break;
+            }
+        }
+
+        double[] weights = new double[probes.size()];
+        for (int i = 0; i < weights.length; i++) {
+            List<Double> samples = probes.get(i).samples;
+            if (samples.isEmpty()) {
+                throw new IllegalStateException("No se pudo calibrar el costo de " + probes.get(i).tree);
+            }
+            Collections.sort(samples);
+            int middle = samples.size() / 2;
+            weights[i] = samples.size() % 2 == 1 ? samples.get(middle) : (samples.get(middle - 1) + samples.get(middle)) / 2;
+        }
+        return weights;
+    }
+
+    /**
+     * Estimación del costo propio de un nodo a partir del tiempo de su árbol de prueba (t) y
+     * de los de las sumas de 16 constantes y de 16 x de la misma pasada.
+     */
+    private interface Estimate {
+        double weight(double t, double constants, double variables);
+    }
+
+    private static final class Probe {
+        private final ASTNode tree;
+        private final Estimate estimate;
+        private final List<Double> samples = new ArrayList<>(); // Estimaciones positivas de cada pasada
+
+        private Probe(ASTNode tree, Estimate estimate) {
+            this.tree = tree;
+            this.estimate = estimate;
+        }
+    }
+
+    /**
+     * Suma balanceada de los términos (profundidad logarítmica, como la de una expresión real
+     * de ese tamaño sin paréntesis de más).
+     */
+    private static ASTNode sum(List<ASTNode> terms) {
+        if (terms.size() == 1) {
+            return terms.get(0);
+        }
+        int half = terms.size() / 2;
+        return new BinaryOperationNode("+", sum(terms.subList(0, half)), sum(terms.subList(half, terms.size())));
+    }
+
+    /**
+     * Mejor tiempo por evaluación del árbol de prueba, en ns. El valor de x cambia una vez
+     * por bloque, para recorrer el dominio sin medir el mapa de variables.
+     */
+    private static double time(ASTNode probe) {
+        double best = Double.MAX_VALUE;
+        double total = 0;
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                long start = System.nanoTime();
+                for (int block = 0; block < EVALUATIONS / BLOCK; block++) {
+                    VALUES.put("x", ARGUMENTS[block * ARGUMENTS.length * BLOCK / EVALUATIONS]);
+                    for (int i = 0; i < BLOCK; i++) {
+                        total += probe.evaluate();
+                    }
+                }
+                best = Math.min(best, (double) (System.nanoTime() - start) / EVALUATIONS);
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException("No se pudo calibrar el costo de " + probe, e);
+        }
+        sink += total;
+        return best;
+    }
+
+    /**
+     * Tabla de pesos: operadores, tipos de nodo y funciones calibradas.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, Double> weight : weights.entrySet()) {
+            sb.append(String.format(Locale.ROOT, "%-18s %7.1f ns%n", weight.getKey(), weight.getValue()));
+        }
+        List<FunctionDefinition> calibrated = new ArrayList<>(functions.keySet());
+        calibrated.sort((a, b) -> a.getName().compareTo(b.getName()));
+        for (FunctionDefinition function : calibrated) {
+            sb.append(String.format(Locale.ROOT, "%-18s %7.1f ns%n", function.getName() + "()", functions.get(function)));
+        }
+        return sb.toString();
+    }
+}
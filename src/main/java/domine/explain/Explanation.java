@@ -0,0 +1,123 @@
+package domine.explain;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Resultado de {@link ExpressionExplainer}: forma del AST, operaciones que contiene, costo
+ * estimado por evaluación y optimizaciones aplicables, antes de evaluar la expresión.
+ */
+@Getter
+public class Explanation {
+    private final int nodeCount;
+    private final int depth;
+    private final Map<String, Integer> operators;   // Operador -> apariciones, en el orden + - * / ^
+    private final Map<String, Integer> functions;   // Función (nombre registrado) -> llamadas
+    private final List<String> variables;           // Variables libres, en orden de aparición
+    private final List<String> locals;              // Variables locales definidas
+    private final double estimatedNanos;            // Costo estimado de una evaluación del AST
+    private final Map<String, Double> costByKind;   // Costo por tipo de nodo, de mayor a menor
+    private final List<Suggestion> suggestions;
+
+    Explanation(int nodeCount, int depth, Map<String, Integer> operators, Map<String, Integer> functions,
+                List<String> variables, List<String> locals, double estimatedNanos,
+                Map<String, Double> costByKind, List<Suggestion> suggestions) {
+        this.nodeCount = nodeCount;
+        this.depth = depth;
+        this.operators = operators;
+        this.functions = functions;
+        this.variables = variables;
+        this.locals = locals;
+        this.estimatedNanos = estimatedNanos;
+        this.costByKind = costByKind;
+        this.suggestions = suggestions;
+    }
+
+    /**
+     * Tiempo estimado para evaluar la expresión sobre una cantidad de filas en un hilo.
+     */
+    public double estimateSeconds(long rows) {
+        return rows * estimatedNanos / 1e9;
+    }
+
+    /**
+     * Sugerencias de una optimización.
+     */
+    public List<Suggestion> getSuggestions(Optimization optimization) {
+        List<Suggestion> result = new ArrayList<>();
+        for (Suggestion suggestion : suggestions) {
+            if (suggestion.getOptimization() == optimization) {
+                result.add(suggestion);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "Nodos: %d   profundidad: %d%n", nodeCount, depth));
+        sb.append("Operadores: ").append(counts(operators)).append('\n');
+        sb.append("Funciones: ").append(counts(functions)).append('\n');
+        sb.append("Variables: ").append(variables.isEmpty() ? "-" : String.join(", ", variables)).append('\n');
+        if (!locals.isEmpty()) {
+            sb.append("Variables locales: ").append(String.join(", ", locals)).append('\n');
+        }
+        sb.append(String.format(Locale.ROOT, "Costo estimado: %.1f ns por evaluación (%.1f millones por segundo, "
+                + "1e9 filas en %.0f s con un hilo)%n", estimatedNanos, 1e3 / estimatedNanos, estimateSeconds(1_000_000_000L)));
+        for (Map.Entry<String, Double> cost : costByKind.entrySet()) {
+            sb.append(String.format(Locale.ROOT, "  %-18s %8.1f ns %5.1f%%%n", cost.getKey(), cost.getValue(),
+                    100 * cost.getValue() / estimatedNanos));
+        }
+        sb.append("Optimizaciones aplicables:");
+        if (suggestions.isEmpty()) {
+            sb.append(" ninguna");
+        }
+        for (Suggestion suggestion : suggestions) {
+            sb.append("\n  - ").append(suggestion);
+        }
+        return sb.toString();
+    }
+
+    private static String counts(Map<String, Integer> counts) {
+        if (counts.isEmpty()) {
+            return "-";
+        }
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, Integer> count : counts.entrySet()) {
+            if (sb.length() > 0) {
+                sb.append(", ");
+            }
+            sb.append(count.getKey()).append(" ×").append(count.getValue());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Una optimización aplicable a una parte de la expresión.
+     */
+    @Getter
+    public static class Suggestion {
+        private final Optimization optimization;
+        private final String expression;        // Parte de la expresión a la que se aplica
+        private final String detail;            // Precisión sobre esta aparición (puede ser vacía)
+        private final double affectedNanos;     // Costo estimado por evaluación de la parte afectada
+
+        Suggestion(Optimization optimization, String expression, String detail, double affectedNanos) {
+            this.optimization = optimization;
+            this.expression = expression;
+            this.detail = detail;
+            this.affectedNanos = affectedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%s: %s%s (%.1f ns por evaluación): %s", optimization.getTitle(),
+                    expression, detail.isEmpty() ? "" : " " + detail, affectedNanos, optimization.getDescription());
+        }
+    }
+}
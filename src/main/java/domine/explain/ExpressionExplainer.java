@@ -0,0 +1,304 @@
+package domine.explain;
+
+import domine.ast.*;
+import domine.functions.StandardFunctions;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Explicación de una expresión ya analizada, sin evaluarla: tamaño y profundidad del AST,
+ * cuántas veces aparece cada operador y función, qué variables usa, cuánto costará cada
+ * evaluación según un {@link CostModel} calibrado y qué optimizaciones del proyecto le
+ * convienen. Sirve para planificar cargas grandes (mil millones de filas) o repartir
+ * expresiones entre hilos antes de ejecutarlas.
+ *
+ * El costo estimado es la suma de los pesos de todos los nodos, con el valor de cada
+ * variable local contado una vez (como lo evalúa LetNode). Las optimizaciones se buscan
+ * en el árbol:
+ * - Subexpresiones constantes y repetidas (comparadas por estructura; x*y y y*x son iguales)
+ * - Llamadas a sin, cos y tan (trigonometría aproximada)
+ * - Con más de una variable: llamadas y subexpresiones que no dependen de todas
+ *   (memoria por punto de llamada, barrido de mallas) y la parte reutilizable al
+ *   cambiar una sola variable (evaluación incremental)
+ *
+ * Ejemplo:
+ *   ASTNode ast = new Parser(new Lexer("sin(y)^2 * x + 2*3.14159").tokenize()).parseToAST();
+ *   System.out.println(ExpressionExplainer.explain(ast));
+ */
+public class ExpressionExplainer {
+    private static final String[] OPERATOR_ORDER = {"+", "-", "*", "/", "^"};
+
+    private final CostModel model;
+    private final Map<String, Integer> operators = new HashMap<>();
+    private final Map<String, Integer> functions = new LinkedHashMap<>();
+    private final List<String> variables = new ArrayList<>();
+    private final List<String> locals = new ArrayList<>();
+    private final Map<String, Double> costByKind = new HashMap<>();
+    private final Map<String, Integer> occurrences = new HashMap<>();  // Clave estructural -> apariciones
+    private final Map<LocalBinding, Info> bindings = new IdentityHashMap<>();
+    private final List<Info> all = new ArrayList<>();                  // Todos los nodos, en postorden
+
+    private ExpressionExplainer(CostModel model) {
+        this.model = model;
+    }
+
+    /**
+     * Explica una expresión con el modelo de costo calibrado en esta máquina.
+     */
+    public static Explanation explain(ASTNode root) {
+        return explain(root, CostModel.getDefault());
+    }
+
+    public static Explanation explain(ASTNode root, CostModel model) {
+        ExpressionExplainer explainer = new ExpressionExplainer(model);
+        Info info = explainer.visit(root);
+
+        Map<String, Integer> operators = new LinkedHashMap<>();
+        for (String operator : OPERATOR_ORDER) {
+            if (explainer.operators.containsKey(operator)) {
+                operators.put(operator, explainer.operators.get(operator));
+            }
+        }
+        Map<String, Double> costByKind = new LinkedHashMap<>();
+        explainer.costByKind.entrySet().stream()
+                .sorted(Map.Entry.<String, Double>comparingByValue().reversed())
+                .forEach(cost -> costByKind.put(cost.getKey(), cost.getValue()));
+
+        return new Explanation(root.getNodeCount(), root.getDepth(), operators, explainer.functions,
+                explainer.variables, explainer.locals, info.cost, costByKind, explainer.suggest(info));
+    }
+
+    // ========== Recorrido ==========
+
+    /**
+     * Datos de un subárbol: clave estructural, texto, costo (con los hijos) y variables de las que depende.
+     */
+    private static final class Info {
+        private final ASTNode node;
+        private final String key;
+        private final String text;
+        private final int precedence;   // 1: + -, 2: * /, 3: ^, 4: hojas y llamadas, 0: definiciones locales
+        private final double self;
+        private final double cost;
+        private final BitSet dependencies;
+        private final List<Info> children;
+
+        Info(ASTNode node, String key, String text, int precedence, double self, BitSet dependencies, List<Info> children) {
+            double cost = self;
+            for (Info child : children) {
+                cost += child.cost;
+            }
+            this.node = node;
+            this.key = key;
+            this.text = text;
+            this.precedence = precedence;
+            this.self = self;
+            this.cost = cost;
+            this.dependencies = dependencies;
+            this.children = children;
+        }
+
+        boolean isConstant() {
+            return dependencies.isEmpty();
+        }
+    }
+
+    private Info visit(ASTNode node) {
+        String kind = CostModel.kind(node);
+        double self = model.weight(kind, node);
+        costByKind.merge(kind, self, Double::sum);
+        Info info;
+        if (node instanceof NumberNode) {
+            double value = ((NumberNode) node).getValue();
+            String text = value == Math.rint(value) && Math.abs(value) < 1e15
+                    ? Long.toString((long) value) : Double.toString(value);
+            info = new Info(node, "#" + value, text, 4, self, new BitSet(), List.of());
+        } else if (node instanceof VariableNode) {
+            String name = ((VariableNode) node).getName();
+            if (!variables.contains(name)) {
+                variables.add(name);
+            }
+            BitSet dependencies = new BitSet();
+            dependencies.set(variables.indexOf(name));
+            info = new Info(node, "$" + name, name, 4, self, dependencies, List.of());
+        } else if (node instanceof BinaryOperationNode) {
+            BinaryOperationNode binOp = (BinaryOperationNode) node;
+            String operator = binOp.getOperator();
+            operators.merge(operator, 1, Integer::sum);
+            Info left = visit(binOp.getLeft());
+            Info right = visit(binOp.getRight());
+            int precedence = switch (operator) {
+                case "+", "-" -> 1;
+                case "*", "/" -> 2;
+                default -> 3;
+            };
+            boolean commutative = operator.equals("+") || operator.equals("*");
+            String key = commutative && left.key.compareTo(right.key) > 0
+                    ? operator + "(" + right.key + "," + left.key + ")"
+                    : operator + "(" + left.key + "," + right.key + ")";
+            String text = operand(left, left.precedence < precedence || (precedence == 3 && left.precedence == 3))
+                    + (precedence == 3 ? "^" : " " + operator + " ")
+                    + operand(right, right.precedence < precedence
+                    || (right.precedence == precedence && (operator.equals("-") || operator.equals("/"))));
+            info = new Info(node, key, text, precedence, self, union(left, right), List.of(left, right));
+        } else if (node instanceof FunctionNode) {
+            FunctionNode funcNode = (FunctionNode) node;
+            functions.merge(funcNode.getFunction().getName(), 1, Integer::sum);
+            List<Info> arguments = new ArrayList<>();
+            List<String> keys = new ArrayList<>();
+            List<String> texts = new ArrayList<>();
+            for (ASTNode argument : funcNode.getArguments()) {
+                Info child = visit(argument);
+                arguments.add(child);
+                keys.add(child.key);
+                texts.add(child.text);
+            }
+            String name = funcNode.getFunction().getName();
+            info = new Info(node, name + "(" + String.join(",", keys) + ")",
+                    funcNode.getFunctionName() + "(" + String.join(", ", texts) + ")", 4, self,
+                    union(arguments.toArray(new Info[0])), arguments);
+        } else if (node instanceof LetNode) {
+            LetNode letNode = (LetNode) node;
+            LocalBinding binding = letNode.getBinding();
+            locals.add(binding.getName());
+            Info value = visit(binding.getValue());
+            bindings.put(binding, value);
+            Info body = visit(letNode.getBody());
+            info = new Info(node, "let " + binding.getName() + "(" + value.key + "," + body.key + ")",
+                    binding.getName() + " = " + value.text + "; " + body.text, 0, self, union(value, body),
+                    List.of(value, body));
+        } else {
+            LocalBinding binding = ((LocalVariableNode) node).getBinding();
+            Info value = bindings.get(binding);
+            info = new Info(node, "@" + binding.getName(), binding.getName(), 4, self,
+                    value != null ? value.dependencies : new BitSet(), List.of());
+        }
+        occurrences.merge(info.key, 1, Integer::sum);
+        all.add(info);
+        return info;
+    }
+
+    private static String operand(Info info, boolean parenthesize) {
+        return parenthesize ? "(" + info.text + ")" : info.text;
+    }
+
+    private static BitSet union(Info... infos) {
+        BitSet dependencies = new BitSet();
+        for (Info info : infos) {
+            dependencies.or(info.dependencies);
+        }
+        return dependencies;
+    }
+
+    // ========== Optimizaciones ==========
+
+    private List<Explanation.Suggestion> suggest(Info root) {
+        List<Explanation.Suggestion> suggestions = new ArrayList<>();
+        double number = model.weight(CostModel.NUMBER);
+        double local = model.weight(CostModel.LOCAL_VARIABLE);
+
+        for (Info constant : maximal(root, info -> info.isConstant() && info.children.size() > 0)) {
+            suggestions.add(new Explanation.Suggestion(Optimization.CONSTANT_FOLDING, constant.text, "",
+                    Math.max(0, constant.cost - number)));
+        }
+
+        Set<String> reported = new HashSet<>();
+        for (Info repeated : maximal(root, info -> !info.isConstant() && info.children.size() > 0
+                && !(info.node instanceof LetNode) && occurrences.get(info.key) > 1)) {
+            int count = occurrences.get(repeated.key);
+            double saving = (count - 1) * repeated.cost - count * local - model.weight(CostModel.LOCAL_DEFINITION);
+            if (reported.add(repeated.key) && saving > 0) {
+                suggestions.add(new Explanation.Suggestion(Optimization.COMMON_SUBEXPRESSION, repeated.text,
+                        "(" + count + " veces)", saving));
+            }
+        }
+
+        Set<String> trig = new LinkedHashSet<>();
+        double trigCost = 0;
+        for (Info info : all) {
+            if (info.node instanceof FunctionNode && !info.isConstant()) {
+                FunctionNode call = (FunctionNode) info.node;
+                if (call.getFunction() == StandardFunctions.SIN || call.getFunction() == StandardFunctions.COS
+                        || call.getFunction() == StandardFunctions.TAN) {
+                    trig.add(info.text);
+                    trigCost += info.self;
+                }
+            }
+        }
+        if (!trig.isEmpty()) {
+            suggestions.add(new Explanation.Suggestion(Optimization.APPROXIMATE_TRIG, String.join(", ", trig), "", trigCost));
+        }
+
+        int count = variables.size();
+        if (count > 1) {
+            for (Info info : all) {
+                if (info.node instanceof FunctionNode && info.children.size() == 1 && isPartial(info)) {
+                    suggestions.add(new Explanation.Suggestion(Optimization.CALL_SITE_MEMO, info.text,
+                            "(depende de " + names(info.dependencies) + ")", info.self));
+                }
+            }
+            for (Info invariant : maximal(root, info -> info.children.size() > 0 && isPartial(info))) {
+                suggestions.add(new Explanation.Suggestion(Optimization.LOOP_INVARIANT, invariant.text,
+                        "(depende de " + names(invariant.dependencies) + ")", invariant.cost));
+            }
+            double[] dependent = new double[count];
+            for (Info info : all) {
+                for (int v = info.dependencies.nextSetBit(0); v >= 0; v = info.dependencies.nextSetBit(v + 1)) {
+                    dependent[v] += info.self;
+                }
+            }
+            for (int v = 0; v < count; v++) {
+                double reusable = root.cost - dependent[v];
+                if (reusable > 0) {
+                    suggestions.add(new Explanation.Suggestion(Optimization.INCREMENTAL, variables.get(v),
+                            String.format("(se reutiliza el %.0f%% del costo)", 100 * reusable / root.cost), reusable));
+                }
+            }
+        }
+        return suggestions;
+    }
+
+    /**
+     * El subárbol depende de algunas variables, pero no de todas.
+     */
+    private boolean isPartial(Info info) {
+        return !info.isConstant() && info.dependencies.cardinality() < variables.size();
+    }
+
+    /**
+     * Subárboles que cumplen la condición sin estar dentro de otro que también la cumpla.
+     */
+    private static List<Info> maximal(Info root, Predicate<Info> condition) {
+        List<Info> found = new ArrayList<>();
+        collect(root, condition, found);
+        return found;
+    }
+
+    private static void collect(Info info, Predicate<Info> condition, List<Info> found) {
+        if (condition.test(info)) {
+            found.add(info);
+            return;
+        }
+        for (Info child : info.children) {
+            collect(child, condition, found);
+        }
+    }
+
+    private String names(BitSet dependencies) {
+        List<String> names = new ArrayList<>();
+        for (int v = dependencies.nextSetBit(0); v >= 0; v = dependencies.nextSetBit(v + 1)) {
+            names.add(variables.get(v));
+        }
+        return String.join(", ", names);
+    }
+}
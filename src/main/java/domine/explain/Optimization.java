@@ -0,0 +1,31 @@
+package domine.explain;
+
+import lombok.Getter;
+
+/**
+ * Optimizaciones que {@link ExpressionExplainer} puede proponer para una expresión, con el
+ * componente del proyecto que las aplica.
+ */
+@Getter
+public enum Optimization {
+    CONSTANT_FOLDING("Subexpresión constante",
+            "no depende de ninguna variable: se puede calcular una vez y escribir su valor"),
+    COMMON_SUBEXPRESSION("Subexpresión repetida",
+            "se puede calcular una vez con una variable local (u = ...; ...) o con ProgramCompiler"),
+    APPROXIMATE_TRIG("Trigonometría aproximada",
+            "en modo por lotes (CompiledExpression.evaluateBatch) se puede usar TrigAccuracy HIGH, MEDIUM o LOW"),
+    CALL_SITE_MEMO("Memoria por punto de llamada",
+            "su argumento no depende de todas las variables: en un barrido se repite (FunctionNode.setMemoization)"),
+    LOOP_INVARIANT("Invariante del barrido",
+            "depende solo de algunas variables: GridEvaluator lo calcula una vez por fila del eje exterior"),
+    INCREMENTAL("Evaluación incremental",
+            "al cambiar una sola variable, IncrementalEvaluator reutiliza los subárboles que no dependen de ella");
+
+    private final String title;
+    private final String description;
+
+    Optimization(String title, String description) {
+        this.title = title;
+        this.description = description;
+    }
+}
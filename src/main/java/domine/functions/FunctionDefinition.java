@@ -0,0 +1,204 @@
+package domine.functions;
+
+import lombok.Getter;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Función con nombre que puede usarse en las expresiones: nombre, aridad e implementación.
+ *
+ * La implementación es un {@link MethodHandle} de tipo (double, ..., double)double con
+ * tantos parámetros como la aridad. El Parser enlaza cada llamada con su definición, de
+ * modo que evaluar la llamada es una invocación directa del MethodHandle, sin buscar la
+ * función por nombre.
+ *
+ * Opcionalmente la definición incluye las derivadas parciales (un MethodHandle del mismo
+ * tipo por argumento), que usan los diferenciadores automáticos.
+ *
+ * Las definiciones son inmutables y pueden compartirse entre hilos.
+ */
+public final class FunctionDefinition {
+    private static final MethodHandle APPLY_UNARY;
+    private static final MethodHandle APPLY_BINARY;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            APPLY_UNARY = lookup.findVirtual(DoubleUnaryOperator.class, "applyAsDouble",
+                    MethodType.methodType(double.class, double.class));
+            APPLY_BINARY = lookup.findVirtual(DoubleBinaryOperator.class, "applyAsDouble",
+                    MethodType.methodType(double.class, double.class, double.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    @Getter
+    private final String name;
+    @Getter
+    private final int arity;
+    @Getter
+    private final MethodHandle handle;          // (double × aridad)double
+    private final MethodHandle spreader;        // (double[])double, para cualquier aridad
+    private final MethodHandle[] partials;      // Derivadas parciales (null si no se conocen)
+    private final MethodHandle[] partialSpreaders;
+
+    private FunctionDefinition(String name, int arity, MethodHandle handle, MethodHandle[] partials) {
+        this.name = name;
+        this.arity = arity;
+        this.handle = handle;
+        this.spreader = handle.asSpreader(double[].class, arity);
+        this.partials = partials;
+        if (partials != null) {
+            this.partialSpreaders = new MethodHandle[arity];
+            for (int i = 0; i < arity; i++) {
+                partialSpreaders[i] = partials[i].asSpreader(double[].class, arity);
+            }
+        } else {
+            this.partialSpreaders = null;
+        }
+    }
+
+    /**
+     * @param name Nombre de la función (letra seguida de letras o dígitos, como cualquier identificador)
+     * @param arity Cantidad de argumentos (al menos 1)
+     * @param handle Implementación de tipo (double × aridad)double
+     */
+    public static FunctionDefinition of(String name, int arity, MethodHandle handle) {
+        return new FunctionDefinition(name, checkArity(arity), checkType(handle, arity), null);
+    }
+
+    public static FunctionDefinition unary(String name, DoubleUnaryOperator function) {
+        return of(name, 1, APPLY_UNARY.bindTo(function));
+    }
+
+    public static FunctionDefinition unary(String name, DoubleUnaryOperator function, DoubleUnaryOperator derivative) {
+        return unary(name, function).withDerivatives(APPLY_UNARY.bindTo(derivative));
+    }
+
+    public static FunctionDefinition binary(String name, DoubleBinaryOperator function) {
+        return of(name, 2, APPLY_BINARY.bindTo(function));
+    }
+
+    /**
+     * Copia de la definición con las derivadas parciales respecto de cada argumento.
+     *
+     * @param partials Un MethodHandle por argumento, del mismo tipo que la función
+     */
+    public FunctionDefinition withDerivatives(MethodHandle... partials) {
+        if (partials.length != arity) {
+            throw new IllegalArgumentException("Se esperaban " + arity + " derivadas parciales para "
+                    + name + ": " + partials.length);
+        }
+        for (MethodHandle partial : partials) {
+            checkType(partial, arity);
+        }
+        return new FunctionDefinition(name, arity, handle, partials.clone());
+    }
+
+    public boolean isDifferentiable() {
+        return partials != null;
+    }
+
+    // ========== Invocación ==========
+
+    public double invoke(double a) {
+        try {
+            return (double) handle.invokeExact(a);
+        } catch (Throwable t) {
+            throw propagate(t);
+        }
+    }
+
+    public double invoke(double a, double b) {
+        try {
+            return (double) handle.invokeExact(a, b);
+        } catch (Throwable t) {
+            throw propagate(t);
+        }
+    }
+
+    /**
+     * @param arguments Valores de los argumentos (exactamente aridad elementos)
+     */
+    public double invoke(double[] arguments) {
+        try {
+            return (double) spreader.invokeExact(arguments);
+        } catch (Throwable t) {
+            throw propagate(t);
+        }
+    }
+
+    /**
+     * Derivada de una función de un argumento.
+     */
+    public double derivative(double a) {
+        try {
+            return (double) partials[0].invokeExact(a);
+        } catch (Throwable t) {
+            throw propagate(t);
+        }
+    }
+
+    /**
+     * Derivada parcial respecto del argumento index, evaluada en los argumentos dados.
+     */
+    public double partial(int index, double[] arguments) {
+        try {
+            return (double) partialSpreaders[index].invokeExact(arguments);
+        } catch (Throwable t) {
+            throw propagate(t);
+        }
+    }
+
+    public double[] partials(double[] arguments) {
+        double[] result = new double[arity];
+        for (int i = 0; i < arity; i++) {
+            result[i] = partial(i, arguments);
+        }
+        return result;
+    }
+
+    /**
+     * Las implementaciones no declaran excepciones verificadas (son funciones numéricas);
+     * si un MethodHandle arbitrario lanza una, se envuelve.
+     */
+    private static RuntimeException propagate(Throwable t) {
+        if (t instanceof RuntimeException) {
+            return (RuntimeException) t;
+        }
+        if (t instanceof Error) {
+            throw (Error) t;
+        }
+        return new IllegalStateException(t);
+    }
+
+    private static int checkArity(int arity) {
+        if (arity < 1) {
+            throw new IllegalArgumentException("La aridad debe ser al menos 1: " + arity);
+        }
+        return arity;
+    }
+
+    private static MethodHandle checkType(MethodHandle handle, int arity) {
+        MethodType expected = MethodType.methodType(double.class, Collections.nCopies(arity, double.class));
+        if (!handle.type().equals(expected)) {
+            throw new IllegalArgumentException("Tipo de MethodHandle inválido: " + handle.type()
+                    + ", se esperaba " + expected);
+        }
+        return handle;
+    }
+
+    @Override
+    public String toString() {
+        String[] parameters = new String[arity];
+        Arrays.fill(parameters, "double");
+        return name + "(" + String.join(", ", parameters) + ")";
+    }
+}
@@ -0,0 +1,185 @@
+package domine.functions;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Registro de funciones disponibles en las expresiones, con búsqueda sin distinguir
+ * mayúsculas de minúsculas ("sin", "Sin" y "SIN" son la misma función).
+ *
+ * La búsqueda usa una tabla hash perfecta: al registrar se elige una semilla con la que
+ * ningún par de nombres cae en la misma posición, así que cada consulta calcula un hash
+ * (pasando cada carácter a minúscula al vuelo, sin crear cadenas) y compara una sola
+ * entrada. El Lexer consulta el registro por cada identificador.
+ *
+ * El registro puede modificarse mientras otros hilos lo consultan: cada registro
+ * construye una tabla nueva y la publica de forma atómica. Las expresiones ya analizadas
+ * conservan la definición con la que se enlazaron.
+ */
+public final class FunctionRegistry {
+    private static final FunctionRegistry DEFAULT = withStandardFunctions();
+
+    private final Map<String, FunctionDefinition> functions = new LinkedHashMap<>(); // Nombre en minúsculas -> función
+    private volatile Table table = Table.build(Collections.emptyMap());
+
+    /**
+     * Registro vacío.
+     */
+    public FunctionRegistry() {
+    }
+
+    /**
+     * Nuevo registro con las funciones predefinidas ({@link StandardFunctions}).
+     */
+    public static FunctionRegistry withStandardFunctions() {
+        FunctionRegistry registry = new FunctionRegistry();
+        StandardFunctions.registerAll(registry);
+        return registry;
+    }
+
+    /**
+     * Registro compartido que usan el Lexer y el Parser cuando no se indica otro.
+     * Las funciones registradas en él quedan disponibles para toda la aplicación.
+     */
+    public static FunctionRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    public FunctionRegistry register(FunctionDefinition function) {
+        return register(function.getName(), function);
+    }
+
+    /**
+     * Registra una función con un nombre, que puede diferir del de la definición (alias).
+     *
+     * @throws IllegalArgumentException Si el nombre no es un identificador válido o ya está registrado
+     */
+    public synchronized FunctionRegistry register(String name, FunctionDefinition function) {
+        if (name.isEmpty() || !Character.isLetter(name.charAt(0)) || !name.chars().allMatch(Character::isLetterOrDigit)) {
+            throw new IllegalArgumentException("Nombre de función inválido (letra seguida de letras o dígitos): " + name);
+        }
+        StringBuilder lower = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            lower.append(Table.lowerCase(name.charAt(i)));
+        }
+        String key = lower.toString();
+        if (functions.containsKey(key)) {
+            throw new IllegalArgumentException("Función ya registrada: " + name);
+        }
+        functions.put(key, function);
+        table = Table.build(functions);
+        return this;
+    }
+
+    /**
+     * Busca una función por nombre sin distinguir mayúsculas de minúsculas.
+     *
+     * @return La definición, o null si no hay ninguna con ese nombre
+     */
+    public FunctionDefinition lookup(String name) {
+        return table.get(name);
+    }
+
+    public boolean contains(String name) {
+        return lookup(name) != null;
+    }
+
+    /**
+     * Nombres registrados (en minúsculas), en orden de registro.
+     */
+    public synchronized Set<String> getNames() {
+        return Collections.unmodifiableSet(new LinkedHashSet<>(functions.keySet()));
+    }
+
+    /**
+     * Tabla hash perfecta e inmutable.
+     */
+    private static final class Table {
+        private static final int SEEDS_PER_SIZE = 256; // Semillas a probar antes de duplicar la tabla
+
+        private final String[] keys;
+        private final FunctionDefinition[] values;
+        private final int seed;
+        private final int shift;
+
+        private Table(String[] keys, FunctionDefinition[] values, int seed, int shift) {
+            this.keys = keys;
+            this.values = values;
+            this.seed = seed;
+            this.shift = shift;
+        }
+
+        /**
+         * Busca la semilla con la que todos los nombres caen en posiciones distintas.
+         * Se empieza con una tabla del doble de los nombres (factor de carga 1/2), donde
+         * una semilla al azar sirve con probabilidad razonable para pocas decenas de nombres.
+         */
+        static Table build(Map<String, FunctionDefinition> functions) {
+            int bits = Math.max(1, 32 - Integer.numberOfLeadingZeros(Math.max(1, 2 * functions.size() - 1)));
+            while (true) {
+                int size = 1 << bits;
+                int shift = 32 - bits;
+                for (int seed = 1; seed <= SEEDS_PER_SIZE; seed++) {
+                    String[] keys = new String[size];
+                    FunctionDefinition[] values = new FunctionDefinition[size];
+                    boolean perfect = true;
+                    for (Map.Entry<String, FunctionDefinition> entry : functions.entrySet()) {
+                        int slot = hash(entry.getKey(), seed) >>> shift;
+                        if (keys[slot] != null) {
+                            perfect = false;
+                            break;
+                        }
+                        keys[slot] = entry.getKey();
+                        values[slot] = entry.getValue();
+                    }
+                    if (perfect) {
+                        return new Table(keys, values, seed, shift);
+                    }
+                }
+                bits++;
+            }
+        }
+
+        FunctionDefinition get(String name) {
+            int slot = hash(name, seed) >>> shift;
+            String key = keys[slot];
+            if (key == null || key.length() != name.length()) {
+                return null;
+            }
+            for (int i = 0; i < key.length(); i++) {
+                if (key.charAt(i) != lowerCase(name.charAt(i))) {
+                    return null;
+                }
+            }
+            return values[slot];
+        }
+
+        /**
+         * FNV-1a sobre los caracteres en minúscula, con una mezcla final para que los bits
+         * altos (los que eligen la posición) dependan de todos los caracteres.
+         */
+        private static int hash(String name, int seed) {
+            int h = 0x811C9DC5 ^ seed * 0x9E3779B9;
+            for (int i = 0; i < name.length(); i++) {
+                h = (h ^ lowerCase(name.charAt(i))) * 0x01000193;
+            }
+            h ^= h >>> 16;
+            h *= 0x85EBCA6B;
+            h ^= h >>> 13;
+            return h;
+        }
+
+        /**
+         * Minúscula de un carácter, con un camino rápido para ASCII (el caso habitual).
+         */
+        static char lowerCase(char c) {
+            if (c < 128) {
+                return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+            }
+            return Character.toLowerCase(c);
+        }
+    }
+}
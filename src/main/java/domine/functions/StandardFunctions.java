@@ -0,0 +1,126 @@
+package domine.functions;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Funciones predefinidas del lenguaje, con sus derivadas parciales.
+ *
+ * Las implementaciones son MethodHandles directos a java.lang.Math (o a métodos estáticos
+ * de esta clase), sin envolverlas en lambdas. Fuera del dominio devuelven NaN o ±∞ igual
+ * que Math: sqrt(-1) = NaN, log(0) = -∞, asin(2) = NaN.
+ */
+public final class StandardFunctions {
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    // ========== Trigonométricas ==========
+    public static final FunctionDefinition SIN = math("sin", "sin").withDerivatives(math("cos"));
+    public static final FunctionDefinition COS = math("cos", "cos").withDerivatives(local("cosDerivative"));
+    public static final FunctionDefinition TAN = math("tan", "tan").withDerivatives(local("tanDerivative"));
+    public static final FunctionDefinition ASIN = math("asin", "asin").withDerivatives(local("asinDerivative"));
+    public static final FunctionDefinition ACOS = math("acos", "acos").withDerivatives(local("acosDerivative"));
+    public static final FunctionDefinition ATAN = math("atan", "atan").withDerivatives(local("atanDerivative"));
+    public static final FunctionDefinition ATAN2 = FunctionDefinition.of("atan2", 2, binaryMath("atan2"))
+            .withDerivatives(binaryLocal("atan2ByY"), binaryLocal("atan2ByX"));
+
+    // ========== Exponenciales y algebraicas ==========
+    public static final FunctionDefinition SQRT = math("sqrt", "sqrt").withDerivatives(local("sqrtDerivative"));
+    public static final FunctionDefinition EXP = math("exp", "exp").withDerivatives(math("exp"));
+    public static final FunctionDefinition LOG = math("log", "log").withDerivatives(local("logDerivative"));
+    public static final FunctionDefinition ABS = math("abs", "abs").withDerivatives(math("signum"));
+
+    private StandardFunctions() {
+    }
+
+    /**
+     * Registra todas las funciones predefinidas y sus alias ("sen" para el seno,
+     * "ln" para el logaritmo natural).
+     */
+    public static void registerAll(FunctionRegistry registry) {
+        for (FunctionDefinition function : new FunctionDefinition[]{
+                SIN, COS, TAN, ASIN, ACOS, ATAN, ATAN2, SQRT, EXP, LOG, ABS}) {
+            registry.register(function);
+        }
+        registry.register("sen", SIN);
+        registry.register("ln", LOG);
+    }
+
+    // ========== Derivadas que no están en Math ==========
+
+    private static double cosDerivative(double x) {
+        return -Math.sin(x);
+    }
+
+    /**
+     * tan'(x) = 1/cos²(x), exacta incluso cerca de los polos.
+     */
+    private static double tanDerivative(double x) {
+        double cos = Math.cos(x);
+        return 1.0 / (cos * cos);
+    }
+
+    private static double asinDerivative(double x) {
+        return 1.0 / Math.sqrt(1 - x * x);
+    }
+
+    private static double acosDerivative(double x) {
+        return -1.0 / Math.sqrt(1 - x * x);
+    }
+
+    private static double atanDerivative(double x) {
+        return 1.0 / (1 + x * x);
+    }
+
+    /**
+     * ∂atan2(y, x)/∂y = x / (x² + y²)
+     */
+    private static double atan2ByY(double y, double x) {
+        return x / (x * x + y * y);
+    }
+
+    /**
+     * ∂atan2(y, x)/∂x = -y / (x² + y²)
+     */
+    private static double atan2ByX(double y, double x) {
+        return -y / (x * x + y * y);
+    }
+
+    private static double sqrtDerivative(double x) {
+        return 0.5 / Math.sqrt(x);
+    }
+
+    private static double logDerivative(double x) {
+        return 1.0 / x;
+    }
+
+    // ========== Construcción de MethodHandles ==========
+
+    private static FunctionDefinition math(String name, String method) {
+        return FunctionDefinition.of(name, 1, math(method));
+    }
+
+    private static MethodHandle math(String method) {
+        return find(Math.class, method, MethodType.methodType(double.class, double.class));
+    }
+
+    private static MethodHandle binaryMath(String method) {
+        return find(Math.class, method, MethodType.methodType(double.class, double.class, double.class));
+    }
+
+    private static MethodHandle local(String method) {
+        return find(StandardFunctions.class, method, MethodType.methodType(double.class, double.class));
+    }
+
+    private static MethodHandle binaryLocal(String method) {
+        return find(StandardFunctions.class, method, MethodType.methodType(double.class, double.class, double.class));
+    }
+
+    private static MethodHandle find(Class<?> owner, String method, MethodType type) {
+        try {
+            return LOOKUP.findStatic(owner, method, type);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package domine.grid;
+
+import lombok.Getter;
+
+/**
+ * Eje de una malla: una variable que recorre [from, to] con un número fijo de puntos
+ * equiespaciados (ambos extremos incluidos).
+ */
+@Getter
+public class GridAxis {
+    private final String variable;
+    private final double from;
+    private final double to;
+    private final int points;
+
+    public GridAxis(String variable, double from, double to, int points) {
+        if (points < 1) {
+            throw new IllegalArgumentException("El eje " + variable + " debe tener al menos un punto: " + points);
+        }
+        this.variable = variable;
+        this.from = from;
+        this.to = to;
+        this.points = points;
+    }
+
+    /**
+     * Valor de la variable en el punto i del eje.
+     */
+    public double valueAt(int i) {
+        if (points == 1) {
+            return from;
+        }
+        return i == points - 1 ? to : from + (to - from) * i / (points - 1);
+    }
+}
@@ -0,0 +1,315 @@
+package domine.grid;
+
+import domine.ast.*;
+import domine.compiler.ExpressionCompiler;
+import domine.compiler.OpCode;
+import domine.functions.FunctionDefinition;
+import resources.message.ExpectedMessage;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Evaluación de una expresión sobre una malla multidimensional con extracción de
+ * invariantes de lazo.
+ *
+ * Los ejes se recorren como lazos anidados: el primero es el más externo y el último el
+ * más interno. Cada nodo del AST se asigna al nivel del eje más interno del que depende:
+ * - sin(y)^2 con ejes (y, x) depende solo de y: se calcula una vez por fila
+ * - sin(x*y) depende de x: se calcula en cada punto
+ * - los subárboles constantes (o que solo usan variables fijas) se calculan una sola vez
+ * Así, en cada paso del lazo de nivel k solo se recalculan los nodos de nivel k.
+ *
+ * El resultado se escribe en un arreglo denso en orden por filas (row-major): el índice
+ * del punto (i₀, i₁, ..., iₙ₋₁) es ((i₀·n₁ + i₁)·n₂ + ...)·nₙ₋₁ + iₙ₋₁.
+ *
+ * Las variables locales no generan nodos: sus apariciones apuntan al nodo de la expresión
+ * asignada, que se calcula una vez por paso de su nivel aunque se use varias veces.
+ *
+ * Una división por cero produce NaN en los puntos afectados en lugar de interrumpir la
+ * malla completa.
+ */
+public class GridEvaluator {
+    private final List<GridAxis> axes;
+    private final int[] op;                 // Código de operación de cada nodo (postorden)
+    private final int[] left;
+    private final int[] right;
+    private final FunctionDefinition[] functions; // Función de los nodos CALL
+    private final int[][] callArguments;    // Argumentos de los nodos CALL
+    private final int[] level;              // Eje más interno del que depende el nodo (-1: invariante)
+    private final int[][] levelNodes;       // Nodos internos de cada nivel, en postorden
+    private final int[][] axisLeaves;       // Hojas de la variable de cada eje
+    private final Map<String, List<Integer>> otherLeaves = new HashMap<>(); // Hojas de variables fijas
+    private final double[] constantValues;  // Valores de las hojas constantes
+    private final Map<LocalBinding, Integer> localNodes = new IdentityHashMap<>(); // Variable local -> nodo
+    private final int root;
+    private int size;
+
+    /**
+     * @param root Raíz del AST
+     * @param axes Ejes de la malla, del más externo al más interno
+     * @throws Exception Si el AST contiene una función u operador desconocido
+     */
+    public GridEvaluator(ASTNode root, List<GridAxis> axes) throws Exception {
+        this.axes = new ArrayList<>(axes);
+        int nodes = root.getNodeCount();
+        this.op = new int[nodes];
+        this.left = new int[nodes];
+        this.right = new int[nodes];
+        this.functions = new FunctionDefinition[nodes];
+        this.callArguments = new int[nodes][];
+        this.level = new int[nodes];
+        this.constantValues = new double[nodes];
+
+        Map<String, Integer> axisIndex = new HashMap<>();
+        for (int k = 0; k < axes.size(); k++) {
+            if (axisIndex.put(axes.get(k).getVariable(), k) != null) {
+                throw new IllegalArgumentException("Eje repetido: " + axes.get(k).getVariable());
+            }
+        }
+        List<List<Integer>> leaves = new ArrayList<>();
+        List<List<Integer>> internal = new ArrayList<>();
+        for (int k = 0; k <= axes.size(); k++) {
+            leaves.add(new ArrayList<>());
+            internal.add(new ArrayList<>());
+        }
+        this.root = add(root, axisIndex, leaves, internal);
+
+        // Nivel k se guarda en la posición k + 1 (la posición 0 son los invariantes)
+        this.levelNodes = new int[axes.size() + 1][];
+        for (int k = 0; k <= axes.size(); k++) {
+            levelNodes[k] = internal.get(k).stream().mapToInt(Integer::intValue).toArray();
+        }
+        this.axisLeaves = new int[axes.size()][];
+        for (int k = 0; k < axes.size(); k++) {
+            axisLeaves[k] = leaves.get(k + 1).stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+
+    private int add(ASTNode node, Map<String, Integer> axisIndex, List<List<Integer>> leaves,
+                    List<List<Integer>> internal) throws Exception {
+        if (node instanceof LetNode) {
+            LetNode letNode = (LetNode) node;
+            localNodes.put(letNode.getBinding(), add(letNode.getBinding().getValue(), axisIndex, leaves, internal));
+            return add(letNode.getBody(), axisIndex, leaves, internal);
+        } else if (node instanceof LocalVariableNode) {
+            LocalBinding binding = ((LocalVariableNode) node).getBinding();
+            Integer index = localNodes.get(binding);
+            if (index == null) {
+                throw new Exception(ExpectedMessage.usedBeforeDefinition(binding.getName()));
+            }
+            return index;
+        }
+
+        int l = -1;
+        int r = -1;
+        int code;
+        int nodeLevel = -1;
+        if (node instanceof NumberNode) {
+            code = OpCode.CONST;
+        } else if (node instanceof VariableNode) {
+            code = OpCode.LOAD;
+            nodeLevel = axisIndex.getOrDefault(((VariableNode) node).getName(), -1);
+        } else if (node instanceof BinaryOperationNode) {
+            BinaryOperationNode binOp = (BinaryOperationNode) node;
+            l = add(binOp.getLeft(), axisIndex, leaves, internal);
+            r = add(binOp.getRight(), axisIndex, leaves, internal);
+            code = ExpressionCompiler.binaryOpCode(binOp.getOperator());
+            nodeLevel = Math.max(level[l], level[r]);
+        } else if (node instanceof FunctionNode) {
+            FunctionNode funcNode = (FunctionNode) node;
+            int[] children = new int[funcNode.getArguments().size()];
+            for (int i = 0; i < children.length; i++) {
+                children[i] = add(funcNode.getArguments().get(i), axisIndex, leaves, internal);
+                nodeLevel = Math.max(nodeLevel, level[children[i]]);
+            }
+            l = children[0];
+            code = ExpressionCompiler.functionOpCode(funcNode.getFunction());
+            if (code == OpCode.CALL) {
+                functions[size] = funcNode.getFunction(); // size es el índice que recibirá este nodo
+                callArguments[size] = children;
+            }
+        } else {
+            throw new Exception(ExpectedMessage.unExpectedToken(String.valueOf(node)));
+        }
+
+        int index = size++;
+        op[index] = code;
+        left[index] = l;
+        right[index] = r;
+        level[index] = nodeLevel;
+        if (node instanceof NumberNode) {
+            constantValues[index] = ((NumberNode) node).getValue();
+        } else if (node instanceof VariableNode) {
+            if (nodeLevel >= 0) {
+                leaves.get(nodeLevel + 1).add(index);
+            } else {
+                otherLeaves.computeIfAbsent(((VariableNode) node).getName(), n -> new ArrayList<>()).add(index);
+            }
+        } else {
+            internal.get(nodeLevel + 1).add(index);
+        }
+        return index;
+    }
+
+    /**
+     * Número total de puntos de la malla.
+     */
+    public int getPoints() {
+        long points = 1;
+        for (GridAxis axis : axes) {
+            points *= axis.getPoints();
+        }
+        if (points > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("La malla tiene demasiados puntos: " + points);
+        }
+        return (int) points;
+    }
+
+    /**
+     * Operaciones que realiza una evaluación de la malla con extracción de invariantes.
+     */
+    public long getOperations() {
+        long operations = levelNodes[0].length;
+        long iterations = 1;
+        for (int k = 0; k < axes.size(); k++) {
+            iterations *= axes.get(k).getPoints();
+            operations += iterations * levelNodes[k + 1].length;
+        }
+        return operations;
+    }
+
+    /**
+     * Operaciones que realizaría la evaluación del AST completo en cada punto.
+     */
+    public long getNaiveOperations() {
+        long internalNodes = 0;
+        for (int[] nodes : levelNodes) {
+            internalNodes += nodes.length;
+        }
+        return internalNodes * getPoints();
+    }
+
+    public double[] evaluate(Map<String, Double> others) throws Exception {
+        double[] output = new double[getPoints()];
+        evaluate(others, output);
+        return output;
+    }
+
+    /**
+     * Evalúa la expresión en todos los puntos de la malla.
+     *
+     * @param others Valores de las variables que no son ejes
+     * @param output Arreglo de salida en orden por filas (al menos getPoints() elementos)
+     * @throws Exception Si falta el valor de alguna variable que no es eje
+     */
+    public void evaluate(Map<String, Double> others, double[] output) throws Exception {
+        int points = getPoints();
+        if (output.length < points) {
+            throw new IllegalArgumentException("El arreglo de salida es menor que la malla: " + output.length);
+        }
+
+        double[] values = constantValues.clone();
+        for (Map.Entry<String, List<Integer>> entry : otherLeaves.entrySet()) {
+            Double value = others.get(entry.getKey());
+            if (value == null) {
+                throw new Exception(ExpectedMessage.unDefinedVariable(entry.getKey()));
+            }
+            for (int leaf : entry.getValue()) {
+                values[leaf] = value;
+            }
+        }
+        run(levelNodes[0], values);
+
+        int dimensions = axes.size();
+        int[] index = new int[dimensions];
+        for (int k = 0; k < dimensions; k++) {
+            enter(k, 0, values);
+        }
+        for (int position = 0; position < points; position++) {
+            output[position] = values[root];
+
+            // Avanza el índice como un odómetro: el eje más interno primero
+            int k = dimensions - 1;
+            while (k >= 0 && ++index[k] == axes.get(k).getPoints()) {
+                index[k] = 0;
+                k--;
+            }
+            if (k < 0) {
+                break;
+            }
+            enter(k, index[k], values);
+            for (int j = k + 1; j < dimensions; j++) {
+                enter(j, 0, values);
+            }
+        }
+    }
+
+    /**
+     * Asigna el punto i del eje k y recalcula los nodos de su nivel.
+     */
+    private void enter(int k, int i, double[] values) {
+        double value = axes.get(k).valueAt(i);
+        for (int leaf : axisLeaves[k]) {
+            values[leaf] = value;
+        }
+        run(levelNodes[k + 1], values);
+    }
+
+    private void run(int[] nodes, double[] values) {
+        for (int node : nodes) {
+            if (op[node] == OpCode.CALL) {
+                values[node] = call(functions[node], callArguments[node], values);
+                continue;
+            }
+            double a = values[left[node]];
+            switch (op[node]) {
+                case OpCode.ADD:
+                    values[node] = a + values[right[node]];
+                    break;
+                case OpCode.SUB:
+                    values[node] = a - values[right[node]];
+                    break;
+                case OpCode.MUL:
+                    values[node] = a * values[right[node]];
+                    break;
+                case OpCode.DIV:
+                    double b = values[right[node]];
+                    values[node] = b == 0 ? Double.NaN : a / b;
+                    break;
+                case OpCode.POW:
+                    values[node] = Math.pow(a, values[right[node]]);
+                    break;
+                case OpCode.SIN:
+                    values[node] = Math.sin(a);
+                    break;
+                case OpCode.COS:
+                    values[node] = Math.cos(a);
+                    break;
+                case OpCode.TAN:
+                    values[node] = Math.tan(a);
+                    break;
+                default:
+                    throw new IllegalStateException("Operación inválida: " + op[node]);
+            }
+        }
+    }
+
+    private static double call(FunctionDefinition function, int[] children, double[] values) {
+        switch (children.length) {
+            case 1:
+                return function.invoke(values[children[0]]);
+            case 2:
+                return function.invoke(values[children[0]], values[children[1]]);
+            default:
+                double[] arguments = new double[children.length];
+                for (int i = 0; i < children.length; i++) {
+                    arguments[i] = values[children[i]];
+                }
+                return function.invoke(arguments);
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package domine.incremental;
+
+import domine.ast.*;
+import domine.compiler.ExpressionCompiler;
+import domine.compiler.OpCode;
+import domine.functions.FunctionDefinition;
+import resources.message.ExpectedMessage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Contexto de evaluación incremental de un AST.
+ *
+ * Guarda el último valor de cada subárbol y, cuando cambia una variable, marca como
+ * pendientes solo los nodos en el camino de cada aparición de la variable hasta la raíz.
+ * La siguiente evaluación recalcula únicamente esos nodos y reutiliza el valor guardado
+ * del resto, de modo que el costo es proporcional a la parte afectada de la expresión y
+ * no a su tamaño total.
+ *
+ * Ejemplo: en sin(x)*cos(y) + tan(z), al cambiar z se recalculan tan(z) y la suma;
+ * sin(x)*cos(y) conserva su valor.
+ *
+ * Las variables locales ("u = x^2; u * sin(u)") no generan nodos propios: cada aparición
+ * apunta al nodo de la expresión asignada, que queda compartido por varios padres (el
+ * árbol pasa a ser un grafo acíclico) y se recalcula una sola vez cuando cambia x.
+ *
+ * El árbol se almacena en arreglos en postorden (los hijos antes que el padre) con los
+ * códigos de operación de {@link OpCode}. No es seguro usar una instancia desde varios
+ * hilos a la vez.
+ */
+public class IncrementalEvaluator {
+    private final int[] op;                 // Código de operación de cada nodo
+    private final int[] left;               // Hijo izquierdo o argumento (-1 en las hojas)
+    private final int[] right;              // Hijo derecho (-1 si no tiene)
+    private final FunctionDefinition[] functions; // Función de los nodos CALL
+    private final int[][] callArguments;    // Argumentos de los nodos CALL
+    private final int[] parent;             // Padre (-1 en la raíz)
+    private final int[][] sharedParents;    // Padres adicionales de los valores de variables locales
+    private final Map<LocalBinding, Integer> localNodes = new IdentityHashMap<>(); // Variable local -> nodo
+    private final double[] values;          // Último valor calculado de cada nodo
+    private final boolean[] dirty;          // El valor guardado ya no es válido
+    private final Map<String, List<Integer>> occurrences = new LinkedHashMap<>(); // Variable -> hojas
+    private final Map<String, Double> bindings = new LinkedHashMap<>();
+    private final int root;
+    private int size;
+    private long recomputed;                // Nodos recalculados en la última evaluación
+
+    /**
+     * @param root Raíz del AST
+     * @throws Exception Si el AST contiene una función u operador desconocido
+     */
+    public IncrementalEvaluator(ASTNode root) throws Exception {
+        int nodes = root.getNodeCount();
+        this.op = new int[nodes];
+        this.left = new int[nodes];
+        this.right = new int[nodes];
+        this.functions = new FunctionDefinition[nodes];
+        this.callArguments = new int[nodes][];
+        this.parent = new int[nodes];
+        this.sharedParents = new int[nodes][];
+        this.values = new double[nodes];
+        this.dirty = new boolean[nodes];
+        Arrays.fill(parent, -1);
+        this.root = add(root);
+    }
+
+    /**
+     * Agrega el subárbol en postorden y devuelve el índice de su raíz.
+     */
+    private int add(ASTNode node) throws Exception {
+        if (node instanceof LetNode) {
+            LetNode letNode = (LetNode) node;
+            localNodes.put(letNode.getBinding(), add(letNode.getBinding().getValue()));
+            return add(letNode.getBody());
+        } else if (node instanceof LocalVariableNode) {
+            LocalBinding binding = ((LocalVariableNode) node).getBinding();
+            Integer index = localNodes.get(binding);
+            if (index == null) {
+                throw new Exception(ExpectedMessage.usedBeforeDefinition(binding.getName()));
+            }
+            return index;
+        }
+
+        int l = -1;
+        int r = -1;
+        int[] children = null;
+        int code;
+        if (node instanceof NumberNode) {
+            code = OpCode.CONST;
+        } else if (node instanceof VariableNode) {
+            code = OpCode.LOAD;
+        } else if (node instanceof BinaryOperationNode) {
+            BinaryOperationNode binOp = (BinaryOperationNode) node;
+            l = add(binOp.getLeft());
+            r = add(binOp.getRight());
+            code = ExpressionCompiler.binaryOpCode(binOp.getOperator());
+        } else if (node instanceof FunctionNode) {
+            FunctionNode funcNode = (FunctionNode) node;
+            children = new int[funcNode.getArguments().size()];
+            for (int i = 0; i < children.length; i++) {
+                children[i] = add(funcNode.getArguments().get(i));
+            }
+            l = children[0];
+            code = ExpressionCompiler.functionOpCode(funcNode.getFunction());
+        } else {
+            throw new Exception(ExpectedMessage.unExpectedToken(String.valueOf(node)));
+        }
+
+        int index = size++;
+        op[index] = code;
+        left[index] = l;
+        right[index] = r;
+        if (l >= 0) {
+            link(l, index);
+        }
+        if (r >= 0) {
+            link(r, index);
+        }
+        if (code == OpCode.CALL) {
+            functions[index] = ((FunctionNode) node).getFunction();
+            callArguments[index] = children;
+            for (int child : children) {
+                link(child, index);
+            }
+        }
+        if (node instanceof NumberNode) {
+            values[index] = ((NumberNode) node).getValue();
+        } else if (node instanceof VariableNode) {
+            occurrences.computeIfAbsent(((VariableNode) node).getName(), n -> new ArrayList<>()).add(index);
+        } else {
+            dirty[index] = true; // Sin valor hasta la primera evaluación
+        }
+        return index;
+    }
+
+    /**
+     * Registra el padre de un nodo. Solo el valor de una variable local usada varias veces
+     * tiene más de un padre; los adicionales se guardan aparte para no agrandar el caso común.
+     */
+    private void link(int child, int index) {
+        if (parent[child] < 0 || parent[child] == index) {
+            parent[child] = index;
+            return;
+        }
+        int[] shared = sharedParents[child];
+        for (int p : shared != null ? shared : new int[0]) {
+            if (p == index) {
+                return;
+            }
+        }
+        shared = shared == null ? new int[1] : Arrays.copyOf(shared, shared.length + 1);
+        shared[shared.length - 1] = index;
+        sharedParents[child] = shared;
+    }
+
+    /**
+     * Variables que aparecen en la expresión, en orden de aparición.
+     */
+    public Set<String> getVariables() {
+        return Collections.unmodifiableSet(occurrences.keySet());
+    }
+
+    /**
+     * Asigna el valor de una variable y marca como pendientes los nodos que dependen de ella.
+     * Las variables que no aparecen en la expresión se ignoran.
+     */
+    public void set(String name, double value) {
+        List<Integer> leaves = occurrences.get(name);
+        if (leaves == null) {
+            return;
+        }
+        Double previous = bindings.put(name, value);
+        if (previous != null && Double.compare(previous, value) == 0) {
+            return; // Sin cambios: nada que invalidar
+        }
+        for (int leaf : leaves) {
+            values[leaf] = value;
+            invalidate(parent[leaf]);
+        }
+    }
+
+    public void setAll(Map<String, Double> values) {
+        for (Map.Entry<String, Double> entry : values.entrySet()) {
+            set(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Marca el camino hasta la raíz (todos los caminos, si pasa por el valor de una variable
+     * local). Se detiene en el primer nodo ya pendiente: sus ancestros también lo están.
+     */
+    private void invalidate(int node) {
+        while (node >= 0 && !dirty[node]) {
+            dirty[node] = true;
+            if (sharedParents[node] != null) {
+                for (int p : sharedParents[node]) {
+                    invalidate(p);
+                }
+            }
+            node = parent[node];
+        }
+    }
+
+    /**
+     * Evalúa la expresión recalculando solo los nodos pendientes.
+     *
+     * @return Resultado de la evaluación
+     * @throws Exception Si falta alguna variable o se produce una división por cero
+     *                   (los nodos afectados siguen pendientes para la próxima evaluación)
+     */
+    public double evaluate() throws Exception {
+        for (Map.Entry<String, List<Integer>> entry : occurrences.entrySet()) {
+            if (!bindings.containsKey(entry.getKey())) {
+                throw new Exception(ExpectedMessage.unDefinedVariable(entry.getKey()));
+            }
+        }
+        recomputed = 0;
+        return compute(root);
+    }
+
+    private double compute(int node) throws Exception {
+        if (!dirty[node]) {
+            return values[node];
+        }
+        recomputed++;
+        double result;
+        if (op[node] == OpCode.CALL) {
+            int[] children = callArguments[node];
+            double[] arguments = new double[children.length];
+            for (int i = 0; i < children.length; i++) {
+                arguments[i] = compute(children[i]);
+            }
+            result = functions[node].invoke(arguments);
+            values[node] = result;
+            dirty[node] = false;
+            return result;
+        }
+        double a = compute(left[node]);
+        switch (op[node]) {
+            case OpCode.SIN:
+                result = Math.sin(a);
+                break;
+            case OpCode.COS:
+                result = Math.cos(a);
+                break;
+            case OpCode.TAN:
+                result = Math.tan(a);
+                break;
+            default:
+                result = binary(op[node], a, compute(right[node]));
+        }
+        values[node] = result;
+        dirty[node] = false;
+        return result;
+    }
+
+    private static double binary(int code, double a, double b) throws Exception {
+        switch (code) {
+            case OpCode.ADD:
+                return a + b;
+            case OpCode.SUB:
+                return a - b;
+            case OpCode.MUL:
+                return a * b;
+            case OpCode.DIV:
+                if (b == 0) {
+                    throw new Exception(ExpectedMessage.dividedByZero());
+                }
+                return a / b;
+            case OpCode.POW:
+                return Math.pow(a, b);
+            default:
+                throw new IllegalStateException("Operación inválida: " + code);
+        }
+    }
+
+    /**
+     * Nodos recalculados en la última evaluación.
+     */
+    public long getRecomputed() {
+        return recomputed;
+    }
+
+    public int getNodeCount() {
+        return size;
+    }
+}
@@ -0,0 +1,236 @@
+package domine.incremental;
+
+import domine.Lexer;
+import domine.Parser;
+import domine.Token;
+import domine.TokenType;
+import domine.ast.ASTNode;
+import domine.errors.SyntaxException;
+import domine.functions.FunctionRegistry;
+import domine.limits.ResourceLimits;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Análisis incremental para un editor de fórmulas, que vuelve a enviar el texto completo
+ * con cada tecla.
+ *
+ * A partir del resultado anterior y del cambio (posición, caracteres quitados y texto
+ * insertado) se obtiene el mismo resultado que analizando el texto nuevo desde cero, ya sea
+ * el AST o el error de sintaxis, pero con menos trabajo:
+ *
+ * 1. Solo se vuelven a tokenizar los tokens que tocan el cambio. Un token depende de sus
+ *    caracteres y del primero que lo sigue, así que la lectura empieza en el primer token
+ *    que termina en el cambio o después (salvo que sea un operador o paréntesis que termina
+ *    justo ahí), y se detiene en cuanto, pasado el texto insertado, llega al comienzo de un
+ *    token del análisis anterior: desde ahí los tokens son los mismos, desplazados.
+ * 2. El Parser reutiliza los subárboles de los argumentos de funciones y de las
+ *    expresiones entre paréntesis cuyos tokens (y el token que los cierra) quedaron antes
+ *    o después de la parte tokenizada de nuevo, en lugar de volver a analizarlos.
+ *
+ * Ejemplo: en "sin(x^2 + y) * (1 + cos(z)) + x" al cambiar la última x por 2 se lee un solo
+ * token y se reutilizan los subárboles "x^2 + y" y "1 + cos(z)".
+ *
+ * Los subárboles que usan variables locales no se reutilizan: sus usos están enlazados a las
+ * definiciones del análisis en el que se crearon. Todos los AST comparten el mapa de valores
+ * de variables de esta instancia (ver {@link #getVariableValues()}).
+ *
+ * Las funciones se buscan en el registro al tokenizar, de modo que si se registran funciones
+ * nuevas hay que volver a analizar el texto con {@link #parse(String)}. No es seguro usar una
+ * instancia desde varios hilos a la vez; los resultados, en cambio, no se modifican.
+ */
+public class IncrementalParser {
+    private final FunctionRegistry functions;     // Funciones reconocidas por el Lexer
+    @Getter
+    private final Map<String, Double> variableValues = new HashMap<>(); // Compartido por todos los AST
+
+    public IncrementalParser() {
+        this(FunctionRegistry.getDefault());
+    }
+
+    /**
+     * @param functions Registro donde se buscan los nombres de funciones
+     */
+    public IncrementalParser(FunctionRegistry functions) {
+        this.functions = functions;
+    }
+
+    /**
+     * Analiza un texto completo, sin resultado anterior.
+     *
+     * @param text Texto de la expresión
+     * @return AST o error de sintaxis, listo para aplicarle cambios
+     */
+    public ParseResult parse(String text) throws Exception {
+        String compact = text.replaceAll("\\s+", ""); // Igual que el Lexer
+        Lexer lexer = new Lexer(compact, ResourceLimits.unlimited(), functions);
+        List<Token> tokens = new ArrayList<>();
+        int[] starts = new int[16];
+        try {
+            for (int position = 0; position < compact.length(); ) {
+                if (tokens.size() == starts.length) {
+                    starts = Arrays.copyOf(starts, starts.length * 2);
+                }
+                starts[tokens.size()] = position;
+                position = lexer.readToken(position, tokens);
+            }
+        } catch (SyntaxException e) {
+            return new ParseResult(text, compact, null, null, null, null, e, tokens.size(), 0);
+        }
+        return parse(text, compact, tokens, Arrays.copyOf(starts, tokens.size()), new Subtree[tokens.size()],
+                tokens.size());
+    }
+
+    /**
+     * Aplica un cambio al texto de un resultado anterior y lo analiza de nuevo, tokenizando
+     * solo la parte afectada y reutilizando los subárboles que no cambiaron.
+     *
+     * @param previous Resultado anterior, que no se modifica
+     * @param edit Cambio sobre el texto del resultado anterior
+     * @return El mismo resultado que parse() con el texto nuevo
+     * @throws IllegalArgumentException Si el cambio queda fuera del texto
+     */
+    public ParseResult apply(ParseResult previous, TextEdit edit) throws Exception {
+        String text = edit.apply(previous.getText());
+        if (previous.starts == null) {
+            return parse(text); // El texto anterior no llegó a tokenizarse
+        }
+
+        // Posiciones del cambio en el texto sin espacios
+        String oldCompact = previous.compact;
+        int from = compactOffset(previous.getText(), edit.getOffset());
+        int removed = compactOffset(previous.getText(), edit.getOffset() + edit.getRemovedLength()) - from;
+        String inserted = edit.getInserted().replaceAll("\\s+", "");
+        String compact = oldCompact.substring(0, from) + inserted + oldCompact.substring(from + removed);
+        int delta = inserted.length() - removed;
+        int insertedEnd = from + inserted.length();
+
+        // Tokens anteriores: [0, first) se conservan, [first, last) se reemplazan y
+        // [last, n) se conservan desplazados en delta
+        int[] starts = previous.starts;
+        int n = starts.length;
+        int first = Math.max(0, search(starts, from) - 1); // Primer token que termina en el cambio o después
+        if (first < n && end(previous, first) == from && isSymbol(previous.getTokens().get(first))) {
+            first++; // Los operadores y paréntesis no dependen de lo que los sigue
+        }
+        int last = n;
+        Lexer lexer = new Lexer(compact, ResourceLimits.unlimited(), functions);
+        List<Token> window = new ArrayList<>();
+        int[] windowStarts = new int[8];
+        int position = first < n ? starts[first] : from;
+        try {
+            while (position < compact.length()) {
+                if (position >= insertedEnd) {
+                    int index = search(starts, position - delta);
+                    if (index < n && starts[index] == position - delta) {
+                        last = index;
+                        break;
+                    }
+                }
+                if (window.size() == windowStarts.length) {
+                    windowStarts = Arrays.copyOf(windowStarts, windowStarts.length * 2);
+                }
+                windowStarts[window.size()] = position;
+                position = lexer.readToken(position, window);
+            }
+        } catch (SyntaxException e) {
+            return new ParseResult(text, compact, null, null, null, null, e, window.size(), 0);
+        }
+
+        int relexed = window.size();
+        int count = first + relexed + n - last;
+        List<Token> tokens = new ArrayList<>(count);
+        tokens.addAll(previous.getTokens().subList(0, first));
+        tokens.addAll(window);
+        tokens.addAll(previous.getTokens().subList(last, n));
+        int[] newStarts = new int[count];
+        System.arraycopy(starts, 0, newStarts, 0, first);
+        System.arraycopy(windowStarts, 0, newStarts, first, relexed);
+        for (int i = last; i < n; i++) {
+            newStarts[first + relexed + i - last] = starts[i] + delta;
+        }
+
+        // Subárboles cuyos tokens y token de cierre quedaron fuera de la parte tokenizada
+        Subtree[] subtrees = new Subtree[count];
+        for (int i = 0; i < first; i++) {
+            Subtree subtree = previous.subtrees[i];
+            if (subtree != null && i + subtree.getLength() < first) {
+                subtrees[i] = subtree;
+            }
+        }
+        System.arraycopy(previous.subtrees, last, subtrees, first + relexed, n - last);
+        return parse(text, compact, tokens, newStarts, subtrees, relexed);
+    }
+
+    private ParseResult parse(String text, String compact, List<Token> tokens, int[] starts, Subtree[] subtrees,
+                              int relexed) throws Exception {
+        Parser parser = new Parser(tokens, variableValues, subtrees);
+        ASTNode root = null;
+        SyntaxException error = null;
+        try {
+            root = parser.parseToAST();
+        } catch (SyntaxException e) {
+            error = e;
+        }
+        return new ParseResult(text, compact, tokens, starts, subtrees, root, error, relexed,
+                parser.getReusedSubtrees());
+    }
+
+    /**
+     * Posición siguiente al último carácter de un token, en el texto sin espacios.
+     */
+    private static int end(ParseResult result, int index) {
+        return index + 1 < result.starts.length ? result.starts[index + 1] : result.compact.length();
+    }
+
+    /**
+     * Los operadores, paréntesis y separadores son de un solo carácter; los números y los
+     * identificadores, en cambio, pueden absorber lo que se escriba a continuación.
+     */
+    private static boolean isSymbol(Token token) {
+        TokenType type = token.getTokenType();
+        return type != TokenType.DIGIT && type != TokenType.VARIABLE && type != TokenType.FUNCTION;
+    }
+
+    /**
+     * Posición en el texto sin espacios que corresponde a una posición del texto original.
+     */
+    private static int compactOffset(String text, int offset) {
+        int count = 0;
+        for (int i = 0; i < offset; i++) {
+            if (!isSpace(text.charAt(i))) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Los mismos caracteres que \s en la expresión regular con la que el Lexer quita los espacios.
+     */
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    /**
+     * @return Primer índice cuyo comienzo es mayor o igual que position (starts.length si no hay)
+     */
+    private static int search(int[] starts, int position) {
+        int low = 0;
+        int high = starts.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (starts[middle] < position) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
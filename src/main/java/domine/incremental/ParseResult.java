@@ -0,0 +1,65 @@
+package domine.incremental;
+
+import domine.Token;
+import domine.ast.ASTNode;
+import domine.errors.SyntaxException;
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Resultado de analizar el texto de una expresión con {@link IncrementalParser}: el AST o el
+ * error de sintaxis, más lo que hace falta para analizar el próximo cambio sin empezar de
+ * cero (los tokens con su posición y los subárboles de argumentos y paréntesis).
+ *
+ * Un resultado con error también sirve de base para el próximo cambio: mientras se escribe
+ * una fórmula, la mayoría de los textos intermedios ("sin(", "x +") no son válidos.
+ */
+public final class ParseResult {
+    @Getter
+    private final String text;         // Texto tal como lo escribió el usuario
+    final String compact;              // Texto sin espacios, el que recorre el Lexer
+    private final List<Token> tokens;  // Tokens (null si falló el análisis léxico)
+    final int[] starts;                // Posición de cada token en el texto sin espacios
+    final Subtree[] subtrees;          // Subárboles reutilizables por token inicial
+    @Getter
+    private final ASTNode root;        // Raíz del AST (null si hay error)
+    @Getter
+    private final SyntaxException error; // Error léxico o sintáctico (null si no hay)
+    @Getter
+    private final int relexedTokens;   // Tokens leídos por el Lexer en este análisis
+    @Getter
+    private final int reusedSubtrees;  // Subárboles tomados del análisis anterior
+
+    ParseResult(String text, String compact, List<Token> tokens, int[] starts, Subtree[] subtrees,
+                ASTNode root, SyntaxException error, int relexedTokens, int reusedSubtrees) {
+        this.text = text;
+        this.compact = compact;
+        this.tokens = tokens;
+        this.starts = starts;
+        this.subtrees = subtrees;
+        this.root = root;
+        this.error = error;
+        this.relexedTokens = relexedTokens;
+        this.reusedSubtrees = reusedSubtrees;
+    }
+
+    /**
+     * @return Tokens del texto, o null si el análisis léxico falló
+     */
+    public List<Token> getTokens() {
+        return tokens == null ? null : Collections.unmodifiableList(tokens);
+    }
+
+    public boolean isValid() {
+        return error == null;
+    }
+
+    @Override
+    public String toString() {
+        return "ParseResult(\"" + text + "\", " + (error == null ? root.getNodeCount() + " nodos" : error.getMessage())
+                + ", " + relexedTokens + (relexedTokens == 1 ? " token leído, " : " tokens leídos, ")
+                + reusedSubtrees + (reusedSubtrees == 1 ? " subárbol reutilizado)" : " subárboles reutilizados)");
+    }
+}
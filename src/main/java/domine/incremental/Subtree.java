@@ -0,0 +1,60 @@
+package domine.incremental;
+
+import domine.ast.ASTNode;
+import domine.ast.BinaryOperationNode;
+import domine.ast.FunctionNode;
+import domine.ast.VariableNode;
+import lombok.Getter;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Subárbol de un argumento de función o de una expresión entre paréntesis, guardado por el
+ * Parser en la posición de su primer token para reutilizarlo en el siguiente análisis
+ * incremental mientras sus tokens no cambien.
+ *
+ * La longitud cuenta los tokens del subárbol sin el que lo cierra (',' o ')'), de modo que
+ * el mismo objeto sirve en cualquier posición a la que se desplace el texto.
+ */
+@Getter
+public final class Subtree {
+    private final int length;          // Tokens del subárbol
+    private final ASTNode node;        // Raíz del subárbol
+    private final boolean bound;       // Usa variables locales
+    private String[] variables;        // Variables libres, calculadas al necesitarlas
+
+    public Subtree(int length, ASTNode node, boolean bound) {
+        this.length = length;
+        this.node = node;
+        this.bound = bound;
+    }
+
+    /**
+     * Nombres de las variables libres del subárbol. Solo hacen falta en los programas con
+     * variables locales, así que se calculan la primera vez que se piden.
+     */
+    public String[] getVariables() {
+        if (variables == null) {
+            Set<String> names = new LinkedHashSet<>();
+            Deque<ASTNode> pending = new ArrayDeque<>();
+            pending.push(node);
+            while (!pending.isEmpty()) {
+                ASTNode current = pending.pop();
+                if (current instanceof VariableNode) {
+                    names.add(((VariableNode) current).getName());
+                } else if (current instanceof BinaryOperationNode) {
+                    BinaryOperationNode binOp = (BinaryOperationNode) current;
+                    pending.push(binOp.getRight());
+                    pending.push(binOp.getLeft());
+                } else if (current instanceof FunctionNode) {
+                    ((FunctionNode) current).getArguments().forEach(pending::push);
+                }
+            }
+            variables = names.toArray(new String[0]);
+        }
+        return variables;
+    }
+}
@@ -0,0 +1,46 @@
+package domine.incremental;
+
+import lombok.Getter;
+
+/**
+ * Cambio en el texto de una expresión, como lo informa un editor: a partir de offset se
+ * quitan removedLength caracteres y se inserta inserted. Las posiciones son del texto tal
+ * como lo escribió el usuario, con espacios.
+ *
+ * Ejemplos sobre "sin(x) + 2":
+ *   new TextEdit(4, 1, "2*y")  -> "sin(2*y) + 2"
+ *   new TextEdit(10, 0, "^3")  -> "sin(x) + 2^3"
+ *   new TextEdit(0, 7, "")     -> "+ 2"
+ */
+@Getter
+public final class TextEdit {
+    private final int offset;          // Posición del primer carácter quitado
+    private final int removedLength;   // Caracteres quitados
+    private final String inserted;     // Texto insertado en su lugar
+
+    public TextEdit(int offset, int removedLength, String inserted) {
+        if (offset < 0 || removedLength < 0) {
+            throw new IllegalArgumentException("Posición o longitud negativa: " + offset + ", " + removedLength);
+        }
+        this.offset = offset;
+        this.removedLength = removedLength;
+        this.inserted = inserted;
+    }
+
+    /**
+     * @return El texto con el cambio aplicado
+     * @throws IllegalArgumentException Si el cambio queda fuera del texto
+     */
+    public String apply(String text) {
+        if (offset + removedLength > text.length()) {
+            throw new IllegalArgumentException("El cambio [" + offset + ", " + (offset + removedLength)
+                    + ") queda fuera del texto de " + text.length() + " caracteres");
+        }
+        return text.substring(0, offset) + inserted + text.substring(offset + removedLength);
+    }
+
+    @Override
+    public String toString() {
+        return "TextEdit(" + offset + ", " + removedLength + ", \"" + inserted + "\")";
+    }
+}
@@ -0,0 +1,224 @@
+package domine.integration;
+
+import domine.compiler.CompiledExpression;
+import domine.compiler.UnivariateFunction;
+import resources.message.ExpectedMessage;
+
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Integración numérica adaptativa con la regla de Gauss–Kronrod de 15 puntos.
+ *
+ * ========== ALGORITMO ==========
+ * Cada subintervalo se integra con la regla de Kronrod de 15 puntos, que incluye los
+ * 7 puntos de Gauss: la diferencia |K15 - G7| estima el error sin evaluaciones extra.
+ * Se divide por la mitad el subintervalo con mayor error hasta que la suma de errores
+ * baja de la tolerancia.
+ *
+ * El intervalo se reparte en tantas piezas como procesadores; cada pieza se refina en
+ * paralelo con la parte de la tolerancia proporcional a su ancho.
+ *
+ * ========== SINGULARIDADES ==========
+ * Una singularidad (polo de tan, división por cero) se detecta de dos formas:
+ * - Un valor no finito en un punto de la regla.
+ * - Un subintervalo que ya no puede dividirse (su ancho es de pocos ulp) y cuyo error
+ *   sigue superando su parte de la tolerancia: el integrando no se comporta como una
+ *   función suave por grande que sea la resolución.
+ * En ambos casos se lanza una excepción con el subintervalo, en lugar de subdividir
+ * indefinidamente. El máximo de subdivisiones acota además el trabajo total.
+ */
+public class AdaptiveIntegrator {
+    public static final double DEFAULT_TOLERANCE = 1e-10;
+    private static final int MAX_SUBDIVISIONS = 10_000; // Por pieza
+    private static final double MIN_WIDTH_ULPS = 64;
+
+    // Nodos de Kronrod (simétricos, el último es el centro); los de índice impar son los de Gauss
+    private static final double[] NODES = {
+            0.991455371120812639206854697526329, 0.949107912342758524526189684047851,
+            0.864864423359769072789712788640926, 0.741531185599394439863864773280788,
+            0.586087235467691130294144845693013, 0.405845151377397166906606412076961,
+            0.207784955007898467600689403773245, 0.0
+    };
+    private static final double[] KRONROD_WEIGHTS = {
+            0.022935322010529224963732008058970, 0.063092092629978553290700663189204,
+            0.104790010322250183839876322541518, 0.140653259715525918745189590510238,
+            0.169004726639267902826583426598550, 0.190350578064785409913256402421014,
+            0.204432940075298892414161999234649, 0.209482141084727828012999174891714
+    };
+    private static final double[] GAUSS_WEIGHTS = {
+            0.129484966168869693270611432679082, 0.279705391489276667901467771423780,
+            0.381830050505118944950369775488975, 0.417959183673469387755102040816327
+    };
+
+    private final UnivariateFunction function;
+
+    /**
+     * @param expression Expresión compilada (el integrando)
+     * @param variable Variable de integración
+     * @param others Valores fijos del resto de variables de la expresión
+     * @throws Exception Si falta el valor de alguna otra variable
+     */
+    public AdaptiveIntegrator(CompiledExpression expression, String variable, Map<String, Double> others)
+            throws Exception {
+        this.function = new UnivariateFunction(expression, variable, others);
+    }
+
+    public IntegrationResult integrate(double from, double to) throws Exception {
+        return integrate(from, to, DEFAULT_TOLERANCE);
+    }
+
+    /**
+     * @param from Límite inferior
+     * @param to Límite superior (si es menor que from, la integral cambia de signo)
+     * @param tolerance Error absoluto objetivo
+     * @return Valor, estimación del error y estadísticas
+     * @throws Exception Si el integrando tiene una singularidad en el intervalo
+     */
+    public IntegrationResult integrate(double from, double to, double tolerance) throws Exception {
+        if (Double.isNaN(from) || Double.isNaN(to) || Double.isInfinite(from) || Double.isInfinite(to)) {
+            throw new IllegalArgumentException("Intervalo inválido: [" + from + ", " + to + "]");
+        }
+        if (!(tolerance > 0)) {
+            throw new IllegalArgumentException("La tolerancia debe ser positiva: " + tolerance);
+        }
+        if (from == to) {
+            return new IntegrationResult(0, 0, 0, 0, true);
+        }
+        if (to < from) {
+            IntegrationResult reversed = integrate(to, from, tolerance);
+            return new IntegrationResult(-reversed.getValue(), reversed.getErrorEstimate(),
+                    reversed.getEvaluations(), reversed.getSubintervals(), reversed.isConverged());
+        }
+
+        int pieces = Runtime.getRuntime().availableProcessors();
+        double width = (to - from) / pieces;
+        List<Piece> results = IntStream.range(0, pieces).parallel()
+                .mapToObj(i -> integratePiece(from + i * width, i == pieces - 1 ? to : from + (i + 1) * width,
+                        tolerance / pieces))
+                .collect(Collectors.toList());
+
+        double value = 0, error = 0;
+        long evaluations = 0;
+        int subintervals = 0;
+        boolean converged = true;
+        for (Piece piece : results) {
+            if (piece.singular != null) {
+                throw new Exception(ExpectedMessage.integrandSingularity(piece.singular.a, piece.singular.b));
+            }
+            value += piece.value;
+            error += piece.error;
+            evaluations += piece.evaluations;
+            subintervals += piece.subintervals;
+            converged &= piece.converged;
+        }
+        return new IntegrationResult(value, error, evaluations, subintervals, converged);
+    }
+
+    /**
+     * Refina una pieza: divide el subintervalo de mayor error hasta alcanzar la tolerancia.
+     */
+    private Piece integratePiece(double from, double to, double tolerance) {
+        PriorityQueue<Segment> queue = new PriorityQueue<>((s, t) -> Double.compare(t.error, s.error));
+        Segment initial = rule(from, to);
+        Piece piece = new Piece();
+        piece.evaluations = NODES.length * 2 - 1;
+        if (!initial.isFinite()) {
+            piece.singular = initial;
+            return piece;
+        }
+        queue.add(initial);
+        double value = initial.value;
+        double error = initial.error;
+
+        int subdivisions = 0;
+        while (error > tolerance && subdivisions < MAX_SUBDIVISIONS) {
+            Segment worst = queue.poll();
+            double mid = 0.5 * (worst.a + worst.b);
+            double local = tolerance * (worst.b - worst.a) / (to - from);
+            if (worst.b - worst.a <= MIN_WIDTH_ULPS * Math.ulp(Math.max(Math.abs(worst.a), Math.abs(worst.b)))
+                    && worst.error > local) {
+                piece.singular = worst;
+                return piece;
+            }
+            Segment left = rule(worst.a, mid);
+            Segment right = rule(mid, worst.b);
+            piece.evaluations += 2 * (NODES.length * 2 - 1);
+            subdivisions++;
+            if (!left.isFinite() || !right.isFinite()) {
+                piece.singular = left.isFinite() ? right : left;
+                return piece;
+            }
+            queue.add(left);
+            queue.add(right);
+            value += left.value + right.value - worst.value;
+            error += left.error + right.error - worst.error;
+        }
+
+        // Suma final sin el error acumulado por las actualizaciones incrementales
+        value = 0;
+        error = 0;
+        for (Segment segment : queue) {
+            value += segment.value;
+            error += segment.error;
+        }
+        piece.value = value;
+        piece.error = error;
+        piece.subintervals = queue.size();
+        piece.converged = error <= tolerance;
+        return piece;
+    }
+
+    /**
+     * Regla de Gauss–Kronrod de 15 puntos sobre [a, b].
+     */
+    private Segment rule(double a, double b) {
+        double center = 0.5 * (a + b);
+        double half = 0.5 * (b - a);
+        double fc = function.valueAt(center);
+        double kronrod = KRONROD_WEIGHTS[NODES.length - 1] * fc;
+        double gauss = GAUSS_WEIGHTS[GAUSS_WEIGHTS.length - 1] * fc;
+        for (int i = 0; i < NODES.length - 1; i++) {
+            double dx = half * NODES[i];
+            double sum = function.valueAt(center - dx) + function.valueAt(center + dx);
+            kronrod += KRONROD_WEIGHTS[i] * sum;
+            if (i % 2 == 1) {
+                gauss += GAUSS_WEIGHTS[i / 2] * sum;
+            }
+        }
+        return new Segment(a, b, kronrod * half, Math.abs((kronrod - gauss) * half));
+    }
+
+    private static final class Segment {
+        private final double a;
+        private final double b;
+        private final double value;
+        private final double error;
+
+        Segment(double a, double b, double value, double error) {
+            this.a = a;
+            this.b = b;
+            this.value = value;
+            this.error = error;
+        }
+
+        boolean isFinite() {
+            return Double.isFinite(value) && Double.isFinite(error);
+        }
+    }
+
+    /**
+     * Resultado parcial de una pieza; singular != null si se detectó una singularidad.
+     */
+    private static final class Piece {
+        private double value;
+        private double error;
+        private long evaluations;
+        private int subintervals;
+        private boolean converged;
+        private Segment singular;
+    }
+}
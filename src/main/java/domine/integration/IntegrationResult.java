@@ -0,0 +1,30 @@
+package domine.integration;
+
+import lombok.Getter;
+
+/**
+ * Resultado de {@link AdaptiveIntegrator}.
+ */
+@Getter
+public class IntegrationResult {
+    private final double value;          // Aproximación de la integral
+    private final double errorEstimate;  // Cota estimada del error absoluto
+    private final long evaluations;      // Evaluaciones del integrando
+    private final int subintervals;      // Subintervalos de la partición final
+    private final boolean converged;     // Falso si se agotó el máximo de subdivisiones antes de la tolerancia
+
+    public IntegrationResult(double value, double errorEstimate, long evaluations, int subintervals,
+                             boolean converged) {
+        this.value = value;
+        this.errorEstimate = errorEstimate;
+        this.evaluations = evaluations;
+        this.subintervals = subintervals;
+        this.converged = converged;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Integral: %.15g ± %.2e, evaluaciones: %d, subintervalos: %d%s",
+                value, errorEstimate, evaluations, subintervals, converged ? "" : " [sin converger]");
+    }
+}
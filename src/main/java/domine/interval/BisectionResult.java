@@ -0,0 +1,44 @@
+package domine.interval;
+
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resultado de {@link BisectionSearch}: cajas que pueden contener soluciones y
+ * contadores para comparar con un muestreo uniforme.
+ */
+@Getter
+public class BisectionResult {
+    private final List<Map<String, Interval>> candidates; // Cajas de ancho <= tolerancia no descartadas
+    private final long intervalEvaluations;               // Evaluaciones en aritmética de intervalos
+    private final long prunedBoxes;                       // Cajas descartadas sin subdividir
+    private final double gridEvaluations;                 // Puntos de una malla uniforme con la misma resolución
+    private final boolean truncated;                      // Se alcanzó el máximo de evaluaciones
+
+    public BisectionResult(List<Map<String, Interval>> candidates, long intervalEvaluations, long prunedBoxes,
+                           double gridEvaluations, boolean truncated) {
+        this.candidates = Collections.unmodifiableList(candidates);
+        this.intervalEvaluations = intervalEvaluations;
+        this.prunedBoxes = prunedBoxes;
+        this.gridEvaluations = gridEvaluations;
+        this.truncated = truncated;
+    }
+
+    /**
+     * Cuántas veces menos evaluaciones que la malla uniforme se realizaron.
+     */
+    public double getSavingsFactor() {
+        return intervalEvaluations == 0 ? Double.POSITIVE_INFINITY : gridEvaluations / intervalEvaluations;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Cajas candidatas: %d, evaluaciones de intervalo: %d, cajas descartadas: %d, "
+                        + "malla equivalente: %.0f puntos (%.1fx menos evaluaciones)%s",
+                candidates.size(), intervalEvaluations, prunedBoxes, gridEvaluations, getSavingsFactor(),
+                truncated ? " [truncado]" : "");
+    }
+}
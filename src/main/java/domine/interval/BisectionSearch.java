@@ -0,0 +1,111 @@
+package domine.interval;
+
+import domine.ast.ASTNode;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Búsqueda por bisección guiada por aritmética de intervalos (ramificación y poda).
+ *
+ * Para localizar los puntos donde f(x) = target dentro de una caja:
+ * 1. Se evalúa f sobre la caja con {@link IntervalEvaluator}.
+ * 2. Si el intervalo resultante no contiene target, la caja se descarta completa:
+ *    está garantizado que no hay solución en ella.
+ * 3. Si la contiene y la caja ya tiene el ancho de la tolerancia, es candidata.
+ * 4. En otro caso se divide por la mitad en su dimensión más ancha y se repite.
+ *
+ * Las regiones sin soluciones se descartan con pocas evaluaciones en lugar de
+ * muestrearse densamente; el resultado informa cuántos puntos habría necesitado
+ * una malla uniforme con la misma resolución.
+ */
+public class BisectionSearch {
+    private static final long DEFAULT_MAX_EVALUATIONS = 1_000_000L;
+
+    private BisectionSearch() {
+    }
+
+    public static BisectionResult findZeros(ASTNode node, Map<String, Interval> box, double target,
+                                            double tolerance) throws Exception {
+        return findZeros(node, box, target, tolerance, DEFAULT_MAX_EVALUATIONS);
+    }
+
+    /**
+     * @param node Raíz del AST
+     * @param box Caja inicial (un intervalo finito por variable)
+     * @param target Valor buscado c en f(x) = c
+     * @param tolerance Ancho máximo de las cajas candidatas en cada dimensión
+     * @param maxEvaluations Máximo de evaluaciones de intervalo antes de detenerse
+     * @return Cajas candidatas y estadísticas
+     * @throws Exception Si la expresión no puede evaluarse sobre la caja
+     */
+    public static BisectionResult findZeros(ASTNode node, Map<String, Interval> box, double target,
+                                            double tolerance, long maxEvaluations) throws Exception {
+        List<Map<String, Interval>> candidates = new ArrayList<>();
+        Deque<Map<String, Interval>> pending = new ArrayDeque<>();
+        pending.push(box);
+        long evaluations = 0;
+        long pruned = 0;
+        boolean truncated = false;
+
+        while (!pending.isEmpty()) {
+            if (evaluations >= maxEvaluations) {
+                truncated = true;
+                candidates.addAll(pending); // Lo no explorado se informa como posible solución
+                break;
+            }
+            Map<String, Interval> current = pending.pop();
+            Interval range = IntervalEvaluator.evaluate(node, current);
+            evaluations++;
+
+            if (!range.contains(target)) {
+                pruned++;
+                continue;
+            }
+
+            String widest = widestVariable(current);
+            if (widest == null || current.get(widest).width() <= tolerance) {
+                candidates.add(current);
+                continue;
+            }
+
+            Interval split = current.get(widest);
+            double mid = split.midpoint();
+            Map<String, Interval> lower = new HashMap<>(current);
+            lower.put(widest, Interval.of(split.getLo(), mid));
+            Map<String, Interval> upper = new HashMap<>(current);
+            upper.put(widest, Interval.of(mid, split.getHi()));
+            pending.push(upper);
+            pending.push(lower);
+        }
+
+        return new BisectionResult(candidates, evaluations, pruned, gridPoints(box, tolerance), truncated);
+    }
+
+    private static String widestVariable(Map<String, Interval> box) {
+        String widest = null;
+        double width = -1;
+        for (Map.Entry<String, Interval> entry : box.entrySet()) {
+            if (entry.getValue().width() > width) {
+                width = entry.getValue().width();
+                widest = entry.getKey();
+            }
+        }
+        return widest;
+    }
+
+    /**
+     * Puntos de una malla uniforme con separación igual a la tolerancia.
+     */
+    private static double gridPoints(Map<String, Interval> box, double tolerance) {
+        double points = 1;
+        for (Interval range : box.values()) {
+            points *= Math.floor(range.width() / tolerance) + 1;
+        }
+        return points;
+    }
+}
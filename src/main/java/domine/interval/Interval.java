@@ -0,0 +1,441 @@
+package domine.interval;
+
+import lombok.Getter;
+import resources.message.ExpectedMessage;
+
+/**
+ * Intervalo cerrado [lo, hi] de números reales con redondeo hacia afuera.
+ *
+ * Cada operación devuelve un intervalo que contiene todos los resultados posibles de
+ * aplicar la operación a puntos de los operandos. Como Java no permite cambiar el modo
+ * de redondeo, los extremos calculados se amplían un ulp hacia afuera (Math.nextDown /
+ * Math.nextUp), lo que cubre el error de redondeo de la operación en punto flotante y
+ * el de Math.sin/cos/tan/pow/sqrt/exp/log/asin/acos/atan (documentado en menos de 1 ulp).
+ * La excepción son las operaciones aritméticas entre puntos cuyo resultado es exacto
+ * (0 - 2, 2 * 3): siguen siendo puntos, de modo que un exponente escrito como x^(-2), que
+ * el Parser convierte en 0 - 2, se trata como el entero -2.
+ *
+ * El intervalo vacío representa un conjunto sin valores definidos, por ejemplo
+ * x^0.5 con x en [-2, -1].
+ */
+@Getter
+public final class Interval {
+    public static final Interval EMPTY = new Interval(Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY);
+    public static final Interval ENTIRE = new Interval(Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+
+    private static final double TWO_PI = 2 * Math.PI;
+
+    private final double lo;
+    private final double hi;
+
+    private Interval(double lo, double hi) {
+        this.lo = lo;
+        this.hi = hi;
+    }
+
+    /**
+     * Crea el intervalo [lo, hi] sin ampliarlo.
+     */
+    public static Interval of(double lo, double hi) {
+        if (Double.isNaN(lo) || Double.isNaN(hi) || lo > hi) {
+            throw new IllegalArgumentException("Intervalo inválido: [" + lo + ", " + hi + "]");
+        }
+        return new Interval(lo, hi);
+    }
+
+    /**
+     * Intervalo degenerado [value, value].
+     */
+    public static Interval point(double value) {
+        return of(value, value);
+    }
+
+    /**
+     * Intervalo a partir de extremos calculados con redondeo al más cercano:
+     * se amplía un ulp hacia afuera para garantizar la inclusión.
+     */
+    static Interval outward(double lo, double hi) {
+        if (Double.isNaN(lo) || Double.isNaN(hi)) {
+            return ENTIRE;
+        }
+        return new Interval(Math.nextDown(lo), Math.nextUp(hi));
+    }
+
+    /**
+     * Resultado de una operación entre puntos: el mismo punto si el cálculo fue exacto
+     * (error de redondeo nulo), o el intervalo ampliado si no.
+     */
+    private static Interval rounded(double value, double error) {
+        return Double.isFinite(value) && error == 0 ? new Interval(value, value) : outward(value, value);
+    }
+
+    public boolean isEmpty() {
+        return lo > hi;
+    }
+
+    public boolean isPoint() {
+        return lo == hi;
+    }
+
+    public boolean contains(double value) {
+        return lo <= value && value <= hi;
+    }
+
+    public double width() {
+        return isEmpty() ? 0 : hi - lo;
+    }
+
+    public double midpoint() {
+        if (Double.isInfinite(lo) && Double.isInfinite(hi)) {
+            return 0;
+        }
+        if (Double.isInfinite(lo)) {
+            return -Double.MAX_VALUE;
+        }
+        if (Double.isInfinite(hi)) {
+            return Double.MAX_VALUE;
+        }
+        return 0.5 * lo + 0.5 * hi; // Evita el desbordamiento de hi - lo
+    }
+
+    /**
+     * Menor intervalo que contiene a ambos.
+     */
+    public Interval hull(Interval other) {
+        if (isEmpty()) {
+            return other;
+        }
+        if (other.isEmpty()) {
+            return this;
+        }
+        return new Interval(Math.min(lo, other.lo), Math.max(hi, other.hi));
+    }
+
+    // ========== Aritmética ==========
+
+    public Interval add(Interval other) {
+        if (isEmpty() || other.isEmpty()) {
+            return EMPTY;
+        }
+        if (isPoint() && other.isPoint()) {
+            return rounded(lo + other.lo, sumError(lo, other.lo));
+        }
+        return outward(lo + other.lo, hi + other.hi);
+    }
+
+    public Interval subtract(Interval other) {
+        if (isEmpty() || other.isEmpty()) {
+            return EMPTY;
+        }
+        if (isPoint() && other.isPoint()) {
+            return rounded(lo - other.lo, sumError(lo, -other.lo));
+        }
+        return outward(lo - other.hi, hi - other.lo);
+    }
+
+    public Interval multiply(Interval other) {
+        if (isEmpty() || other.isEmpty()) {
+            return EMPTY;
+        }
+        if (isPoint() && other.isPoint()) {
+            double p = product(lo, other.lo);
+            return rounded(p, Math.fma(lo, other.lo, -p));
+        }
+        double a = product(lo, other.lo);
+        double b = product(lo, other.hi);
+        double c = product(hi, other.lo);
+        double d = product(hi, other.hi);
+        return outward(Math.min(Math.min(a, b), Math.min(c, d)), Math.max(Math.max(a, b), Math.max(c, d)));
+    }
+
+    /**
+     * División. Si el divisor contiene al cero el resultado no está acotado:
+     * - divisor [0, 0]: la división nunca está definida (error, igual que en el AST)
+     * - divisor con el cero en un extremo: semirrecta, según el signo del dividendo
+     * - divisor con el cero en su interior: toda la recta (envolvente de dos semirrectas)
+     */
+    public Interval divide(Interval other) throws Exception {
+        if (isEmpty() || other.isEmpty()) {
+            return EMPTY;
+        }
+        if (other.lo == 0 && other.hi == 0) {
+            throw new Exception(ExpectedMessage.dividedByZero());
+        }
+        if (!other.contains(0)) {
+            if (isPoint() && other.isPoint()) {
+                double q = lo / other.lo;
+                return rounded(q, Math.fma(q, other.lo, -lo)); // Resto nulo: cociente exacto
+            }
+            double a = lo / other.lo;
+            double b = lo / other.hi;
+            double c = hi / other.lo;
+            double d = hi / other.hi;
+            return outward(Math.min(Math.min(a, b), Math.min(c, d)), Math.max(Math.max(a, b), Math.max(c, d)));
+        }
+        if (other.lo < 0 && other.hi > 0) {
+            return ENTIRE;
+        }
+        // El cero es un extremo del divisor: [0, d] con d > 0 o [c, 0] con c < 0
+        if (lo >= 0) {
+            return other.lo == 0 ? new Interval(Math.nextDown(lo / other.hi), Double.POSITIVE_INFINITY)
+                    : new Interval(Double.NEGATIVE_INFINITY, Math.nextUp(lo / other.lo));
+        }
+        if (hi <= 0) {
+            return other.lo == 0 ? new Interval(Double.NEGATIVE_INFINITY, Math.nextUp(hi / other.hi))
+                    : new Interval(Math.nextDown(hi / other.lo), Double.POSITIVE_INFINITY);
+        }
+        return ENTIRE;
+    }
+
+    /**
+     * Potencia x^y.
+     *
+     * - Exponente entero constante: se respeta el signo de la base (x^2 es par, x^3 impar).
+     * - En otro caso Math.pow solo está definida para bases no negativas: sobre esa parte,
+     *   x^y = e^(y·ln x) con y·ln x bilineal, de modo que los extremos están en las
+     *   esquinas de la caja [x] × [y]. Las bases negativas solo producen valores en
+     *   exponentes enteros; si el intervalo del exponente contiene alguno, se incluye
+     *   la cota simétrica [-M, M] de esos valores.
+     */
+    public Interval pow(Interval exponent) throws Exception {
+        if (isEmpty() || exponent.isEmpty()) {
+            return EMPTY;
+        }
+        if (exponent.isPoint() && exponent.lo == Math.rint(exponent.lo) && Math.abs(exponent.lo) < 1e15) {
+            return integerPow((long) exponent.lo);
+        }
+
+        Interval result = EMPTY;
+        if (hi >= 0) {
+            result = result.hull(cornerPow(Math.max(lo, 0), hi, exponent));
+        }
+        if (lo < 0 && Math.floor(exponent.hi) >= Math.ceil(exponent.lo)) {
+            // Bases negativas con exponentes enteros: |x|^n con signo alternado
+            Interval magnitude = cornerPow(Math.max(-hi, 0), -lo, exponent);
+            result = result.hull(new Interval(-magnitude.hi, magnitude.hi));
+        }
+        return result;
+    }
+
+    private Interval integerPow(long n) throws Exception {
+        if (n == 0) {
+            return point(1);
+        }
+        if (n < 0) {
+            return point(1).divide(integerPow(-n));
+        }
+        double a = Math.pow(lo, n);
+        double b = Math.pow(hi, n);
+        if (n % 2 == 1) {
+            return outward(a, b); // Impar: creciente
+        }
+        if (lo >= 0) {
+            return outward(a, b);
+        }
+        if (hi <= 0) {
+            return outward(b, a);
+        }
+        return new Interval(0, Math.nextUp(Math.max(a, b))); // Par con el cero dentro: mínimo en 0
+    }
+
+    private static Interval cornerPow(double xlo, double xhi, Interval exponent) {
+        double a = Math.pow(xlo, exponent.lo);
+        double b = Math.pow(xlo, exponent.hi);
+        double c = Math.pow(xhi, exponent.lo);
+        double d = Math.pow(xhi, exponent.hi);
+        double min = Math.min(Math.min(a, b), Math.min(c, d));
+        double max = Math.max(Math.max(a, b), Math.max(c, d));
+        return outward(Math.max(0, min), max);
+    }
+
+    // ========== Funciones trigonométricas ==========
+
+    /**
+     * Seno: máximos en π/2 + 2kπ y mínimos en -π/2 + 2kπ. Si alguno cae dentro del
+     * intervalo, el extremo correspondiente es ±1; si no, el seno es monótono y basta
+     * con evaluar los extremos.
+     */
+    public Interval sin() {
+        return periodic(0.5 * Math.PI, -0.5 * Math.PI, true);
+    }
+
+    /**
+     * Coseno: máximos en 2kπ y mínimos en π + 2kπ.
+     */
+    public Interval cos() {
+        return periodic(0, Math.PI, false);
+    }
+
+    /**
+     * Tangente: creciente entre polos. Si el intervalo contiene un polo π/2 + kπ
+     * el resultado es toda la recta.
+     */
+    public Interval tan() {
+        if (isEmpty()) {
+            return EMPTY;
+        }
+        if (Double.isInfinite(lo) || Double.isInfinite(hi) || width() >= Math.PI
+                || containsCriticalPoint(0.5 * Math.PI, Math.PI)) {
+            return ENTIRE;
+        }
+        return outward(Math.tan(lo), Math.tan(hi));
+    }
+
+    /**
+     * Arcoseno: creciente en su dominio [-1, 1]; la parte del intervalo fuera del dominio
+     * no aporta valores.
+     */
+    public Interval asin() {
+        if (isEmpty() || hi < -1 || lo > 1) {
+            return EMPTY;
+        }
+        return outward(Math.asin(Math.max(lo, -1)), Math.asin(Math.min(hi, 1)));
+    }
+
+    /**
+     * Arcocoseno: decreciente en su dominio [-1, 1].
+     */
+    public Interval acos() {
+        if (isEmpty() || hi < -1 || lo > 1) {
+            return EMPTY;
+        }
+        return outward(Math.acos(Math.min(hi, 1)), Math.acos(Math.max(lo, -1)));
+    }
+
+    /**
+     * Arcotangente: creciente en toda la recta.
+     */
+    public Interval atan() {
+        if (isEmpty()) {
+            return EMPTY;
+        }
+        return outward(Math.atan(lo), Math.atan(hi));
+    }
+
+    /**
+     * atan2(y, x) sobre la caja [y] × [x]. Fuera del corte de rama (el semieje x ≤ 0, y = 0)
+     * atan2 es continua y monótona en cada variable por separado, así que los extremos están
+     * en las esquinas: basta con que la caja esté en el semiplano x > 0, y > 0 o y < 0.
+     * Si la caja toca el corte, el resultado es [-π, π].
+     */
+    public static Interval atan2(Interval y, Interval x) {
+        if (y.isEmpty() || x.isEmpty()) {
+            return EMPTY;
+        }
+        if (x.lo > 0 || y.lo > 0 || y.hi < 0) {
+            double a = Math.atan2(y.lo, x.lo);
+            double b = Math.atan2(y.lo, x.hi);
+            double c = Math.atan2(y.hi, x.lo);
+            double d = Math.atan2(y.hi, x.hi);
+            return outward(Math.min(Math.min(a, b), Math.min(c, d)), Math.max(Math.max(a, b), Math.max(c, d)));
+        }
+        return outward(-Math.PI, Math.PI);
+    }
+
+    // ========== Funciones exponenciales y algebraicas ==========
+
+    /**
+     * Raíz cuadrada: creciente en su dominio [0, ∞).
+     */
+    public Interval sqrt() {
+        if (isEmpty() || hi < 0) {
+            return EMPTY;
+        }
+        return new Interval(Math.max(0, Math.nextDown(Math.sqrt(Math.max(lo, 0)))), Math.nextUp(Math.sqrt(hi)));
+    }
+
+    public Interval exp() {
+        if (isEmpty()) {
+            return EMPTY;
+        }
+        return new Interval(Math.max(0, Math.nextDown(Math.exp(lo))), Math.nextUp(Math.exp(hi)));
+    }
+
+    /**
+     * Logaritmo natural: creciente en (0, ∞). Si el intervalo llega al cero la cota
+     * inferior es -∞.
+     */
+    public Interval log() {
+        if (isEmpty() || hi <= 0) {
+            return EMPTY;
+        }
+        return new Interval(lo <= 0 ? Double.NEGATIVE_INFINITY : Math.nextDown(Math.log(lo)), Math.nextUp(Math.log(hi)));
+    }
+
+    /**
+     * Valor absoluto: exacto, no requiere redondeo.
+     */
+    public Interval abs() {
+        if (isEmpty() || lo >= 0) {
+            return this;
+        }
+        if (hi <= 0) {
+            return new Interval(-hi, -lo);
+        }
+        return new Interval(0, Math.max(-lo, hi));
+    }
+
+    private Interval periodic(double maximumAt, double minimumAt, boolean sine) {
+        if (isEmpty()) {
+            return EMPTY;
+        }
+        if (Double.isInfinite(lo) || Double.isInfinite(hi) || width() >= TWO_PI) {
+            return new Interval(-1, 1);
+        }
+        double a = sine ? Math.sin(lo) : Math.cos(lo);
+        double b = sine ? Math.sin(hi) : Math.cos(hi);
+        double min = containsCriticalPoint(minimumAt, TWO_PI) ? -1 : Math.max(-1, Math.nextDown(Math.min(a, b)));
+        double max = containsCriticalPoint(maximumAt, TWO_PI) ? 1 : Math.min(1, Math.nextUp(Math.max(a, b)));
+        return new Interval(min, max);
+    }
+
+    /**
+     * Indica si algún punto offset + k·period (k entero) cae en el intervalo.
+     * La comprobación se hace sobre el intervalo ligeramente ampliado: ante la duda
+     * (error de redondeo en la reducción) se asume que sí, lo que solo ensancha la cota.
+     */
+    private boolean containsCriticalPoint(double offset, double period) {
+        double slack = 1e-12 * Math.max(1, Math.max(Math.abs(lo), Math.abs(hi)));
+        double k = Math.ceil((lo - slack - offset) / period);
+        return offset + k * period <= hi + slack;
+    }
+
+    /**
+     * Error de redondeo de a + b (algoritmo TwoSum de Knuth): 0 si la suma es exacta.
+     */
+    private static double sumError(double a, double b) {
+        double sum = a + b;
+        double bVirtual = sum - a;
+        double aVirtual = sum - bVirtual;
+        return (a - aVirtual) + (b - bVirtual);
+    }
+
+    /**
+     * Producto con la convención 0·∞ = 0, necesaria para multiplicar intervalos no acotados.
+     */
+    private static double product(double a, double b) {
+        return (a == 0 || b == 0) ? 0 : a * b;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Interval)) {
+            return false;
+        }
+        Interval other = (Interval) o;
+        return Double.compare(lo, other.lo) == 0 && Double.compare(hi, other.hi) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return Double.hashCode(lo) * 31 + Double.hashCode(hi);
+    }
+
+    @Override
+    public String toString() {
+        return isEmpty() ? "[vacío]" : "[" + lo + ", " + hi + "]";
+    }
+}
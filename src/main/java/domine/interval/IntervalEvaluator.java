@@ -0,0 +1,128 @@
+package domine.interval;
+
+import domine.ast.*;
+import domine.functions.FunctionDefinition;
+import domine.functions.StandardFunctions;
+import resources.message.ExpectedMessage;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Evaluador del AST en aritmética de intervalos.
+ *
+ * Dada una caja (un intervalo por variable), devuelve un intervalo que contiene
+ * garantizadamente el valor de la expresión en todo punto de la caja. La cota puede
+ * ser más ancha que el rango real (por ejemplo, x - x sobre [0, 1] da [-1, 1] porque
+ * cada aparición de x se trata como independiente), pero nunca más estrecha.
+ *
+ * Las funciones predefinidas tienen su extensión a intervalos en {@link Interval}. Para una
+ * función registrada por el usuario no se conoce ninguna cota, así que su resultado es
+ * toda la recta: la inclusión se mantiene, aunque la búsqueda por bisección no podrá
+ * descartar cajas a partir de ella.
+ *
+ * Una variable local se evalúa una vez y todas sus apariciones usan el mismo intervalo.
+ * Como en x - x, las apariciones siguen tratándose como independientes: "u = x; u - u"
+ * sobre [0, 1] da [-1, 1].
+ *
+ * Ejemplo:
+ *   sin(x) + 1 con x en [0, π] -> [1, 2]
+ */
+public class IntervalEvaluator {
+
+    private IntervalEvaluator() {
+    }
+
+    /**
+     * @param node Raíz del AST
+     * @param box Intervalo de cada variable
+     * @return Intervalo que contiene todos los valores de la expresión sobre la caja
+     * @throws Exception Si falta una variable o se divide por el intervalo [0, 0]
+     */
+    public static Interval evaluate(ASTNode node, Map<String, Interval> box) throws Exception {
+        return evaluate(node, box, null);
+    }
+
+    /**
+     * @param locals Intervalo de cada variable local ya definida (null mientras no haya ninguna,
+     *               para no crear el mapa en expresiones sin variables locales)
+     */
+    private static Interval evaluate(ASTNode node, Map<String, Interval> box,
+                                     Map<LocalBinding, Interval> locals) throws Exception {
+        if (node instanceof NumberNode) {
+            return Interval.point(((NumberNode) node).getValue());
+        } else if (node instanceof VariableNode) {
+            String name = ((VariableNode) node).getName();
+            Interval range = box.get(name);
+            if (range == null) {
+                throw new Exception(ExpectedMessage.unDefinedVariable(name));
+            }
+            return range;
+        } else if (node instanceof BinaryOperationNode) {
+            BinaryOperationNode binOp = (BinaryOperationNode) node;
+            Interval left = evaluate(binOp.getLeft(), box, locals);
+            Interval right = evaluate(binOp.getRight(), box, locals);
+
+            return switch (binOp.getOperator()) {
+                case "+" -> left.add(right);
+                case "-" -> left.subtract(right);
+                case "*" -> left.multiply(right);
+                case "/" -> left.divide(right);
+                case "^" -> left.pow(right);
+                default -> throw new Exception(ExpectedMessage.unknownOperator(binOp.getOperator()));
+            };
+        } else if (node instanceof FunctionNode) {
+            FunctionNode funcNode = (FunctionNode) node;
+            Interval[] arguments = new Interval[funcNode.getArguments().size()];
+            for (int i = 0; i < arguments.length; i++) {
+                arguments[i] = evaluate(funcNode.getArguments().get(i), box, locals);
+                if (arguments[i].isEmpty()) {
+                    return Interval.EMPTY;
+                }
+            }
+            return apply(funcNode.getFunction(), arguments);
+        } else if (node instanceof LetNode) {
+            LetNode letNode = (LetNode) node;
+            Map<LocalBinding, Interval> scope = locals != null ? locals : new IdentityHashMap<>();
+            scope.put(letNode.getBinding(), evaluate(letNode.getBinding().getValue(), box, scope));
+            return evaluate(letNode.getBody(), box, scope);
+        } else if (node instanceof LocalVariableNode) {
+            LocalBinding binding = ((LocalVariableNode) node).getBinding();
+            Interval range = locals != null ? locals.get(binding) : null;
+            if (range == null) {
+                throw new Exception(ExpectedMessage.usedBeforeDefinition(binding.getName()));
+            }
+            return range;
+        }
+
+        throw new Exception(ExpectedMessage.unExpectedToken(String.valueOf(node)));
+    }
+
+    private static Interval apply(FunctionDefinition function, Interval[] arguments) {
+        Interval a = arguments[0];
+        if (function == StandardFunctions.SIN) {
+            return a.sin();
+        } else if (function == StandardFunctions.COS) {
+            return a.cos();
+        } else if (function == StandardFunctions.TAN) {
+            return a.tan();
+        } else if (function == StandardFunctions.ASIN) {
+            return a.asin();
+        } else if (function == StandardFunctions.ACOS) {
+            return a.acos();
+        } else if (function == StandardFunctions.ATAN) {
+            return a.atan();
+        } else if (function == StandardFunctions.ATAN2) {
+            return Interval.atan2(a, arguments[1]);
+        } else if (function == StandardFunctions.SQRT) {
+            return a.sqrt();
+        } else if (function == StandardFunctions.EXP) {
+            return a.exp();
+        } else if (function == StandardFunctions.LOG) {
+            return a.log();
+        } else if (function == StandardFunctions.ABS) {
+            return a.abs();
+        }
+        return Interval.ENTIRE;
+    }
+}
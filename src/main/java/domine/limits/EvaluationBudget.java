@@ -0,0 +1,48 @@
+package domine.limits;
+
+/**
+ * Presupuesto de evaluación para una petición: cantidad de pasos y tiempo máximo.
+ *
+ * Quien evalúa llama a charge() antes de cada evaluación (o tramo de evaluaciones) con el
+ * número de pasos que va a realizar (nodos del AST o instrucciones del programa compilado).
+ * El tiempo solo se comprueba en charge(), así que un lote se cobra por partes mientras se
+ * evalúa y no de una vez al principio: de lo contrario una petición por lotes podría
+ * acaparar un núcleo más allá de lo permitido.
+ *
+ * charge() puede llamarse desde varios hilos, como los refinamientos en paralelo de
+ * {@link domine.solver.RootFinder}.
+ */
+public class EvaluationBudget {
+    private final long maxSteps;
+    private final long maxMillis;
+    private final long deadline;
+    private long usedSteps;
+
+    public EvaluationBudget(ResourceLimits limits) {
+        this.maxSteps = limits.getMaxEvaluationSteps();
+        this.maxMillis = limits.getMaxEvaluationMillis();
+        long now = System.nanoTime();
+        // Evita el desbordamiento cuando el límite de tiempo es "ilimitado"
+        this.deadline = maxMillis >= Long.MAX_VALUE / 1_000_000L ? Long.MAX_VALUE : now + maxMillis * 1_000_000L;
+    }
+
+    /**
+     * Descuenta pasos del presupuesto.
+     *
+     * @param steps Pasos que se van a ejecutar
+     * @throws LimitExceededException Si se supera el número de pasos o el tiempo permitido
+     */
+    public synchronized void charge(long steps) throws LimitExceededException {
+        usedSteps += steps;
+        if (usedSteps > maxSteps) {
+            throw new LimitExceededException("maxEvaluationSteps", maxSteps);
+        }
+        if (deadline != Long.MAX_VALUE && System.nanoTime() - deadline > 0) {
+            throw new LimitExceededException("maxEvaluationMillis", maxMillis);
+        }
+    }
+
+    public synchronized long getUsedSteps() {
+        return usedSteps;
+    }
+}
@@ -0,0 +1,21 @@
+package domine.limits;
+
+import lombok.Getter;
+import resources.message.ExpectedMessage;
+
+/**
+ * Error lanzado cuando una expresión o una petición supera alguno de los {@link ResourceLimits}.
+ */
+@Getter
+public class LimitExceededException extends Exception {
+    private static final long serialVersionUID = 1L;
+
+    private final String limit;     // Nombre del límite superado (por ejemplo "maxTokens")
+    private final long maxValue;    // Valor máximo permitido
+
+    public LimitExceededException(String limit, long maxValue) {
+        super(ExpectedMessage.limitExceeded(limit, maxValue));
+        this.limit = limit;
+        this.maxValue = maxValue;
+    }
+}
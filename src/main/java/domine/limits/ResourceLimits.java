@@ -0,0 +1,56 @@
+package domine.limits;
+
+import lombok.Getter;
+import resources.json.Json;
+import lombok.Setter;
+
+/**
+ * Límites de recursos para procesar expresiones de origen no confiable.
+ *
+ * Cada límite se comprueba lo antes posible en el pipeline:
+ * - maxInputLength:  Lexer, antes de recorrer la entrada
+ * - maxTokens:       Lexer, al crear cada token
+ * - maxDepth:        Parser, al descender por paréntesis, funciones, negaciones y potencias,
+ *                    y al crear cada nodo (altura del AST)
+ * - maxNodes:        Parser, al crear cada nodo del AST
+ * - maxEvaluationSteps / maxEvaluationMillis: {@link EvaluationBudget}, durante la evaluación
+ * - maxRequestBytes: servidor HTTP, antes de leer el cuerpo de la petición
+ * - maxJsonDepth:    servidor HTTP, al leer objetos y arreglos anidados del cuerpo
+ *
+ * Al superar un límite se lanza {@link LimitExceededException} indicando cuál fue.
+ */
+@Getter
+@Setter
+public class ResourceLimits {
+    private int maxInputLength = 10_000;        // Caracteres de la expresión
+    private int maxTokens = 5_000;              // Tokens generados por el Lexer
+    private int maxDepth = 200;                 // Anidamiento / altura del AST
+    private int maxNodes = 5_000;               // Nodos del AST
+    private long maxEvaluationSteps = 10_000_000L; // Instrucciones evaluadas por petición
+    private long maxEvaluationMillis = 1_000L;  // Tiempo de evaluación por petición
+    private int maxRequestBytes = 1 << 20;      // Tamaño del cuerpo HTTP (1 MiB)
+    private int maxJsonDepth = 64;              // Anidamiento del JSON del cuerpo HTTP
+
+    /**
+     * Límites por defecto, pensados para un despliegue compartido.
+     */
+    public static ResourceLimits defaults() {
+        return new ResourceLimits();
+    }
+
+    /**
+     * Sin límites: comportamiento original del Lexer y el Parser.
+     */
+    public static ResourceLimits unlimited() {
+        ResourceLimits limits = new ResourceLimits();
+        limits.setMaxInputLength(Integer.MAX_VALUE);
+        limits.setMaxTokens(Integer.MAX_VALUE);
+        limits.setMaxDepth(Integer.MAX_VALUE);
+        limits.setMaxNodes(Integer.MAX_VALUE);
+        limits.setMaxEvaluationSteps(Long.MAX_VALUE);
+        limits.setMaxEvaluationMillis(Long.MAX_VALUE);
+        limits.setMaxRequestBytes(Integer.MAX_VALUE);
+        limits.setMaxJsonDepth(Json.DEFAULT_MAX_DEPTH); // La lectura es recursiva: nunca sin límite
+        return limits;
+    }
+}
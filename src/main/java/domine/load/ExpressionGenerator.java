@@ -0,0 +1,94 @@
+package domine.load;
+
+import java.util.Random;
+
+/**
+ * Generador de expresiones aleatorias con una forma controlada ({@link WorkloadShape}).
+ *
+ * Cada término es un árbol aleatorio de altura a lo sumo depth: las hojas son variables o
+ * constantes, y los nodos internos son funciones trigonométricas (con probabilidad
+ * trigShare) u operaciones binarias entre paréntesis. Las divisiones son siempre por una
+ * constante distinta de cero.
+ *
+ * Con probabilidad repetitionRate se devuelve una de las últimas expresiones generadas en
+ * lugar de una nueva. No es seguro usar una instancia desde varios hilos: cada hilo de
+ * carga tiene la suya, con su propia semilla.
+ */
+public class ExpressionGenerator {
+    private static final int RECENT = 1024;                // Expresiones candidatas a repetirse
+    private static final String[] FUNCTIONS = {"sin", "cos", "tan"};
+    private static final String[] OPERATORS = {" + ", " - ", " * "};
+
+    private final WorkloadShape shape;
+    private final Random random;
+    private final String[] variables;
+    private final String[] recent = new String[RECENT];
+    private long generated;
+
+    public ExpressionGenerator(WorkloadShape shape, long seed) {
+        this.shape = shape;
+        this.random = new Random(seed);
+        this.variables = new String[Math.max(1, shape.getVariables())];
+        for (int i = 0; i < variables.length; i++) {
+            variables[i] = "x" + i;
+        }
+    }
+
+    /**
+     * Nombres de las variables que pueden aparecer en las expresiones.
+     */
+    public String[] getVariables() {
+        return variables.clone();
+    }
+
+    /**
+     * Siguiente expresión: repetida con probabilidad repetitionRate, nueva en otro caso.
+     */
+    public String next() {
+        if (generated > 0 && random.nextDouble() < shape.getRepetitionRate()) {
+            return recent[random.nextInt((int) Math.min(generated, RECENT))];
+        }
+        StringBuilder sb = new StringBuilder();
+        int terms = Math.max(1, shape.getTerms());
+        for (int t = 0; t < terms; t++) {
+            if (t > 0) {
+                sb.append(OPERATORS[random.nextInt(OPERATORS.length)]);
+            }
+            term(sb, shape.getDepth());
+        }
+        String expression = sb.toString();
+        recent[(int) (generated++ % RECENT)] = expression;
+        return expression;
+    }
+
+    /**
+     * Valor aleatorio para una variable, en [-2, 2].
+     */
+    public double nextValue() {
+        return 4 * random.nextDouble() - 2;
+    }
+
+    private void term(StringBuilder sb, int depth) {
+        if (depth <= 0 || random.nextInt(4) == 0) {
+            if (random.nextBoolean()) {
+                sb.append(variables[random.nextInt(variables.length)]);
+            } else {
+                sb.append(1 + random.nextInt(9)).append('.').append(random.nextInt(10));
+            }
+        } else if (random.nextDouble() < shape.getTrigShare()) {
+            sb.append(FUNCTIONS[random.nextInt(FUNCTIONS.length)]).append('(');
+            term(sb, depth - 1);
+            sb.append(')');
+        } else if (random.nextInt(5) == 0) {
+            sb.append('(');
+            term(sb, depth - 1);
+            sb.append(") / ").append(1 + random.nextInt(9));
+        } else {
+            sb.append('(');
+            term(sb, depth - 1);
+            sb.append(OPERATORS[random.nextInt(OPERATORS.length)]);
+            term(sb, depth - 1);
+            sb.append(')');
+        }
+    }
+}
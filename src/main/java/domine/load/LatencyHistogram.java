@@ -0,0 +1,100 @@
+package domine.load;
+
+/**
+ * Histograma de latencias en nanosegundos con precisión relativa constante, al estilo de
+ * HdrHistogram.
+ *
+ * Los valores menores que 256 tienen un contador propio. A partir de ahí cada potencia de
+ * dos [2^k, 2^(k+1)) se divide en 128 intervalos iguales, de modo que el error de un
+ * percentil es a lo sumo 1/128 (< 0,8 %) del valor, desde nanosegundos hasta horas, con
+ * un arreglo fijo de unos 7 400 contadores. Registrar es O(1) y no crea objetos.
+ *
+ * No es seguro registrar desde varios hilos a la vez: cada hilo usa su propio histograma
+ * y al final se combinan con {@link #add(LatencyHistogram)}.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BITS = 7;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;       // Intervalos por potencia de dos
+    private static final int LINEAR = 2 * SUB_BUCKETS;          // Valores con contador propio
+    private static final int SIZE = LINEAR + (63 - SUB_BITS) * SUB_BUCKETS;
+
+    private final long[] counts = new long[SIZE];
+    private long total;
+    private long max;
+    private double sum;
+
+    /**
+     * @param nanos Latencia en nanosegundos (los valores negativos se registran como 0)
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts[index(value)]++;
+        total++;
+        sum += value;
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Suma los contadores de otro histograma a este.
+     */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < SIZE; i++) {
+            counts[i] += other.counts[i];
+        }
+        total += other.total;
+        sum += other.sum;
+        max = Math.max(max, other.max);
+    }
+
+    public long getCount() {
+        return total;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return total == 0 ? 0 : sum / total;
+    }
+
+    /**
+     * Valor bajo el cual está el porcentaje indicado de las muestras (el mayor valor
+     * equivalente de su intervalo, como en HdrHistogram).
+     *
+     * @param percentile Percentil entre 0 y 100 (por ejemplo 99.9)
+     * @return Latencia en nanosegundos, o 0 si no hay muestras
+     */
+    public long getPercentile(double percentile) {
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < SIZE; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(highestEquivalent(i), max);
+            }
+        }
+        return max;
+    }
+
+    static int index(long value) {
+        if (value < LINEAR) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS; // ≥ 1
+        int mantissa = (int) (value >>> shift);                        // [128, 256)
+        return LINEAR + (shift - 1) * SUB_BUCKETS + (mantissa - SUB_BUCKETS);
+    }
+
+    static long highestEquivalent(int index) {
+        if (index < LINEAR) {
+            return index;
+        }
+        int shift = (index - LINEAR) / SUB_BUCKETS + 1;
+        long mantissa = (index - LINEAR) % SUB_BUCKETS + SUB_BUCKETS;
+        return ((mantissa + 1) << shift) - 1;
+    }
+}
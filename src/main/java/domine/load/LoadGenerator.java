@@ -0,0 +1,225 @@
+package domine.load;
+
+import domine.Lexer;
+import domine.Parser;
+import domine.ast.ASTNode;
+import domine.compiler.ExpressionCache;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Generador de carga de extremo a extremo: cada petición es una expresión sintetizada
+ * por {@link ExpressionGenerator} que recorre el pipeline Lexer -> Parser -> evaluación,
+ * y se mide su latencia.
+ *
+ * Modos de llegada:
+ * - Lazo cerrado (targetRate = 0): cada hilo envía la siguiente petición al terminar la
+ *   anterior. Mide el rendimiento máximo con ese número de hilos.
+ * - Lazo abierto (targetRate > 0): las peticiones se programan a intervalos fijos
+ *   (repartidos entre los hilos) sin esperar a que terminen las anteriores. La latencia
+ *   se mide desde el instante programado, así que incluye la espera cuando el sistema no
+ *   da abasto (sin la omisión coordinada del lazo cerrado).
+ *
+ * Con cacheCapacity > 0 las expresiones pasan por una {@link ExpressionCache} (las
+ * repetidas se evalúan ya compiladas); con 0 se analiza cada petición desde el texto.
+ *
+ * Ejemplo:
+ *   LoadGenerator generator = new LoadGenerator(WorkloadShape.defaults());
+ *   generator.setThreads(4);
+ *   generator.setTargetRate(20_000);
+ *   System.out.println(generator.run());
+ */
+@Getter
+@Setter
+public class LoadGenerator {
+    private static final long SPIN_NANOS = 50_000; // Últimos µs de espera sin dormir el hilo
+
+    private final WorkloadShape shape;
+    private int threads = 1;
+    private double targetRate = 0;          // Peticiones por segundo en total (0: lazo cerrado)
+    private long warmupMillis = 2_000;      // Calentamiento (no se mide)
+    private long durationMillis = 5_000;    // Medición
+    private int cacheCapacity = 0;          // Capacidad de la caché de expresiones (0: sin caché)
+    private long seed = 1;
+
+    public LoadGenerator(WorkloadShape shape) {
+        this.shape = shape;
+    }
+
+    /**
+     * Ejecuta el calentamiento y la medición.
+     *
+     * @return Rendimiento y percentiles de latencia de la medición
+     */
+    public LoadReport run() throws InterruptedException {
+        ExpressionCache cache = cacheCapacity > 0 ? new ExpressionCache(cacheCapacity) : null;
+        List<Worker> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            workers.add(new Worker(i, new ExpressionGenerator(shape, seed + i), cache));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            runPhase(executor, workers, warmupMillis);
+            long hits = cache != null ? cache.getHits() : 0;
+            long misses = cache != null ? cache.getMisses() : 0;
+            double seconds = runPhase(executor, workers, durationMillis);
+
+            LatencyHistogram latencies = new LatencyHistogram();
+            long requests = 0;
+            long errors = 0;
+            for (Worker worker : workers) {
+                latencies.add(worker.histogram);
+                requests += worker.requests;
+                errors += worker.errors;
+            }
+            return new LoadReport(threads, targetRate, requests, errors, seconds, latencies,
+                    cache != null ? cache.getHits() - hits : 0, cache != null ? cache.getMisses() - misses : 0);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Ejecuta una fase en todos los hilos y devuelve su duración real en segundos.
+     */
+    private double runPhase(ExecutorService executor, List<Worker> workers, long millis) throws InterruptedException {
+        long start = System.nanoTime() + 1_000_000; // Margen para que todos los hilos arranquen a la vez
+        long end = start + millis * 1_000_000;
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (Worker worker : workers) {
+            tasks.add(() -> {
+                worker.run(start, end);
+                return null;
+            });
+        }
+        for (Future<Void> future : executor.invokeAll(tasks)) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+        return (System.nanoTime() - start) / 1e9;
+    }
+
+    /**
+     * Hilo de carga: su generador conserva las expresiones recientes entre fases, así que
+     * la medición empieza con la tasa de repetición ya establecida.
+     */
+    private final class Worker {
+        private final int id;
+        private final ExpressionGenerator generator;
+        private final ExpressionCache cache;
+        private final String[] variables;
+        private LatencyHistogram histogram;
+        private long requests;
+        private long errors;
+        private double checksum; // Evita que el JIT descarte las evaluaciones
+
+        Worker(int id, ExpressionGenerator generator, ExpressionCache cache) {
+            this.id = id;
+            this.generator = generator;
+            this.cache = cache;
+            this.variables = generator.getVariables();
+        }
+
+        void run(long start, long end) {
+            histogram = new LatencyHistogram();
+            requests = 0;
+            errors = 0;
+            long interval = targetRate > 0 ? (long) (1e9 * threads / targetRate) : 0;
+            long next = start + interval * id / Math.max(1, threads); // Hilos desfasados
+            while (true) {
+                long begin;
+                if (interval > 0) {
+                    if (next >= end) {
+                        break;
+                    }
+                    waitUntil(next);
+                    begin = next;
+                    next += interval;
+                } else {
+                    begin = System.nanoTime();
+                    if (begin >= end) {
+                        break;
+                    }
+                }
+                try {
+                    checksum += execute(generator.next());
+                } catch (Exception e) {
+                    errors++;
+                }
+                histogram.record(System.nanoTime() - begin);
+                requests++;
+            }
+        }
+
+        /**
+         * Una petición: analizar (o buscar en la caché), asignar variables y evaluar.
+         */
+        private double execute(String source) throws Exception {
+            if (cache != null) {
+                Map<String, Double> values = new HashMap<>();
+                for (String variable : variables) {
+                    values.put(variable, generator.nextValue());
+                }
+                return cache.get(source).evaluate(values);
+            }
+            Parser parser = new Parser(new Lexer(source).tokenize());
+            ASTNode ast = parser.parseToAST();
+            for (String variable : variables) {
+                parser.getVariableValues().put(variable, generator.nextValue());
+            }
+            return ast.evaluate();
+        }
+    }
+
+    private static void waitUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            if (remaining > SPIN_NANOS) {
+                LockSupport.parkNanos(remaining - SPIN_NANOS);
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    /**
+     * Uso: java domine.load.LoadGenerator [--threads N] [--rate pet/s] [--seconds S]
+     *        [--warmup S] [--cache capacidad] [--depth D] [--terms T] [--variables V]
+     *        [--trig fracción] [--repeat fracción]
+     */
+    public static void main(String[] args) throws InterruptedException {
+        WorkloadShape shape = WorkloadShape.defaults();
+        LoadGenerator generator = new LoadGenerator(shape);
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--threads" -> generator.setThreads(Integer.parseInt(value));
+                case "--rate" -> generator.setTargetRate(Double.parseDouble(value));
+                case "--seconds" -> generator.setDurationMillis((long) (Double.parseDouble(value) * 1000));
+                case "--warmup" -> generator.setWarmupMillis((long) (Double.parseDouble(value) * 1000));
+                case "--cache" -> generator.setCacheCapacity(Integer.parseInt(value));
+                case "--depth" -> shape.setDepth(Integer.parseInt(value));
+                case "--terms" -> shape.setTerms(Integer.parseInt(value));
+                case "--variables" -> shape.setVariables(Integer.parseInt(value));
+                case "--trig" -> shape.setTrigShare(Double.parseDouble(value));
+                case "--repeat" -> shape.setRepetitionRate(Double.parseDouble(value));
+                default -> throw new IllegalArgumentException("Opción desconocida: " + args[i]);
+            }
+        }
+        System.out.println(generator.run());
+    }
+}
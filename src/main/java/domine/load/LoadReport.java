@@ -0,0 +1,61 @@
+package domine.load;
+
+import lombok.Getter;
+
+import java.util.Locale;
+
+/**
+ * Resultado de una ejecución de {@link LoadGenerator}.
+ */
+@Getter
+public class LoadReport {
+    private final int threads;
+    private final double targetRate;        // Peticiones por segundo programadas (0: lazo cerrado)
+    private final long requests;            // Peticiones completadas en la medición
+    private final long errors;              // Peticiones que terminaron en excepción
+    private final double seconds;           // Duración real de la medición
+    private final LatencyHistogram latencies;
+    private final long cacheHits;
+    private final long cacheMisses;
+
+    public LoadReport(int threads, double targetRate, long requests, long errors, double seconds,
+                      LatencyHistogram latencies, long cacheHits, long cacheMisses) {
+        this.threads = threads;
+        this.targetRate = targetRate;
+        this.requests = requests;
+        this.errors = errors;
+        this.seconds = seconds;
+        this.latencies = latencies;
+        this.cacheHits = cacheHits;
+        this.cacheMisses = cacheMisses;
+    }
+
+    /**
+     * Peticiones completadas por segundo.
+     */
+    public double getThroughput() {
+        return requests / seconds;
+    }
+
+    /**
+     * @param percentile Percentil entre 0 y 100
+     * @return Latencia en microsegundos
+     */
+    public double getLatencyMicros(double percentile) {
+        return latencies.getPercentile(percentile) / 1e3;
+    }
+
+    /**
+     * Una línea con los datos para graficar: hilos, tasa, rendimiento y percentiles.
+     */
+    @Override
+    public String toString() {
+        long lookups = cacheHits + cacheMisses;
+        return String.format(Locale.ROOT,
+                "hilos %2d  tasa %9s  %10.0f pet/s  p50 %8.1f µs  p99 %8.1f µs  p99.9 %8.1f µs  máx %9.1f µs  errores %d%s",
+                threads, targetRate > 0 ? String.format(Locale.ROOT, "%.0f/s", targetRate) : "cerrado",
+                getThroughput(), getLatencyMicros(50), getLatencyMicros(99), getLatencyMicros(99.9),
+                latencies.getMax() / 1e3, errors,
+                lookups > 0 ? String.format(Locale.ROOT, "  caché %.1f%%", 100.0 * cacheHits / lookups) : "");
+    }
+}
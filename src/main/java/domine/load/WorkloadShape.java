@@ -0,0 +1,31 @@
+package domine.load;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Forma de las expresiones que sintetiza {@link ExpressionGenerator}.
+ *
+ * - depth:          altura máxima de cada término (paréntesis y funciones anidadas)
+ * - terms:          cantidad de términos de primer nivel (longitud de la expresión)
+ * - variables:      cantidad de variables distintas (x0, x1, ...)
+ * - trigShare:      probabilidad de que un subárbol sea una llamada a sin, cos o tan
+ * - repetitionRate: probabilidad de que una expresión repita una generada antes, lo que
+ *                   determina la tasa de aciertos de {@link domine.compiler.ExpressionCache}
+ */
+@Getter
+@Setter
+public class WorkloadShape {
+    private int depth = 3;
+    private int terms = 6;
+    private int variables = 2;
+    private double trigShare = 0.3;
+    private double repetitionRate = 0.5;
+
+    /**
+     * Forma por defecto: expresiones de unos 40 tokens con dos variables.
+     */
+    public static WorkloadShape defaults() {
+        return new WorkloadShape();
+    }
+}
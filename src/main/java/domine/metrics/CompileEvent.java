@@ -0,0 +1,44 @@
+package domine.metrics;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * Compilación de un AST (ExpressionCompiler) o de un programa de varias salidas
+ * (ProgramCompiler), incluida la eliminación de subexpresiones comunes.
+ */
+@Name("domine.Compile")
+@Label("Compile")
+@Description("Compilación de una expresión o de un programa de varias salidas")
+@Threshold("1 ms")
+public class CompileEvent extends PipelineEvent {
+
+    @Label("Outputs")
+    @Description("Salidas compiladas (1 para una expresión)")
+    int outputs;
+
+    @Label("Node Count")
+    @Description("Nodos de los AST compilados")
+    long nodeCount;
+
+    @Label("Instructions")
+    @Description("Instrucciones generadas, -1 si la compilación falló")
+    int instructions;
+
+    /**
+     * @param fingerprint Huella de la expresión o del programa compilado (0 si falló)
+     */
+    public void finish(long fingerprint, int outputs, long nodeCount, int instructions, Throwable error) {
+        end();
+        if (shouldCommit()) {
+            this.fingerprint = fingerprint;
+            this.outputs = outputs;
+            this.nodeCount = nodeCount;
+            this.instructions = instructions;
+            outcome = outcome(error);
+            commit();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package domine.metrics;
+
+import lombok.Getter;
+
+import java.beans.ConstructorProperties;
+import java.util.Locale;
+
+/**
+ * Resumen de un {@link StripedHistogram} en un instante.
+ */
+@Getter
+public class DistributionSnapshot {
+    private final long count;
+    private final long sum;
+    private final double mean;
+    private final long p50;
+    private final long p90;
+    private final long p99;
+    private final long max;
+
+    @ConstructorProperties({"count", "sum", "mean", "p50", "p90", "p99", "max"})
+    public DistributionSnapshot(long count, long sum, double mean, long p50, long p90, long p99, long max) {
+        this.count = count;
+        this.sum = sum;
+        this.mean = mean;
+        this.p50 = p50;
+        this.p90 = p90;
+        this.p99 = p99;
+        this.max = max;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "n=%d media=%.1f p50=%d p90=%d p99=%d máx=%d",
+                count, mean, p50, p90, p99, max);
+    }
+}
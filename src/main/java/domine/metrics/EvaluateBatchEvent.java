@@ -0,0 +1,37 @@
+package domine.metrics;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * Evaluación por lotes de una expresión o programa compilado (evaluateBatch).
+ */
+@Name("domine.EvaluateBatch")
+@Label("Evaluate Batch")
+@Description("Evaluación de una expresión compilada sobre un lote de filas")
+@Threshold("10 ms")
+public class EvaluateBatchEvent extends PipelineEvent {
+
+    @Label("Rows")
+    int rows;
+
+    @Label("Outputs")
+    int outputs;
+
+    @Label("Instructions")
+    int instructions;
+
+    public void finish(long fingerprint, int rows, int outputs, int instructions, Throwable error) {
+        end();
+        if (shouldCommit()) {
+            this.fingerprint = fingerprint;
+            this.rows = rows;
+            this.outputs = outputs;
+            this.instructions = instructions;
+            outcome = outcome(error);
+            commit();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package domine.metrics;
+
+/**
+ * Huella de 64 bits del texto de una expresión (FNV-1a sobre sus caracteres), que ignora
+ * los espacios en blanco igual que el Lexer. Así la huella del texto original, la de los
+ * lexemas de sus tokens concatenados y la de cualquier variante con otros espacios
+ * coinciden, y los eventos de las distintas etapas de una misma expresión se pueden
+ * relacionar.
+ */
+public final class Fingerprint {
+    public static final long EMPTY = 0xcbf29ce484222325L;  // Huella del texto vacío
+    private static final long PRIME = 0x100000001b3L;
+
+    private Fingerprint() {
+    }
+
+    public static long of(CharSequence text) {
+        return add(EMPTY, text);
+    }
+
+    /**
+     * Continúa la huella con más texto: add(of(a), b) == of(a + b).
+     */
+    public static long add(long hash, CharSequence text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (!isWhitespace(c)) {
+                hash = (hash ^ c) * PRIME;
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Continúa la huella con un entero (para identificar programas por su código).
+     */
+    public static long add(long hash, int value) {
+        for (int shift = 0; shift < 32; shift += 8) {
+            hash = (hash ^ ((value >>> shift) & 0xff)) * PRIME;
+        }
+        return hash;
+    }
+
+    /**
+     * Los mismos caracteres que "\\s" en las expresiones regulares de Java.
+     */
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == 0x0B || c == '\f' || c == '\r';
+    }
+}
@@ -0,0 +1,51 @@
+package domine.metrics;
+
+import lombok.Getter;
+
+import java.beans.ConstructorProperties;
+import java.util.Map;
+
+/**
+ * Copia de todas las métricas de {@link PipelineMetrics} en un instante.
+ */
+@Getter
+public class MetricsSnapshot {
+    private final Map<String, PhaseSnapshot> phases;    // Por nombre de Phase, en el orden del pipeline
+    private final Map<String, Long> errors;             // Por tipo de error (método de ExpectedMessage)
+    private final DistributionSnapshot nodeCounts;      // Nodos de cada AST construido
+    private final DistributionSnapshot depths;          // Altura de cada AST construido
+
+    @ConstructorProperties({"phases", "errors", "nodeCounts", "depths"})
+    public MetricsSnapshot(Map<String, PhaseSnapshot> phases, Map<String, Long> errors,
+                           DistributionSnapshot nodeCounts, DistributionSnapshot depths) {
+        this.phases = phases;
+        this.errors = errors;
+        this.nodeCounts = nodeCounts;
+        this.depths = depths;
+    }
+
+    public PhaseSnapshot getPhase(Phase phase) {
+        return phases.get(phase.name());
+    }
+
+    /**
+     * @return Cantidad de veces que se produjo el error, 0 si nunca ocurrió
+     */
+    public long getErrorCount(String type) {
+        return errors.getOrDefault(type, 0L);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        for (Map.Entry<String, PhaseSnapshot> entry : phases.entrySet()) {
+            text.append(String.format("%-15s %s%n", entry.getKey(), entry.getValue()));
+        }
+        text.append(String.format("%-15s %s%n", "nodos", nodeCounts));
+        text.append(String.format("%-15s %s%n", "altura", depths));
+        for (Map.Entry<String, Long> entry : errors.entrySet()) {
+            text.append(String.format("error %-30s %d%n", entry.getKey(), entry.getValue()));
+        }
+        return text.toString();
+    }
+}
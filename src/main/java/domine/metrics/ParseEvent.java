@@ -0,0 +1,47 @@
+package domine.metrics;
+
+import domine.Token;
+import domine.ast.ASTNode;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+import java.util.List;
+
+/**
+ * Construcción del AST a partir de los tokens (Parser.parseToAST).
+ */
+@Name("domine.Parse")
+@Label("Parse")
+@Description("Construcción del AST de una expresión")
+@Threshold("1 ms")
+public class ParseEvent extends PipelineEvent {
+
+    @Label("Token Count")
+    int tokenCount;
+
+    @Label("Node Count")
+    @Description("-1 si el análisis falló")
+    int nodeCount;
+
+    @Label("Depth")
+    @Description("Altura del AST, -1 si el análisis falló")
+    int depth;
+
+    public void finish(List<Token> tokens, ASTNode root, Throwable error) {
+        end();
+        if (shouldCommit()) {
+            long hash = Fingerprint.EMPTY;
+            for (Token token : tokens) {
+                hash = Fingerprint.add(hash, token.getLexeme());
+            }
+            fingerprint = hash;
+            tokenCount = tokens.size();
+            nodeCount = root != null ? root.getNodeCount() : -1;
+            depth = root != null ? root.getDepth() : -1;
+            outcome = outcome(error);
+            commit();
+        }
+    }
+}
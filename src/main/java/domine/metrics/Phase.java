@@ -0,0 +1,11 @@
+package domine.metrics;
+
+/**
+ * Etapas del pipeline que mide {@link PipelineMetrics}.
+ */
+public enum Phase {
+    LEX,            // Lexer.tokenize
+    PARSE,          // Construcción del AST (Parser.parseToAST)
+    BIND_VARIABLES, // Obtención de los valores de las variables (requestVariableValues o el mapa de valores)
+    EVALUATE        // Evaluación del AST o de la expresión compilada
+}
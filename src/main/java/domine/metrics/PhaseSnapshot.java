@@ -0,0 +1,32 @@
+package domine.metrics;
+
+import lombok.Getter;
+
+import java.beans.ConstructorProperties;
+import java.util.Locale;
+
+/**
+ * Contadores y latencias (en nanosegundos) de una etapa del pipeline.
+ */
+@Getter
+public class PhaseSnapshot {
+    private final long count;       // Ejecuciones de la etapa
+    private final long failures;    // Ejecuciones que terminaron en excepción
+    private final long totalNanos;  // Tiempo total dentro de la etapa
+    private final DistributionSnapshot latency;
+
+    @ConstructorProperties({"count", "failures", "totalNanos", "latency"})
+    public PhaseSnapshot(long count, long failures, long totalNanos, DistributionSnapshot latency) {
+        this.count = count;
+        this.failures = failures;
+        this.totalNanos = totalNanos;
+        this.latency = latency;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "n=%d fallos=%d total=%.3f ms p50=%.1f µs p99=%.1f µs máx=%.1f µs",
+                count, failures, totalNanos / 1e6, latency.getP50() / 1e3, latency.getP99() / 1e3,
+                latency.getMax() / 1e3);
+    }
+}
@@ -0,0 +1,40 @@
+package domine.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+
+/**
+ * Base de los eventos de JDK Flight Recorder del pipeline.
+ *
+ * Cada etapa crea su evento, llama a begin() al empezar y a uno de los métodos finish al
+ * terminar, que asigna los campos y lo registra solo si la grabación lo pide (el evento
+ * está activado y su duración supera el umbral). Sin una grabación activa, isEnabled()
+ * es falso y el JIT elimina la creación del evento.
+ *
+ * Los umbrales por defecto (@Threshold de cada evento) se pueden cambiar en la
+ * configuración de la grabación, por ejemplo:
+ *   recording.enable(ParseEvent.class).withThreshold(Duration.ZERO);
+ */
+@Category({"Domine", "Pipeline"})
+public abstract class PipelineEvent extends Event {
+    public static final String OK = "OK";
+
+    @Label("Fingerprint")
+    @Description("Huella de la expresión sin espacios (ver domine.metrics.Fingerprint)")
+    long fingerprint;
+
+    @Label("Outcome")
+    @Description("OK, o la clase y el mensaje de la excepción")
+    String outcome;
+
+    /**
+     * Texto del resultado de una etapa.
+     *
+     * @param error Excepción con la que terminó la etapa, o null si terminó bien
+     */
+    static String outcome(Throwable error) {
+        return error == null ? OK : error.getClass().getSimpleName() + ": " + error.getMessage();
+    }
+}
@@ -0,0 +1,156 @@
+package domine.metrics;
+
+import domine.ast.ASTNode;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Métricas del pipeline Lexer -> Parser -> evaluación: cantidad, fallos y latencias por
+ * etapa ({@link Phase}), errores por tipo y distribución de la cantidad de nodos y de la
+ * altura de los AST construidos.
+ *
+ * Todos los contadores son {@link LongAdder} (o histogramas de LongAdder), así que muchos
+ * hilos pueden registrar a la vez sin competir por una misma variable. Las etapas
+ * instrumentadas consultan {@link #isEnabled()} antes de tomar tiempos: desactivadas
+ * (el estado inicial, salvo con -Ddomine.metrics=true) cuestan una lectura de un campo
+ * volatile por etapa.
+ *
+ * Se consultan con {@link #snapshot()} o por JMX tras {@link #registerMBean()}.
+ */
+public final class PipelineMetrics implements PipelineMetricsMXBean {
+    public static final String OBJECT_NAME = "domine:type=PipelineMetrics";
+
+    private static final PipelineMetrics DEFAULT = new PipelineMetrics(Boolean.getBoolean("domine.metrics"));
+
+    private volatile boolean enabled;
+    private final Map<Phase, StripedHistogram> latencies = new EnumMap<>(Phase.class);
+    private final Map<Phase, LongAdder> failures = new EnumMap<>(Phase.class);
+    private final ConcurrentHashMap<String, LongAdder> errors = new ConcurrentHashMap<>();
+    private final StripedHistogram nodeCounts = new StripedHistogram();
+    private final StripedHistogram depths = new StripedHistogram();
+
+    public PipelineMetrics(boolean enabled) {
+        this.enabled = enabled;
+        for (Phase phase : Phase.values()) {
+            latencies.put(phase, new StripedHistogram());
+            failures.put(phase, new LongAdder());
+        }
+    }
+
+    /**
+     * Métricas compartidas que registran el Lexer, el Parser y CompiledExpression.
+     */
+    public static PipelineMetrics getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Registra las métricas compartidas en el servidor de MBeans de la plataforma.
+     * Llamarlo más de una vez no tiene efecto.
+     */
+    public static void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            server.registerMBean(DEFAULT, new ObjectName(OBJECT_NAME));
+        } catch (InstanceAlreadyExistsException e) {
+            // Ya registrado
+        } catch (JMException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Registra una ejecución de una etapa.
+     *
+     * @param phase Etapa
+     * @param startNanos Valor de System.nanoTime() al comenzar la etapa
+     * @param failed true si la etapa terminó en excepción
+     */
+    public void record(Phase phase, long startNanos, boolean failed) {
+        latencies.get(phase).record(System.nanoTime() - startNanos);
+        if (failed) {
+            failures.get(phase).increment();
+        }
+    }
+
+    /**
+     * Registra el tamaño y la altura de un AST recién construido (ambos se conocen en O(1)).
+     */
+    public void recordTree(ASTNode root) {
+        nodeCounts.record(root.getNodeCount());
+        depths.record(root.getDepth());
+    }
+
+    /**
+     * Cuenta un error por tipo. No hace nada si las métricas están desactivadas.
+     */
+    public void recordError(String type) {
+        if (enabled) {
+            errors.computeIfAbsent(type, t -> new LongAdder()).increment();
+        }
+    }
+
+    public MetricsSnapshot snapshot() {
+        return new MetricsSnapshot(getPhases(), getErrors(), getNodeCounts(), getDepths());
+    }
+
+    @Override
+    public Map<String, PhaseSnapshot> getPhases() {
+        Map<String, PhaseSnapshot> phases = new LinkedHashMap<>();
+        for (Phase phase : Phase.values()) {
+            DistributionSnapshot latency = latencies.get(phase).snapshot();
+            phases.put(phase.name(), new PhaseSnapshot(latency.getCount(), failures.get(phase).sum(),
+                    latency.getSum(), latency));
+        }
+        return Collections.unmodifiableMap(phases);
+    }
+
+    @Override
+    public Map<String, Long> getErrors() {
+        Map<String, Long> counts = new TreeMap<>();
+        errors.forEach((type, count) -> counts.put(type, count.sum()));
+        return Collections.unmodifiableMap(counts);
+    }
+
+    @Override
+    public DistributionSnapshot getNodeCounts() {
+        return nodeCounts.snapshot();
+    }
+
+    @Override
+    public DistributionSnapshot getDepths() {
+        return depths.snapshot();
+    }
+
+    @Override
+    public void reset() {
+        for (Phase phase : Phase.values()) {
+            latencies.get(phase).reset();
+            failures.get(phase).reset();
+        }
+        errors.clear();
+        nodeCounts.reset();
+        depths.reset();
+    }
+}
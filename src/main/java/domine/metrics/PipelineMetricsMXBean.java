@@ -0,0 +1,28 @@
+package domine.metrics;
+
+import java.util.Map;
+
+/**
+ * Interfaz de administración de {@link PipelineMetrics}, registrada en el servidor de
+ * MBeans de la plataforma como {@value PipelineMetrics#OBJECT_NAME}. Se puede consultar
+ * con jconsole o VisualVM, y activar o desactivar la medición en caliente.
+ */
+public interface PipelineMetricsMXBean {
+
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    Map<String, PhaseSnapshot> getPhases();
+
+    Map<String, Long> getErrors();
+
+    DistributionSnapshot getNodeCounts();
+
+    DistributionSnapshot getDepths();
+
+    /**
+     * Pone todos los contadores en cero.
+     */
+    void reset();
+}
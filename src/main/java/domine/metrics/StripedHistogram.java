@@ -0,0 +1,106 @@
+package domine.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma concurrente de valores no negativos (latencias en nanosegundos, cantidades
+ * de nodos, alturas).
+ *
+ * Cada intervalo es un {@link LongAdder}: los hilos que registran a la vez incrementan
+ * celdas distintas en lugar de competir por el mismo contador. Los valores menores que 32
+ * tienen intervalo propio; a partir de ahí cada potencia de dos se divide en 16 intervalos
+ * (error relativo ≤ 1/16). Los valores desde 2^40 (unos 18 minutos en nanosegundos)
+ * comparten el último intervalo.
+ *
+ * Las lecturas son aproximadas mientras otros hilos registran, lo que basta para métricas.
+ */
+public class StripedHistogram {
+    private static final int SUB_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int LINEAR = 2 * SUB_BUCKETS;
+    private static final int MAX_BITS = 40;
+    private static final int SIZE = LINEAR + (MAX_BITS - SUB_BITS) * SUB_BUCKETS;
+
+    private final LongAdder[] counts = new LongAdder[SIZE];
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public StripedHistogram() {
+        for (int i = 0; i < SIZE; i++) {
+            counts[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * @param value Valor a registrar (los negativos se registran como 0)
+     */
+    public void record(long value) {
+        long v = Math.max(0, value);
+        counts[index(v)].increment();
+        sum.add(v);
+        max.accumulate(v);
+    }
+
+    public void reset() {
+        for (LongAdder count : counts) {
+            count.reset();
+        }
+        sum.reset();
+        max.reset();
+    }
+
+    /**
+     * Copia los contadores y calcula la cantidad, la suma, la media, los percentiles 50, 90 y 99
+     * y el máximo.
+     */
+    public DistributionSnapshot snapshot() {
+        long[] copy = new long[SIZE];
+        long total = 0;
+        for (int i = 0; i < SIZE; i++) {
+            copy[i] = counts[i].sum();
+            total += copy[i];
+        }
+        long maximum = max.get();
+        long sumOfValues = sum.sum();
+        return new DistributionSnapshot(total, sumOfValues, total == 0 ? 0 : (double) sumOfValues / total,
+                percentile(copy, total, 50, maximum), percentile(copy, total, 90, maximum),
+                percentile(copy, total, 99, maximum), maximum);
+    }
+
+    private static long percentile(long[] counts, long total, double percentile, long maximum) {
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < SIZE; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(highestEquivalent(i), maximum);
+            }
+        }
+        return maximum;
+    }
+
+    static int index(long value) {
+        if (value < LINEAR) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS; // ≥ 1
+        if (shift > MAX_BITS - SUB_BITS) {
+            return SIZE - 1;
+        }
+        int mantissa = (int) (value >>> shift);                        // [16, 32)
+        return LINEAR + (shift - 1) * SUB_BUCKETS + (mantissa - SUB_BUCKETS);
+    }
+
+    static long highestEquivalent(int index) {
+        if (index < LINEAR) {
+            return index;
+        }
+        int shift = (index - LINEAR) / SUB_BUCKETS + 1;
+        long mantissa = (index - LINEAR) % SUB_BUCKETS + SUB_BUCKETS;
+        return ((mantissa + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,37 @@
+package domine.metrics;
+
+import domine.Token;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+import java.util.List;
+
+/**
+ * Análisis léxico de una expresión (Lexer.tokenize).
+ */
+@Name("domine.Tokenize")
+@Label("Tokenize")
+@Description("Análisis léxico de una expresión")
+@Threshold("1 ms")
+public class TokenizeEvent extends PipelineEvent {
+
+    @Label("Input Length")
+    int inputLength;
+
+    @Label("Token Count")
+    @Description("-1 si el análisis falló")
+    int tokenCount;
+
+    public void finish(String input, List<Token> tokens, Throwable error) {
+        end();
+        if (shouldCommit()) {
+            fingerprint = Fingerprint.of(input);
+            inputLength = input.length();
+            tokenCount = tokens != null ? tokens.size() : -1;
+            outcome = outcome(error);
+            commit();
+        }
+    }
+}
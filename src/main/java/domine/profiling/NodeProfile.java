@@ -0,0 +1,172 @@
+package domine.profiling;
+
+import domine.ast.*;
+import domine.render.AstRenderer;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Resultado de {@link NodeProfiler}: por cada nodo del AST, sus llamadas y su tiempo
+ * propio (sin los hijos) y total (con los hijos), estimados a partir de las muestras y ya
+ * descontado el costo de medir.
+ *
+ * Se puede mostrar como el árbol de toTreeString() con porcentajes, o exportar en formato
+ * "folded stacks" (una línea por camino raíz -> nodo con su tiempo propio), que leen
+ * flamegraph.pl, speedscope o el visor de async-profiler.
+ */
+@Getter
+public class NodeProfile {
+    private final Entry root;
+    private final long evaluations;     // Evaluaciones perfiladas
+
+    private NodeProfile(Entry root, long evaluations) {
+        this.root = root;
+        this.evaluations = evaluations;
+    }
+
+    static NodeProfile of(NodeProfiler.Profiled root, long evaluations, double timerNanos) {
+        return new NodeProfile(entry(root, timerNanos), evaluations);
+    }
+
+    /**
+     * Tiempo total: el tiempo típico de las muestras, sin el costo de medir, por las llamadas.
+     * Tiempo propio: el total menos el de los hijos.
+     */
+    private static Entry entry(NodeProfiler.Profiled profiled, double timerNanos) {
+        List<Entry> children = new ArrayList<>();
+        double childrenTotal = 0;
+        for (NodeProfiler.Profiled child : profiled.children) {
+            Entry entry = entry(child, timerNanos);
+            children.add(entry);
+            childrenTotal += entry.totalNanos;
+        }
+        double perCall = Math.max(0, profiled.typicalNanos() - timerNanos);
+        double total = Math.max(perCall * profiled.calls, childrenTotal);
+        return new Entry(label(profiled.node), profiled.calls, total - childrenTotal, total,
+                Collections.unmodifiableList(children));
+    }
+
+    /**
+     * La misma etiqueta que toTreeString() del nodo.
+     */
+    static String label(ASTNode node) {
+        return AstRenderer.label(node);
+    }
+
+    /**
+     * Tiempo total estimado de todas las evaluaciones perfiladas, en nanosegundos.
+     */
+    public double getTotalNanos() {
+        return root.totalNanos;
+    }
+
+    /**
+     * Los nodos ordenados de mayor a menor tiempo propio.
+     */
+    public List<Entry> getHottest() {
+        List<Entry> entries = new ArrayList<>();
+        collect(root, entries);
+        entries.sort(Comparator.comparingDouble(Entry::getSelfNanos).reversed());
+        return entries;
+    }
+
+    private static void collect(Entry entry, List<Entry> entries) {
+        entries.add(entry);
+        for (Entry child : entry.children) {
+            collect(child, entries);
+        }
+    }
+
+    /**
+     * El árbol con el mismo formato que ASTNode.toTreeString(), anotando en cada nodo el
+     * porcentaje del tiempo total (con los hijos), el propio, las llamadas y el tiempo
+     * medio por llamada.
+     *
+     * Ejemplo:
+     *   BinaryOp(+)  [total 100.0%, propio 1.2%, 1000 llamadas, 3.5 ns/llamada]
+     *     ├─ BinaryOp(^)  [total 71.3%, propio 70.1%, 1000 llamadas, 205.4 ns/llamada]
+     */
+    public String toTreeString() {
+        StringBuilder sb = new StringBuilder();
+        appendTree(root, "", sb);
+        return sb.toString();
+    }
+
+    private void appendTree(Entry entry, String indent, StringBuilder sb) {
+        if (sb.length() > 0) {
+            sb.append("\n");
+        }
+        sb.append(indent).append(entry.label).append(String.format(Locale.ROOT,
+                "  [total %.1f%%, propio %.1f%%, %d llamadas, %.1f ns/llamada]",
+                percent(entry.totalNanos), percent(entry.selfNanos), entry.calls,
+                entry.calls == 0 ? 0 : entry.totalNanos / entry.calls));
+        for (int i = 0; i < entry.children.size(); i++) {
+            boolean last = i == entry.children.size() - 1;
+            appendTree(entry.children.get(i), indent + (last ? "  └─ " : "  ├─ "), sb);
+        }
+    }
+
+    private double percent(double nanos) {
+        return root.totalNanos == 0 ? 0 : 100 * nanos / root.totalNanos;
+    }
+
+    /**
+     * Formato "folded stacks": "BinaryOp(+);BinaryOp(^);VariableNode(x) 1234" por cada nodo,
+     * con su tiempo propio en nanosegundos. Los caminos iguales (hermanos con la misma
+     * etiqueta) se suman, como hacen los visores de flame graphs.
+     */
+    public String toFoldedStacks() {
+        StringBuilder sb = new StringBuilder();
+        appendFolded(root, "", sb);
+        return sb.toString();
+    }
+
+    private static void appendFolded(Entry entry, String prefix, StringBuilder sb) {
+        String path = prefix.isEmpty() ? entry.label : prefix + ";" + entry.label;
+        long weight = Math.round(entry.selfNanos);
+        if (weight > 0) {
+            sb.append(path).append(' ').append(weight).append('\n');
+        }
+        for (Entry child : entry.children) {
+            appendFolded(child, path, sb);
+        }
+    }
+
+    public void writeFoldedStacks(Path file) throws IOException {
+        Files.write(file, toFoldedStacks().getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public String toString() {
+        return toTreeString();
+    }
+
+    /**
+     * Un nodo del perfil.
+     */
+    @Getter
+    public static final class Entry {
+        private final String label;         // Etiqueta del nodo, como en toTreeString()
+        private final long calls;           // Evaluaciones del nodo
+        private final double selfNanos;     // Tiempo propio estimado (sin los hijos)
+        private final double totalNanos;    // Tiempo total estimado (con los hijos)
+        private final List<Entry> children;
+
+        Entry(String label, long calls, double selfNanos, double totalNanos, List<Entry> children) {
+            this.label = label;
+            this.calls = calls;
+            this.selfNanos = selfNanos;
+            this.totalNanos = totalNanos;
+            this.children = children;
+        }
+    }
+}
@@ -0,0 +1,304 @@
+package domine.profiling;
+
+import domine.ast.*;
+import resources.message.ExpectedMessage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Evaluación del AST con perfilado por nodo: cuenta cuántas veces se evalúa cada nodo y
+ * mide cuánto tiempo pasa en él, para encontrar qué parte de una fórmula es costosa (por
+ * ejemplo, una potencia con exponente no entero frente a una llamada a tan).
+ *
+ * Los valores son los mismos que los de {@link ASTNode#evaluate()}: las variables se leen
+ * de los valores del Parser y las variables locales se calculan una vez por evaluación.
+ * Las llamadas se evalúan sin su memoria de resultados (CallSiteMemo), para medir el costo
+ * real de cada función.
+ *
+ * Medición por muestreo: en cada evaluación medida se toma el tiempo de un solo nodo
+ * (incluidos sus hijos), elegido por turno entre todos los nodos, con un par de llamadas a
+ * System.nanoTime(). Medir cada nodo en todas las evaluaciones costaría un par de llamadas
+ * por nodo, mucho más que sumar o multiplicar, y ese costo anidado dentro de los padres no
+ * se puede descontar con precisión; midiendo un nodo por vez, el tiempo de cada muestra
+ * solo incluye un par de llamadas, cuyo costo se estima una vez (calibración) y se resta.
+ * El tiempo propio de un nodo es su tiempo total menos el de sus hijos.
+ *
+ * Las llamadas se cuentan en todas las evaluaciones. Con sampleInterval = n solo se mide
+ * una de cada n evaluaciones, para perturbar todavía menos una carga larga.
+ *
+ * Ejemplo:
+ *   NodeProfiler profiler = new NodeProfiler(ast);
+ *   for (...) { parser.getVariableValues().put("x", x); profiler.evaluate(); }
+ *   System.out.println(profiler.getProfile().toTreeString());
+ */
+public class NodeProfiler {
+    private static volatile Double calibration; // Costo de una medición (ver calibrate())
+
+    private final Profiled root;
+    private final Profiled[] nodes;     // Todos los nodos en preorden, para medirlos por turno
+    private final double[] locals;
+    private int sampleInterval = 1;
+    private long evaluations;
+    private int cursor;                 // Próximo nodo a medir
+    private long random = 1;            // Generador congruencial para el muestreo de reservorio
+
+    public NodeProfiler(ASTNode root) {
+        List<LocalBinding> bindings = new ArrayList<>();
+        List<Profiled> nodes = new ArrayList<>();
+        this.root = build(root, bindings, nodes);
+        this.nodes = nodes.toArray(new Profiled[0]);
+        int slots = 0;
+        for (LocalBinding binding : bindings) {
+            slots = Math.max(slots, binding.getSlot() + 1);
+        }
+        this.locals = new double[slots];
+    }
+
+    /**
+     * @param sampleInterval Se mide una de cada sampleInterval evaluaciones (1: todas)
+     */
+    public void setSampleInterval(int sampleInterval) {
+        if (sampleInterval < 1) {
+            throw new IllegalArgumentException("El intervalo de muestreo debe ser al menos 1: " + sampleInterval);
+        }
+        this.sampleInterval = sampleInterval;
+    }
+
+    public int getSampleInterval() {
+        return sampleInterval;
+    }
+
+    /**
+     * Evalúa el AST contando las llamadas de cada nodo y, si esta evaluación se mide, el
+     * tiempo del nodo al que le toca.
+     *
+     * @return El mismo valor que ASTNode.evaluate()
+     * @throws Exception Si falta una variable o se divide por cero
+     */
+    public double evaluate() throws Exception {
+        Profiled target = null;
+        if (evaluations++ % sampleInterval == 0) {
+            target = nodes[cursor];
+            cursor = cursor + 1 == nodes.length ? 0 : cursor + 1;
+        }
+        return evaluate(root, target);
+    }
+
+    /**
+     * Resultado acumulado desde la creación o el último reset().
+     */
+    public NodeProfile getProfile() {
+        return NodeProfile.of(root, evaluations, calibrate());
+    }
+
+    public void reset() {
+        evaluations = 0;
+        cursor = 0;
+        root.reset();
+    }
+
+    // ========== Evaluación ==========
+
+    /**
+     * @param target Nodo a medir en esta evaluación (null si ya se está midiendo un
+     *               ancestro o si la evaluación no se mide)
+     */
+    private double evaluate(Profiled profiled, Profiled target) throws Exception {
+        profiled.calls++;
+        if (profiled != target) {
+            return compute(profiled, target);
+        }
+        long start = System.nanoTime();
+        double value = compute(profiled, null);
+        profiled.record(System.nanoTime() - start, random = random * 6364136223846793005L + 1442695040888963407L);
+        return value;
+    }
+
+    private double compute(Profiled profiled, Profiled target) throws Exception {
+        ASTNode node = profiled.node;
+        Profiled[] children = profiled.children;
+        if (node instanceof NumberNode) {
+            return ((NumberNode) node).getValue();
+        } else if (node instanceof VariableNode) {
+            return node.evaluate();
+        } else if (node instanceof LocalVariableNode) {
+            return locals[((LocalVariableNode) node).getBinding().getSlot()];
+        } else if (node instanceof LetNode) {
+            locals[((LetNode) node).getBinding().getSlot()] = evaluate(children[0], target);
+            return evaluate(children[1], target);
+        } else if (node instanceof BinaryOperationNode) {
+            double left = evaluate(children[0], target);
+            double right = evaluate(children[1], target);
+            String operator = ((BinaryOperationNode) node).getOperator();
+            return switch (operator) {
+                case "+" -> left + right;
+                case "-" -> left - right;
+                case "*" -> left * right;
+                case "/" -> {
+                    if (right == 0) {
+                        throw new Exception(ExpectedMessage.dividedByZero());
+                    }
+                    yield left / right;
+                }
+                case "^" -> Math.pow(left, right);
+                default -> throw new Exception(ExpectedMessage.unknownOperator(operator));
+            };
+        } else if (node instanceof FunctionNode) {
+            FunctionNode function = (FunctionNode) node;
+            if (children.length == 1) {
+                return function.getFunction().invoke(evaluate(children[0], target));
+            } else if (children.length == 2) {
+                return function.getFunction().invoke(evaluate(children[0], target), evaluate(children[1], target));
+            }
+            double[] values = new double[children.length];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = evaluate(children[i], target);
+            }
+            return function.getFunction().invoke(values);
+        }
+        throw new IllegalArgumentException("Nodo desconocido: " + node.getClass().getSimpleName());
+    }
+
+    // ========== Estructura ==========
+
+    /**
+     * Copia del AST con los contadores de cada nodo, para no buscarlos en un mapa en cada
+     * evaluación.
+     */
+    static final class Profiled {
+        static final int RESERVOIR = 127;   // Muestras conservadas por nodo
+
+        final ASTNode node;
+        final Profiled[] children;
+        long calls;         // Evaluaciones del nodo
+        long samples;       // Evaluaciones en las que se midió
+        int[] reservoir;    // Muestra uniforme de los tiempos medidos (se crea con la primera)
+
+        Profiled(ASTNode node, Profiled[] children) {
+            this.node = node;
+            this.children = children;
+        }
+
+        /**
+         * Muestreo de reservorio: cada tiempo medido tiene la misma probabilidad de quedar
+         * entre los conservados, con memoria fija por nodo por larga que sea la carga.
+         */
+        void record(long nanos, long random) {
+            if (reservoir == null) {
+                reservoir = new int[RESERVOIR];
+            }
+            int value = (int) Math.min(nanos, Integer.MAX_VALUE);
+            if (samples < RESERVOIR) {
+                reservoir[(int) samples] = value;
+            } else {
+                long slot = Long.remainderUnsigned(random >>> 1, samples + 1);
+                if (slot < RESERVOIR) {
+                    reservoir[(int) slot] = value;
+                }
+            }
+            samples++;
+        }
+
+        /**
+         * Media de los tiempos conservados sin el 10 % más alto: las muestras en las que el
+         * hilo perdió el procesador o hubo una pausa de GC no representan al nodo.
+         */
+        double typicalNanos() {
+            int kept = (int) Math.min(samples, RESERVOIR);
+            if (kept == 0) {
+                return 0;
+            }
+            int[] sorted = Arrays.copyOf(reservoir, kept);
+            Arrays.sort(sorted);
+            int used = Math.max(1, kept - kept / 10);
+            double sum = 0;
+            for (int i = 0; i < used; i++) {
+                sum += sorted[i];
+            }
+            return sum / used;
+        }
+
+        void reset() {
+            calls = 0;
+            samples = 0;
+            for (Profiled child : children) {
+                child.reset();
+            }
+        }
+    }
+
+    private static Profiled build(ASTNode node, List<LocalBinding> bindings, List<Profiled> nodes) {
+        List<ASTNode> children = new ArrayList<>();
+        if (node instanceof BinaryOperationNode) {
+            children.add(((BinaryOperationNode) node).getLeft());
+            children.add(((BinaryOperationNode) node).getRight());
+        } else if (node instanceof FunctionNode) {
+            children.addAll(((FunctionNode) node).getArguments());
+        } else if (node instanceof LetNode) {
+            LetNode let = (LetNode) node;
+            bindings.add(let.getBinding());
+            children.add(let.getBinding().getValue());
+            children.add(let.getBody());
+        }
+        Profiled[] profiled = new Profiled[children.size()];
+        Profiled result = new Profiled(node, profiled);
+        nodes.add(result);
+        for (int i = 0; i < profiled.length; i++) {
+            profiled[i] = build(children.get(i), bindings, nodes);
+        }
+        return result;
+    }
+
+    // ========== Calibración ==========
+
+    /**
+     * Tiempo que marca una medición de un número, en nanosegundos: una suma de 32 números
+     * en forma de árbol balanceado, para medir las hojas en el mismo contexto (sin que el
+     * JIT las integre en el ciclo) que en un AST real. Se repite varias veces y se toma la
+     * mediana.
+     */
+    static double calibrate() {
+        Double result = calibration;
+        if (result != null) {
+            return result;
+        }
+        ASTNode[] level = new ASTNode[32];
+        for (int i = 0; i < level.length; i++) {
+            level[i] = new NumberNode(0);
+        }
+        List<Profiled> leaves = new ArrayList<>();
+        for (int size = level.length; size > 1; size /= 2) {
+            for (int i = 0; i < size / 2; i++) {
+                level[i] = new BinaryOperationNode("+", level[2 * i], level[2 * i + 1]);
+            }
+        }
+        NodeProfiler probe = new NodeProfiler(level[0]);
+        for (Profiled node : probe.nodes) {
+            if (node.children.length == 0) {
+                leaves.add(node);
+            }
+        }
+        double[] rounds = new double[9];
+        try {
+            for (int round = 0; round < rounds.length; round++) {
+                probe.reset();
+                for (int i = 0; i < 20 * probe.nodes.length * Profiled.RESERVOIR; i++) {
+                    probe.evaluate();
+                }
+                double sum = 0;
+                for (Profiled leaf : leaves) {
+                    sum += leaf.typicalNanos();
+                }
+                rounds[round] = sum / leaves.size();
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        Arrays.sort(rounds);
+        result = rounds[rounds.length / 2];
+        calibration = result;
+        return result;
+    }
+}
@@ -0,0 +1,198 @@
+package domine.render;
+
+import domine.ast.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.List;
+
+/**
+ * Base de los renderizadores del AST: recorre el árbol en profundidad con una pila
+ * explícita (sin recursión, así que no hay StackOverflowError con árboles muy altos) y
+ * escribe cada nodo en un Appendable a medida que lo visita, sin construir el texto
+ * completo en memoria. Escribiendo a un Writer sobre un archivo o la consola, la memoria
+ * usada no depende del tamaño del árbol.
+ *
+ * Límites (por omisión sin límite):
+ * - maxNodes: nodos que se escriben; los subárboles que quedan se resumen con su tamaño
+ * - maxDepth: niveles que se escriben (la raíz es el nivel 0); los subárboles más profundos
+ *             se resumen con su tamaño
+ *
+ * Las subclases deciden el formato: {@link TreeRenderer} (texto, el de toTreeString),
+ * {@link JsonRenderer} y {@link DotRenderer} (Graphviz). No guardan estado entre llamadas:
+ * una instancia puede usarse desde varios hilos si no se cambian sus límites.
+ */
+@Getter
+@Setter
+public abstract class AstRenderer {
+    private int maxNodes = Integer.MAX_VALUE;
+    private int maxDepth = Integer.MAX_VALUE;
+
+    /**
+     * Escribe el árbol en el destino.
+     */
+    public void render(ASTNode root, Appendable out) throws IOException {
+        walk(root, start(out));
+    }
+
+    /**
+     * Recorre el árbol respetando los límites y le pasa cada nodo al recorrido.
+     */
+    protected final void walk(ASTNode root, Walk walk) throws IOException {
+        walk.begin(root);
+        ArrayDeque<Frame> stack = new ArrayDeque<>();
+        int written = 0;
+        if (maxNodes <= 0 || maxDepth <= 0) {
+            walk.elide(root, 0, 0, true);
+        } else {
+            written++;
+            if (open(walk, root, 0, 0, true)) {
+                stack.push(new Frame(root, 0));
+            }
+        }
+        while (!stack.isEmpty()) {
+            Frame frame = stack.peek();
+            if (frame.next == frame.children.size()) {
+                stack.pop();
+                walk.leave(frame.node, frame.depth);
+                continue;
+            }
+            int index = frame.next++;
+            ASTNode child = frame.children.get(index);
+            boolean last = frame.next == frame.children.size();
+            int depth = frame.depth + 1;
+            if (written >= maxNodes || depth >= maxDepth) {
+                walk.elide(child, depth, index, last);
+            } else {
+                written++;
+                if (open(walk, child, depth, index, last)) {
+                    stack.push(new Frame(child, depth));
+                }
+            }
+        }
+        walk.end();
+    }
+
+    /**
+     * El árbol como texto (para árboles pequeños; para los grandes, render con un Writer).
+     */
+    public String render(ASTNode root) {
+        StringBuilder sb = new StringBuilder();
+        try {
+            render(root, sb);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // StringBuilder no lanza IOException
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Estado de un recorrido; se crea uno por llamada a render.
+     */
+    protected abstract Walk start(Appendable out);
+
+    /**
+     * @return true si el nodo tiene hijos (queda abierto hasta leave)
+     */
+    private static boolean open(Walk walk, ASTNode node, int depth, int index, boolean last) throws IOException {
+        walk.enter(node, depth, index, last);
+        if (children(node).isEmpty()) {
+            walk.leave(node, depth);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Etiqueta de un nodo, la misma que usa toTreeString: "BinaryOp(+)", "FunctionNode(sin)", ...
+     */
+    public static String label(ASTNode node) {
+        if (node instanceof NumberNode) {
+            return "NumberNode(" + ((NumberNode) node).getValue() + ")";
+        } else if (node instanceof VariableNode) {
+            return "VariableNode(" + ((VariableNode) node).getName() + ")";
+        } else if (node instanceof LocalVariableNode) {
+            return "LocalVariableNode(" + ((LocalVariableNode) node).getBinding().getName() + ")";
+        } else if (node instanceof LetNode) {
+            return "LetNode(" + ((LetNode) node).getBinding().getName() + ")";
+        } else if (node instanceof BinaryOperationNode) {
+            return "BinaryOp(" + ((BinaryOperationNode) node).getOperator() + ")";
+        } else if (node instanceof FunctionNode) {
+            return "FunctionNode(" + ((FunctionNode) node).getFunctionName() + ")";
+        }
+        return node.getClass().getSimpleName();
+    }
+
+    /**
+     * Texto de un subárbol omitido: "… (1 nodo)", "… (25 nodos)".
+     */
+    static String elided(ASTNode node) {
+        int count = node.getNodeCount();
+        return "… (" + count + (count == 1 ? " nodo)" : " nodos)");
+    }
+
+    /**
+     * Hijos de un nodo en el orden en que se escriben (el valor de un LetNode antes que su cuerpo).
+     */
+    static List<ASTNode> children(ASTNode node) {
+        if (node instanceof BinaryOperationNode) {
+            BinaryOperationNode binOp = (BinaryOperationNode) node;
+            return List.of(binOp.getLeft(), binOp.getRight());
+        } else if (node instanceof FunctionNode) {
+            return ((FunctionNode) node).getArguments();
+        } else if (node instanceof LetNode) {
+            LetNode letNode = (LetNode) node;
+            return List.of(letNode.getBinding().getValue(), letNode.getBody());
+        }
+        return List.of();
+    }
+
+    /**
+     * Escribe un recorrido. Los nodos llegan en preorden; cada nodo recibe enter y, después
+     * de sus hijos, leave. Un subárbol que no se escribe por los límites recibe solo elide.
+     */
+    protected abstract static class Walk {
+        protected final Appendable out;
+
+        protected Walk(Appendable out) {
+            this.out = out;
+        }
+
+        protected void begin(ASTNode root) throws IOException {
+        }
+
+        /**
+         * @param depth Nivel del nodo (la raíz es 0)
+         * @param index Posición del nodo entre sus hermanos
+         * @param last Si es el último de sus hermanos
+         */
+        protected abstract void enter(ASTNode node, int depth, int index, boolean last) throws IOException;
+
+        protected void leave(ASTNode node, int depth) throws IOException {
+        }
+
+        /**
+         * Subárbol omitido; node.getNodeCount() es la cantidad de nodos que no se escriben.
+         */
+        protected abstract void elide(ASTNode node, int depth, int index, boolean last) throws IOException;
+
+        protected void end() throws IOException {
+        }
+    }
+
+    private static final class Frame {
+        private final ASTNode node;
+        private final List<ASTNode> children;
+        private final int depth;
+        private int next;
+
+        private Frame(ASTNode node, int depth) {
+            this.node = node;
+            this.children = children(node);
+            this.depth = depth;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package domine.render;
+
+import domine.ast.ASTNode;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * El AST en formato DOT de Graphviz (dot -Tsvg ast.dot -o ast.svg):
+ *
+ *   digraph AST {
+ *     node [shape=box, fontname="monospace"];
+ *     n0 [label="BinaryOp(+)"];
+ *     n1 [label="NumberNode(2.0)"];
+ *     n0 -> n1;
+ *     ...
+ *   }
+ *
+ * Los nodos se numeran en preorden; los subárboles omitidos por los límites aparecen como
+ * un nodo punteado "… (N nodos)".
+ */
+public class DotRenderer extends AstRenderer {
+
+    @Override
+    protected Walk start(Appendable out) {
+        return new DotWalk(out);
+    }
+
+    private static final class DotWalk extends Walk {
+        private int[] parents = new int[16]; // Número del último nodo abierto en cada nivel
+        private int next;
+
+        private DotWalk(Appendable out) {
+            super(out);
+        }
+
+        @Override
+        protected void begin(ASTNode root) throws IOException {
+            out.append("digraph AST {\n  node [shape=box, fontname=\"monospace\"];\n");
+        }
+
+        @Override
+        protected void enter(ASTNode node, int depth, int index, boolean last) throws IOException {
+            int id = node(depth);
+            out.append("  n").append(Integer.toString(id)).append(" [label=");
+            JsonRenderer.string(out, label(node)).append("];\n");
+            edge(depth, id);
+        }
+
+        @Override
+        protected void elide(ASTNode node, int depth, int index, boolean last) throws IOException {
+            int id = node(depth);
+            out.append("  n").append(Integer.toString(id)).append(" [label=");
+            JsonRenderer.string(out, elided(node)).append(", style=dashed];\n");
+            edge(depth, id);
+        }
+
+        @Override
+        protected void end() throws IOException {
+            out.append("}\n");
+        }
+
+        private int node(int depth) {
+            if (depth == parents.length) {
+                parents = Arrays.copyOf(parents, depth * 2);
+            }
+            parents[depth] = next;
+            return next++;
+        }
+
+        private void edge(int depth, int id) throws IOException {
+            if (depth > 0) {
+                out.append("  n").append(Integer.toString(parents[depth - 1]))
+                        .append(" -> n").append(Integer.toString(id)).append(";\n");
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package domine.render;
+
+import domine.ast.*;
+
+import java.io.IOException;
+
+/**
+ * El AST como JSON compacto (una línea, sin espacios), para herramientas:
+ *
+ *   "2 + sin(x)" -> {"op":"+","args":[{"num":2.0},{"fn":"sin","args":[{"var":"x"}]}]}
+ *
+ * Nodos:
+ * - {"num":2.0}                          NumberNode
+ * - {"var":"x"}                          VariableNode
+ * - {"op":"+","args":[izq,der]}          BinaryOperationNode
+ * - {"fn":"atan2","args":[...]}          FunctionNode
+ * - {"let":"u","args":[valor,cuerpo]}    LetNode
+ * - {"local":"u"}                        LocalVariableNode
+ * - {"elided":N}                         subárbol de N nodos omitido por los límites
+ *
+ * Con límites el resultado sigue siendo JSON válido: cada subárbol omitido ocupa su lugar.
+ */
+public class JsonRenderer extends AstRenderer {
+
+    @Override
+    protected Walk start(Appendable out) {
+        return new JsonWalk(out);
+    }
+
+    private static final class JsonWalk extends Walk {
+
+        private JsonWalk(Appendable out) {
+            super(out);
+        }
+
+        @Override
+        protected void enter(ASTNode node, int depth, int index, boolean last) throws IOException {
+            if (index > 0) {
+                out.append(',');
+            }
+            if (node instanceof NumberNode) {
+                out.append("{\"num\":").append(Double.toString(((NumberNode) node).getValue())).append('}');
+            } else if (node instanceof VariableNode) {
+                field("var", ((VariableNode) node).getName()).append('}');
+            } else if (node instanceof LocalVariableNode) {
+                field("local", ((LocalVariableNode) node).getBinding().getName()).append('}');
+            } else if (node instanceof BinaryOperationNode) {
+                field("op", ((BinaryOperationNode) node).getOperator()).append(",\"args\":[");
+            } else if (node instanceof FunctionNode) {
+                field("fn", ((FunctionNode) node).getFunctionName()).append(",\"args\":[");
+            } else if (node instanceof LetNode) {
+                field("let", ((LetNode) node).getBinding().getName()).append(",\"args\":[");
+            } else {
+                field("node", node.getClass().getSimpleName()).append('}');
+            }
+        }
+
+        @Override
+        protected void leave(ASTNode node, int depth) throws IOException {
+            if (!children(node).isEmpty()) {
+                out.append("]}");
+            }
+        }
+
+        @Override
+        protected void elide(ASTNode node, int depth, int index, boolean last) throws IOException {
+            if (index > 0) {
+                out.append(',');
+            }
+            out.append("{\"elided\":").append(Integer.toString(node.getNodeCount())).append('}');
+        }
+
+        /**
+         * Escribe {"clave":"valor" (sin cerrar el objeto).
+         */
+        private Appendable field(String key, String value) throws IOException {
+            out.append("{\"").append(key).append("\":");
+            return string(out, value);
+        }
+    }
+
+    /**
+     * Escribe una cadena JSON con comillas y escapes.
+     */
+    static Appendable string(Appendable out, String value) throws IOException {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.append('\\').append(c);
+            } else if (c < 0x20) {
+                out.append(String.format("\\u%04x", (int) c));
+            } else {
+                out.append(c);
+            }
+        }
+        return out.append('"');
+    }
+}
@@ -0,0 +1,53 @@
+package domine.render;
+
+import domine.Token;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * La lista de tokens escrita directamente en un Appendable, como texto (el formato de
+ * Message.showTokens) o como JSON compacto. Con maxTokens se escriben solo los primeros y
+ * el resto se resume con su cantidad.
+ */
+@Getter
+@Setter
+public class TokenRenderer {
+    private int maxTokens = Integer.MAX_VALUE;
+
+    /**
+     * Una línea por token: "  NUMBER : 2".
+     */
+    public void renderText(List<Token> tokens, Appendable out) throws IOException {
+        int shown = Math.min(tokens.size(), maxTokens);
+        for (int i = 0; i < shown; i++) {
+            Token token = tokens.get(i);
+            out.append("  ").append(String.valueOf(token.getTokenType())).append(" : ")
+                    .append(token.getLexeme()).append('\n');
+        }
+        if (shown < tokens.size()) {
+            out.append("  … (").append(Integer.toString(tokens.size() - shown)).append(" tokens más)\n");
+        }
+    }
+
+    /**
+     * [{"type":"NUMBER","lexeme":"2"},...], con {"elided":N} al final si se omitieron tokens.
+     */
+    public void renderJson(List<Token> tokens, Appendable out) throws IOException {
+        int shown = Math.min(tokens.size(), maxTokens);
+        out.append('[');
+        for (int i = 0; i < shown; i++) {
+            Token token = tokens.get(i);
+            out.append(i > 0 ? ",{\"type\":" : "{\"type\":");
+            JsonRenderer.string(out, String.valueOf(token.getTokenType())).append(",\"lexeme\":");
+            JsonRenderer.string(out, token.getLexeme()).append('}');
+        }
+        if (shown < tokens.size()) {
+            out.append(shown > 0 ? "," : "").append("{\"elided\":")
+                    .append(Integer.toString(tokens.size() - shown)).append('}');
+        }
+        out.append(']');
+    }
+}
@@ -0,0 +1,99 @@
+package domine.render;
+
+import domine.ast.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * El AST como texto, con el formato de ASTNode.toTreeString():
+ *
+ *   BinaryOp(+)
+ *     ├─ NumberNode(2.0)
+ *     └─ FunctionNode(sin)
+ *     └─   └─ VariableNode(x)
+ *
+ * La sangría de un nodo es la de su padre más "  ├─ " o "  └─ "; en lugar de crear una
+ * cadena por nivel, se guarda en un único búfer que se recorta al volver a un nivel
+ * anterior. Cada línea se escribe directamente en el destino (sin salto de línea al final
+ * del árbol, como toTreeString). Los subárboles omitidos por los límites se escriben como
+ * "… (N nodos)".
+ */
+public class TreeRenderer extends AstRenderer {
+    private static final String MIDDLE = "  ├─ ";
+    private static final String LAST = "  └─ ";
+
+    /**
+     * Como render(root), con una sangría inicial antes de cada línea.
+     */
+    public String render(ASTNode root, String indent) {
+        StringBuilder sb = new StringBuilder();
+        try {
+            render(root, indent, sb);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // StringBuilder no lanza IOException
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Como render(root, out), con una sangría inicial antes de cada línea.
+     */
+    public void render(ASTNode root, String indent, Appendable out) throws IOException {
+        walk(root, new TextWalk(out, indent));
+    }
+
+    @Override
+    protected Walk start(Appendable out) {
+        return new TextWalk(out, "");
+    }
+
+    private static final class TextWalk extends Walk {
+        private final StringBuilder indent = new StringBuilder();
+        private final int base;
+        private boolean first = true;
+
+        private TextWalk(Appendable out, String initial) {
+            super(out);
+            indent.append(initial);
+            base = initial.length();
+        }
+
+        @Override
+        protected void enter(ASTNode node, int depth, int index, boolean last) throws IOException {
+            line(depth, last);
+            if (node instanceof NumberNode) {
+                out.append("NumberNode(").append(Double.toString(((NumberNode) node).getValue())).append(')');
+            } else if (node instanceof VariableNode) {
+                out.append("VariableNode(").append(((VariableNode) node).getName()).append(')');
+            } else if (node instanceof BinaryOperationNode) {
+                out.append("BinaryOp(").append(((BinaryOperationNode) node).getOperator()).append(')');
+            } else if (node instanceof FunctionNode) {
+                out.append("FunctionNode(").append(((FunctionNode) node).getFunctionName()).append(')');
+            } else {
+                out.append(label(node));
+            }
+        }
+
+        @Override
+        protected void elide(ASTNode node, int depth, int index, boolean last) throws IOException {
+            line(depth, last);
+            out.append(elided(node));
+        }
+
+        /**
+         * Empieza la línea de un nodo: salto de línea y sangría de su nivel.
+         */
+        private void line(int depth, boolean last) throws IOException {
+            if (!first) {
+                out.append('\n');
+            }
+            first = false;
+            if (depth > 0) {
+                indent.setLength(base + MIDDLE.length() * (depth - 1)); // La sangría del padre
+                indent.append(last ? LAST : MIDDLE);
+            }
+            out.append(indent);
+        }
+    }
+}
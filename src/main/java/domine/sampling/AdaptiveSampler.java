@@ -0,0 +1,237 @@
+package domine.sampling;
+
+import domine.compiler.CompiledExpression;
+import domine.compiler.UnivariateFunction;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Muestreo adaptativo de una expresión de una variable para graficarla.
+ *
+ * ========== ALGORITMO ==========
+ * 1. Se evalúa una malla gruesa de segmentos sobre el rango.
+ * 2. Cada segmento se refina de forma recursiva: se evalúan su punto medio y sus
+ *    cuartos y, si todos distan de la recta entre los extremos menos que la tolerancia
+ *    vertical, el segmento se considera plano y solo se conserva su extremo. Si no, se
+ *    divide en dos mitades (los cuartos pasan a ser sus puntos medios). Con una sola
+ *    muestra interior, una curva en S centrada en el segmento parecería plana.
+ * 3. La subdivisión se detiene cuando los cuartos están a un píxel de distancia. Si
+ *    entre dos de ellos hay un salto grande que no es continuo (asíntota de tan,
+ *    división por cero) o la expresión deja de estar definida, se emite una ruptura
+ *    (y = NaN).
+ *
+ * La tolerancia vertical es el rango de valores de la malla gruesa (percentiles 5 a 95,
+ * para que los valores cercanos a un polo no la inflen) dividido entre el número de
+ * píxeles. Como no se emiten puntos a menos de un píxel de distancia, se entregan como
+ * máximo pixelBudget + 1 puntos más una ruptura por discontinuidad.
+ *
+ * Los segmentos de la malla gruesa se refinan en paralelo; los puntos se entregan al
+ * consumidor en orden de x a medida que los segmentos se completan.
+ */
+public class AdaptiveSampler {
+    private static final int INITIAL_SEGMENTS = 16; // Mínimo de segmentos de la malla gruesa
+    private static final double JUMP_FRACTION = 0.25; // Salto mínimo en un píxel (fracción del rango) para cortar la curva
+
+    private final UnivariateFunction function;
+
+    /**
+     * @param expression Expresión compilada
+     * @param variable Variable del eje x
+     * @param others Valores fijos del resto de variables de la expresión
+     * @throws Exception Si falta el valor de alguna otra variable
+     */
+    public AdaptiveSampler(CompiledExpression expression, String variable, Map<String, Double> others)
+            throws Exception {
+        this.function = new UnivariateFunction(expression, variable, others);
+    }
+
+    /**
+     * Muestrea la expresión en [from, to].
+     *
+     * @param from Inicio del rango
+     * @param to Fin del rango
+     * @param pixelBudget Ancho en píxeles de la gráfica (resolución horizontal máxima)
+     * @param consumer Destino de los puntos, en orden creciente de x
+     * @return Estadísticas del muestreo
+     */
+    public SamplingStatistics sample(double from, double to, int pixelBudget, PointConsumer consumer) {
+        if (!(from < to) || Double.isInfinite(from) || Double.isInfinite(to)) {
+            throw new IllegalArgumentException("Rango inválido: [" + from + ", " + to + "]");
+        }
+        if (pixelBudget < 4) {
+            throw new IllegalArgumentException("Se requieren al menos 4 píxeles: " + pixelBudget);
+        }
+
+        // Cada segmento final emite como máximo 4 puntos: segments·2^maxDepth·4 <= pixelBudget
+        int leaves = pixelBudget / 4;
+        int maxDepth = 31 - Integer.numberOfLeadingZeros(Math.max(1, leaves / INITIAL_SEGMENTS));
+        int segments = leaves >> maxDepth;
+
+        double[] xs = new double[segments + 1];
+        double[] ys = new double[segments + 1];
+        for (int i = 0; i <= segments; i++) {
+            xs[i] = i == segments ? to : from + (to - from) * i / segments;
+            ys[i] = valueAt(xs[i]);
+        }
+        double span = robustSpan(ys);
+        Refinement refinement = new Refinement(span / pixelBudget, span * JUMP_FRACTION, maxDepth);
+
+        consumer.accept(xs[0], ys[0]);
+        long[] totals = {segments + 1, 1, 0}; // evaluaciones, puntos, discontinuidades
+        IntStream.range(0, segments).parallel()
+                .mapToObj(i -> refinement.segment(xs[i], ys[i], xs[i + 1], ys[i + 1]))
+                .forEachOrdered(buffer -> {
+                    for (int k = 0; k < buffer.size; k += 2) {
+                        consumer.accept(buffer.data[k], buffer.data[k + 1]);
+                    }
+                    totals[0] += buffer.evaluations;
+                    totals[1] += buffer.size / 2;
+                    totals[2] += buffer.discontinuities;
+                });
+
+        return new SamplingStatistics(totals[0], totals[1], totals[2], pixelBudget + 1);
+    }
+
+    /**
+     * Valor de la expresión en x; NaN si no está definida o no es finita.
+     */
+    private double valueAt(double x) {
+        double y = function.valueAt(x);
+        return Double.isInfinite(y) ? Double.NaN : y;
+    }
+
+    /**
+     * Rango de los valores finitos entre los percentiles 5 y 95.
+     */
+    private static double robustSpan(double[] ys) {
+        double[] finite = Arrays.stream(ys).filter(y -> !Double.isNaN(y)).sorted().toArray();
+        if (finite.length == 0) {
+            return 1;
+        }
+        double low = finite[(int) (0.05 * (finite.length - 1))];
+        double high = finite[(int) Math.ceil(0.95 * (finite.length - 1))];
+        double scale = Math.max(1, Math.abs(finite[finite.length / 2]));
+        return Math.max(high - low, 1e-9 * scale); // Función (casi) constante
+    }
+
+    /**
+     * Parámetros de refinamiento compartidos por todos los segmentos.
+     */
+    private final class Refinement {
+        private final double tolerance;
+        private final double jump;
+        private final int maxDepth;
+
+        Refinement(double tolerance, double jump, int maxDepth) {
+            this.tolerance = tolerance;
+            this.jump = jump;
+            this.maxDepth = maxDepth;
+        }
+
+        PointBuffer segment(double a, double fa, double b, double fb) {
+            PointBuffer buffer = new PointBuffer();
+            double m = 0.5 * (a + b);
+            double fm = valueAt(m);
+            buffer.evaluations++;
+            refine(a, fa, m, fm, b, fb, 0, buffer);
+            return buffer;
+        }
+
+        /**
+         * Refina [a, b] (con su punto medio m ya evaluado) y agrega al buffer los puntos
+         * de (a, b] en orden. Los cuartos se evalúan para la prueba de planitud y se
+         * reutilizan como puntos medios de las mitades si hay que subdividir.
+         */
+        private void refine(double a, double fa, double m, double fm, double b, double fb,
+                            int depth, PointBuffer buffer) {
+            double q1 = 0.5 * (a + m);
+            double q3 = 0.5 * (m + b);
+            double fq1 = valueAt(q1);
+            double fq3 = valueAt(q3);
+            buffer.evaluations += 2;
+
+            if (isUndefined(fa, fq1, fm, fq3, fb)
+                    || (isNear(fq1, 0.75 * fa + 0.25 * fb) && isNear(fm, 0.5 * (fa + fb))
+                    && isNear(fq3, 0.25 * fa + 0.75 * fb))) {
+                buffer.add(b, fb);
+                return;
+            }
+            if (depth == maxDepth) {
+                // Resolución máxima: se emiten los cuatro puntos, separados al menos un píxel
+                emit(a, fa, q1, fq1, buffer);
+                emit(q1, fq1, m, fm, buffer);
+                emit(m, fm, q3, fq3, buffer);
+                emit(q3, fq3, b, fb, buffer);
+                return;
+            }
+            refine(a, fa, q1, fq1, m, fm, depth + 1, buffer);
+            refine(m, fm, q3, fq3, b, fb, depth + 1, buffer);
+        }
+
+        /**
+         * Agrega (b, fb), precedido de una ruptura si la curva no es continua entre a y b.
+         */
+        private void emit(double a, double fa, double b, double fb, PointBuffer buffer) {
+            if (isBreak(a, fa, b, fb, buffer)) {
+                buffer.add(0.5 * (a + b), Double.NaN);
+                buffer.discontinuities++;
+            }
+            buffer.add(b, fb);
+        }
+
+        /**
+         * Un valor a menos de la tolerancia de la recta (falso si alguno es NaN).
+         */
+        private boolean isNear(double value, double linear) {
+            return Math.abs(value - linear) <= tolerance;
+        }
+
+        private boolean isUndefined(double... values) {
+            for (double value : values) {
+                if (!Double.isNaN(value)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Ruptura entre a y b: la expresión no está definida en solo uno de los extremos,
+         * o hay un salto grande que el punto medio no acompaña (en un tramo continuo pero
+         * empinado el punto medio queda entre ambos valores; junto a un polo cae fuera).
+         */
+        private boolean isBreak(double a, double fa, double b, double fb, PointBuffer buffer) {
+            if (Double.isNaN(fa) != Double.isNaN(fb)) {
+                return true;
+            }
+            double low = Math.min(fa, fb);
+            double high = Math.max(fa, fb);
+            if (!(high - low > jump)) {
+                return false;
+            }
+            double fm = valueAt(0.5 * (a + b));
+            buffer.evaluations++;
+            return !(low <= fm && fm <= high);
+        }
+    }
+
+    /**
+     * Puntos de un segmento de la malla gruesa como pares (x, y) consecutivos.
+     */
+    private static final class PointBuffer {
+        private double[] data = new double[32];
+        private int size;
+        private long evaluations;
+        private long discontinuities;
+
+        void add(double x, double y) {
+            if (size + 2 > data.length) {
+                data = Arrays.copyOf(data, data.length * 2);
+            }
+            data[size++] = x;
+            data[size++] = y;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package domine.sampling;
+
+/**
+ * Destino de los puntos (x, y) producidos por {@link AdaptiveSampler}, en orden creciente de x.
+ *
+ * Un valor y = NaN indica que la curva no debe unirse con el punto anterior
+ * (la expresión no está definida o hay una discontinuidad, como una asíntota de tan).
+ */
+@FunctionalInterface
+public interface PointConsumer {
+    void accept(double x, double y);
+}
@@ -0,0 +1,27 @@
+package domine.sampling;
+
+import lombok.Getter;
+
+/**
+ * Estadísticas de un muestreo adaptativo.
+ */
+@Getter
+public class SamplingStatistics {
+    private final long evaluations;        // Evaluaciones de la expresión realizadas
+    private final long points;             // Puntos entregados al consumidor (incluidas las rupturas)
+    private final long discontinuities;    // Rupturas detectadas (puntos con y = NaN insertados)
+    private final long uniformEvaluations; // Evaluaciones de una malla uniforme de un punto por píxel
+
+    public SamplingStatistics(long evaluations, long points, long discontinuities, long uniformEvaluations) {
+        this.evaluations = evaluations;
+        this.points = points;
+        this.discontinuities = discontinuities;
+        this.uniformEvaluations = uniformEvaluations;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Evaluaciones: %d (malla uniforme: %d), puntos: %d, discontinuidades: %d",
+                evaluations, uniformEvaluations, points, discontinuities);
+    }
+}
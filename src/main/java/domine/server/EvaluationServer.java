@@ -0,0 +1,403 @@
+package domine.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import domine.compiler.CompiledExpression;
+import domine.compiler.ExpressionCache;
+import domine.limits.EvaluationBudget;
+import domine.limits.LimitExceededException;
+import domine.limits.ResourceLimits;
+import domine.metrics.PipelineMetrics;
+import domine.solver.RootFinder;
+import domine.solver.RootResult;
+import resources.json.Json;
+import resources.message.ExpectedMessage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Servidor HTTP embebido para evaluar expresiones (basado en com.sun.net.httpserver).
+ *
+ * Cada petición se atiende en su propio hilo virtual cuando la JVM lo soporta (Java 21+);
+ * en versiones anteriores se usa un pool de hilos de plataforma. Las expresiones se
+ * analizan y compilan una sola vez y se reutilizan entre peticiones mediante
+ * {@link ExpressionCache}.
+ *
+ * ========== PROTOCOLO (POST /evaluate) ==========
+ * Evaluación simple:
+ *   {"expression": "sin(x) + 1", "variables": {"x": 0.5}}
+ *   -> {"result": 1.479425538604203}
+ *
+ * Una expresión con varios juegos de variables:
+ *   {"expression": "1 / x", "bindings": [{"x": 2}, {"x": 0}]}
+ *   -> {"results": [{"result": 0.5}, {"error": {"stage": "evaluation", "message": "División por cero"}}]}
+ *
+ * Lote de expresiones independientes:
+ *   {"requests": [{"expression": "2^3"}, {"expression": "sin(", "variables": {}}]}
+ *   -> {"results": [{"result": 8.0}, {"error": {"stage": "parse", "message": "..."}}]}
+ *
+ * ========== PROTOCOLO (POST /solve) ==========
+ * Todas las soluciones de f(x) = target en [from, to] (ver {@link RootFinder}):
+ *   {"expression": "sin(x) + cos(2*x)", "variable": "x", "target": 0.3, "from": -10, "to": 10}
+ *   -> {"roots": [-9.02..., ...], "evaluations": 1400, "discontinuities": 0}
+ * Campos opcionales: "variables" (resto de variables) y "segments" (malla de acotación).
+ *
+ * Los errores usan los textos de ExpectedMessage. La etapa ("stage") indica dónde
+ * se produjeron: "request" (JSON o campos inválidos), "admission" (se superó un
+ * límite de {@link ResourceLimits}; el campo "limit" indica cuál), "parse" (análisis
+ * léxico o sintáctico) o "evaluation".
+ *
+ * Los límites de análisis se aplican a través de la caché; los de evaluación (pasos y
+ * tiempo) se cuentan por petición completa, sumando todos los elementos de un lote, y se
+ * cobran a medida que se evalúa (por tramos de "bindings" y por refinamiento en /solve),
+ * de modo que el límite de tiempo también corta un lote en curso.
+ */
+public class EvaluationServer {
+    public static final String PATH = "/evaluate";
+    public static final String SOLVE_PATH = "/solve";
+    private static final int DEFAULT_PORT = 8080;
+    private static final int DEFAULT_CACHE_CAPACITY = 10_000;
+    private static final int MAX_SOLVE_SEGMENTS = 1 << 16; // Acota la memoria de la malla de /solve
+    private static final int BINDINGS_CHUNK = 64; // Filas de "bindings" que se cobran juntas al presupuesto
+    private static final int BACKLOG = 1024; // Conexiones pendientes antes de rechazar (el valor del SO suele ser 50)
+
+    static {
+        // Sin TCP_NODELAY, el algoritmo de Nagle y el ACK retardado añaden ~40 ms a cada respuesta
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final ExpressionCache cache;
+
+    public EvaluationServer(int port, ExpressionCache cache) throws IOException {
+        this.cache = cache;
+        this.executor = newRequestExecutor();
+        this.server = HttpServer.create(new InetSocketAddress(port), BACKLOG);
+        this.server.createContext(PATH, this::handle);
+        this.server.createContext(SOLVE_PATH, this::handle);
+        this.server.setExecutor(executor);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    /** Puerto real en el que escucha el servidor (útil si se creó con el puerto 0) */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public ExpressionCache getCache() {
+        return cache;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        EvaluationServer server = new EvaluationServer(port,
+                new ExpressionCache(DEFAULT_CACHE_CAPACITY, ResourceLimits.defaults()));
+        server.start();
+        PipelineMetrics.registerMBean(); // Se activan con -Ddomine.metrics=true o por JMX (atributo Enabled)
+        System.out.println("Servidor de evaluación escuchando en http://localhost:" + server.getPort() + PATH);
+    }
+
+    /**
+     * Crea un ejecutor con un hilo virtual por tarea si la JVM lo soporta.
+     * Se resuelve por reflexión para poder compilar y ejecutar también en Java 17.
+     */
+    private static ExecutorService newRequestExecutor() {
+        try {
+            return (ExecutorService) MethodHandles.publicLookup()
+                    .findStatic(Executors.class, "newVirtualThreadPerTaskExecutor",
+                            MethodType.methodType(ExecutorService.class))
+                    .invoke();
+        } catch (Throwable e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    // ========== Atención de peticiones ==========
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!"POST".equalsIgnoreCase(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().add("Allow", "POST");
+                respond(exchange, 405, errorBody("request",
+                        ExpectedMessage.methodNotAllowed(exchange.getRequestMethod())));
+                return;
+            }
+
+            int maxBytes = cache.getLimits().getMaxRequestBytes();
+            Object request;
+            try (InputStream body = exchange.getRequestBody()) {
+                // Se lee como máximo un byte más que el límite: basta para detectar el exceso
+                byte[] bytes = body.readNBytes(maxBytes == Integer.MAX_VALUE ? maxBytes : maxBytes + 1);
+                if (bytes.length > maxBytes) {
+                    respond(exchange, 413, admissionError(new LimitExceededException("maxRequestBytes", maxBytes)));
+                    return;
+                }
+                request = Json.parse(new String(bytes, StandardCharsets.UTF_8), cache.getLimits().getMaxJsonDepth());
+            } catch (IllegalArgumentException e) {
+                respond(exchange, 400, errorBody("request", ExpectedMessage.malformedRequest(e.getMessage())));
+                return;
+            }
+
+            if (!(request instanceof Map)) {
+                respond(exchange, 400, errorBody("request",
+                        ExpectedMessage.malformedRequest("se esperaba un objeto JSON")));
+                return;
+            }
+
+            Map<?, ?> object = (Map<?, ?>) request;
+            EvaluationBudget budget = new EvaluationBudget(cache.getLimits());
+            Map<String, Object> result;
+            if (SOLVE_PATH.equals(exchange.getHttpContext().getPath())) {
+                result = solve(object, budget);
+            } else if (object.containsKey("requests")) {
+                result = evaluateRequests(object.get("requests"), budget);
+            } else if (object.containsKey("bindings")) {
+                result = evaluateBindings(object, budget);
+            } else {
+                result = evaluateSingle(object, budget);
+            }
+            respond(exchange, statusOf(result), result);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private Map<String, Object> evaluateRequests(Object requests, EvaluationBudget budget) {
+        if (!(requests instanceof List)) {
+            return errorBody("request", ExpectedMessage.malformedRequest("'requests' debe ser un arreglo"));
+        }
+        List<Object> results = new ArrayList<>();
+        for (Object item : (List<?>) requests) {
+            if (item instanceof Map) {
+                results.add(evaluateSingle((Map<?, ?>) item, budget));
+            } else {
+                results.add(errorBody("request", ExpectedMessage.malformedRequest("se esperaba un objeto JSON")));
+            }
+        }
+        return resultsBody(results);
+    }
+
+    private Map<String, Object> evaluateBindings(Map<?, ?> request, EvaluationBudget budget) {
+        Object expression = request.get("expression");
+        Object bindings = request.get("bindings");
+        if (!(expression instanceof String)) {
+            return errorBody("request", ExpectedMessage.missingField("expression"));
+        }
+        if (!(bindings instanceof List)) {
+            return errorBody("request", ExpectedMessage.malformedRequest("'bindings' debe ser un arreglo"));
+        }
+
+        CompiledExpression compiled;
+        try {
+            compiled = cache.get((String) expression);
+        } catch (LimitExceededException e) {
+            return admissionError(e);
+        } catch (Exception e) {
+            return errorBody("parse", e.getMessage());
+        }
+
+        List<?> rows = (List<?>) bindings;
+        List<Object> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < rows.size(); i++) {
+                if (i % BINDINGS_CHUNK == 0) {
+                    // Se cobra por tramos para comprobar el límite de tiempo mientras se evalúa el lote
+                    budget.charge((long) compiled.getCode().length * Math.min(BINDINGS_CHUNK, rows.size() - i));
+                }
+                results.add(evaluate(compiled, rows.get(i)));
+            }
+        } catch (LimitExceededException e) {
+            return admissionError(e);
+        }
+        return resultsBody(results);
+    }
+
+    private Map<String, Object> evaluateSingle(Map<?, ?> request, EvaluationBudget budget) {
+        Object expression = request.get("expression");
+        if (!(expression instanceof String)) {
+            return errorBody("request", ExpectedMessage.missingField("expression"));
+        }
+
+        CompiledExpression compiled;
+        try {
+            compiled = cache.get((String) expression);
+            budget.charge(compiled.getCode().length);
+        } catch (LimitExceededException e) {
+            return admissionError(e);
+        } catch (Exception e) {
+            return errorBody("parse", e.getMessage());
+        }
+        return evaluate(compiled, request.get("variables"));
+    }
+
+    private Map<String, Object> evaluate(CompiledExpression compiled, Object variables) {
+        Map<String, Double> values;
+        try {
+            values = numericValues(variables);
+        } catch (IllegalArgumentException e) {
+            return errorBody("request", ExpectedMessage.malformedRequest(e.getMessage()));
+        }
+
+        try {
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("result", compiled.evaluate(values));
+            return body;
+        } catch (Exception e) {
+            return errorBody("evaluation", e.getMessage());
+        }
+    }
+
+    private Map<String, Object> solve(Map<?, ?> request, EvaluationBudget budget) {
+        Object expression = request.get("expression");
+        Object variable = request.get("variable");
+        if (!(expression instanceof String)) {
+            return errorBody("request", ExpectedMessage.missingField("expression"));
+        }
+        if (!(variable instanceof String)) {
+            return errorBody("request", ExpectedMessage.missingField("variable"));
+        }
+        for (String field : new String[]{"from", "to"}) {
+            if (!(request.get(field) instanceof Number)) {
+                return errorBody("request", ExpectedMessage.missingField(field));
+            }
+        }
+        Object target = request.get("target");
+        Object segments = request.get("segments");
+        if ((target != null && !(target instanceof Number)) || (segments != null && !(segments instanceof Number))) {
+            return errorBody("request", ExpectedMessage.malformedRequest("'target' y 'segments' deben ser numéricos"));
+        }
+        int segmentCount = segments == null ? RootFinder.DEFAULT_SEGMENTS : ((Number) segments).intValue();
+        if (segmentCount < 1 || segmentCount > MAX_SOLVE_SEGMENTS) {
+            return errorBody("request", ExpectedMessage.malformedRequest(
+                    "'segments' debe estar entre 1 y " + MAX_SOLVE_SEGMENTS));
+        }
+
+        Map<String, Double> values;
+        try {
+            values = numericValues(request.get("variables"));
+        } catch (IllegalArgumentException e) {
+            return errorBody("request", ExpectedMessage.malformedRequest(e.getMessage()));
+        }
+
+        CompiledExpression compiled;
+        try {
+            compiled = cache.get((String) expression);
+        } catch (LimitExceededException e) {
+            return admissionError(e);
+        } catch (Exception e) {
+            return errorBody("parse", e.getMessage());
+        }
+
+        try {
+            RootResult solution = new RootFinder(compiled, (String) variable, values).solve(
+                    target == null ? 0 : ((Number) target).doubleValue(),
+                    ((Number) request.get("from")).doubleValue(), ((Number) request.get("to")).doubleValue(),
+                    segmentCount, 0, budget); // Cobra la malla y cada refinamiento
+
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("roots", new ArrayList<>(solution.getRoots()));
+            body.put("evaluations", solution.getEvaluations());
+            body.put("discontinuities", solution.getDiscontinuities());
+            return body;
+        } catch (LimitExceededException e) {
+            return admissionError(e);
+        } catch (IllegalArgumentException e) {
+            return errorBody("request", ExpectedMessage.malformedRequest(e.getMessage()));
+        } catch (Exception e) {
+            return errorBody("evaluation", e.getMessage());
+        }
+    }
+
+    /**
+     * Convierte el objeto JSON "variables" en un mapa de valores numéricos.
+     *
+     * @throws IllegalArgumentException Si no es un objeto o algún valor no es numérico
+     */
+    private static Map<String, Double> numericValues(Object variables) {
+        Map<String, Double> values = new HashMap<>();
+        if (variables instanceof Map) {
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) variables).entrySet()) {
+                if (!(entry.getValue() instanceof Number)) {
+                    throw new IllegalArgumentException("el valor de '" + entry.getKey() + "' no es numérico");
+                }
+                values.put(String.valueOf(entry.getKey()), ((Number) entry.getValue()).doubleValue());
+            }
+        } else if (variables != null) {
+            throw new IllegalArgumentException("'variables' debe ser un objeto");
+        }
+        return values;
+    }
+
+    // ========== Construcción de respuestas ==========
+
+    /**
+     * Código HTTP de la respuesta: 400 si la petición es inválida, 422 si la expresión
+     * no pudo analizarse o evaluarse y 200 en otro caso (incluidos los lotes, cuyos
+     * errores se informan elemento por elemento).
+     */
+    private static int statusOf(Map<String, Object> body) {
+        Object error = body.get("error");
+        if (error == null) {
+            return 200;
+        }
+        return "request".equals(((Map<?, ?>) error).get("stage")) ? 400 : 422;
+    }
+
+    private static Map<String, Object> admissionError(LimitExceededException e) {
+        Map<String, Object> error = new LinkedHashMap<>();
+        error.put("stage", "admission");
+        error.put("limit", e.getLimit());
+        error.put("message", e.getMessage());
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("error", error);
+        return body;
+    }
+
+    private static Map<String, Object> resultsBody(List<Object> results) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("results", results);
+        return body;
+    }
+
+    private static Map<String, Object> errorBody(String stage, String message) {
+        Map<String, Object> error = new LinkedHashMap<>();
+        error.put("stage", stage);
+        error.put("message", message);
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("error", error);
+        return body;
+    }
+
+    private static void respond(HttpExchange exchange, int status, Map<String, Object> body) throws IOException {
+        byte[] bytes = Json.write(body).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package domine.solver;
+
+import domine.compiler.CompiledExpression;
+import domine.compiler.UnivariateFunction;
+import domine.limits.EvaluationBudget;
+import domine.limits.LimitExceededException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Búsqueda de todas las soluciones de f(x) = c en un intervalo.
+ *
+ * ========== ALGORITMO ==========
+ * 1. Acotación: se evalúa g(x) = f(x) - c en una malla uniforme de segmentos (en paralelo)
+ *    y se registran los segmentos cuyos extremos tienen signos opuestos.
+ * 2. Refinamiento: cada segmento se refina en paralelo con el método de Brent, que combina
+ *    interpolación cuadrática inversa y secante con bisección como salvaguarda: converge
+ *    de forma superlineal y nunca sale del segmento.
+ * 3. Validación: un cambio de signo también se produce en un polo (tan(x) en π/2), donde
+ *    |g| crece a medida que el segmento se achica. Al converger se acepta la raíz si |g| no
+ *    supera al menor de los extremos del segmento o si queda en el ruido de redondeo de la
+ *    función (unos ulps de la mayor |f| de la malla, lo que cubre los extremos que ya caen a
+ *    un error de redondeo de una raíz); si no, se descarta como discontinuidad.
+ *
+ * Con un {@link EvaluationBudget} se cobran las evaluaciones de la malla antes de hacerlas y
+ * las de cada refinamiento al terminarlo; si el presupuesto se agota (en pasos o en tiempo)
+ * no se empiezan más refinamientos.
+ *
+ * Limitaciones: las raíces dobles (donde g toca el cero sin cambiar de signo) y los pares
+ * de raíces dentro de un mismo segmento de la malla no se detectan; se mitigan aumentando
+ * el número de segmentos.
+ */
+public class RootFinder {
+    public static final int DEFAULT_SEGMENTS = 1024;
+    private static final int MAX_ITERATIONS = 100;
+    private static final double EPSILON = Math.ulp(1.0);
+    private static final double NOISE_ULPS = 64;   // Residuo tolerado, en ulps de la escala de f
+
+    private final UnivariateFunction function;
+
+    /**
+     * @param expression Expresión compilada
+     * @param variable Incógnita
+     * @param others Valores fijos del resto de variables de la expresión
+     * @throws Exception Si falta el valor de alguna otra variable
+     */
+    public RootFinder(CompiledExpression expression, String variable, Map<String, Double> others)
+            throws Exception {
+        this.function = new UnivariateFunction(expression, variable, others);
+    }
+
+    public RootResult solve(double target, double from, double to) {
+        return solve(target, from, to, DEFAULT_SEGMENTS, 0);
+    }
+
+    /**
+     * @param target Valor c buscado en f(x) = c
+     * @param from Inicio del intervalo
+     * @param to Fin del intervalo
+     * @param segments Segmentos de la malla de acotación
+     * @param tolerance Tolerancia absoluta en x (0: precisión de máquina)
+     * @return Raíces en orden creciente y estadísticas
+     */
+    public RootResult solve(double target, double from, double to, int segments, double tolerance) {
+        try {
+            return solve(target, from, to, segments, tolerance, null);
+        } catch (LimitExceededException e) {
+            throw new IllegalStateException(e); // No ocurre: sin presupuesto no se cobra nada
+        }
+    }
+
+    /**
+     * Igual que {@link #solve(double, double, double, int, double)}, cobrando cada evaluación
+     * de la expresión al presupuesto (tantos pasos como instrucciones tiene).
+     *
+     * @param budget Presupuesto de la petición (null: sin límite)
+     * @throws LimitExceededException Si se agotan los pasos o el tiempo del presupuesto
+     */
+    public RootResult solve(double target, double from, double to, int segments, double tolerance,
+                            EvaluationBudget budget) throws LimitExceededException {
+        if (!(from < to) || Double.isInfinite(from) || Double.isInfinite(to)) {
+            throw new IllegalArgumentException("Intervalo inválido: [" + from + ", " + to + "]");
+        }
+        if (segments < 1) {
+            throw new IllegalArgumentException("El número de segmentos debe ser positivo: " + segments);
+        }
+
+        long cost = function.getExpression().getCode().length; // Pasos por evaluación
+        if (budget != null) {
+            budget.charge(cost * (segments + 1L));
+        }
+
+        double[] xs = new double[segments + 1];
+        double[] gs = new double[segments + 1];
+        IntStream.rangeClosed(0, segments).parallel().forEach(i -> {
+            xs[i] = i == segments ? to : from + (to - from) * i / segments;
+            gs[i] = function.valueAt(xs[i]) - target;
+        });
+
+        double scale = Math.abs(target);
+        List<Double> roots = new ArrayList<>();
+        List<Integer> brackets = new ArrayList<>();
+        for (int i = 0; i <= segments; i++) {
+            double value = Math.abs(gs[i] + target);
+            if (value > scale && !Double.isInfinite(value)) {
+                scale = value; // Falso con NaN
+            }
+            if (gs[i] == 0) {
+                roots.add(xs[i]); // Raíz exacta en un punto de la malla
+            } else if (i < segments && gs[i] * gs[i + 1] < 0) {
+                brackets.add(i); // Falso con NaN: los segmentos no definidos se omiten
+            }
+        }
+
+        double noise = NOISE_ULPS * EPSILON * scale;
+        AtomicReference<LimitExceededException> exceeded = new AtomicReference<>();
+        List<Refinement> refined = brackets.parallelStream()
+                .map(i -> {
+                    if (exceeded.get() != null) {
+                        return null; // Presupuesto agotado: no se empiezan más refinamientos
+                    }
+                    Refinement refinement = brent(target, xs[i], gs[i], xs[i + 1], gs[i + 1], tolerance, noise);
+                    if (budget != null) {
+                        try {
+                            budget.charge(cost * refinement.evaluations);
+                        } catch (LimitExceededException e) {
+                            exceeded.compareAndSet(null, e);
+                        }
+                    }
+                    return refinement;
+                })
+                .collect(Collectors.toList());
+        if (exceeded.get() != null) {
+            throw exceeded.get();
+        }
+
+        int discontinuities = 0;
+        long refinementEvaluations = 0;
+        for (Refinement refinement : refined) {
+            refinementEvaluations += refinement.evaluations;
+            if (refinement.isRoot) {
+                roots.add(refinement.root);
+            } else {
+                discontinuities++;
+            }
+        }
+        roots.sort(null);
+        return new RootResult(roots, brackets.size(), discontinuities, segments + 1, refinementEvaluations);
+    }
+
+    /**
+     * Método de Brent sobre [a, b] con g(a)·g(b) < 0.
+     *
+     * @param noise Residuo que se considera cero (ruido de redondeo de la función)
+     */
+    private Refinement brent(double target, double a, double ga, double b, double gb, double tolerance,
+                             double noise) {
+        double edge = Math.max(Math.min(Math.abs(ga), Math.abs(gb)), noise);
+        double c = a, gc = ga;
+        double d = b - a, e = d;
+        int evaluations = 0;
+
+        for (int iteration = 0; iteration < MAX_ITERATIONS; iteration++) {
+            if (Math.abs(gc) < Math.abs(gb)) {
+                // b es siempre la mejor aproximación
+                a = b; b = c; c = a;
+                ga = gb; gb = gc; gc = ga;
+            }
+            double tol = 2 * EPSILON * Math.abs(b) + 0.5 * tolerance;
+            double half = 0.5 * (c - b);
+            if (Math.abs(half) <= tol || gb == 0) {
+                break;
+            }
+
+            if (Math.abs(e) >= tol && Math.abs(ga) > Math.abs(gb)) {
+                double s = gb / ga;
+                double p, q;
+                if (a == c) {
+                    // Secante
+                    p = 2 * half * s;
+                    q = 1 - s;
+                } else {
+                    // Interpolación cuadrática inversa
+                    double r = gb / gc;
+                    double t = ga / gc;
+                    p = s * (2 * half * t * (t - r) - (b - a) * (r - 1));
+                    q = (t - 1) * (r - 1) * (s - 1);
+                }
+                if (p > 0) {
+                    q = -q;
+                } else {
+                    p = -p;
+                }
+                if (2 * p < Math.min(3 * half * q - Math.abs(tol * q), Math.abs(e * q))) {
+                    e = d;
+                    d = p / q;
+                } else {
+                    d = half; // La interpolación sale del segmento o converge lento: bisección
+                    e = d;
+                }
+            } else {
+                d = half;
+                e = d;
+            }
+
+            a = b;
+            ga = gb;
+            b += Math.abs(d) > tol ? d : Math.copySign(tol, half);
+            gb = function.valueAt(b) - target;
+            evaluations++;
+            if (Double.isNaN(gb)) {
+                return new Refinement(b, false, evaluations);
+            }
+            if ((gb > 0) == (gc > 0)) {
+                c = a;
+                gc = ga;
+                d = b - a;
+                e = d;
+            }
+        }
+        return new Refinement(b, Math.abs(gb) <= edge, evaluations); // En un polo |g| crece
+    }
+
+    private static final class Refinement {
+        private final double root;
+        private final boolean isRoot;   // Falso si el cambio de signo era un polo
+        private final int evaluations;
+
+        Refinement(double root, boolean isRoot, int evaluations) {
+            this.root = root;
+            this.isRoot = isRoot;
+            this.evaluations = evaluations;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package domine.solver;
+
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Resultado de {@link RootFinder}: raíces encontradas y estadísticas de evaluación.
+ */
+@Getter
+public class RootResult {
+    private final List<Double> roots;            // Raíces en orden creciente
+    private final int brackets;                  // Cambios de signo encontrados en la malla
+    private final int discontinuities;           // Cambios de signo descartados por ser polos (por ejemplo, de tan)
+    private final long bracketingEvaluations;    // Evaluaciones de la malla inicial
+    private final long refinementEvaluations;    // Evaluaciones del refinamiento de Brent
+
+    public RootResult(List<Double> roots, int brackets, int discontinuities,
+                      long bracketingEvaluations, long refinementEvaluations) {
+        this.roots = Collections.unmodifiableList(roots);
+        this.brackets = brackets;
+        this.discontinuities = discontinuities;
+        this.bracketingEvaluations = bracketingEvaluations;
+        this.refinementEvaluations = refinementEvaluations;
+    }
+
+    public long getEvaluations() {
+        return bracketingEvaluations + refinementEvaluations;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Raíces: %d, cambios de signo: %d, polos descartados: %d, "
+                        + "evaluaciones: %d (malla %d + refinamiento %d)",
+                roots.size(), brackets, discontinuities, getEvaluations(),
+                bracketingEvaluations, refinementEvaluations);
+    }
+}
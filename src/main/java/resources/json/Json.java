@@ -0,0 +1,319 @@
+package resources.json;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lector y escritor JSON mínimo, suficiente para los mensajes del servidor de evaluación.
+ *
+ * Correspondencia de tipos:
+ * - objeto  <-> Map<String, Object> (conserva el orden de inserción)
+ * - arreglo <-> List<Object>
+ * - número  <-> Double (al escribir, cualquier Number)
+ * - cadena  <-> String
+ * - true/false <-> Boolean
+ * - null    <-> null
+ *
+ * Los valores double no finitos (NaN, Infinity) no existen en JSON y se escriben como null.
+ *
+ * La lectura es recursiva en los objetos y arreglos, así que el anidamiento se limita
+ * (DEFAULT_MAX_DEPTH o el valor indicado) para que un cuerpo como "[[[[...]]]]" se rechace
+ * como JSON inválido en lugar de desbordar la pila.
+ */
+public class Json {
+    public static final int DEFAULT_MAX_DEPTH = 512; // Anidamiento máximo de objetos y arreglos
+
+    private final String text;
+    private final int maxDepth;
+    private int position;
+    private int depth;                 // Objetos y arreglos abiertos
+
+    private Json(String text, int maxDepth) {
+        this.text = text;
+        this.maxDepth = maxDepth;
+        this.position = 0;
+    }
+
+    /**
+     * Analiza un documento JSON.
+     *
+     * @param text Texto JSON
+     * @return Valor raíz del documento
+     * @throws IllegalArgumentException Si el texto no es JSON válido o supera DEFAULT_MAX_DEPTH
+     */
+    public static Object parse(String text) {
+        return parse(text, DEFAULT_MAX_DEPTH);
+    }
+
+    /**
+     * Analiza un documento JSON con un límite de anidamiento propio.
+     *
+     * @param text Texto JSON
+     * @param maxDepth Cantidad máxima de objetos y arreglos anidados
+     * @return Valor raíz del documento
+     * @throws IllegalArgumentException Si el texto no es JSON válido o supera maxDepth
+     */
+    public static Object parse(String text, int maxDepth) {
+        Json reader = new Json(text, maxDepth);
+        reader.skipWhitespace();
+        Object value = reader.readValue();
+        reader.skipWhitespace();
+        if (reader.position != text.length()) {
+            throw reader.error("contenido adicional");
+        }
+        return value;
+    }
+
+    /**
+     * Escribe un valor como JSON compacto.
+     */
+    public static String write(Object value) {
+        StringBuilder sb = new StringBuilder();
+        write(value, sb);
+        return sb.toString();
+    }
+
+    public static void write(Object value, StringBuilder sb) {
+        if (value == null) {
+            sb.append("null");
+        } else if (value instanceof String) {
+            writeString((String) value, sb);
+        } else if (value instanceof Number) {
+            double number = ((Number) value).doubleValue();
+            if (Double.isNaN(number) || Double.isInfinite(number)) {
+                sb.append("null");
+            } else if (value instanceof Integer || value instanceof Long) {
+                sb.append(((Number) value).longValue());
+            } else {
+                sb.append(number);
+            }
+        } else if (value instanceof Boolean) {
+            sb.append(value);
+        } else if (value instanceof Map) {
+            sb.append('{');
+            boolean first = true;
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                if (!first) {
+                    sb.append(',');
+                }
+                first = false;
+                writeString(String.valueOf(entry.getKey()), sb);
+                sb.append(':');
+                write(entry.getValue(), sb);
+            }
+            sb.append('}');
+        } else if (value instanceof List) {
+            sb.append('[');
+            boolean first = true;
+            for (Object item : (List<?>) value) {
+                if (!first) {
+                    sb.append(',');
+                }
+                first = false;
+                write(item, sb);
+            }
+            sb.append(']');
+        } else {
+            writeString(value.toString(), sb);
+        }
+    }
+
+    private static void writeString(String value, StringBuilder sb) {
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        sb.append('"');
+    }
+
+    // ========== Lectura ==========
+
+    private Object readValue() {
+        if (position >= text.length()) {
+            throw error("fin inesperado");
+        }
+        char c = text.charAt(position);
+        switch (c) {
+            case '{':
+                enter();
+                Map<String, Object> object = readObject();
+                depth--;
+                return object;
+            case '[':
+                enter();
+                List<Object> array = readArray();
+                depth--;
+                return array;
+            case '"':
+                return readString();
+            case 't':
+                expectWord("true");
+                return Boolean.TRUE;
+            case 'f':
+                expectWord("false");
+                return Boolean.FALSE;
+            case 'n':
+                expectWord("null");
+                return null;
+            default:
+                if (c == '-' || Character.isDigit(c)) {
+                    return readNumber();
+                }
+                throw error("carácter inesperado '" + c + "'");
+        }
+    }
+
+    /**
+     * Abre un objeto o arreglo, antes de descender en él.
+     */
+    private void enter() {
+        if (++depth > maxDepth) {
+            throw error("más de " + maxDepth + " niveles de anidamiento");
+        }
+    }
+
+    private Map<String, Object> readObject() {
+        Map<String, Object> object = new LinkedHashMap<>();
+        position++; // '{'
+        skipWhitespace();
+        if (peek() == '}') {
+            position++;
+            return object;
+        }
+        while (true) {
+            skipWhitespace();
+            if (peek() != '"') {
+                throw error("se esperaba el nombre de un campo");
+            }
+            String key = readString();
+            skipWhitespace();
+            expect(':');
+            skipWhitespace();
+            object.put(key, readValue());
+            skipWhitespace();
+            if (peek() == ',') {
+                position++;
+            } else {
+                expect('}');
+                return object;
+            }
+        }
+    }
+
+    private List<Object> readArray() {
+        List<Object> array = new ArrayList<>();
+        position++; // '['
+        skipWhitespace();
+        if (peek() == ']') {
+            position++;
+            return array;
+        }
+        while (true) {
+            skipWhitespace();
+            array.add(readValue());
+            skipWhitespace();
+            if (peek() == ',') {
+                position++;
+            } else {
+                expect(']');
+                return array;
+            }
+        }
+    }
+
+    private String readString() {
+        position++; // '"'
+        StringBuilder sb = new StringBuilder();
+        while (position < text.length()) {
+            char c = text.charAt(position++);
+            if (c == '"') {
+                return sb.toString();
+            }
+            if (c != '\\') {
+                sb.append(c);
+                continue;
+            }
+            if (position >= text.length()) {
+                break;
+            }
+            char escaped = text.charAt(position++);
+            switch (escaped) {
+                case '"', '\\', '/' -> sb.append(escaped);
+                case 'b' -> sb.append('\b');
+                case 'f' -> sb.append('\f');
+                case 'n' -> sb.append('\n');
+                case 'r' -> sb.append('\r');
+                case 't' -> sb.append('\t');
+                case 'u' -> {
+                    if (position + 4 > text.length()) {
+                        throw error("secuencia \\u incompleta");
+                    }
+                    try {
+                        sb.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+                    } catch (NumberFormatException e) {
+                        throw error("secuencia \\u inválida");
+                    }
+                    position += 4;
+                }
+                default -> throw error("secuencia de escape inválida");
+            }
+        }
+        throw error("cadena sin cerrar");
+    }
+
+    private Double readNumber() {
+        int start = position;
+        while (position < text.length() && "+-0123456789.eE".indexOf(text.charAt(position)) >= 0) {
+            position++;
+        }
+        try {
+            return Double.parseDouble(text.substring(start, position));
+        } catch (NumberFormatException e) {
+            throw error("número inválido");
+        }
+    }
+
+    private void expectWord(String word) {
+        if (!text.startsWith(word, position)) {
+            throw error("se esperaba " + word);
+        }
+        position += word.length();
+    }
+
+    private void expect(char c) {
+        if (peek() != c) {
+            throw error("se esperaba '" + c + "'");
+        }
+        position++;
+    }
+
+    private char peek() {
+        return position < text.length() ? text.charAt(position) : '\0';
+    }
+
+    private void skipWhitespace() {
+        while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+            position++;
+        }
+    }
+
+    private IllegalArgumentException error(String detail) {
+        return new IllegalArgumentException("JSON inválido en posición " + position + ": " + detail);
+    }
+}
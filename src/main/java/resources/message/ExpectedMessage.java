@@ -1,41 +1,101 @@
 package resources.message;
 
 import domine.TokenType;
+import domine.metrics.PipelineMetrics;
 
+/**
+ * Textos de los errores. Cada método corresponde a un tipo de error y, con las métricas
+ * activadas, cuenta una ocurrencia de ese tipo en {@link PipelineMetrics} (por nombre del
+ * método; los límites excedidos se cuentan por límite, por ejemplo "limitExceeded(maxDepth)").
+ */
 public class ExpectedMessage {
     public static String expectedTokenTypeButFound(TokenType expected, String found) {
-        return ("Se esperaba" + expected + " pero se encontró " + found);
+        return counted("expectedTokenTypeButFound", "Se esperaba" + expected + " pero se encontró " + found);
     }
 
     public static String unExpectedToken(String value) {
-        return ("Token inesperado: " + value);
+        return counted("unExpectedToken", "Token inesperado: " + value);
     }
 
-    public static String unValidTokens(){
-        return "Expresión no válida: tokens adicionales después del final";
+    public static String incompleteExpression() {
+        return counted("incompleteExpression", "Expresión incompleta");
+    }
+
+    public static String unValidTokens() {
+        return counted("unValidTokens", "Expresión no válida: tokens adicionales después del final");
     }
 
     public static String unRecognizedCharacter(char character, int index) {
-        return ("Caracter no reconocido: " + character + " en posición " + index);
+        return counted("unRecognizedCharacter", "Caracter no reconocido: " + character + " en posición " + index);
     }
 
     public static String unValidNumberFormat(String number) {
-        return ("Número mal formado: " + number);
+        return counted("unValidNumberFormat", "Número mal formado: " + number);
     }
 
     public static String unknownOperator(String operator) {
-        return ("Operador desconocido: " + operator);
+        return counted("unknownOperator", "Operador desconocido: " + operator);
     }
 
-    public static String dividedByZero(){
-        return "División por cero";
+    public static String dividedByZero() {
+        return counted("dividedByZero", "División por cero");
     }
 
     public static String unknownFunction(String function) {
-        return ("Función desconocida: " + function);
+        return counted("unknownFunction", "Función desconocida: " + function);
+    }
+
+    public static String wrongArgumentCount(String function, int expected, int found) {
+        return counted("wrongArgumentCount",
+                "La función " + function + " espera " + expected + " argumento(s) pero recibió " + found);
+    }
+
+    public static String noDerivative(String function) {
+        return counted("noDerivative", "La función " + function + " no tiene derivadas registradas");
+    }
+
+    public static String reassignedVariable(String variable) {
+        return counted("reassignedVariable", "La variable local " + variable + " ya fue definida");
+    }
+
+    public static String usedBeforeDefinition(String variable) {
+        return counted("usedBeforeDefinition", "La variable " + variable + " se usa antes de ser definida");
+    }
+
+    public static String missingResult() {
+        return counted("missingResult", "El programa debe terminar con una expresión después de las definiciones");
     }
 
     public static String unDefinedVariable(String variable) {
-        return ("Variable no definida: " + variable);
+        return counted("unDefinedVariable", "Variable no definida: " + variable);
+    }
+
+    public static String malformedRequest(String detail) {
+        return counted("malformedRequest", "Petición mal formada: " + detail);
+    }
+
+    public static String missingField(String field) {
+        return counted("missingField", "Falta el campo requerido: " + field);
+    }
+
+    public static String methodNotAllowed(String method) {
+        return counted("methodNotAllowed", "Método no permitido: " + method);
+    }
+
+    public static String limitExceeded(String limit, long maxValue) {
+        return counted("limitExceeded(" + limit + ")", "Límite de recursos excedido (" + limit + "): el máximo permitido es " + maxValue);
+    }
+
+    public static String integrandSingularity(double from, double to) {
+        return counted("integrandSingularity", "El integrando tiene una singularidad en [" + from + ", " + to + "]");
+    }
+
+    public static String invalidSnapshot(String detail) {
+        return counted("invalidSnapshot", "Instantánea de expresiones inválida: " + detail);
+    }
+
+    private static String counted(String type, String message) {
+        PipelineMetrics.getDefault().recordError(type);
+        return message;
     }
 }
@@ -2,7 +2,11 @@ package resources.message;
 
 import domine.Parser;
 import domine.Token;
+import domine.render.TokenRenderer;
+import domine.render.TreeRenderer;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 public class Message {
@@ -26,14 +30,21 @@ public class Message {
 
     public static void showTokens(List<Token> tokens) {
         System.out.println("\n--- Tokens generados ---");
-        for (Token token : tokens) {
-            System.out.println("  " + token.getTokenType() + " : " + token.getLexeme());
+        try {
+            new TokenRenderer().renderText(tokens, System.out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // PrintStream no lanza IOException
         }
     }
 
     public static void showAstTree(Parser parser){
         System.out.println("\n--- Árbol de Sintaxis Abstracta (AST) ---");
-        System.out.println(parser.getAstNode().toString());
+        try {
+            new TreeRenderer().render(parser.getAstNode(), System.out); // Sin construir el texto completo
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        System.out.println();
     }
 
     public static void showResult(double result){
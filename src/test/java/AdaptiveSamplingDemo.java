@@ -0,0 +1,92 @@
+import domine.compiler.CompiledExpression;
+import domine.compiler.ExpressionCache;
+import domine.limits.ResourceLimits;
+import domine.sampling.AdaptiveSampler;
+import domine.sampling.SamplingStatistics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Comparación entre el muestreo adaptativo y una malla uniforme de un punto por píxel.
+ *
+ * Para medir la fidelidad visual, cada columna de píxeles de la malla uniforme se compara
+ * con la interpolación lineal de los puntos adaptativos (que es lo que dibuja un
+ * graficador). El error se expresa en píxeles verticales, suponiendo una gráfica cuadrada
+ * cuyo alto cubre el rango de valores de la función; los tramos que el graficador no
+ * dibuja (rupturas) no se comparan.
+ */
+public class AdaptiveSamplingDemo {
+
+    private static final int PIXELS = 2000;
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== Muestreo adaptativo ===");
+        run("sin(x) + cos(2*x) - 0.3", -10, 10);
+        run("tan(x)", -5, 5);
+        run("sin(x^2)", 0, 6);
+        run("1 / x", -1, 1);
+        run("x^0.5", -2, 2);
+        run("3 * x + 1", -100, 100);
+    }
+
+    private static void run(String source, double from, double to) throws Exception {
+        CompiledExpression compiled = ExpressionCache.compile(source, ResourceLimits.defaults());
+        AdaptiveSampler sampler = new AdaptiveSampler(compiled, "x", Collections.emptyMap());
+
+        List<double[]> points = new ArrayList<>();
+        SamplingStatistics statistics = sampler.sample(from, to, PIXELS, (x, y) -> points.add(new double[]{x, y}));
+
+        // Referencia: un punto por columna de píxeles
+        double[] reference = new double[PIXELS + 1];
+        List<Double> finite = new ArrayList<>();
+        for (int j = 0; j <= PIXELS; j++) {
+            reference[j] = valueAt(compiled, from + (to - from) * j / PIXELS);
+            if (!Double.isNaN(reference[j])) {
+                finite.add(reference[j]);
+            }
+        }
+        Collections.sort(finite);
+        double low = finite.isEmpty() ? 0 : finite.get((int) (0.05 * (finite.size() - 1)));
+        double high = finite.isEmpty() ? 1 : finite.get((int) Math.ceil(0.95 * (finite.size() - 1)));
+        double span = Math.max(high - low, 1e-9);
+        double pixelHeight = span / PIXELS;
+        // Ventana visible: los valores fuera de ella se recortan, como haría el graficador
+        double bottom = low - 0.5 * span, top = high + 0.5 * span;
+
+        double worst = 0;
+        int segment = 0;
+        for (int j = 0; j <= PIXELS; j++) {
+            double x = from + (to - from) * j / PIXELS;
+            while (segment < points.size() - 2 && points.get(segment + 1)[0] < x) {
+                segment++;
+            }
+            double[] p = points.get(segment), q = points.get(Math.min(segment + 1, points.size() - 1));
+            if (Double.isNaN(p[1]) || Double.isNaN(q[1]) || Double.isNaN(reference[j]) || q[0] == p[0]) {
+                continue; // Ruptura: el graficador no dibuja este tramo
+            }
+            double interpolated = p[1] + (q[1] - p[1]) * (x - p[0]) / (q[0] - p[0]);
+            double error = Math.abs(clip(interpolated, bottom, top) - clip(reference[j], bottom, top));
+            worst = Math.max(worst, error / pixelHeight);
+        }
+
+        System.out.printf("%n%s sobre [%s, %s], %d píxeles%n", source, from, to, PIXELS);
+        System.out.println("  " + statistics);
+        System.out.printf("  Ahorro: %.1fx menos evaluaciones, error máximo: %.2f píxeles%n",
+                (double) statistics.getUniformEvaluations() / statistics.getEvaluations(), worst);
+    }
+
+    private static double clip(double value, double bottom, double top) {
+        return Math.max(bottom, Math.min(top, value));
+    }
+
+    private static double valueAt(CompiledExpression compiled, double x) {
+        try {
+            double y = compiled.evaluate(new double[]{x});
+            return Double.isInfinite(y) ? Double.NaN : y;
+        } catch (Exception e) {
+            return Double.NaN;
+        }
+    }
+}
@@ -0,0 +1,237 @@
+import domine.Lexer;
+import domine.Parser;
+import domine.aot.Formula;
+import domine.aot.FormulaCatalog;
+import domine.compiler.CompiledExpression;
+import domine.compiler.ExpressionCache;
+import domine.compiler.ExpressionCompiler;
+import domine.functions.FunctionDefinition;
+import domine.functions.FunctionRegistry;
+import domine.load.ExpressionGenerator;
+import domine.load.WorkloadShape;
+
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.ServiceLoader;
+
+/**
+ * Compilación anticipada de bibliotecas de fórmulas (domine.aot).
+ *
+ * Reproduce lo que hace Maven en el módulo formulas/, pero en memoria: escribe una clase
+ * anotada con @FormulaLibrary y su archivo de definiciones, compila con javac y el
+ * FormulaProcessor, y carga las clases generadas en un class loader propio.
+ *
+ * 1. 500 expresiones generadas más algunas a mano (variables locales, atan2, división por
+ *    cero, una función propia): cada clase generada da exactamente los mismos resultados
+ *    (bit a bit, y la misma excepción) que CompiledExpression.
+ * 2. FormulaCatalog: las expresiones de la biblioteca son precompiladas aunque cambien los
+ *    espacios; las demás se compilan en tiempo de ejecución.
+ * 3. Una expresión con errores detiene la compilación con el mensaje del analizador.
+ * 4. Rendimiento de la clase generada frente a la máquina de pila.
+ */
+public class AheadOfTimeDemo {
+    private static final int GENERATED = 500;
+
+    public static void main(String[] args) throws Exception {
+        FunctionRegistry.getDefault().register(FunctionDefinition.unary("sinc", x -> x == 0 ? 1 : Math.sin(x) / x));
+
+        Map<String, String> definitions = new LinkedHashMap<>();
+        definitions.put("polar.x", "r = sqrt(x*x + y*y); t = atan2(y, x); r * cos(t)");
+        definitions.put("cociente", "a / (b - 1)");
+        definitions.put("negativos", "-x^2 - -3.5 * y");
+        definitions.put("filtro", "sinc(3 * x) + 1");
+        ExpressionGenerator generator = new ExpressionGenerator(WorkloadShape.defaults(), 47);
+        while (definitions.size() < GENERATED + 4) {
+            String source = generator.next();
+            if (!definitions.containsValue(source)) {
+                definitions.put(String.format("generada.%04d", definitions.size()), source);
+            }
+        }
+
+        System.out.println("=== Compilación de la biblioteca (" + definitions.size() + " fórmulas) ===");
+        Path root = Files.createTempDirectory("aot");
+        long start = System.nanoTime();
+        List<String> errors = compileLibrary(root, definitions);
+        System.out.printf("javac + FormulaProcessor: %.1f s%n", (System.nanoTime() - start) / 1e9);
+        check("Compila sin errores " + errors, errors.isEmpty());
+
+        URLClassLoader loader = new URLClassLoader(new URL[]{root.resolve("classes").toUri().toURL()},
+                AheadOfTimeDemo.class.getClassLoader());
+        FormulaCatalog catalog = new FormulaCatalog(ServiceLoader.load(Formula.class, loader), new ExpressionCache(64));
+        check("Una clase por fórmula registrada en META-INF/services", catalog.getPrecompiled().size() == definitions.size());
+
+        System.out.println("\n=== Resultados frente a CompiledExpression ===");
+        Random random = new Random(7);
+        int compared = 0;
+        int mismatches = 0;
+        int exceptions = 0;
+        for (Map.Entry<String, String> definition : definitions.entrySet()) {
+            Formula formula = catalog.get(definition.getKey());
+            CompiledExpression compiled = compile(definition.getValue());
+            boolean sameVariables = Arrays.equals(formula.getVariables(), compiled.getVariables());
+            for (int round = 0; round < 4; round++) {
+                double[] values = new double[compiled.getVariables().length];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = round == 0 ? 1 : random.nextInt(9) - 4 + random.nextDouble() * (round - 1);
+                }
+                String expected = outcome(compiled, values);
+                String actual = outcome(formula, values);
+                compared++;
+                if (!sameVariables || !expected.equals(actual)) {
+                    mismatches++;
+                    if (mismatches <= 3) {
+                        System.out.println("  " + definition.getValue() + ": " + expected + " != " + actual);
+                    }
+                }
+                exceptions += expected.startsWith("!") ? 1 : 0;
+            }
+        }
+        System.out.printf("%d evaluaciones comparadas (%d con excepción)%n", compared, exceptions);
+        check("Mismas variables, resultados y excepciones", mismatches == 0 && exceptions > 0);
+        Formula polar = catalog.get("polar.x");
+        check("polar.x(3, 4) = 3", Math.abs(polar.evaluate(Map.of("x", 3.0, "y", 4.0)) - 3) < 1e-12);
+        try {
+            catalog.get("cociente").evaluate(new double[]{1, 1});
+            check("cociente con b = 1", false);
+        } catch (Exception e) {
+            check("cociente con b = 1: " + e.getMessage(), e.getMessage().equals(compileError("a / (b - 1)")));
+        }
+
+        System.out.println("\n=== FormulaCatalog ===");
+        Formula spaced = catalog.lookup("r=sqrt(x * x+y * y);  t = atan2(y,x); r*cos(t)");
+        check("Misma fórmula con otros espacios: precompilada", spaced.isPrecompiled() && spaced == polar);
+        Formula runtime = catalog.lookup("x^3 - 2*x");
+        check("Fuera de la biblioteca: compilada en tiempo de ejecución",
+                !runtime.isPrecompiled() && runtime.getName() == null && runtime.evaluate(new double[]{2}) == 4);
+        try {
+            catalog.lookup("x +* 2");
+            check("Expresión con errores", false);
+        } catch (Exception e) {
+            check("Expresión con errores: " + e.getMessage(), true);
+        }
+
+        System.out.println("\n=== Expresión con errores en la biblioteca ===");
+        Map<String, String> broken = new LinkedHashMap<>();
+        broken.put("buena", "x + 1");
+        broken.put("mala", "sin(x, y)");
+        List<String> brokenErrors = compileLibrary(Files.createTempDirectory("aot"), broken);
+        System.out.println("  " + brokenErrors);
+        check("La compilación falla e indica la fórmula",
+                brokenErrors.size() == 1 && brokenErrors.get(0).startsWith("\"mala\""));
+
+        System.out.println("\n=== Rendimiento (5 000 000 evaluaciones) ===");
+        for (String name : new String[]{"polar.x", "generada.0004", "generada.0005"}) {
+            Formula formula = catalog.get(name);
+            CompiledExpression compiled = compile(formula.getSource());
+            double[] values = new double[compiled.getVariables().length];
+            Arrays.fill(values, 0.75);
+            double best = Double.MAX_VALUE;
+            double bestCompiled = Double.MAX_VALUE;
+            for (int round = 0; round < 5; round++) {
+                best = Math.min(best, time(formula, null, values));
+                bestCompiled = Math.min(bestCompiled, time(null, compiled, values));
+            }
+            System.out.printf("%-14s generada %6.1f ns   máquina de pila %6.1f ns   %.1f×   %s%n",
+                    name, best, bestCompiled, bestCompiled / best, formula.getSource());
+            check(name + ": la clase generada es más rápida", best < bestCompiled);
+        }
+    }
+
+    /**
+     * Escribe la clase anotada y el archivo de definiciones y compila con el FormulaProcessor.
+     *
+     * @return Errores de compilación
+     */
+    private static List<String> compileLibrary(Path root, Map<String, String> definitions) throws IOException {
+        Path sources = Files.createDirectories(root.resolve("src/demo"));
+        Path classes = Files.createDirectories(root.resolve("classes/formulas"));
+        Files.writeString(sources.resolve("Biblioteca.java"),
+                "package demo;\n\n@domine.aot.FormulaLibrary(\"formulas/demo.properties\")\npublic final class Biblioteca {\n}\n");
+        StringBuilder properties = new StringBuilder();
+        definitions.forEach((name, source) -> properties.append(name).append(" = ").append(source).append('\n'));
+        Files.writeString(classes.resolve("demo.properties"), properties, StandardCharsets.ISO_8859_1);
+
+        JavaCompiler javac = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        try (StandardJavaFileManager files = javac.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8)) {
+            List<String> options = List.of("-d", root.resolve("classes").toString(),
+                    "-s", Files.createDirectories(root.resolve("generated")).toString(),
+                    "-classpath", System.getProperty("java.class.path"),
+                    "-processor", "domine.aot.FormulaProcessor", "-encoding", "UTF-8");
+            javac.getTask(null, files, diagnostics, options, null,
+                    files.getJavaFileObjects(sources.resolve("Biblioteca.java"))).call();
+        }
+        List<String> errors = new ArrayList<>();
+        diagnostics.getDiagnostics().forEach(d -> {
+            if (d.getKind() == javax.tools.Diagnostic.Kind.ERROR) {
+                errors.add(d.getMessage(null));
+            }
+        });
+        return errors;
+    }
+
+    private static CompiledExpression compile(String source) throws Exception {
+        return ExpressionCompiler.compile(source, new Parser(new Lexer(source).tokenize()).parseToAST());
+    }
+
+    private static String compileError(String source) {
+        try {
+            compile(source).evaluate(new double[]{1, 1});
+            return "";
+        } catch (Exception e) {
+            return e.getMessage();
+        }
+    }
+
+    private static String outcome(CompiledExpression compiled, double[] values) {
+        try {
+            return Long.toHexString(Double.doubleToRawLongBits(compiled.evaluate(values)));
+        } catch (Exception e) {
+            return "!" + e.getMessage();
+        }
+    }
+
+    private static String outcome(Formula formula, double[] values) {
+        try {
+            return Long.toHexString(Double.doubleToRawLongBits(formula.evaluate(values)));
+        } catch (Exception e) {
+            return "!" + e.getMessage();
+        }
+    }
+
+    private static volatile double sink;
+
+    /**
+     * @return Nanosegundos por evaluación
+     */
+    private static double time(Formula formula, CompiledExpression compiled, double[] values) throws Exception {
+        int evaluations = 5_000_000;
+        double sum = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < evaluations; i++) {
+            values[0] = i * 1e-6;
+            sum += formula != null ? formula.evaluate(values) : compiled.evaluate(values);
+        }
+        sink = sum;
+        return (double) (System.nanoTime() - start) / evaluations;
+    }
+
+    private static void check(String description, boolean ok) {
+        System.out.println((ok ? "✓ " : "✗ ") + description);
+    }
+}
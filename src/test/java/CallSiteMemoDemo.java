@@ -0,0 +1,79 @@
+import domine.Lexer;
+import domine.Parser;
+import domine.ast.ASTNode;
+import domine.ast.BinaryOperationNode;
+import domine.ast.CallSiteMemo;
+import domine.ast.FunctionNode;
+
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Efecto de la memoria por punto de llamada en la evaluación del AST.
+ *
+ * Expresión: sin(y) * x + cos(y)^2 + tan(x / 10)
+ * - Barrido por filas: y cambia una vez cada SIZE filas, así que sin(y) y cos(y) aciertan
+ *   casi siempre; tan(x / 10) recorre valores distintos y su memoria debe desactivarse.
+ * - Entrada aleatoria: ningún argumento se repite; la memoria debe apagarse sola y el
+ *   tiempo debe quedar cerca del de la evaluación sin memoria.
+ */
+public class CallSiteMemoDemo {
+
+    private static final String SOURCE = "sin(y) * x + cos(y)^2 + tan(x / 10)";
+    private static final int SIZE = 1000;
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== Memoria por punto de llamada ===");
+        System.out.println("Expresión: " + SOURCE);
+        Parser parser = new Parser(new Lexer(SOURCE).tokenize());
+        ASTNode ast = parser.parseToAST();
+        Map<String, Double> values = parser.getVariableValues();
+
+        for (boolean random : new boolean[]{false, true}) {
+            System.out.println(random ? "\nEntrada aleatoria:" : "\nBarrido por filas (y externo):");
+            double plain = 0, memoized = 0, plainSum = 0, memoSum = 0;
+            for (int round = 0; round < 5; round++) {
+                CallSiteMemo.setEnabled(ast, false);
+                long start = System.nanoTime();
+                plainSum = sweep(ast, values, random);
+                plain = (System.nanoTime() - start) / 1e6;
+
+                CallSiteMemo.setEnabled(ast, true);
+                start = System.nanoTime();
+                memoSum = sweep(ast, values, random);
+                memoized = (System.nanoTime() - start) / 1e6;
+            }
+            System.out.printf("  Sin memoria: %7.1f ms%n", plain);
+            System.out.printf("  Con memoria: %7.1f ms (%.2fx) %s%n", memoized, plain / memoized,
+                    plainSum == memoSum ? "✓ mismos resultados" : "✗ resultados distintos");
+            report(ast);
+        }
+    }
+
+    private static double sweep(ASTNode ast, Map<String, Double> values, boolean random) throws Exception {
+        Random generator = new Random(3);
+        double sum = 0;
+        for (int i = 0; i < SIZE; i++) {
+            values.put("y", random ? generator.nextDouble() : i * 0.01);
+            for (int j = 0; j < SIZE; j++) {
+                values.put("x", random ? generator.nextDouble() : j * 0.01);
+                if (random) {
+                    values.put("y", generator.nextDouble());
+                }
+                sum += ast.evaluate();
+            }
+        }
+        return sum;
+    }
+
+    private static void report(ASTNode node) {
+        if (node instanceof BinaryOperationNode) {
+            report(((BinaryOperationNode) node).getLeft());
+            report(((BinaryOperationNode) node).getRight());
+        } else if (node instanceof FunctionNode) {
+            FunctionNode function = (FunctionNode) node;
+            System.out.printf("    %s(...): %s%n", function.getFunctionName(), function.getMemo());
+            function.getArguments().forEach(CallSiteMemoDemo::report);
+        }
+    }
+}
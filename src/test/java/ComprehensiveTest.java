@@ -1,7 +1,14 @@
 import domine.Lexer;
 import domine.Parser;
 import domine.Token;
-
+import domine.compiler.CompiledExpression;
+import domine.compiler.ExpressionCache;
+import domine.limits.EvaluationBudget;
+import domine.limits.LimitExceededException;
+import domine.limits.ResourceLimits;
+import domine.solver.RootFinder;
+
+import java.util.Collections;
 import java.util.List;
 import java.util.Scanner;
 
@@ -124,13 +131,165 @@ public class ComprehensiveTest {
         // Test 29: Error - paréntesis vacíos
         testErrorExpression("2 + ()", "Paréntesis vacíos");
 
-        // Test 30: Error - función desconocida
-        testErrorExpression("sqrt(4)", "Función no reconocida");
+        // Test 30: Error - función desconocida (sqrt está registrada; cbrt no)
+        testErrorExpression("cbrt(8)", "Función no reconocida");
+
+        // ========== FUNCIONES DEL REGISTRO (FunctionRegistry) ==========
+        System.out.println("\n═══════════════════════════════════════════════════════════════════");
+        System.out.println("                    FUNCIONES DEL REGISTRO                         ");
+        System.out.println("═══════════════════════════════════════════════════════════════════\n");
+
+        // Test 31: Raíz cuadrada y valor absoluto
+        testExpression("sqrt(16) + abs(-3)", 7.0, "sqrt(16) + abs(-3) = 4 + 3 = 7");
+
+        // Test 32: Exponencial y logaritmo natural son inversas
+        testExpression("log(exp(2.5))", 2.5, "log(exp(2.5)) = 2.5", 1e-12);
+
+        // Test 33: Función de dos argumentos
+        testExpression("atan2(1, 1) * 4", Math.PI, "atan2(1, 1)·4 = π", 1e-12);
+
+        // Test 34: Búsqueda sin distinguir mayúsculas y alias
+        testExpression("SQRT(4) + Sen(0) + Ln(1)", 2.0, "SQRT, Sen y Ln se resuelven igual que sqrt, sin y log");
+
+        // Test 35: Funciones trigonométricas inversas
+        testExpression("asin(1) + acos(1)", Math.PI / 2, "asin(1) + acos(1) = π/2", 1e-12);
+
+        // Test 36: Error - cantidad de argumentos incorrecta
+        testErrorExpression("atan2(1)", "atan2 con un solo argumento");
+
+        // Test 37: Error - coma fuera de una llamada
+        testErrorExpression("(1, 2)", "Coma fuera de una función");
+
+        // ========== VARIABLES LOCALES (programas con definiciones) ==========
+        System.out.println("\n═══════════════════════════════════════════════════════════════════");
+        System.out.println("                       VARIABLES LOCALES                           ");
+        System.out.println("═══════════════════════════════════════════════════════════════════\n");
+
+        // Test 38: Una variable local usada varias veces
+        testExpression("u = 2^3 + 1; u * u - u", 72.0, "u = 9: u·u - u = 72");
+
+        // Test 39: Una definición puede usar las anteriores
+        testExpression("a = 3; b = a * 2; b^2 - a", 33.0, "a = 3, b = 6: b² - a = 33");
+
+        // Test 40: Subexpresión trigonométrica compartida
+        double u = 0.5 * 0.5 + Math.sin(0.5);
+        testExpression("u = 0.5^2 + sin(0.5); tan(u) * u + u", Math.tan(u) * u + u,
+                "tan(u)·u + u con u = 0.5² + sin(0.5)", 1e-12);
+
+        // Test 41: Error - redefinición de una variable local
+        testErrorExpression("u = 1; u = 2; u", "Variable local definida dos veces");
+
+        // Test 42: Error - la variable se usa en su propia definición
+        testErrorExpression("u = u + 1; u", "Variable usada antes de ser definida");
+
+        // Test 43: Error - falta la expresión resultado
+        testErrorExpression("u = 1;", "Programa sin expresión final");
+
+        // Test 44: Error - falta el punto y coma
+        testErrorExpression("u = 1 u", "Definición sin punto y coma");
+
+        // ========== LÍMITES DE RECURSOS (ResourceLimits) ==========
+        System.out.println("\n═══════════════════════════════════════════════════════════════════");
+        System.out.println("                     LÍMITES DE RECURSOS                           ");
+        System.out.println("═══════════════════════════════════════════════════════════════════\n");
+
+        // Test 45: Entrada más larga que maxInputLength
+        ResourceLimits length = ResourceLimits.defaults();
+        length.setMaxInputLength(10);
+        testLimit("maxInputLength", "Entrada de 17 caracteres con máximo 10",
+                () -> new Lexer("1 + 2 + 3 + 4 + 5", length).tokenize());
+
+        // Test 46: Más tokens que maxTokens
+        ResourceLimits tokens = ResourceLimits.defaults();
+        tokens.setMaxTokens(5);
+        testLimit("maxTokens", "7 tokens con máximo 5", () -> new Lexer("1+2+3+4", tokens).tokenize());
+
+        // Test 47: Anidamiento mayor que maxDepth
+        ResourceLimits depth = ResourceLimits.defaults();
+        depth.setMaxDepth(5);
+        testLimit("maxDepth", "8 paréntesis anidados con máximo 5",
+                () -> new Parser(new Lexer("((((((((1))))))))", depth).tokenize(), depth).parseToAST());
+
+        // Test 48: Más nodos que maxNodes
+        ResourceLimits nodes = ResourceLimits.defaults();
+        nodes.setMaxNodes(5);
+        testLimit("maxNodes", "9 nodos con máximo 5",
+                () -> new Parser(new Lexer("1+2+3+4+5", nodes).tokenize(), nodes).parseToAST());
+
+        // Test 49: Más pasos de evaluación que maxEvaluationSteps
+        ResourceLimits steps = ResourceLimits.defaults();
+        steps.setMaxEvaluationSteps(100);
+        testLimit("maxEvaluationSteps", "Dos cobros de 60 pasos con máximo 100", () -> {
+            EvaluationBudget budget = new EvaluationBudget(steps);
+            budget.charge(60);
+            budget.charge(60);
+        });
+
+        // Test 50: Evaluación más larga que maxEvaluationMillis
+        ResourceLimits time = ResourceLimits.defaults();
+        time.setMaxEvaluationMillis(1);
+        testLimit("maxEvaluationMillis", "Cobro después de 20 ms con máximo 1 ms", () -> {
+            EvaluationBudget budget = new EvaluationBudget(time);
+            budget.charge(1);
+            Thread.sleep(20);
+            budget.charge(1);
+        });
+
+        // Test 51: La búsqueda de raíces cobra también los refinamientos, no solo la malla
+        ResourceLimits solve = ResourceLimits.defaults();
+        testLimit("maxEvaluationSteps", "Raíces con pasos para la malla y uno más", () -> {
+            CompiledExpression compiled = ExpressionCache.compile("sin(x) + cos(2*x)", solve);
+            solve.setMaxEvaluationSteps(compiled.getCode().length * (RootFinder.DEFAULT_SEGMENTS + 1L) + 1);
+            new RootFinder(compiled, "x", Collections.emptyMap())
+                    .solve(0.3, -10, 10, RootFinder.DEFAULT_SEGMENTS, 0, new EvaluationBudget(solve));
+        });
 
         // ========== RESUMEN DE RESULTADOS ==========
         printSummary();
     }
 
+    /**
+     * Tarea que debe superar un límite de recursos.
+     */
+    private interface LimitedTask {
+        void run() throws Exception;
+    }
+
+    /**
+     * Prueba que una tarea lance LimitExceededException por el límite indicado
+     * @param limit Nombre del límite que debe superarse
+     * @param description Descripción del caso de prueba
+     * @param task Tarea a ejecutar
+     */
+    private static void testLimit(String limit, String description, LimitedTask task) {
+        totalTests++;
+        System.out.println("┌─────────────────────────────────────────────────────────────────┐");
+        System.out.printf("│ Test #%-2d: %-55s │%n", totalTests, description);
+        System.out.println("├─────────────────────────────────────────────────────────────────┤");
+        System.out.printf("│ Se espera: %-52s │%n", "límite " + limit);
+
+        try {
+            task.run();
+            System.out.println("│ Estado: ✗ FALLÓ (Se esperaba un límite pero se completó)       │");
+            failedTests++;
+        } catch (LimitExceededException e) {
+            System.out.printf("│ Límite superado: %-47s │%n", e.getLimit());
+            if (limit.equals(e.getLimit())) {
+                System.out.println("│ Estado: ✓ PASÓ                                                  │");
+                passedTests++;
+            } else {
+                System.out.println("│ Estado: ✗ FALLÓ (Límite distinto)                               │");
+                failedTests++;
+            }
+        } catch (Exception e) {
+            System.out.printf("│ Error: %-56s │%n", e.getMessage());
+            System.out.println("│ Estado: ✗ FALLÓ (Excepción inesperada)                         │");
+            failedTests++;
+        }
+
+        System.out.println("└─────────────────────────────────────────────────────────────────┘\n");
+    }
+
     /**
      * Prueba una expresión y verifica que el resultado coincida con el esperado
      * @param expression Expresión a evaluar
@@ -0,0 +1,140 @@
+import domine.Lexer;
+import domine.Parser;
+import domine.ast.ASTNode;
+import domine.compiler.CompiledExpression;
+import domine.compiler.ExpressionCompiler;
+import domine.differentiation.ForwardModeDifferentiator;
+import domine.differentiation.Gradient;
+import domine.differentiation.ReverseModeDifferentiator;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Comparación de costo y precisión entre diferenciación automática y diferencias finitas.
+ *
+ * Función de prueba con N variables:
+ *   f(x) = Σ sin(xᵢ)·cos(xᵢ₊₁) + tan(x₀)     (índices módulo N)
+ * cuyo gradiente analítico es:
+ *   ∂f/∂xₖ = cos(xₖ)·cos(xₖ₊₁) - sin(xₖ₋₁)·sin(xₖ) + [k = 0]·sec²(x₀)
+ *
+ * Se mide el tiempo por gradiente y el error máximo frente al gradiente analítico en un
+ * punto normal y en un punto a 1e-6 de un polo de tan, donde las diferencias finitas
+ * pierden precisión.
+ */
+public class DifferentiationBenchmark {
+
+    private static final int ITERATIONS = 2000;
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== Diferenciación automática vs diferencias finitas ===");
+        for (int n : new int[]{2, 8, 32}) {
+            run(n, 0.3, "punto regular");
+            run(n, Math.PI / 2 - 1e-6, "cerca del polo de tan");
+        }
+    }
+
+    private static void run(int n, double x0, String label) throws Exception {
+        List<String> names = new ArrayList<>();
+        StringBuilder source = new StringBuilder();
+        for (int i = 0; i < n; i++) {
+            names.add(name(i));
+        }
+        for (int i = 0; i < n; i++) {
+            source.append("sin(").append(names.get(i)).append(")*cos(").append(names.get((i + 1) % n)).append(") + ");
+        }
+        source.append("tan(").append(names.get(0)).append(")");
+
+        ASTNode ast = new Parser(new Lexer(source.toString()).tokenize()).parseToAST();
+        CompiledExpression compiled = ExpressionCompiler.compile(source.toString(), ast);
+
+        Map<String, Double> values = new HashMap<>();
+        double[] x = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = i == 0 ? x0 : 0.1 * i;
+            values.put(names.get(i), x[i]);
+        }
+        double[] exact = new double[n];
+        for (int k = 0; k < n; k++) {
+            exact[k] = Math.cos(x[k]) * Math.cos(x[(k + 1) % n]) - Math.sin(x[(k - 1 + n) % n]) * Math.sin(x[k]);
+            if (k == 0) {
+                exact[k] += 1 / (Math.cos(x[0]) * Math.cos(x[0]));
+            }
+        }
+
+        // Calentamiento
+        for (int i = 0; i < ITERATIONS; i++) {
+            ReverseModeDifferentiator.gradient(ast, values);
+            ForwardModeDifferentiator.gradient(ast, values, names);
+            finiteDifferences(compiled, names, values);
+        }
+
+        long start = System.nanoTime();
+        Gradient reverse = null;
+        for (int i = 0; i < ITERATIONS; i++) {
+            reverse = ReverseModeDifferentiator.gradient(ast, values);
+        }
+        double reverseMicros = (System.nanoTime() - start) / 1e3 / ITERATIONS;
+
+        start = System.nanoTime();
+        Gradient forward = null;
+        for (int i = 0; i < ITERATIONS; i++) {
+            forward = ForwardModeDifferentiator.gradient(ast, values, names);
+        }
+        double forwardMicros = (System.nanoTime() - start) / 1e3 / ITERATIONS;
+
+        start = System.nanoTime();
+        double[] fd = null;
+        for (int i = 0; i < ITERATIONS; i++) {
+            fd = finiteDifferences(compiled, names, values);
+        }
+        double fdMicros = (System.nanoTime() - start) / 1e3 / ITERATIONS;
+
+        double reverseError = 0, forwardError = 0, fdError = 0;
+        for (int k = 0; k < n; k++) {
+            double scale = Math.max(1, Math.abs(exact[k]));
+            reverseError = Math.max(reverseError, Math.abs(reverse.get(names.get(k)) - exact[k]) / scale);
+            forwardError = Math.max(forwardError, Math.abs(forward.get(names.get(k)) - exact[k]) / scale);
+            fdError = Math.max(fdError, Math.abs(fd[k] - exact[k]) / scale);
+        }
+
+        System.out.printf("%nN = %d variables, %s%n", n, label);
+        System.out.printf("  %-28s %10s %16s%n", "Método", "µs/grad", "error relativo");
+        System.out.printf("  %-28s %10.2f %16.3e%n", "AD reverso (cinta)", reverseMicros, reverseError);
+        System.out.printf("  %-28s %10.2f %16.3e%n", "AD hacia adelante (duales)", forwardMicros, forwardError);
+        System.out.printf("  %-28s %10.2f %16.3e%n", "Diferencias centrales (2N)", fdMicros, fdError);
+    }
+
+    /**
+     * Gradiente por diferencias centrales sobre la expresión compilada: 2·N evaluaciones.
+     */
+    private static double[] finiteDifferences(CompiledExpression compiled, List<String> names,
+                                              Map<String, Double> values) throws Exception {
+        double[] point = new double[compiled.getVariables().length];
+        for (int i = 0; i < point.length; i++) {
+            point[i] = values.get(compiled.getVariables()[i]);
+        }
+        double[] gradient = new double[names.size()];
+        for (int k = 0; k < names.size(); k++) {
+            int slot = compiled.indexOf(names.get(k));
+            double original = point[slot];
+            double h = 1e-6 * Math.max(1, Math.abs(original));
+            point[slot] = original + h;
+            double plus = compiled.evaluate(point);
+            point[slot] = original - h;
+            double minus = compiled.evaluate(point);
+            point[slot] = original;
+            gradient[k] = (plus - minus) / (2 * h);
+        }
+        return gradient;
+    }
+
+    /**
+     * Nombre de variable con dos letras de sufijo: xaa, xab, ...
+     */
+    private static String name(int index) {
+        return "x" + (char) ('a' + index / 26) + (char) ('a' + index % 26);
+    }
+}
@@ -0,0 +1,173 @@
+import domine.Lexer;
+import domine.Parser;
+import domine.compiler.CompiledExpression;
+import domine.compiler.CompiledProgram;
+import domine.compiler.ExpressionCompiler;
+import domine.compiler.ProgramCompiler;
+import domine.compiler.TrigAccuracy;
+import domine.errors.ErrorBuffer;
+import domine.errors.ErrorCode;
+import domine.errors.SyntaxException;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Evaluación sin excepciones con registro de errores (domine.errors).
+ *
+ * 1. Lote de 1 000 000 filas en el que el 5% divide por cero: fila a fila con excepciones
+ *    (como hasta ahora), fila a fila con ErrorBuffer y por lotes con ErrorBuffer. Las filas
+ *    con error reciben el centinela y quedan anotadas, las demás dan el mismo resultado.
+ * 2. Variables sin valor, programas de varias salidas y el modo con excepciones sin cambios.
+ * 3. Errores de análisis: SyntaxException con código y sin traza de la pila.
+ */
+public class ErrorBufferDemo {
+    private static final int ROWS = 1_000_000;
+
+    public static void main(String[] args) throws Exception {
+        String source = "x / (y - 1) + sin(x)";
+        CompiledExpression compiled = compile(source);
+        Random random = new Random(5);
+        double[] xs = new double[ROWS];
+        double[] ys = new double[ROWS];
+        int expectedErrors = 0;
+        for (int i = 0; i < ROWS; i++) {
+            xs[i] = random.nextDouble() * 10;
+            ys[i] = random.nextInt(100) < 5 ? 1 : random.nextDouble() * 4;
+            expectedErrors += ys[i] == 1 ? 1 : 0;
+        }
+        double[][] columns = {xs, ys};
+
+        System.out.println("=== " + source + ": " + ROWS + " filas, " + expectedErrors + " con división por cero ===");
+        double[] thrown = new double[ROWS];
+        double[] rowByRow = new double[ROWS];
+        double[] batch = new double[ROWS];
+        ErrorBuffer rowErrors = new ErrorBuffer();
+        ErrorBuffer batchErrors = new ErrorBuffer();
+        double bestThrown = Double.MAX_VALUE;
+        double bestRow = Double.MAX_VALUE;
+        double bestBatch = Double.MAX_VALUE;
+        int caught = 0;
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            caught = 0;
+            double[] values = new double[2];
+            for (int i = 0; i < ROWS; i++) {
+                values[0] = xs[i];
+                values[1] = ys[i];
+                try {
+                    thrown[i] = compiled.evaluate(values);
+                } catch (Exception e) {
+                    thrown[i] = Double.NaN;
+                    caught++;
+                }
+            }
+            bestThrown = Math.min(bestThrown, (System.nanoTime() - start) / 1e6);
+
+            rowErrors.clear();
+            start = System.nanoTime();
+            for (int i = 0; i < ROWS; i++) {
+                values[0] = xs[i];
+                values[1] = ys[i];
+                rowByRow[i] = compiled.evaluate(values, TrigAccuracy.EXACT, rowErrors, i);
+            }
+            bestRow = Math.min(bestRow, (System.nanoTime() - start) / 1e6);
+
+            batchErrors.clear();
+            start = System.nanoTime();
+            compiled.evaluateBatch(columns, batch, TrigAccuracy.EXACT, batchErrors);
+            bestBatch = Math.min(bestBatch, (System.nanoTime() - start) / 1e6);
+        }
+        System.out.printf("fila a fila con excepciones  %7.1f ms%n", bestThrown);
+        System.out.printf("fila a fila con ErrorBuffer  %7.1f ms  (%.1f×)%n", bestRow, bestThrown / bestRow);
+        System.out.printf("por lotes con ErrorBuffer    %7.1f ms  (%.1f×)%n", bestBatch, bestThrown / bestBatch);
+
+        boolean rowsMatch = rowErrors.size() == expectedErrors && batchErrors.size() == expectedErrors;
+        for (int i = 0, e = 0; rowsMatch && i < ROWS; i++) {
+            if (ys[i] == 1) {
+                rowsMatch = rowErrors.getRow(e) == i && batchErrors.getRow(e) == i
+                        && rowErrors.getCode(e) == ErrorCode.DIVIDED_BY_ZERO && batchErrors.getCode(e) == ErrorCode.DIVIDED_BY_ZERO;
+                e++;
+            }
+        }
+        check("Se anotan exactamente las filas que dividen por cero, en orden", rowsMatch && caught == expectedErrors);
+        boolean sameResults = true;
+        for (int i = 0; i < ROWS; i++) {
+            sameResults &= Double.compare(thrown[i], rowByRow[i]) == 0 && Double.compare(thrown[i], batch[i]) == 0;
+        }
+        check("Mismos resultados; NaN en las filas con error", sameResults);
+        check("El registro es más rápido que las excepciones", bestRow < bestThrown && bestBatch < bestThrown);
+
+        System.out.println("\n=== Centinela, varias divisiones y variables sin valor ===");
+        ErrorBuffer errors = new ErrorBuffer(-1);
+        double[] output = new double[4];
+        compile("1 / x + 1 / (x - 2)").evaluateBatch(new double[][]{{0, 1, 2, 4}}, output, TrigAccuracy.EXACT, errors);
+        System.out.println("  " + Arrays.toString(output) + " " + errors);
+        check("Centinela propio y una anotación por fila aunque divida por cero dos veces",
+                output[0] == -1 && output[1] == 0 && output[2] == -1 && output[3] == 0.75 && errors.size() == 2);
+        errors.clear();
+        CompiledExpression xy = compile("x * y");
+        double withAll = xy.evaluate(Map.of("x", 2.0, "y", 3.0), errors, 0);
+        double missing = xy.evaluate(Map.of("x", 2.0), errors, 1);
+        check("Variable sin valor: " + errors, withAll == 6 && missing == -1 && errors.size() == 1
+                && errors.getRow(0) == 1 && errors.getCode(0) == ErrorCode.UNDEFINED_VARIABLE);
+
+        Map<String, String> sources = new LinkedHashMap<>();
+        sources.put("cociente", "x / y");
+        sources.put("suma", "x + y");
+        CompiledProgram program = ProgramCompiler.compile(sources);
+        double[][] results = new double[2][3];
+        errors.clear();
+        program.evaluateBatch(new double[][]{{1, 2, 3}, {2, 0, 3}}, results, TrigAccuracy.EXACT, errors);
+        check("Programa de varias salidas: todas las salidas de la fila reciben el centinela",
+                results[0][1] == -1 && results[1][1] == -1 && results[1][0] == 3 && errors.size() == 1 && errors.getRow(0) == 1);
+
+        try {
+            compiled.evaluateBatch(columns, batch, TrigAccuracy.EXACT);
+            check("Sin registro se lanza la excepción", false);
+        } catch (Exception e) {
+            check("Sin registro se lanza la excepción: " + e.getMessage(), e.getMessage().equals("División por cero"));
+        }
+
+        System.out.println("\n=== Errores de análisis ===");
+        Map<String, ErrorCode> invalid = new LinkedHashMap<>();
+        invalid.put("x +* 2", ErrorCode.UNEXPECTED_TOKEN);
+        invalid.put("sin(x", ErrorCode.EXPECTED_TOKEN);
+        invalid.put("2 + $", ErrorCode.UNRECOGNIZED_CHARACTER);
+        invalid.put("sin(x, y)", ErrorCode.WRONG_ARGUMENT_COUNT);
+        invalid.put("u = 1; u = 2; u", ErrorCode.REASSIGNED_VARIABLE);
+        invalid.put("(x + 1", ErrorCode.EXPECTED_TOKEN);
+        invalid.put("x + ", ErrorCode.INCOMPLETE_EXPRESSION);
+        for (Map.Entry<String, ErrorCode> entry : invalid.entrySet()) {
+            try {
+                compile(entry.getKey());
+                check(entry.getKey() + ": sin error", false);
+            } catch (SyntaxException e) {
+                check(String.format("%-18s %-22s %s", entry.getKey(), e.getCode(), e.getMessage()),
+                        e.getCode() == entry.getValue() && e.getStackTrace().length == 0);
+            }
+        }
+        int rejected = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < 200_000; i++) {
+            try {
+                compile(List.of("x +* 2", "sin(x", "(x + 1").get(i % 3));
+            } catch (SyntaxException e) {
+                rejected++;
+            }
+        }
+        System.out.printf("Rechazar una expresión mal escrita: %.0f ns%n", (System.nanoTime() - start) / 200_000.0);
+        check("Todas rechazadas", rejected == 200_000);
+    }
+
+    private static CompiledExpression compile(String source) throws Exception {
+        return ExpressionCompiler.compile(source, new Parser(new Lexer(source).tokenize()).parseToAST());
+    }
+
+    private static void check(String description, boolean ok) {
+        System.out.println((ok ? "✓ " : "✗ ") + description);
+    }
+}
@@ -0,0 +1,111 @@
+import domine.compiler.ExpressionCache;
+import domine.limits.ResourceLimits;
+import domine.server.EvaluationServer;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Prueba de carga local del servidor HTTP de evaluación.
+ *
+ * Levanta el servidor en un puerto libre y lanza peticiones a ritmo constante (lazo abierto):
+ * cada petición se envía en su instante programado sin esperar a que terminen las anteriores,
+ * de modo que la latencia medida incluye el encolamiento si el servidor no da abasto.
+ *
+ * Antes de la carga se envía un cuerpo de 300 000 corchetes anidados: debe rechazarse con
+ * 400 (límite maxJsonDepth) sin desbordar la pila del servidor.
+ *
+ * Uso: java EvaluationServerLoadTest [qps objetivo] [segundos]
+ * Por defecto: 500 qps durante 10 segundos.
+ */
+public class EvaluationServerLoadTest {
+
+    private static final String[] BODIES = {
+            "{\"expression\": \"sin(x) + cos(y)\", \"variables\": {\"x\": 0.5, \"y\": 1.5}}",
+            "{\"expression\": \"cos(x)^2 + sin(x)^2\", \"variables\": {\"x\": 2}}",
+            "{\"expression\": \"tan(x^2 + sin(x))\", \"bindings\": [{\"x\": 0.1}, {\"x\": 0.2}, {\"x\": 0.3}]}",
+            "{\"requests\": [{\"expression\": \"2^3^2\"}, {\"expression\": \"(8 + 2) / (3 - 1)\"}]}",
+            "{\"expression\": \"1 / x\", \"variables\": {\"x\": 0}}",
+    };
+
+    public static void main(String[] args) throws Exception {
+        int targetQps = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        EvaluationServer server = new EvaluationServer(0, new ExpressionCache(1024, ResourceLimits.defaults()));
+        server.start();
+        URI uri = URI.create("http://localhost:" + server.getPort() + EvaluationServer.PATH);
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+        System.out.println("=== Prueba de carga del servidor de evaluación ===");
+        System.out.printf("QPS objetivo: %d, duración: %d s%n", targetQps, seconds);
+
+        HttpResponse<String> nested = client.send(request(uri, "[".repeat(300_000)), HttpResponse.BodyHandlers.ofString());
+        check("Cuerpo con 300 000 niveles de anidamiento: " + nested.statusCode() + " " + nested.body(),
+                nested.statusCode() == 400 && nested.body().contains("anidamiento"));
+
+        // Calentamiento: compila las expresiones y calienta el JIT
+        for (int i = 0; i < 2000; i++) {
+            client.send(request(uri, BODIES[i % BODIES.length]), HttpResponse.BodyHandlers.discarding());
+        }
+
+        int total = targetQps * seconds;
+        long intervalNanos = 1_000_000_000L / targetQps;
+        long[] latencies = new long[total];
+        AtomicInteger errors = new AtomicInteger();
+        List<CompletableFuture<?>> pending = new ArrayList<>(total);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < total; i++) {
+            long scheduled = start + i * intervalNanos;
+            while (System.nanoTime() < scheduled) {
+                Thread.onSpinWait();
+            }
+            int index = i;
+            pending.add(client.sendAsync(request(uri, BODIES[i % BODIES.length]), HttpResponse.BodyHandlers.discarding())
+                    .handle((response, error) -> {
+                        // Se mide desde el instante programado para no ocultar la espera (omisión coordinada)
+                        latencies[index] = System.nanoTime() - scheduled;
+                        if (error != null || response.statusCode() >= 500) {
+                            errors.incrementAndGet();
+                        }
+                        return null;
+                    }));
+        }
+        CompletableFuture.allOf(pending.toArray(new CompletableFuture<?>[0])).join();
+        long elapsed = System.nanoTime() - start;
+
+        server.stop();
+
+        Arrays.sort(latencies);
+        System.out.printf("Peticiones: %d, errores de transporte: %d%n", total, errors.get());
+        System.out.printf("Rendimiento real: %.1f qps%n", total * 1e9 / elapsed);
+        System.out.printf("Latencia p50: %.3f ms%n", percentile(latencies, 0.50) / 1e6);
+        System.out.printf("Latencia p99: %.3f ms%n", percentile(latencies, 0.99) / 1e6);
+        System.out.printf("Latencia máx: %.3f ms%n", latencies[latencies.length - 1] / 1e6);
+        System.out.printf("Caché: %d aciertos, %d fallos%n", server.getCache().getHits(), server.getCache().getMisses());
+    }
+
+    private static HttpRequest request(URI uri, String body) {
+        return HttpRequest.newBuilder(uri)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static void check(String description, boolean ok) {
+        System.out.println((ok ? "✓ " : "✗ ") + description);
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+}
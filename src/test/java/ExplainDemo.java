@@ -0,0 +1,147 @@
+import domine.Lexer;
+import domine.Parser;
+import domine.ast.ASTNode;
+import domine.explain.CostModel;
+import domine.explain.Explanation;
+import domine.explain.ExpressionExplainer;
+import domine.explain.Optimization;
+import domine.load.ExpressionGenerator;
+import domine.load.WorkloadShape;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Explicación de expresiones y modelo de costo.
+ *
+ * 1. Se muestran los pesos calibrados en esta máquina y la explicación de tres expresiones:
+ *    una de una variable, una de dos con subexpresiones constantes y repetidas, y un
+ *    programa con variables locales. Se comprueban las cantidades y las optimizaciones.
+ * 2. Se compara el costo estimado con el tiempo medido de ASTNode.evaluate() para
+ *    expresiones generadas: la estimación debe ordenar las expresiones por costo y quedar
+ *    cerca del tiempo real.
+ */
+public class ExplainDemo {
+
+    public static void main(String[] args) throws Exception {
+        long start = System.nanoTime();
+        CostModel model = CostModel.getDefault();
+        System.out.printf("=== Pesos calibrados (%.0f ms) ===%n", (System.nanoTime() - start) / 1e6);
+        System.out.print(model);
+
+        System.out.println("\n=== tan(x) * x^2.5 + x^2 * 3 + sin(x) / (1 + x * x) ===");
+        Explanation single = explain("tan(x) * x^2.5 + x^2 * 3 + sin(x) / (1 + x * x)");
+        System.out.println(single);
+        check("Operadores y funciones", single.getOperators().equals(Map.of("+", 3, "*", 3, "/", 1, "^", 2))
+                && single.getFunctions().equals(Map.of("tan", 1, "sin", 1)));
+        check("x^2.5 estimada más costosa que x^2", model.weight("^") > model.weight(CostModel.SQUARE));
+        check("Trigonometría aproximada para tan(x), sin(x)",
+                single.getSuggestions(Optimization.APPROXIMATE_TRIG).get(0).getExpression().equals("tan(x), sin(x)"));
+
+        System.out.println("\n=== sin(y)^2 * x + cos(y) * x * x + (2 * 3) / sin(y)^2 ===");
+        Explanation sweep = explain("sin(y)^2 * x + cos(y) * x * x + (2 * 3) / sin(y)^2");
+        System.out.println(sweep);
+        check("Variables en orden de aparición", sweep.getVariables().equals(List.of("y", "x")));
+        check("Constante 2 * 3", expressions(sweep, Optimization.CONSTANT_FOLDING).equals(List.of("2 * 3")));
+        check("sin(y)^2 repetida", expressions(sweep, Optimization.COMMON_SUBEXPRESSION).equals(List.of("sin(y)^2")));
+        check("Memoria en sin(y), cos(y) y sin(y)",
+                expressions(sweep, Optimization.CALL_SITE_MEMO).equals(List.of("sin(y)", "cos(y)", "sin(y)")));
+        check("Al cambiar solo x se reutilizan sin(y)^2, cos(y) y 2 * 3",
+                expressions(sweep, Optimization.INCREMENTAL).contains("x"));
+
+        System.out.println("\n=== u = x^2 + sin(x); tan(u) * u + u ===");
+        Explanation let = explain("u = x^2 + sin(x); tan(u) * u + u");
+        System.out.println(let);
+        check("Variable local sin sugerencias de repetición", let.getLocals().equals(List.of("u"))
+                && let.getSuggestions(Optimization.COMMON_SUBEXPRESSION).isEmpty());
+
+        System.out.println("\n=== Estimación frente al tiempo medido ===");
+        ExpressionGenerator generator = new ExpressionGenerator(WorkloadShape.defaults(), 21);
+        List<double[]> pairs = new ArrayList<>();
+        Set<String> seen = new HashSet<>(); // Sin repetidas: dos copias empatan en la estimación
+        while (pairs.size() < 24) {
+            String source = generator.next();
+            if (!seen.add(source)) {
+                continue;
+            }
+            Parser parser = new Parser(new Lexer(source).tokenize());
+            ASTNode ast = parser.parseToAST();
+            double estimated = ExpressionExplainer.explain(ast).getEstimatedNanos();
+            double measured = measure(ast, parser.getVariableValues(), generator);
+            pairs.add(new double[]{estimated, measured});
+            System.out.printf("estimado %7.1f ns  medido %7.1f ns  %3d nodos  %s%n", estimated, measured,
+                    ast.getNodeCount(), source.length() > 60 ? source.substring(0, 57) + "..." : source);
+        }
+        List<Double> ratios = new ArrayList<>();
+        int concordant = 0;
+        int compared = 0;
+        for (int i = 0; i < pairs.size(); i++) {
+            ratios.add(pairs.get(i)[0] / pairs.get(i)[1]);
+            for (int j = i + 1; j < pairs.size(); j++) {
+                double a = pairs.get(i)[0] - pairs.get(j)[0];
+                double b = pairs.get(i)[1] - pairs.get(j)[1];
+                concordant += a * b > 0 ? 1 : 0;
+                compared++;
+            }
+        }
+        Collections.sort(ratios);
+        double median = ratios.get(ratios.size() / 2);
+        check(String.format("Mediana estimado/medido %.2f (entre 0,5 y 2)", median), median > 0.5 && median < 2);
+        check(String.format("Pares ordenados igual que el tiempo medido: %.0f%%", 100.0 * concordant / compared),
+                concordant > 0.75 * compared);
+    }
+
+    private static Explanation explain(String source) throws Exception {
+        return ExpressionExplainer.explain(new Parser(new Lexer(source).tokenize()).parseToAST());
+    }
+
+    private static List<String> expressions(Explanation explanation, Optimization optimization) {
+        List<String> expressions = new ArrayList<>();
+        for (Explanation.Suggestion suggestion : explanation.getSuggestions(optimization)) {
+            expressions.add(suggestion.getExpression());
+        }
+        return expressions;
+    }
+
+    /**
+     * Mejor tiempo por evaluación, en ns (mismo criterio que la calibración).
+     */
+    private static double measure(ASTNode ast, Map<String, Double> values, ExpressionGenerator generator)
+            throws Exception {
+        String[] variables = generator.getVariables();
+        double[] xs = new double[1024];
+        for (int i = 0; i < xs.length; i++) {
+            xs[i] = generator.nextValue();
+        }
+        for (String variable : variables) {
+            values.put(variable, generator.nextValue());
+        }
+        // Como en la calibración: calentamiento y un valor nuevo por bloque de 64 evaluaciones
+        double best = Double.MAX_VALUE;
+        double sink = 0;
+        for (int round = 0; round < 10; round++) {
+            long start = System.nanoTime();
+            for (int block = 0; block < 20_000 / 64; block++) {
+                values.put(variables[block % variables.length], xs[block & 1023]);
+                for (int i = 0; i < 64; i++) {
+                    sink += ast.evaluate();
+                }
+            }
+            if (round >= 3) {
+                best = Math.min(best, (double) (System.nanoTime() - start) / (20_000 / 64 * 64));
+            }
+        }
+        if (sink == 42) {
+            System.out.println();
+        }
+        return best;
+    }
+
+    private static void check(String description, boolean ok) {
+        System.out.println((ok ? "✓ " : "✗ ") + description);
+    }
+}
@@ -0,0 +1,193 @@
+import domine.Lexer;
+import domine.Parser;
+import domine.Token;
+import domine.ast.ASTNode;
+import domine.compiler.CompiledExpression;
+import domine.compiler.CompiledProgram;
+import domine.compiler.ExpressionCompiler;
+import domine.compiler.ProgramCompiler;
+import domine.compiler.TrigAccuracy;
+import domine.load.ExpressionGenerator;
+import domine.load.WorkloadShape;
+import domine.metrics.CompileEvent;
+import domine.metrics.EvaluateBatchEvent;
+import domine.metrics.Fingerprint;
+import domine.metrics.ParseEvent;
+import domine.metrics.TokenizeEvent;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Eventos de JDK Flight Recorder del pipeline.
+ *
+ * 1. Con umbral cero se graba una carga pequeña y se comprueban los campos de cada evento:
+ *    huellas iguales en todas las etapas de una misma expresión, cantidades de tokens y
+ *    nodos, filas del lote y resultado de las etapas que fallan.
+ * 2. Con los umbrales por defecto solo quedan las operaciones lentas: una expresión enorme
+ *    entre miles de expresiones cortas. Algunas cortas también superan el umbral cuando el
+ *    hilo pierde el procesador (compilación del JIT, GC) en medio de la operación; son
+ *    justamente los casos que la grabación permite relacionar con esas pausas.
+ * 3. Se compara el rendimiento sin grabación y con una grabación con los umbrales por defecto.
+ *
+ * Las grabaciones se pueden abrir en JDK Mission Control (categoría "Domine") o resumir con
+ * "jfr summary" y "jfr print --events domine.Parse archivo.jfr".
+ */
+public class FlightRecorderDemo {
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== Umbral cero: campos de los eventos ===");
+        String source = "u = x^2 + sin(x); tan(u) * u + u";
+        Path file = record(Duration.ZERO, () -> {
+            List<Token> tokens = new Lexer(source).tokenize();
+            ASTNode ast = new Parser(tokens).parseToAST();
+            CompiledExpression compiled = ExpressionCompiler.compile(source, ast);
+            double[] xs = new double[10_000];
+            compiled.evaluateBatch(new double[][]{xs}, new double[xs.length], TrigAccuracy.EXACT);
+
+            Map<String, String> outputs = new LinkedHashMap<>();
+            outputs.put("x", "sin(t) * r");
+            outputs.put("y", "cos(t) * r");
+            CompiledProgram program = ProgramCompiler.compile(outputs);
+            program.evaluateBatch(new double[][]{new double[500], new double[500]},
+                    new double[][]{new double[500], new double[500]}, TrigAccuracy.EXACT);
+
+            for (String erroneous : new String[]{"2 $ 3", "sin(1, 2)"}) {
+                try {
+                    new Parser(new Lexer(erroneous).tokenize()).parseToAST();
+                } catch (Exception e) {
+                    // Se espera el error: queda en el campo outcome del evento
+                }
+            }
+        });
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        for (RecordedEvent event : events) {
+            System.out.printf("%-22s %6.1f µs  huella %016x  %s%n", event.getEventType().getName(),
+                    event.getDuration().toNanos() / 1e3, event.getLong("fingerprint"), fields(event));
+        }
+        long fingerprint = Fingerprint.of(source);
+        RecordedEvent tokenize = first(events, "domine.Tokenize", fingerprint);
+        RecordedEvent parse = first(events, "domine.Parse", fingerprint);
+        RecordedEvent compile = first(events, "domine.Compile", fingerprint);
+        RecordedEvent batch = first(events, "domine.EvaluateBatch", fingerprint);
+        check("La misma huella en las cuatro etapas",
+                tokenize != null && parse != null && compile != null && batch != null);
+        check("Tokens y nodos", tokenize != null && tokenize.getInt("tokenCount") == 19
+                && parse != null && parse.getInt("nodeCount") == 13 && parse.getInt("depth") == 5);
+        check("Filas del lote", batch != null && batch.getInt("rows") == 10_000);
+        check("Programa de dos salidas", events.stream().anyMatch(e -> e.getEventType().getName().equals("domine.Compile")
+                && e.getInt("outputs") == 2 && e.getInt("instructions") == 4));
+        check("Errores en outcome", events.stream().filter(e -> !e.getString("outcome").equals("OK")).count() == 2);
+
+        System.out.println("\n=== Umbrales por defecto: solo las operaciones lentas ===");
+        ExpressionGenerator generator = new ExpressionGenerator(WorkloadShape.defaults(), 11);
+        StringBuilder huge = new StringBuilder("x");
+        for (int i = 0; i < 5_000; i++) {
+            huge.append(" + sin(x * ").append(i).append(") * cos(x + ").append(i).append(")");
+        }
+        int[] small = {0};
+        file = record(null, () -> {
+            for (int i = 0; i < 20_000; i++) {
+                new Parser(new Lexer(generator.next()).tokenize()).parseToAST();
+                small[0]++;
+            }
+            new Parser(new Lexer(huge.toString()).tokenize()).parseToAST();
+        });
+        events = RecordingFile.readAllEvents(file);
+        long hugeFingerprint = Fingerprint.of(huge);
+        int shown = 0;
+        for (RecordedEvent event : events) {
+            boolean isHuge = event.getLong("fingerprint") == hugeFingerprint;
+            if (isHuge || shown++ < 5) {
+                System.out.printf("%-22s %8.2f ms  %s%s%n", event.getEventType().getName(),
+                        event.getDuration().toNanos() / 1e6, fields(event), isHuge ? "  <- expresión enorme" : "");
+            }
+        }
+        check("La expresión enorme quedó registrada", first(events, "domine.Parse", hugeFingerprint) != null);
+        check(String.format("Se omitieron las cortas: %d eventos de %d operaciones (%.2f%%)",
+                events.size(), 2 * small[0], 100.0 * events.size() / (2 * small[0])),
+                events.size() < 2 * small[0] / 50);
+
+        System.out.println("\n=== Costo ===");
+        String[] corpus = new String[4096];
+        for (int i = 0; i < corpus.length; i++) {
+            corpus[i] = generator.next();
+        }
+        throughput(corpus);
+        System.out.printf("sin grabación              %8.0f exp/s%n", throughput(corpus));
+        double[] recorded = new double[1];
+        record(null, () -> recorded[0] = throughput(corpus));
+        System.out.printf("grabando, umbral por defecto %6.0f exp/s%n", recorded[0]);
+    }
+
+    private interface Workload {
+        void run() throws Exception;
+    }
+
+    /**
+     * Graba los eventos del pipeline mientras se ejecuta la carga.
+     *
+     * @param threshold Umbral para todos los eventos, o null para los de cada evento
+     */
+    private static Path record(Duration threshold, Workload workload) throws Exception {
+        Path file = Files.createTempFile("domine", ".jfr");
+        file.toFile().deleteOnExit();
+        try (Recording recording = new Recording()) {
+            for (Class<? extends jdk.jfr.Event> type : List.of(TokenizeEvent.class, ParseEvent.class,
+                    CompileEvent.class, EvaluateBatchEvent.class)) {
+                if (threshold != null) {
+                    recording.enable(type).withThreshold(threshold);
+                } else {
+                    recording.enable(type);
+                }
+            }
+            recording.start();
+            workload.run();
+            recording.stop();
+            recording.dump(file);
+        }
+        return file;
+    }
+
+    private static RecordedEvent first(List<RecordedEvent> events, String type, long fingerprint) {
+        for (RecordedEvent event : events) {
+            if (event.getEventType().getName().equals(type) && event.getLong("fingerprint") == fingerprint) {
+                return event;
+            }
+        }
+        return null;
+    }
+
+    private static String fields(RecordedEvent event) {
+        StringBuilder text = new StringBuilder();
+        for (String field : new String[]{"inputLength", "tokenCount", "nodeCount", "depth", "outputs",
+                "instructions", "rows"}) {
+            if (event.hasField(field)) {
+                Object value = event.getValue(field);
+                text.append(field).append('=').append(value).append(' ');
+            }
+        }
+        return text.append("outcome=").append(event.getString("outcome")).toString();
+    }
+
+    private static double throughput(String[] corpus) throws Exception {
+        long deadline = System.nanoTime() + 1_000_000_000L;
+        long start = System.nanoTime();
+        long count = 0;
+        while (System.nanoTime() < deadline) {
+            new Parser(new Lexer(corpus[(int) (count++ & (corpus.length - 1))]).tokenize()).parseToAST();
+        }
+        return count / ((System.nanoTime() - start) / 1e9);
+    }
+
+    private static void check(String description, boolean ok) {
+        System.out.println((ok ? "✓ " : "✗ ") + description);
+    }
+}
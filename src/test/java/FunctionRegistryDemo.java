@@ -0,0 +1,171 @@
+import domine.Lexer;
+import domine.Parser;
+import domine.ast.ASTNode;
+import domine.compiler.CompiledExpression;
+import domine.compiler.ExpressionCompiler;
+import domine.differentiation.ForwardModeDifferentiator;
+import domine.differentiation.Gradient;
+import domine.differentiation.ReverseModeDifferentiator;
+import domine.functions.FunctionDefinition;
+import domine.functions.FunctionRegistry;
+import domine.grid.GridAxis;
+import domine.grid.GridEvaluator;
+import domine.incremental.IncrementalEvaluator;
+import domine.interval.Interval;
+import domine.interval.IntervalEvaluator;
+import domine.limits.ResourceLimits;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Registro de funciones: funciones predefinidas nuevas, funciones propias del dominio y
+ * costo de la búsqueda por nombre.
+ *
+ * 1. Se registra en un registro propio una función de un argumento con derivada (sinc) y
+ *    una de tres argumentos como MethodHandle (clamp), y se comprueba que el AST, la
+ *    expresión compilada, la evaluación incremental, la malla y la diferenciación
+ *    automática den el mismo resultado.
+ * 2. Se compara la búsqueda en la tabla hash perfecta con un HashMap que pasa el nombre
+ *    a minúsculas en cada consulta, como hacía la evaluación antes de enlazar las
+ *    llamadas en el Parser.
+ */
+public class FunctionRegistryDemo {
+
+    private static final String[] EXPRESSIONS = {
+            "sqrt(x^2 + y^2) + atan2(y, x)",
+            "log(1 + exp(x)) - abs(y)",
+            "asin(x / 2) + acos(y / 2) + atan(x*y)",
+            "sinc(3*x) + clamp(x*y, -0.5, 0.5)",
+            "SQRT(abs(x)) * Sen(y) + Ln(2)",
+    };
+
+    public static void main(String[] args) throws Throwable {
+        FunctionRegistry registry = FunctionRegistry.withStandardFunctions();
+        registry.register(FunctionDefinition.unary("sinc",
+                x -> x == 0 ? 1 : Math.sin(x) / x,
+                x -> x == 0 ? 0 : (x * Math.cos(x) - Math.sin(x)) / (x * x)));
+        MethodHandle clamp = MethodHandles.lookup().findStatic(FunctionRegistryDemo.class, "clamp",
+                MethodType.methodType(double.class, double.class, double.class, double.class));
+        registry.register(FunctionDefinition.of("clamp", 3, clamp));
+
+        System.out.println("=== Registro de funciones ===");
+        System.out.println("Funciones: " + registry.getNames());
+        for (String source : EXPRESSIONS) {
+            check(source, registry);
+        }
+        lookupBenchmark(registry);
+    }
+
+    private static double clamp(double value, double lo, double hi) {
+        return Math.max(lo, Math.min(hi, value));
+    }
+
+    private static void check(String source, FunctionRegistry registry) throws Exception {
+        Parser parser = new Parser(new Lexer(source, ResourceLimits.unlimited(), registry).tokenize());
+        ASTNode ast = parser.parseToAST();
+        CompiledExpression compiled = ExpressionCompiler.compile(source, ast);
+        IncrementalEvaluator incremental = new IncrementalEvaluator(ast);
+        GridEvaluator grid = new GridEvaluator(ast, List.of(new GridAxis("y", 0.1, 1.5, 15), new GridAxis("x", 0.1, 1.5, 15)));
+        double[] gridValues = grid.evaluate(Map.of());
+
+        double maxDifference = 0;
+        double maxGradientDifference = 0;
+        boolean differentiable = true;
+        boolean enclosed = true;
+        for (int i = 0; i < 15; i++) {
+            for (int j = 0; j < 15; j++) {
+                double y = 0.1 + 0.1 * i;
+                double x = 0.1 + 0.1 * j;
+                Map<String, Double> values = Map.of("x", x, "y", y);
+                parser.getVariableValues().putAll(values); // El AST lee las variables de este mapa
+                double expected = ast.evaluate();
+                incremental.setAll(values);
+                maxDifference = Math.max(maxDifference, Math.abs(compiled.evaluate(values) - expected));
+                maxDifference = Math.max(maxDifference, Math.abs(incremental.evaluate() - expected));
+                maxDifference = Math.max(maxDifference, Math.abs(gridValues[i * 15 + j] - expected));
+
+                Interval bound = IntervalEvaluator.evaluate(ast, Map.of("x", Interval.of(x - 0.05, x + 0.05),
+                        "y", Interval.of(y - 0.05, y + 0.05)));
+                enclosed &= bound.contains(expected);
+
+                try {
+                    Gradient reverse = ReverseModeDifferentiator.gradient(ast, values);
+                    Gradient forward = ForwardModeDifferentiator.gradient(ast, values, List.of("x", "y"));
+                    for (String name : new String[]{"x", "y"}) {
+                        double h = 1e-6;
+                        Map<String, Double> plus = new HashMap<>(values);
+                        Map<String, Double> minus = new HashMap<>(values);
+                        plus.put(name, values.get(name) + h);
+                        minus.put(name, values.get(name) - h);
+                        double central = (compiled.evaluate(plus) - compiled.evaluate(minus)) / (2 * h);
+                        double scale = Math.max(1, Math.abs(central));
+                        maxGradientDifference = Math.max(maxGradientDifference,
+                                Math.abs(reverse.get(name) - central) / scale);
+                        maxGradientDifference = Math.max(maxGradientDifference,
+                                Math.abs(forward.get(name) - central) / scale);
+                    }
+                } catch (Exception e) {
+                    differentiable = false;
+                }
+            }
+        }
+
+        System.out.printf("%n%s%n", source);
+        System.out.printf("  Compilada / incremental / malla vs AST: diferencia máxima %.2e %s%n",
+                maxDifference, maxDifference <= 1e-12 ? "✓" : "✗");
+        System.out.printf("  Intervalos contienen el valor puntual: %s%n", enclosed ? "✓" : "✗");
+        if (differentiable) {
+            System.out.printf("  AD reverso y hacia adelante vs diferencias centrales: error relativo %.2e %s%n",
+                    maxGradientDifference, maxGradientDifference <= 1e-6 ? "✓" : "✗");
+        } else {
+            System.out.println("  AD: alguna función no tiene derivadas registradas (clamp)");
+        }
+    }
+
+    private static void lookupBenchmark(FunctionRegistry registry) {
+        Map<String, FunctionDefinition> hashMap = new HashMap<>();
+        for (String name : registry.getNames()) {
+            hashMap.put(name, registry.lookup(name));
+        }
+        String[] names = {"sin", "COS", "Tan", "sqrt", "ATAN2", "x", "velocidad", "Exp", "log", "y"};
+        Random random = new Random(7);
+        String[] queries = new String[1 << 16];
+        for (int i = 0; i < queries.length; i++) {
+            queries[i] = names[random.nextInt(names.length)];
+        }
+
+        System.out.println("\n=== Búsqueda por nombre (sin distinguir mayúsculas) ===");
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            int found = 0;
+            for (int r = 0; r < 100; r++) {
+                for (String query : queries) {
+                    found += registry.lookup(query) != null ? 1 : 0;
+                }
+            }
+            double perfect = (System.nanoTime() - start) / (100.0 * queries.length);
+
+            start = System.nanoTime();
+            int foundMap = 0;
+            for (int r = 0; r < 100; r++) {
+                for (String query : queries) {
+                    foundMap += hashMap.get(query.toLowerCase(Locale.ROOT)) != null ? 1 : 0;
+                }
+            }
+            double map = (System.nanoTime() - start) / (100.0 * queries.length);
+
+            if (round == 2) {
+                System.out.printf("Tabla hash perfecta:             %6.1f ns/búsqueda%n", perfect);
+                System.out.printf("HashMap + toLowerCase:           %6.1f ns/búsqueda (%.1fx)%n", map, map / perfect);
+                System.out.printf("Mismos resultados: %s%n", found == foundMap ? "✓" : "✗");
+            }
+        }
+    }
+}
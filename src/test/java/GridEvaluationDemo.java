@@ -0,0 +1,75 @@
+import domine.Lexer;
+import domine.Parser;
+import domine.ast.ASTNode;
+import domine.compiler.CompiledExpression;
+import domine.compiler.ExpressionCompiler;
+import domine.grid.GridAxis;
+import domine.grid.GridEvaluator;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Comparación del barrido de una malla 2-D con y sin extracción de invariantes de lazo.
+ *
+ * Expresión: sin(y)^2 * cos(x) + tan(y / 3) * x - sin(x * y) + cos(y)^3
+ * Ejes: y (externo) y x (interno). Los subárboles sin(y)^2, tan(y / 3) y cos(y)^3 solo
+ * dependen de y y se calculan una vez por fila.
+ */
+public class GridEvaluationDemo {
+
+    private static final String SOURCE = "sin(y)^2 * cos(x) + tan(y / 3) * x - sin(x * y) + cos(y)^3";
+    private static final int SIZE = 1000;
+    private static final int REPETITIONS = 5;
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== Barrido de malla con extracción de invariantes ===");
+        System.out.println("Expresión: " + SOURCE);
+        System.out.printf("Malla: %d x %d puntos%n", SIZE, SIZE);
+
+        ASTNode ast = new Parser(new Lexer(SOURCE).tokenize()).parseToAST();
+        List<GridAxis> axes = Arrays.asList(new GridAxis("y", -2, 2, SIZE), new GridAxis("x", -3, 3, SIZE));
+        GridEvaluator grid = new GridEvaluator(ast, axes);
+        CompiledExpression compiled = ExpressionCompiler.compile(SOURCE, ast);
+
+        double[] hoisted = new double[grid.getPoints()];
+        double[] naive = new double[grid.getPoints()];
+        long hoistedNanos = Long.MAX_VALUE, naiveNanos = Long.MAX_VALUE;
+        for (int r = 0; r < REPETITIONS; r++) {
+            long start = System.nanoTime();
+            grid.evaluate(Collections.emptyMap(), hoisted);
+            hoistedNanos = Math.min(hoistedNanos, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            pointByPoint(compiled, axes, naive);
+            naiveNanos = Math.min(naiveNanos, System.nanoTime() - start);
+        }
+
+        double worst = 0;
+        for (int i = 0; i < naive.length; i++) {
+            worst = Math.max(worst, Math.abs(naive[i] - hoisted[i]));
+        }
+        System.out.printf("Operaciones: %d con invariantes vs %d punto a punto (%.1fx menos)%n",
+                grid.getOperations(), grid.getNaiveOperations(),
+                (double) grid.getNaiveOperations() / grid.getOperations());
+        System.out.printf("Punto a punto (compilada): %7.1f ms%n", naiveNanos / 1e6);
+        System.out.printf("Con invariantes:           %7.1f ms (%.1fx)%n", hoistedNanos / 1e6,
+                (double) naiveNanos / hoistedNanos);
+        System.out.printf("Diferencia máxima: %.2e %s%n", worst, worst == 0 ? "✓" : "✗");
+    }
+
+    private static void pointByPoint(CompiledExpression compiled, List<GridAxis> axes, double[] output)
+            throws Exception {
+        int y = compiled.indexOf("y"), x = compiled.indexOf("x");
+        double[] values = new double[2];
+        int position = 0;
+        for (int i = 0; i < axes.get(0).getPoints(); i++) {
+            values[y] = axes.get(0).valueAt(i);
+            for (int j = 0; j < axes.get(1).getPoints(); j++) {
+                values[x] = axes.get(1).valueAt(j);
+                output[position++] = compiled.evaluate(values);
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+import domine.Lexer;
+import domine.Parser;
+import domine.ast.ASTNode;
+import domine.incremental.IncrementalEvaluator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Comparación entre la evaluación completa del AST y la evaluación incremental cuando
+ * cambia una sola variable entre evaluaciones.
+ *
+ * Expresión con N variables: Σ sin(vᵢ)·cos(vᵢ₊₁)^2 + tan(vᵢ / 3). En cada paso se cambia una
+ * variable al azar y se verifica que ambos resultados coincidan.
+ *
+ * Como las sumas se asocian a la izquierda, el camino hasta la raíz atraviesa en promedio
+ * la mitad de los N términos: se recalculan esas sumas, pero no los senos, cosenos ni
+ * tangentes de los términos que no cambiaron.
+ */
+public class IncrementalEvaluationDemo {
+
+    private static final int STEPS = 20_000;
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== Evaluación incremental ===");
+        for (int n : new int[]{8, 64, 256}) {
+            run(n);
+        }
+    }
+
+    private static void run(int n) throws Exception {
+        List<String> names = new ArrayList<>();
+        StringBuilder source = new StringBuilder();
+        for (int i = 0; i < n; i++) {
+            names.add(name(i));
+        }
+        for (int i = 0; i < n; i++) {
+            source.append(i == 0 ? "" : " + ").append("sin(").append(names.get(i)).append(")*cos(")
+                    .append(names.get((i + 1) % n)).append(")^2 + tan(").append(names.get(i)).append(" / 3)");
+        }
+
+        Parser parser = new Parser(new Lexer(source.toString()).tokenize());
+        ASTNode ast = parser.parseToAST();
+        IncrementalEvaluator incremental = new IncrementalEvaluator(ast);
+        Random random = new Random(7);
+        for (String name : names) {
+            double value = random.nextDouble();
+            parser.getVariableValues().put(name, value);
+            incremental.set(name, value);
+        }
+        incremental.evaluate();
+
+        long fullNanos = 0, incrementalNanos = 0, recomputed = 0;
+        double worst = 0;
+        for (int step = 0; step < STEPS; step++) {
+            String name = names.get(random.nextInt(n));
+            double value = random.nextDouble() * 2 - 1;
+            parser.getVariableValues().put(name, value);
+
+            long start = System.nanoTime();
+            double full = ast.evaluate();
+            fullNanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            incremental.set(name, value);
+            double updated = incremental.evaluate();
+            incrementalNanos += System.nanoTime() - start;
+
+            recomputed += incremental.getRecomputed();
+            worst = Math.max(worst, Math.abs(full - updated));
+        }
+
+        System.out.printf("%nN = %d variables, %d nodos%n", n, incremental.getNodeCount());
+        System.out.printf("  Evaluación completa:    %8.2f µs/paso%n", fullNanos / 1e3 / STEPS);
+        System.out.printf("  Evaluación incremental: %8.2f µs/paso (%.1f nodos recalculados)%n",
+                incrementalNanos / 1e3 / STEPS, (double) recomputed / STEPS);
+        System.out.printf("  Diferencia máxima: %.2e %s%n", worst, worst == 0 ? "✓" : "✗");
+    }
+
+    /**
+     * Nombre de variable con dos letras de sufijo: vaa, vab, ...
+     */
+    private static String name(int index) {
+        return "v" + (char) ('a' + index / 26) + (char) ('a' + index % 26);
+    }
+}
@@ -0,0 +1,240 @@
+import domine.Lexer;
+import domine.Parser;
+import domine.Token;
+import domine.ast.ASTNode;
+import domine.errors.SyntaxException;
+import domine.incremental.IncrementalParser;
+import domine.incremental.ParseResult;
+import domine.incremental.TextEdit;
+import domine.load.ExpressionGenerator;
+import domine.load.WorkloadShape;
+import domine.render.JsonRenderer;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Análisis incremental para un editor de fórmulas (domine.incremental.IncrementalParser).
+ *
+ * 1. 20 000 cambios al azar (inserciones, borrados y reemplazos, muchos de los cuales dejan
+ *    el texto inválido) encadenados sobre el resultado incremental: después de cada uno,
+ *    los tokens, el AST, su valor y el error coinciden con analizar el texto desde cero.
+ * 2. Ejemplos: tokens leídos y subárboles reutilizados, variables locales y recuperación
+ *    después de textos intermedios con errores.
+ * 3. Escritura tecla a tecla en una fórmula de 2 000 términos: análisis completo frente
+ *    al incremental.
+ */
+public class IncrementalParseDemo {
+    private static final String[] FRAGMENTS = {"x", "y", "2", "1.5", "e", "E3", "+", "-", "*", "/", "^", "(", ")",
+            ",", " ", "sin(", "atan2(", "max(x, ", "u", "=", ";", "$", "..", "3e-2", "z1"};
+    private static final String[] ATOMS = {"x", "y", "u", "2.5", "3e2", "(x + 1)", "sin(y)", "atan2(x0, 2)", "x1 ^ 2"};
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== Cambios al azar frente al análisis completo ===");
+        IncrementalParser incremental = new IncrementalParser();
+        ExpressionGenerator generator = new ExpressionGenerator(WorkloadShape.defaults(), 50);
+        Random random = new Random(50);
+        int edits = 0;
+        int mismatches = 0;
+        int invalid = 0;
+        long relexed = 0;
+        long tokens = 0;
+        long reused = 0;
+        for (int sequence = 0; sequence < 400; sequence++) {
+            String start = sequence % 4 == 0
+                    ? "u = " + generator.next() + "; v = sin(u) * (x + 1); " + generator.next() + " + v * u"
+                    : generator.next() + " + (" + generator.next() + ")";
+            ParseResult result = incremental.parse(start);
+            Deque<TextEdit> undo = new ArrayDeque<>();
+            for (int step = 0; step < 50; step++) {
+                String text = result.getText();
+                TextEdit edit;
+                if (!result.isValid() && !undo.isEmpty() && random.nextInt(8) != 0) {
+                    edit = undo.pop(); // Deshacer hasta volver a un texto válido
+                } else {
+                    edit = randomEdit(text, random);
+                    undo.push(new TextEdit(edit.getOffset(), edit.getInserted().length(),
+                            text.substring(edit.getOffset(), edit.getOffset() + edit.getRemovedLength())));
+                }
+                result = incremental.apply(result, edit);
+                edits++;
+                String expected = fullParse(result.getText());
+                String actual = describe(result, incremental.getVariableValues());
+                if (!expected.equals(actual)) {
+                    mismatches++;
+                    if (mismatches <= 3) {
+                        System.out.println("  \"" + result.getText() + "\"\n    " + expected + "\n    " + actual);
+                    }
+                }
+                invalid += result.isValid() ? 0 : 1;
+                relexed += result.getRelexedTokens();
+                tokens += result.getTokens() == null ? 0 : result.getTokens().size();
+                reused += result.getReusedSubtrees();
+            }
+        }
+        System.out.printf("%d cambios (%d dejan el texto inválido): %.1f tokens leídos de %.1f, %.1f subárboles reutilizados%n",
+                edits, invalid, (double) relexed / edits, (double) tokens / edits, (double) reused / edits);
+        check("Mismos tokens, AST, valor y error que el análisis completo", mismatches == 0 && invalid > 0);
+
+        System.out.println("\n=== Ejemplos ===");
+        String source = "sin(x^2 + y) * (1 + cos(z)) + x";
+        ParseResult before = incremental.parse(source);
+        ParseResult after = incremental.apply(before, new TextEdit(source.length() - 1, 1, "2"));
+        System.out.println("  " + after);
+        check("Cambiar la última x: un token leído y dos subárboles reutilizados",
+                after.getRelexedTokens() == 1 && after.getReusedSubtrees() == 2
+                        && sameTree(after.getRoot(), "sin(x^2 + y) * (1 + cos(z)) + 2"));
+        ParseResult number = incremental.apply(after, new TextEdit(source.length(), 0, "e3"));
+        check("Escribir el exponente de un número vuelve a leer el número: " + number.getTokens().get(number.getTokens().size() - 1).getLexeme(),
+                number.getTokens().get(number.getTokens().size() - 1).getValue() == 2000);
+
+        String program = "u = (x + 1) * (y - 2); v = (x + 1) / 2; (x + 1) * u + v";
+        ParseResult let = incremental.parse(program);
+        ParseResult renamed = incremental.apply(let, new TextEdit(program.indexOf("v = "), 1, "x"));
+        System.out.println("  " + renamed);
+        check("Definir una variable ya usada: mismo error que el análisis completo",
+                !renamed.isValid() && fullParse(renamed.getText()).equals(describe(renamed, incremental.getVariableValues())));
+
+        ParseResult typing = incremental.parse("");
+        String typed = "atan2(y, x) + 1";
+        int errors = 0;
+        for (int i = 0; i < typed.length(); i++) {
+            typing = incremental.apply(typing, new TextEdit(i, 0, typed.substring(i, i + 1)));
+            errors += typing.isValid() ? 0 : 1;
+        }
+        System.out.println("  " + typing);
+        check("Escribir carácter a carácter pasando por " + errors + " textos con errores",
+                typing.isValid() && sameTree(typing.getRoot(), typed));
+
+        System.out.println("\n=== Fórmula de 2 000 términos, escritura tecla a tecla ===");
+        StringBuilder formula = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            formula.append(i == 0 ? "" : " + ").append("(").append(generator.next()).append(")");
+        }
+        String text = formula.toString();
+        int offset = text.indexOf(" + ", text.length() / 2);
+        String keystrokes = " + sin(x * 2.5) / (y - 1)";
+        System.out.println("  " + text.length() + " caracteres, " + new Lexer(text).tokenize().size()
+                + " tokens; se escribe \"" + keystrokes.trim() + "\" en el medio");
+        double bestFull = Double.MAX_VALUE;
+        double bestIncremental = Double.MAX_VALUE;
+        ParseResult typed2 = null;
+        for (int round = 0; round < 10; round++) {
+            long begin = System.nanoTime();
+            String current = text;
+            for (int i = 0; i < keystrokes.length(); i++) {
+                current = new TextEdit(offset + i, 0, keystrokes.substring(i, i + 1)).apply(current);
+                try {
+                    new Parser(new Lexer(current).tokenize()).parseToAST();
+                } catch (SyntaxException e) {
+                    // Texto intermedio inválido, como en el editor
+                }
+            }
+            bestFull = Math.min(bestFull, (System.nanoTime() - begin) / 1e6 / keystrokes.length());
+
+            ParseResult result = incremental.parse(text);
+            begin = System.nanoTime();
+            for (int i = 0; i < keystrokes.length(); i++) {
+                result = incremental.apply(result, new TextEdit(offset + i, 0, keystrokes.substring(i, i + 1)));
+            }
+            bestIncremental = Math.min(bestIncremental, (System.nanoTime() - begin) / 1e6 / keystrokes.length());
+            typed2 = result;
+        }
+        System.out.printf("  análisis completo %7.3f ms por tecla%n  incremental       %7.3f ms por tecla  (%.0f×)%n",
+                bestFull, bestIncremental, bestFull / bestIncremental);
+        System.out.println("  última tecla: " + typed2.getRelexedTokens() + " tokens leídos, "
+                + typed2.getReusedSubtrees() + " subárboles reutilizados");
+        check("Mismo AST que el análisis completo", typed2.isValid()
+                && fullParse(typed2.getText()).equals(describe(typed2, incremental.getVariableValues())));
+        check("Al menos 5 veces más rápido", bestIncremental * 5 < bestFull);
+    }
+
+    /**
+     * Dos de cada tres veces reemplaza un número o identificador por otra expresión, para que
+     * el texto siga siendo válido; las demás inserta y borra fragmentos cualesquiera.
+     */
+    private static TextEdit randomEdit(String text, Random random) {
+        int offset = random.nextInt(text.length() + 1);
+        if (random.nextInt(3) != 0) {
+            int begin = offset;
+            while (begin > 0 && Character.isLetterOrDigit(text.charAt(begin - 1))) {
+                begin--;
+            }
+            int end = offset;
+            while (end < text.length() && (Character.isLetterOrDigit(text.charAt(end)) || text.charAt(end) == '.')) {
+                end++;
+            }
+            if (begin < end && (end == text.length() || text.charAt(end) != '(')) { // No el nombre de una función
+                return new TextEdit(begin, end - begin, ATOMS[random.nextInt(ATOMS.length)]);
+            }
+        }
+        int removed = random.nextInt(3) == 0 ? 0 : Math.min(text.length() - offset, random.nextInt(4));
+        String inserted = random.nextInt(4) == 0 ? "" : FRAGMENTS[random.nextInt(FRAGMENTS.length)];
+        return new TextEdit(offset, removed, inserted);
+    }
+
+    /**
+     * Tokens, AST en JSON y valor (o error) al analizar el texto desde cero.
+     */
+    private static String fullParse(String text) {
+        List<Token> tokens;
+        try {
+            tokens = new Lexer(text).tokenize();
+        } catch (Exception e) {
+            return "error " + e.getMessage();
+        }
+        Parser parser = new Parser(tokens);
+        try {
+            ASTNode root = parser.parseToAST();
+            return describe(tokens) + " " + new JsonRenderer().render(root) + " = " + value(root, parser.getVariableValues());
+        } catch (Exception e) {
+            return describe(tokens) + " error " + e.getMessage();
+        }
+    }
+
+    private static String describe(ParseResult result, Map<String, Double> variableValues) {
+        if (result.getTokens() == null) {
+            return "error " + result.getError().getMessage();
+        }
+        if (!result.isValid()) {
+            return describe(result.getTokens()) + " error " + result.getError().getMessage();
+        }
+        return describe(result.getTokens()) + " " + new JsonRenderer().render(result.getRoot()) + " = "
+                + value(result.getRoot(), variableValues);
+    }
+
+    private static String describe(List<Token> tokens) {
+        StringBuilder text = new StringBuilder();
+        for (Token token : tokens) {
+            text.append(token.getTokenType()).append(':').append(token.getLexeme()).append(':')
+                    .append(token.getValue()).append(' ');
+        }
+        return text.toString();
+    }
+
+    /**
+     * Valor con x = 0.5, y = 2, u = 3 y el resto de las variables en 1.25.
+     */
+    private static String value(ASTNode root, Map<String, Double> variableValues) {
+        variableValues.clear();
+        for (String name : List.of("x", "y", "u", "v", "z", "z1", "e", "E3", "x0", "x1", "x2", "x3")) {
+            variableValues.put(name, name.equals("x") ? 0.5 : name.equals("y") ? 2.0 : name.equals("u") ? 3.0 : 1.25);
+        }
+        try {
+            return String.valueOf(root.evaluate());
+        } catch (Exception e) {
+            return "!" + e.getMessage();
+        }
+    }
+
+    private static boolean sameTree(ASTNode root, String source) throws Exception {
+        return new JsonRenderer().render(root).equals(new JsonRenderer().render(new Parser(new Lexer(source).tokenize()).parseToAST()));
+    }
+
+    private static void check(String description, boolean ok) {
+        System.out.println((ok ? "✓ " : "✗ ") + description);
+    }
+}
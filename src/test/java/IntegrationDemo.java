@@ -0,0 +1,70 @@
+import domine.compiler.CompiledExpression;
+import domine.compiler.ExpressionCache;
+import domine.integration.AdaptiveIntegrator;
+import domine.integration.IntegrationResult;
+import domine.limits.ResourceLimits;
+
+import java.util.Collections;
+
+/**
+ * Demostración de la integración adaptativa.
+ *
+ * Para integrales con valor exacto conocido se compara el error y las evaluaciones con
+ * la regla del trapecio uniforme (el lazo que reemplaza), duplicando sus puntos hasta
+ * alcanzar la misma tolerancia. Después se muestran integrandos con singularidades, que deben
+ * informarse como error en lugar de refinar indefinidamente.
+ */
+public class IntegrationDemo {
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== Integración adaptativa (Gauss–Kronrod 15) ===");
+        run("sin(x) + cos(2*x)", 0, 10, 1 - Math.cos(10) + Math.sin(20) / 2);
+        run("tan(x)", 0, 1, -Math.log(Math.cos(1)));
+        run("1 / (1 + x^2)", -5, 5, 2 * Math.atan(5));
+        run("x^0.5", 0, 1, 2.0 / 3);
+        run("sin(x^2)", 0, 1, 0.310268301723381101808152423165);
+
+        System.out.println("\n--- Singularidades ---");
+        singular("tan(x)", 0, 2);
+        singular("1 / x", -1, 1);
+        singular("1 / (x - 1)", 0, 3);
+    }
+
+    private static void run(String source, double from, double to, double exact) throws Exception {
+        CompiledExpression compiled = ExpressionCache.compile(source, ResourceLimits.defaults());
+        IntegrationResult result = new AdaptiveIntegrator(compiled, "x", Collections.emptyMap()).integrate(from, to);
+        double error = Math.abs(result.getValue() - exact);
+
+        // Trapecio uniforme: se duplican los puntos hasta alcanzar la tolerancia (máximo 2^24)
+        long trapezoidEvaluations = 0;
+        double trapezoidError = Double.POSITIVE_INFINITY;
+        for (int n = 16; n <= 1 << 24 && trapezoidError > Math.max(error, AdaptiveIntegrator.DEFAULT_TOLERANCE); n *= 2) {
+            double h = (to - from) / n;
+            double sum = 0.5 * (compiled.evaluate(new double[]{from}) + compiled.evaluate(new double[]{to}));
+            for (int i = 1; i < n; i++) {
+                sum += compiled.evaluate(new double[]{from + i * h});
+            }
+            trapezoidEvaluations = n + 1;
+            trapezoidError = Math.abs(sum * h - exact);
+        }
+
+        System.out.printf("%n∫ %s dx en [%s, %s]%n", source, from, to);
+        System.out.println("  " + result);
+        System.out.printf("  Error real: %.2e (estimado %.2e)%n", error, result.getErrorEstimate());
+        System.out.printf("  Trapecio uniforme: %d evaluaciones para un error de %.2e%n",
+                trapezoidEvaluations, trapezoidError);
+    }
+
+    private static void singular(String source, double from, double to) throws Exception {
+        CompiledExpression compiled = ExpressionCache.compile(source, ResourceLimits.defaults());
+        long start = System.nanoTime();
+        try {
+            IntegrationResult result = new AdaptiveIntegrator(compiled, "x", Collections.emptyMap())
+                    .integrate(from, to);
+            System.out.printf("∫ %s dx en [%s, %s]: ✗ no se detectó la singularidad (%s)%n", source, from, to, result);
+        } catch (Exception e) {
+            System.out.printf("∫ %s dx en [%s, %s]: ✓ %s (%.1f ms)%n", source, from, to, e.getMessage(),
+                    (System.nanoTime() - start) / 1e6);
+        }
+    }
+}
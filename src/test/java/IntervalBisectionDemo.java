@@ -0,0 +1,142 @@
+import domine.Lexer;
+import domine.Parser;
+import domine.ast.ASTNode;
+import domine.compiler.CompiledExpression;
+import domine.compiler.ExpressionCompiler;
+import domine.interval.BisectionResult;
+import domine.interval.BisectionSearch;
+import domine.interval.Interval;
+import domine.interval.IntervalEvaluator;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Demostración de la aritmética de intervalos.
+ *
+ * 1. Inclusión: para cajas aleatorias se comprueba que el valor puntual en puntos
+ *    aleatorios de la caja siempre cae dentro del intervalo calculado.
+ * 2. Bisección: se buscan los ceros de varias funciones y se compara el número de
+ *    evaluaciones con el de una malla uniforme de la misma resolución.
+ */
+public class IntervalBisectionDemo {
+
+    private static final String[] ENCLOSURE_CASES = {
+            "sin(x) + cos(y)",
+            "tan(x) * y",
+            "x ^ 0.5 + y ^ 3",
+            "x ^ y",
+            "1 / (x - y)",
+            "sin(x * y) / (cos(x) + 2)",
+            "(-x) ^ 2 - sin(y) ^ 2",
+            "x ^ (-2) + y ^ (2 * 1.5)",
+    };
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== Aritmética de intervalos ===");
+        checkEnclosures();
+
+        System.out.println("\n--- Búsqueda de ceros por bisección ---");
+        search("sin(x) + cos(2*x) - 0.3", box("x", -10, 10), 1e-6);
+        search("tan(x) - x", box("x", 0.1, 10), 1e-6);
+        search("x^2 + y^2 - 1", box("x", -2, 2, "y", -2, 2), 1e-3);
+        search("sin(x) * cos(y) - 0.5", box("x", 0, 3, "y", 0, 3), 1e-3);
+    }
+
+    private static void checkEnclosures() throws Exception {
+        Random random = new Random(42);
+        int failures = 0;
+        int checks = 0;
+        for (String source : ENCLOSURE_CASES) {
+            ASTNode ast = parse(source);
+            CompiledExpression compiled = ExpressionCompiler.compile(source, ast);
+            for (int i = 0; i < 2000; i++) {
+                double xlo = random.nextDouble() * 8 - 4, ylo = random.nextDouble() * 8 - 4;
+                double xw = random.nextDouble() * random.nextDouble() * 4, yw = random.nextDouble() * 4;
+                Map<String, Interval> box = box("x", xlo, xlo + xw, "y", ylo, ylo + yw);
+                Interval bound;
+                try {
+                    bound = IntervalEvaluator.evaluate(ast, box);
+                } catch (Exception e) {
+                    continue; // División por [0, 0]
+                }
+                for (int k = 0; k < 20; k++) {
+                    double x = xlo + random.nextDouble() * xw;
+                    double y = ylo + random.nextDouble() * yw;
+                    double value;
+                    try {
+                        value = compiled.evaluate(ordered(compiled, x, y));
+                    } catch (Exception e) {
+                        continue;
+                    }
+                    if (Double.isNaN(value)) {
+                        continue; // Punto fuera del dominio (por ejemplo, raíz de un negativo)
+                    }
+                    checks++;
+                    if (!bound.contains(value)) {
+                        failures++;
+                        if (failures <= 5) {
+                            System.out.printf("  FALLO: %s en x=%s, y=%s vale %s fuera de %s%n",
+                                    source, x, y, value, bound);
+                        }
+                    }
+                }
+            }
+        }
+        System.out.printf("Inclusión: %d comprobaciones, %d fallos %s%n", checks, failures,
+                failures == 0 ? "✓" : "✗");
+
+        // x^(-2) llega como x^(0 - 2): el exponente debe seguir siendo el punto -2 para
+        // usar la potencia entera, que con x en [-2, -1] da [0.25, 1] y no un intervalo vacío
+        Interval exponent = IntervalEvaluator.evaluate(parse("0 - 2"), box("x", 0, 0));
+        Interval power = IntervalEvaluator.evaluate(parse("x ^ (-2)"), box("x", -2, -1));
+        System.out.printf("x^(-2) con x en [-2, -1]: exponente %s, resultado %s %s%n", exponent, power,
+                exponent.isPoint() && exponent.getLo() == -2 && power.contains(0.25) && power.contains(1)
+                        && power.getHi() - power.getLo() < 0.75 + 1e-9 ? "✓" : "✗");
+    }
+
+    private static void search(String source, Map<String, Interval> box, double tolerance) throws Exception {
+        ASTNode ast = parse(source);
+        long start = System.nanoTime();
+        BisectionResult result = BisectionSearch.findZeros(ast, box, 0, tolerance);
+        double millis = (System.nanoTime() - start) / 1e6;
+
+        System.out.printf("%n%s = 0 sobre %s, tolerancia %.0e%n", source, box, tolerance);
+        System.out.println("  " + result);
+        System.out.printf("  Tiempo: %.1f ms%n", millis);
+        if (box.size() == 1 && !result.getCandidates().isEmpty()) {
+            System.out.print("  Raíces aproximadas:");
+            double last = Double.NEGATIVE_INFINITY;
+            for (Map<String, Interval> candidate : result.getCandidates()) {
+                double mid = candidate.get("x").midpoint();
+                if (mid - last > 10 * tolerance) {
+                    System.out.printf(" %.6f", mid);
+                }
+                last = mid;
+            }
+            System.out.println();
+        }
+    }
+
+    private static double[] ordered(CompiledExpression compiled, double x, double y) {
+        double[] values = new double[compiled.getVariables().length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = "x".equals(compiled.getVariables()[i]) ? x : y;
+        }
+        return values;
+    }
+
+    private static ASTNode parse(String source) throws Exception {
+        return new Parser(new Lexer(source).tokenize()).parseToAST();
+    }
+
+    private static Map<String, Interval> box(Object... spec) {
+        Map<String, Interval> box = new LinkedHashMap<>();
+        for (int i = 0; i < spec.length; i += 3) {
+            box.put((String) spec[i], Interval.of(((Number) spec[i + 1]).doubleValue(),
+                    ((Number) spec[i + 2]).doubleValue()));
+        }
+        return box;
+    }
+}
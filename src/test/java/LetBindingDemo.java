@@ -0,0 +1,137 @@
+import domine.Lexer;
+import domine.Parser;
+import domine.ast.ASTNode;
+import domine.compiler.CompiledExpression;
+import domine.compiler.ExpressionCompiler;
+import domine.differentiation.ForwardModeDifferentiator;
+import domine.differentiation.Gradient;
+import domine.differentiation.ReverseModeDifferentiator;
+import domine.grid.GridAxis;
+import domine.grid.GridEvaluator;
+import domine.incremental.IncrementalEvaluator;
+import domine.interval.Interval;
+import domine.interval.IntervalEvaluator;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Variables locales: la misma expresión escrita repitiendo la subexpresión y escrita
+ * con una variable local que la calcula una sola vez.
+ *
+ * 1. Se comprueba que el AST, la expresión compilada, la evaluación incremental, la malla,
+ *    los intervalos y la diferenciación automática den lo mismo en ambas formas.
+ * 2. Se compara el tiempo de evaluación del AST y de la expresión compilada.
+ */
+public class LetBindingDemo {
+
+    private static final String[][] PROGRAMS = {
+            {"tan(x^2 + sin(x)) * (x^2 + sin(x)) + (x^2 + sin(x))",
+                    "u = x^2 + sin(x); tan(u) * u + u"},
+            {"exp(-(x*x + y*y)) * cos(x*x + y*y) + sqrt(x*x + y*y) * exp(-(x*x + y*y))",
+                    "r = x*x + y*y; e = exp(-r); e * cos(r) + sqrt(r) * e"},
+            {"(sin(x)*cos(y) + 1)^2 + (sin(x)*cos(y) + 1)^3 + log(sin(x)*cos(y) + 2)",
+                    "s = sin(x)*cos(y); t = s + 1; t^2 + t^3 + log(s + 2)"},
+    };
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== Variables locales ===");
+        for (String[] program : PROGRAMS) {
+            compare(program[0], program[1]);
+        }
+    }
+
+    private static void compare(String inline, String let) throws Exception {
+        Parser inlineParser = new Parser(new Lexer(inline).tokenize());
+        ASTNode inlineAst = inlineParser.parseToAST();
+        Parser letParser = new Parser(new Lexer(let).tokenize());
+        ASTNode letAst = letParser.parseToAST();
+        CompiledExpression inlineCompiled = ExpressionCompiler.compile(inline, inlineAst);
+        CompiledExpression letCompiled = ExpressionCompiler.compile(let, letAst);
+        IncrementalEvaluator incremental = new IncrementalEvaluator(letAst);
+        GridEvaluator grid = new GridEvaluator(letAst, List.of(new GridAxis("y", 0.1, 1.0, 10), new GridAxis("x", 0.1, 1.0, 10)));
+        double[] gridValues = grid.evaluate(Map.of());
+
+        double maxDifference = 0;
+        double maxGradientDifference = 0;
+        boolean enclosed = true;
+        for (int i = 0; i < 10; i++) {
+            for (int j = 0; j < 10; j++) {
+                double y = 0.1 + 0.1 * i;
+                double x = 0.1 + 0.1 * j;
+                Map<String, Double> values = Map.of("x", x, "y", y);
+                inlineParser.getVariableValues().putAll(values);
+                letParser.getVariableValues().putAll(values);
+                double expected = inlineAst.evaluate();
+                incremental.setAll(values);
+                maxDifference = Math.max(maxDifference, Math.abs(letAst.evaluate() - expected));
+                maxDifference = Math.max(maxDifference, Math.abs(letCompiled.evaluate(values) - expected));
+                maxDifference = Math.max(maxDifference, Math.abs(incremental.evaluate() - expected));
+                maxDifference = Math.max(maxDifference, Math.abs(gridValues[i * 10 + j] - expected));
+
+                Interval bound = IntervalEvaluator.evaluate(letAst, Map.of("x", Interval.of(x - 0.05, x + 0.05),
+                        "y", Interval.of(y - 0.05, y + 0.05)));
+                enclosed &= bound.contains(expected);
+
+                Gradient reference = ReverseModeDifferentiator.gradient(inlineAst, values);
+                Gradient reverse = ReverseModeDifferentiator.gradient(letAst, values);
+                Gradient forward = ForwardModeDifferentiator.gradient(letAst, values, List.of("x", "y"));
+                for (String name : reference.getPartials().keySet()) {
+                    double scale = Math.max(1, Math.abs(reference.get(name))); // tan(u) crece cerca de u = π/2
+                    maxGradientDifference = Math.max(maxGradientDifference,
+                            Math.abs(reverse.get(name) - reference.get(name)) / scale);
+                    maxGradientDifference = Math.max(maxGradientDifference,
+                            Math.abs(forward.get(name) - reference.get(name)) / scale);
+                }
+            }
+        }
+
+        System.out.printf("%n%s%n%s%n", inline, let);
+        System.out.printf("  Nodos: %d en línea, %d con variables locales (%d en el evaluador incremental)%n",
+                inlineAst.getNodeCount(), letAst.getNodeCount(), incremental.getNodeCount());
+        System.out.printf("  AST / compilada / incremental / malla: diferencia máxima %.2e %s%n",
+                maxDifference, maxDifference <= 1e-12 ? "✓" : "✗");
+        System.out.printf("  Intervalos contienen el valor puntual: %s%n", enclosed ? "✓" : "✗");
+        System.out.printf("  Gradiente (reverso y hacia adelante): diferencia relativa máxima %.2e %s%n",
+                maxGradientDifference, maxGradientDifference <= 1e-12 ? "✓" : "✗");
+
+        double[] point = new double[letCompiled.getVariables().length];
+        double[] inlinePoint = new double[inlineCompiled.getVariables().length];
+        Arrays.fill(point, 0.7);
+        Arrays.fill(inlinePoint, 0.7);
+        inlineParser.getVariableValues().put("x", 0.7);
+        inlineParser.getVariableValues().put("y", 0.7);
+        letParser.getVariableValues().put("x", 0.7);
+        letParser.getVariableValues().put("y", 0.7);
+        for (int round = 0; round < 3; round++) {
+            double inlineAstTime = time(inlineAst, null, null);
+            double letAstTime = time(letAst, null, null);
+            double inlineCompiledTime = time(null, inlineCompiled, inlinePoint);
+            double letCompiledTime = time(null, letCompiled, point);
+            if (round == 2) {
+                System.out.printf("  AST:       %7.1f ns en línea, %7.1f ns con variables locales (%.2fx)%n",
+                        inlineAstTime, letAstTime, inlineAstTime / letAstTime);
+                System.out.printf("  Compilada: %7.1f ns en línea, %7.1f ns con variables locales (%.2fx)%n",
+                        inlineCompiledTime, letCompiledTime, inlineCompiledTime / letCompiledTime);
+            }
+        }
+    }
+
+    /**
+     * Tiempo medio por evaluación (del AST si compiled es null).
+     */
+    private static double time(ASTNode ast, CompiledExpression compiled, double[] point) throws Exception {
+        int iterations = 200_000;
+        double sink = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            sink += compiled == null ? ast.evaluate() : compiled.evaluate(point);
+        }
+        long elapsed = System.nanoTime() - start;
+        if (sink == 42) {
+            System.out.print("");
+        }
+        return elapsed / (double) iterations;
+    }
+}
@@ -0,0 +1,88 @@
+import domine.load.LatencyHistogram;
+import domine.load.LoadGenerator;
+import domine.load.LoadReport;
+import domine.load.WorkloadShape;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Generador de carga de extremo a extremo.
+ *
+ * 1. Se comprueba la precisión de los percentiles del histograma contra los percentiles
+ *    exactos de una muestra ordenada.
+ * 2. Lazo cerrado con 1, 2 y 4 hilos, sin caché y con caché de expresiones: rendimiento
+ *    máximo y cómo escala. La tasa de aciertos de la caché queda por debajo de la tasa de
+ *    repetición porque cada expresión nueva es un fallo y la caché desaloja entradas sin
+ *    considerar su antigüedad.
+ * 3. Lazo abierto a distintas fracciones de la capacidad medida: la latencia de cola
+ *    crece al acercarse a la saturación y se dispara al superarla.
+ *
+ * Uso: java LoadGeneratorDemo [segundos por medición]   (por defecto 2)
+ */
+public class LoadGeneratorDemo {
+
+    public static void main(String[] args) throws Exception {
+        double seconds = args.length > 0 ? Double.parseDouble(args[0]) : 2;
+        histogramAccuracy();
+
+        WorkloadShape shape = WorkloadShape.defaults();
+        System.out.printf("%n=== Lazo cerrado (profundidad %d, %d términos, %d variables, trig %.0f%%, repetición %.0f%%) ===%n",
+                shape.getDepth(), shape.getTerms(), shape.getVariables(), 100 * shape.getTrigShare(),
+                100 * shape.getRepetitionRate());
+        System.out.printf("Procesadores disponibles: %d%n", Runtime.getRuntime().availableProcessors());
+        run(shape, 1, 0, 0, 2 * seconds); // Calentamiento del JIT para todo el pipeline
+        double capacity = 0;
+        for (int cache : new int[]{0, 1 << 16}) {
+            System.out.println(cache == 0 ? "\nSin caché (Lexer -> Parser -> AST en cada petición):"
+                    : "\nCon ExpressionCache(" + cache + "):");
+            for (int threads : new int[]{1, 2, 4}) {
+                LoadReport report = run(shape, threads, 0, cache, seconds);
+                System.out.println(report);
+                if (cache == 0 && threads == 1) {
+                    capacity = report.getThroughput();
+                }
+            }
+        }
+
+        System.out.printf("%n=== Lazo abierto, sin caché, 1 hilo (capacidad medida %.0f pet/s) ===%n", capacity);
+        for (double load : new double[]{0.25, 0.5, 0.8, 0.95, 1.2}) {
+            LoadReport report = run(shape, 1, load * capacity, 0, seconds);
+            System.out.printf("%3.0f%%  %s%n", 100 * load, report);
+        }
+    }
+
+    private static LoadReport run(WorkloadShape shape, int threads, double rate, int cache, double seconds)
+            throws InterruptedException {
+        LoadGenerator generator = new LoadGenerator(shape);
+        generator.setThreads(threads);
+        generator.setTargetRate(rate);
+        generator.setCacheCapacity(cache);
+        generator.setWarmupMillis((long) (seconds * 1000));
+        generator.setDurationMillis((long) (seconds * 1000));
+        return generator.run();
+    }
+
+    private static void histogramAccuracy() {
+        Random random = new Random(5);
+        long[] samples = new long[1_000_000];
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < samples.length; i++) {
+            // Log-normal con cola larga: de cientos de ns a decenas de ms
+            samples[i] = (long) Math.exp(9 + 1.5 * random.nextGaussian());
+            histogram.record(samples[i]);
+        }
+        Arrays.sort(samples);
+
+        System.out.println("=== Precisión del histograma (1 000 000 muestras log-normales) ===");
+        double worst = 0;
+        for (double p : new double[]{50, 90, 99, 99.9, 99.99}) {
+            long exact = samples[(int) Math.ceil(p / 100 * samples.length) - 1];
+            long estimate = histogram.getPercentile(p);
+            double error = Math.abs(estimate - exact) / (double) exact;
+            worst = Math.max(worst, error);
+            System.out.printf("p%-6s exacto %10d ns  histograma %10d ns  error %.3f%%%n", p, exact, estimate, 100 * error);
+        }
+        System.out.printf("Error relativo máximo: %.3f%% %s%n", 100 * worst, worst <= 1.0 / 128 ? "✓" : "✗");
+    }
+}
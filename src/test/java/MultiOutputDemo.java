@@ -0,0 +1,148 @@
+import domine.Lexer;
+import domine.Parser;
+import domine.ast.ASTNode;
+import domine.compiler.CompiledExpression;
+import domine.compiler.CompiledProgram;
+import domine.compiler.ExpressionCompiler;
+import domine.compiler.ProgramCompiler;
+import domine.compiler.TrigAccuracy;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+
+/**
+ * Programa de varias salidas: un conjunto de fórmulas relacionadas sobre las mismas
+ * variables, compiladas por separado y como un único programa con subexpresiones comunes.
+ *
+ * 1. Se comprueba que ambas formas den exactamente los mismos valores.
+ * 2. Se comparan las operaciones y llamadas a funciones por fila, y las filas por segundo
+ *    en el modo por lotes.
+ * 3. Las definiciones locales cuyo valor no se usa producen los mismos errores que en los
+ *    demás evaluadores.
+ */
+public class MultiOutputDemo {
+
+    public static void main(String[] args) throws Exception {
+        // Cinemática de un brazo de dos segmentos y magnitudes derivadas
+        Map<String, String> sources = new LinkedHashMap<>();
+        sources.put("x1", "r * cos(t)");
+        sources.put("y1", "r * sin(t)");
+        sources.put("x2", "r * cos(t) + l * cos(t + u)");
+        sources.put("y2", "r * sin(t) + l * sin(t + u)");
+        sources.put("pendiente", "tan(t + u)");
+        sources.put("alcance", "sqrt((r * cos(t) + l * cos(t + u))^2 + (r * sin(t) + l * sin(t + u))^2)");
+        sources.put("angulo", "atan2(r * sin(t) + l * sin(t + u), r * cos(t) + l * cos(t + u))");
+        sources.put("vx", "-r * sin(t) * w - l * sin(t + u) * (w + v)");
+        sources.put("vy", "r * cos(t) * w + l * cos(t + u) * (w + v)");
+        sources.put("rapidez", "sqrt((r * sin(t) * w + l * sin(t + u) * (w + v))^2 + (r * cos(t) * w + l * cos(t + u) * (w + v))^2)");
+        sources.put("energia", "0.5 * (w * r)^2 + 0.5 * ((w + v) * l)^2 + 9.81 * (r * sin(t) + l * sin(t + u))");
+        sources.put("torque", "9.81 * (r * cos(t) + l * cos(t + u)) + w * v * sin(u)");
+        sources.put("jacobiano", "r * l * sin(u)");
+        sources.put("codo", "cos(u) * r * l");
+        sources.put("identidad", "sin(t)^2 + cos(t)^2");
+
+        CompiledProgram program = ProgramCompiler.compile(sources);
+        String[] variables = program.getVariables();
+
+        System.out.println("=== Programa de varias salidas ===");
+        System.out.printf("Salidas: %d, variables: %s%n", sources.size(), String.join(", ", variables));
+        System.out.printf("Operaciones por fila:   %3d por separado, %3d en el programa%n",
+                program.getSeparateOperations(), program.getOperations());
+        System.out.printf("Llamadas a funciones:   %3d por separado, %3d en el programa%n",
+                program.getSeparateFunctionCalls(), program.getFunctionCalls());
+        System.out.printf("Registros del programa: %d%n", program.getRegisters());
+
+        CompiledExpression[] separate = new CompiledExpression[sources.size()];
+        int k = 0;
+        for (String source : sources.values()) {
+            separate[k++] = ExpressionCompiler.compile(source, new Parser(new Lexer(source).tokenize()).parseToAST());
+        }
+
+        int rows = 1 << 16;
+        Random random = new Random(3);
+        Map<String, double[]> data = new LinkedHashMap<>();
+        for (String variable : variables) {
+            double[] column = new double[rows];
+            for (int i = 0; i < rows; i++) {
+                column[i] = 0.1 + 2 * random.nextDouble();
+            }
+            data.put(variable, column);
+        }
+        double[][] columns = new double[variables.length][];
+        for (int i = 0; i < variables.length; i++) {
+            columns[i] = data.get(variables[i]);
+        }
+
+        double[][] expected = new double[separate.length][rows];
+        double[][] results = new double[separate.length][rows];
+        double separateTime = 0;
+        double programTime = 0;
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            for (int o = 0; o < separate.length; o++) {
+                String[] own = separate[o].getVariables();
+                double[][] ownColumns = new double[own.length][];
+                for (int i = 0; i < own.length; i++) {
+                    ownColumns[i] = data.get(own[i]);
+                }
+                separate[o].evaluateBatch(ownColumns, expected[o], TrigAccuracy.EXACT);
+            }
+            separateTime = (System.nanoTime() - start) / 1e9;
+
+            start = System.nanoTime();
+            program.evaluateBatch(columns, results, TrigAccuracy.EXACT);
+            programTime = (System.nanoTime() - start) / 1e9;
+        }
+
+        boolean identical = true;
+        for (int o = 0; o < separate.length; o++) {
+            for (int i = 0; i < rows; i++) {
+                identical &= Double.compare(expected[o][i], results[o][i]) == 0;
+            }
+        }
+        System.out.printf("%nMismos valores que las expresiones por separado: %s%n", identical ? "✓" : "✗");
+        System.out.printf("Por separado: %8.2f M filas/s%n", rows / separateTime / 1e6);
+        System.out.printf("Programa:     %8.2f M filas/s (%.2fx)%n", rows / programTime / 1e6, separateTime / programTime);
+
+        Map<String, Double> point = new LinkedHashMap<>();
+        for (String variable : variables) {
+            point.put(variable, 1.0);
+        }
+        System.out.println("\nValores en todas las variables = 1: " + program.evaluate(point));
+
+        Map<String, String> small = new LinkedHashMap<>();
+        small.put("x", "sin(t) * r");
+        small.put("y", "cos(t) * r");
+        small.put("m", "tan(t)");
+        System.out.println("\nPrograma de x = sin(t)*r, y = cos(t)*r, m = tan(t):");
+        System.out.print(ProgramCompiler.compile(small).disassemble());
+
+        System.out.println("\n=== Definiciones locales sin usar ===");
+        for (String source : new String[]{"a = 1/0; 5", "a = y; 5", "a = 2; b = a / (a - 2); a + 1"}) {
+            Parser parser = new Parser(new Lexer(source).tokenize());
+            ASTNode ast = parser.parseToAST();
+            CompiledExpression compiled = ExpressionCompiler.compile(source, ast);
+            Map<String, String> outputs = new LinkedHashMap<>();
+            outputs.put("r", source);
+            CompiledProgram local = ProgramCompiler.compile(outputs);
+            String tree = outcome(ast::evaluate);
+            String expression = outcome(() -> compiled.evaluate(new LinkedHashMap<>()));
+            String multi = outcome(() -> local.evaluate(new LinkedHashMap<>()).get("r"));
+            System.out.printf("%-32s AST: %s, compilada: %s, programa: %s %s%n", source, tree, expression, multi,
+                    tree.equals(expression) && tree.equals(multi) ? "✓" : "✗");
+        }
+    }
+
+    /**
+     * Valor o mensaje de error de una evaluación.
+     */
+    private static String outcome(Callable<Double> evaluation) {
+        try {
+            return String.valueOf(evaluation.call());
+        } catch (Exception e) {
+            return "error \"" + e.getMessage() + "\"";
+        }
+    }
+}
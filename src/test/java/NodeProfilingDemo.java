@@ -0,0 +1,150 @@
+import domine.Lexer;
+import domine.Parser;
+import domine.ast.ASTNode;
+import domine.profiling.NodeProfile;
+import domine.profiling.NodeProfiler;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Perfilado por nodo del AST.
+ *
+ * 1. Se perfila una fórmula donde una potencia con exponente no entero y la llamada a tan
+ *    compiten por el tiempo, y se muestra el árbol anotado y el archivo "folded stacks".
+ * 2. Se comprueba que el perfilado no cambia los valores, que la potencia con exponente no
+ *    entero aparece más costosa que el producto equivalente con exponente entero, y que el
+ *    tiempo total estimado (descontadas las mediciones) se acerca al de ASTNode.evaluate().
+ * 3. Con muestreo (una de cada 16 evaluaciones medida) los porcentajes se mantienen y el
+ *    costo del perfilado baja.
+ */
+public class NodeProfilingDemo {
+    private static final String SOURCE = "tan(x) * x^2.5 + x^2 * 3 + sin(x) / (1 + x * x)";
+    private static final int EVALUATIONS = 400_000;
+
+    public static void main(String[] args) throws Exception {
+        Parser parser = new Parser(new Lexer(SOURCE).tokenize());
+        ASTNode ast = parser.parseToAST();
+        Map<String, Double> values = parser.getVariableValues();
+        double[] xs = new double[1024];
+        for (int i = 0; i < xs.length; i++) {
+            xs[i] = 0.1 + 1.3 * i / xs.length;
+        }
+
+        NodeProfiler profiler = new NodeProfiler(ast);
+        boolean sameValues = true;
+        for (int i = 0; i < EVALUATIONS; i++) {
+            values.put("x", xs[i & 1023]);
+            sameValues &= Double.compare(profiler.evaluate(), ast.evaluate()) == 0;
+        }
+        profiler.reset(); // Descartar la primera pasada (calentamiento del JIT)
+        long start = System.nanoTime();
+        for (int i = 0; i < EVALUATIONS; i++) {
+            values.put("x", xs[i & 1023]);
+            profiler.evaluate();
+        }
+        double profiledNanos = (double) (System.nanoTime() - start) / EVALUATIONS;
+        NodeProfile profile = profiler.getProfile();
+
+        System.out.println("=== " + SOURCE + " ===");
+        System.out.println(profile.toTreeString());
+        Path folded = Files.createTempFile("perfil", ".folded");
+        folded.toFile().deleteOnExit();
+        profile.writeFoldedStacks(folded);
+        System.out.println("\nFolded stacks (" + folded + "):");
+        System.out.print(profile.toFoldedStacks());
+
+        double plainNanos = plainEvaluation(ast, values, xs);
+        double estimatedNanos = profile.getTotalNanos() / profile.getEvaluations();
+        System.out.printf("%nASTNode.evaluate(): %.1f ns   perfilado: %.1f ns medidos, %.1f ns estimados tras descontar%n",
+                plainNanos, profiledNanos, estimatedNanos);
+
+        check("Mismos valores que ASTNode.evaluate()", sameValues);
+        NodeProfile.Entry pow = find(profile.getRoot(), "BinaryOp(^)", "NumberNode(2.5)");
+        NodeProfile.Entry square = find(profile.getRoot(), "BinaryOp(^)", "NumberNode(2.0)");
+        check(String.format("x^2.5 más costosa que x^2 (%.1f ns frente a %.1f ns por llamada)",
+                pow.getSelfNanos() / pow.getCalls(), square.getSelfNanos() / square.getCalls()),
+                pow.getSelfNanos() > square.getSelfNanos());
+        check("Nodo más costoso: " + profile.getHottest().get(0).getLabel(),
+                profile.getHottest().get(0).getLabel().startsWith("FunctionNode")
+                        || profile.getHottest().get(0) == pow);
+        check("Tiempo estimado dentro de ×2 del real", estimatedNanos > plainNanos / 2 && estimatedNanos < plainNanos * 2);
+
+        System.out.println("\n=== Una de cada 16 evaluaciones medida ===");
+        profiler.reset();
+        profiler.setSampleInterval(16);
+        start = System.nanoTime();
+        for (int i = 0; i < EVALUATIONS; i++) {
+            values.put("x", xs[i & 1023]);
+            profiler.evaluate();
+        }
+        double sampledNanos = (double) (System.nanoTime() - start) / EVALUATIONS;
+        profiler.setSampleInterval(1);
+        NodeProfile sampled = profiler.getProfile();
+        System.out.printf("perfilado con muestreo: %.1f ns por evaluación (midiendo todas %.1f ns)%n",
+                sampledNanos, profiledNanos);
+        List<NodeProfile.Entry> full = new ArrayList<>();
+        List<NodeProfile.Entry> part = new ArrayList<>();
+        flatten(profile.getRoot(), full);
+        flatten(sampled.getRoot(), part);
+        double worst = 0;
+        for (int i = 0; i < full.size(); i++) {
+            double a = 100 * full.get(i).getSelfNanos() / profile.getTotalNanos();
+            double b = 100 * part.get(i).getSelfNanos() / sampled.getTotalNanos();
+            worst = Math.max(worst, Math.abs(a - b));
+            if (a >= 8) {
+                System.out.printf("%-22s propio %5.1f%% sin muestreo   %5.1f%% con muestreo%n", full.get(i).getLabel(), a, b);
+            }
+        }
+        check("Porcentajes con muestreo a menos de 10 puntos", worst < 10);
+        check("Llamadas exactas con muestreo", sampled.getRoot().getCalls() == EVALUATIONS);
+    }
+
+    private static double plainEvaluation(ASTNode ast, Map<String, Double> values, double[] xs) throws Exception {
+        double best = Double.MAX_VALUE;
+        double sink = 0;
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < EVALUATIONS; i++) {
+                values.put("x", xs[i & 1023]);
+                sink += ast.evaluate();
+            }
+            best = Math.min(best, (double) (System.nanoTime() - start) / EVALUATIONS);
+        }
+        if (sink == 42) {
+            System.out.println();
+        }
+        return best;
+    }
+
+    private static void flatten(NodeProfile.Entry entry, List<NodeProfile.Entry> entries) {
+        entries.add(entry);
+        for (NodeProfile.Entry child : entry.getChildren()) {
+            flatten(child, entries);
+        }
+    }
+
+    /**
+     * Busca un nodo por su etiqueta y la de su segundo hijo.
+     */
+    private static NodeProfile.Entry find(NodeProfile.Entry entry, String label, String rightLabel) {
+        if (entry.getLabel().equals(label) && entry.getChildren().size() == 2
+                && entry.getChildren().get(1).getLabel().equals(rightLabel)) {
+            return entry;
+        }
+        for (NodeProfile.Entry child : entry.getChildren()) {
+            NodeProfile.Entry found = find(child, label, rightLabel);
+            if (found != null) {
+                return found;
+            }
+        }
+        return null;
+    }
+
+    private static void check(String description, boolean ok) {
+        System.out.println((ok ? "✓ " : "✗ ") + description);
+    }
+}
@@ -0,0 +1,135 @@
+import domine.Lexer;
+import domine.Parser;
+import domine.ast.ASTNode;
+import domine.compiler.ExpressionCache;
+import domine.load.ExpressionGenerator;
+import domine.load.WorkloadShape;
+import domine.metrics.MetricsSnapshot;
+import domine.metrics.Phase;
+import domine.metrics.PipelineMetrics;
+import domine.metrics.PipelineMetricsMXBean;
+
+import javax.management.JMX;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Métricas del pipeline por etapa.
+ *
+ * 1. Con las métricas activadas se procesa una carga conocida (expresiones válidas y
+ *    erróneas) y se comprueba que las cantidades por etapa, los errores por tipo y la
+ *    distribución de nodos coincidan con lo procesado.
+ * 2. Se leen las mismas métricas por JMX, con un proxy del MXBean registrado.
+ * 3. Se compara el rendimiento del pipeline con las métricas desactivadas y activadas.
+ */
+public class PipelineMetricsDemo {
+    private static final String[] ERRONEOUS = {
+            "3 + ", "(2 + 3", "2 $ 3", "1..2", "2 )", "x / 0", "sin(1, 2)", "u = 1; u = 2; u",
+    };
+
+    public static void main(String[] args) throws Exception {
+        PipelineMetrics metrics = PipelineMetrics.getDefault();
+        ExpressionGenerator generator = new ExpressionGenerator(WorkloadShape.defaults(), 3);
+        String[] variables = generator.getVariables();
+
+        System.out.println("=== Carga conocida con métricas activadas ===");
+        metrics.reset();
+        metrics.setEnabled(true);
+        int valid = 20_000;
+        long nodes = 0;
+        for (int i = 0; i < valid; i++) {
+            nodes += pipeline(generator.next(), variables, generator).getNodeCount();
+        }
+        int failedParses = 0;
+        for (String expression : ERRONEOUS) {
+            try {
+                Parser parser = new Parser(new Lexer(expression).tokenize());
+                parser.getVariableValues().put("x", 1.0);
+                parser.parseToAST().evaluate();
+            } catch (Exception e) {
+                failedParses += e.getMessage().startsWith("División") ? 0 : 1;
+            }
+        }
+        ExpressionCache cache = new ExpressionCache(16);
+        Map<String, Double> values = new HashMap<>();
+        values.put("x", 2.0);
+        for (int i = 0; i < 1000; i++) {
+            cache.get("x^2 + sin(x)").evaluate(values);
+        }
+        MetricsSnapshot snapshot = metrics.snapshot();
+        metrics.setEnabled(false);
+        System.out.print(snapshot);
+
+        int lexed = valid + ERRONEOUS.length + 1;
+        check("LEX cuenta cada tokenize", snapshot.getPhase(Phase.LEX).getCount() == lexed);
+        check("LEX falla en los errores léxicos",
+                snapshot.getPhase(Phase.LEX).getFailures() == 2);
+        check("PARSE cuenta los análisis", snapshot.getPhase(Phase.PARSE).getCount() == lexed - 2);
+        check("PARSE falla en los errores sintácticos",
+                snapshot.getPhase(Phase.PARSE).getFailures() == failedParses - 2);
+        check("EVALUATE incluye la caché compilada", snapshot.getPhase(Phase.EVALUATE).getCount() == 1000);
+        check("Errores por tipo",
+                snapshot.getErrorCount("dividedByZero") == 1
+                        && snapshot.getErrorCount("unRecognizedCharacter") == 1
+                        && snapshot.getErrorCount("unValidNumberFormat") == 1
+                        && snapshot.getErrorCount("wrongArgumentCount") == 1
+                        && snapshot.getErrorCount("reassignedVariable") == 1);
+        check("Distribución de nodos: cantidad y media",
+                snapshot.getNodeCounts().getCount() == valid + 2
+                        && Math.abs(snapshot.getNodeCounts().getMean() - (nodes + 9.0) / (valid + 2)) < 1e-9);
+
+        System.out.println("\n=== Lectura por JMX ===");
+        PipelineMetrics.registerMBean();
+        PipelineMetricsMXBean proxy = JMX.newMXBeanProxy(ManagementFactory.getPlatformMBeanServer(),
+                new ObjectName(PipelineMetrics.OBJECT_NAME), PipelineMetricsMXBean.class);
+        System.out.println("LEX por JMX: " + proxy.getPhases().get("LEX"));
+        System.out.println("Errores por JMX: " + proxy.getErrors());
+        check("JMX coincide con snapshot()",
+                proxy.getPhases().get("LEX").getCount() == lexed && proxy.getErrors().equals(snapshot.getErrors()));
+
+        System.out.println("\n=== Costo de la instrumentación ===");
+        String[] corpus = new String[4096];
+        for (int i = 0; i < corpus.length; i++) {
+            corpus[i] = generator.next();
+        }
+        throughput(corpus, variables, generator, metrics, true); // Calentamiento del JIT con ambas ramas
+        throughput(corpus, variables, generator, metrics, false);
+        for (int round = 0; round < 3; round++) {
+            double off = throughput(corpus, variables, generator, metrics, false);
+            double on = throughput(corpus, variables, generator, metrics, true);
+            System.out.printf("desactivadas %8.0f exp/s   activadas %8.0f exp/s   (%.1f%%)%n",
+                    off, on, 100 * (on / off - 1));
+        }
+        metrics.reset();
+    }
+
+    private static ASTNode pipeline(String expression, String[] variables, ExpressionGenerator generator)
+            throws Exception {
+        Parser parser = new Parser(new Lexer(expression).tokenize());
+        ASTNode ast = parser.parseToAST();
+        for (String variable : variables) {
+            parser.getVariableValues().put(variable, generator.nextValue());
+        }
+        ast.evaluate();
+        return ast;
+    }
+
+    private static double throughput(String[] corpus, String[] variables, ExpressionGenerator generator,
+                                     PipelineMetrics metrics, boolean enabled) throws Exception {
+        metrics.setEnabled(enabled);
+        long deadline = System.nanoTime() + 1_000_000_000L;
+        long start = System.nanoTime();
+        long count = 0;
+        while (System.nanoTime() < deadline) {
+            pipeline(corpus[(int) (count++ & (corpus.length - 1))], variables, generator);
+        }
+        metrics.setEnabled(false);
+        return count / ((System.nanoTime() - start) / 1e9);
+    }
+
+    private static void check(String description, boolean ok) {
+        System.out.println((ok ? "✓ " : "✗ ") + description);
+    }
+}
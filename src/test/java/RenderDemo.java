@@ -0,0 +1,236 @@
+import domine.Lexer;
+import domine.Parser;
+import domine.Token;
+import domine.ast.*;
+import domine.load.ExpressionGenerator;
+import domine.load.WorkloadShape;
+import domine.render.DotRenderer;
+import domine.render.JsonRenderer;
+import domine.render.TokenRenderer;
+import domine.render.TreeRenderer;
+import resources.json.Json;
+
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Renderizadores del AST y de los tokens que escriben en un Appendable (domine.render).
+ *
+ * 1. TreeRenderer produce exactamente el texto de la implementación recursiva anterior de
+ *    toTreeString (con y sin sangría inicial) para 2 000 expresiones generadas.
+ * 2. Árbol de 1 000 000 de nodos: memoria asignada y tiempo al construir el texto con la
+ *    implementación anterior y al escribirlo en un Writer.
+ * 3. Árbol de 100 000 niveles: la implementación recursiva se desborda; el renderizador no.
+ * 4. Límites de tamaño y profundidad, JSON válido, DOT y tokens.
+ */
+public class RenderDemo {
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== Mismo texto que toTreeString ===");
+        ExpressionGenerator generator = new ExpressionGenerator(WorkloadShape.defaults(), 49);
+        boolean same = true;
+        int compared = 0;
+        for (int i = 0; i < 2000; i++) {
+            same &= sameText(generator.next());
+            compared++;
+        }
+        for (String source : List.of("r = sqrt(x*x + y*y); t = atan2(y, x); r * cos(t)", "-x^2", "2")) {
+            same &= sameText(source);
+            compared++;
+        }
+        check(compared + " expresiones con el mismo texto", same);
+        ASTNode sample = parse("sin(x) + 2^3 * atan2(y, 1)");
+        System.out.println(sample);
+
+        System.out.println("\n=== Árbol balanceado de 1 048 575 nodos ===");
+        ASTNode big = balanced(19);
+        System.gc();
+        long allocated = allocatedBytes();
+        long start = System.nanoTime();
+        int legacyLength = legacy(big, "").length();
+        double legacyMs = (System.nanoTime() - start) / 1e6;
+        long legacyBytes = allocatedBytes() - allocated;
+
+        CountingWriter writer = new CountingWriter();
+        System.gc();
+        allocated = allocatedBytes();
+        start = System.nanoTime();
+        new TreeRenderer().render(big, writer);
+        double streamMs = (System.nanoTime() - start) / 1e6;
+        long streamBytes = allocatedBytes() - allocated;
+        System.out.printf("toTreeString anterior: %6.0f ms, %7.1f MB asignados (texto de %.1f M caracteres)%n",
+                legacyMs, legacyBytes / 1e6, legacyLength / 1e6);
+        System.out.printf("TreeRenderer a Writer: %6.0f ms, %7.1f MB asignados%n", streamMs, streamBytes / 1e6);
+        check("Mismo tamaño de salida", writer.count == legacyLength);
+        check("Asigna al menos 10 veces menos memoria", streamBytes * 10 < legacyBytes);
+
+        System.out.println("\n=== Árbol de 100 000 niveles ===");
+        ASTNode deep = new NumberNode(1);
+        for (int i = 0; i < 100_000; i++) {
+            deep = new BinaryOperationNode("+", deep, new VariableNode("x", Map.of()));
+        }
+        try {
+            legacy(deep, "");
+            check("Recursiva: se desborda la pila", false);
+        } catch (StackOverflowError e) {
+            check("Recursiva: StackOverflowError", true);
+        }
+        writer = new CountingWriter();
+        new JsonRenderer().render(deep, writer);
+        check("JSON completo sin recursión (" + writer.count / 1_000_000.0 + " M caracteres)", writer.count > 2_000_000);
+        TreeRenderer shallow = new TreeRenderer();
+        shallow.setMaxDepth(3);
+        String cut = shallow.render(deep);
+        System.out.println(cut);
+        check("Profundidad máxima 3", cut.split("\n").length == 7
+                && cut.contains("… (199995 nodos)") && cut.contains("… (1 nodo)"));
+
+        System.out.println("\n=== Límites, JSON, DOT y tokens ===");
+        String source = "r = sqrt(x*x + y*y); t = atan2(y, x); r * cos(t)";
+        ASTNode program = parse(source);
+        TreeRenderer small = new TreeRenderer();
+        small.setMaxNodes(6);
+        String limited = small.render(program);
+        System.out.println(limited);
+        check("Máximo 6 nodos: el resto se resume", limited.split("\n").length == 6 + countElided(limited)
+                && limited.contains("nodos)"));
+
+        String json = new JsonRenderer().render(program);
+        System.out.println(json);
+        check("JSON válido", Json.parse(json) instanceof Map);
+        JsonRenderer limitedJson = new JsonRenderer();
+        limitedJson.setMaxNodes(4);
+        String elided = limitedJson.render(program);
+        System.out.println(elided);
+        check("JSON con límites sigue siendo válido", Json.parse(elided) instanceof Map && elided.contains("\"elided\""));
+
+        String dot = new DotRenderer().render(sample);
+        System.out.print(dot);
+        check("DOT: un nodo por nodo del AST y una arista menos",
+                count(dot, "[label=") == sample.getNodeCount() && count(dot, " -> ") == sample.getNodeCount() - 1);
+
+        List<Token> tokens = new Lexer("sin(x) + 2").tokenize();
+        StringBuilder expected = new StringBuilder();
+        for (Token token : tokens) {
+            expected.append("  ").append(token.getTokenType()).append(" : ").append(token.getLexeme()).append('\n');
+        }
+        StringBuilder text = new StringBuilder();
+        new TokenRenderer().renderText(tokens, text);
+        check("Tokens como en Message.showTokens", text.toString().equals(expected.toString()));
+        TokenRenderer firstThree = new TokenRenderer();
+        firstThree.setMaxTokens(3);
+        StringBuilder tokenJson = new StringBuilder();
+        firstThree.renderJson(tokens, tokenJson);
+        System.out.println(tokenJson);
+        check("Tokens en JSON con límite", Json.parse(tokenJson.toString()) instanceof List
+                && tokenJson.toString().endsWith("{\"elided\":3}]"));
+    }
+
+    private static boolean sameText(String source) throws Exception {
+        ASTNode root = parse(source);
+        return root.toTreeString("").equals(legacy(root, "")) && root.toTreeString("> ").equals(legacy(root, "> "));
+    }
+
+    /**
+     * La implementación recursiva anterior de toTreeString, como referencia.
+     */
+    private static String legacy(ASTNode node, String indent) {
+        if (node instanceof BinaryOperationNode) {
+            BinaryOperationNode binOp = (BinaryOperationNode) node;
+            return indent + "BinaryOp(" + binOp.getOperator() + ")\n" + legacy(binOp.getLeft(), indent + "  ├─ ")
+                    + "\n" + legacy(binOp.getRight(), indent + "  └─ ");
+        } else if (node instanceof FunctionNode) {
+            FunctionNode funcNode = (FunctionNode) node;
+            StringBuilder sb = new StringBuilder();
+            sb.append(indent).append("FunctionNode(").append(funcNode.getFunctionName()).append(")\n");
+            for (int i = 0; i < funcNode.getArguments().size(); i++) {
+                boolean last = i == funcNode.getArguments().size() - 1;
+                sb.append(legacy(funcNode.getArguments().get(i), indent + (last ? "  └─ " : "  ├─ ")));
+                if (!last) {
+                    sb.append("\n");
+                }
+            }
+            return sb.toString();
+        } else if (node instanceof LetNode) {
+            LetNode letNode = (LetNode) node;
+            return indent + "LetNode(" + letNode.getBinding().getName() + ")\n"
+                    + legacy(letNode.getBinding().getValue(), indent + "  ├─ ") + "\n"
+                    + legacy(letNode.getBody(), indent + "  └─ ");
+        } else if (node instanceof NumberNode) {
+            return indent + "NumberNode(" + ((NumberNode) node).getValue() + ")";
+        } else if (node instanceof VariableNode) {
+            return indent + "VariableNode(" + ((VariableNode) node).getName() + ")";
+        }
+        return indent + "LocalVariableNode(" + ((LocalVariableNode) node).getBinding().getName() + ")";
+    }
+
+    private static ASTNode balanced(int levels) {
+        if (levels == 0) {
+            return new NumberNode(levels + 0.5);
+        }
+        return new BinaryOperationNode(levels % 2 == 0 ? "+" : "*", balanced(levels - 1), balanced(levels - 1));
+    }
+
+    private static ASTNode parse(String source) throws Exception {
+        return new Parser(new Lexer(source).tokenize()).parseToAST();
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+    }
+
+    private static int countElided(String text) {
+        return count(text, "… (");
+    }
+
+    private static int count(String text, String fragment) {
+        int count = 0;
+        for (int i = text.indexOf(fragment); i >= 0; i = text.indexOf(fragment, i + 1)) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Writer que solo cuenta los caracteres (como escribir a un archivo, sin medir el disco).
+     */
+    private static final class CountingWriter extends Writer {
+        private long count;
+
+        @Override
+        public void write(char[] buffer, int offset, int length) {
+            count += length;
+        }
+
+        @Override
+        public void write(String text, int offset, int length) {
+            count += length;
+        }
+
+        @Override
+        public Writer append(CharSequence text) {
+            count += text.length();
+            return this;
+        }
+
+        @Override
+        public Writer append(char c) {
+            count++;
+            return this;
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static void check(String description, boolean ok) {
+        System.out.println((ok ? "✓ " : "✗ ") + description);
+    }
+}
@@ -0,0 +1,72 @@
+import domine.compiler.CompiledExpression;
+import domine.compiler.ExpressionCache;
+import domine.limits.ResourceLimits;
+import domine.solver.RootFinder;
+import domine.solver.RootResult;
+
+import java.util.Collections;
+
+/**
+ * Demostración del buscador de raíces.
+ *
+ * Para cada ecuación se listan las raíces con su residuo |f(x) - c| y se compara el número
+ * de evaluaciones con el de un barrido externo con paso de 1e-6 (el lazo que reemplaza).
+ * Al final, raíces que caen a un error de redondeo de un punto de la malla: no deben
+ * descartarse como polos.
+ */
+public class RootFinderDemo {
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== Búsqueda de raíces ===");
+        run("sin(x) + cos(2*x)", 0.3, -10, 10);
+        run("tan(x) - x", 0, 0.1, 10);
+        run("x^3 - x", 0, -2, 2);
+        run("sin(1/x)", 0, 0.05, 1);
+
+        System.out.println("\n=== Raíces junto a un punto de la malla ===");
+        RootFinder sine = new RootFinder(ExpressionCache.compile("sin(x)", ResourceLimits.defaults()), "x",
+                Collections.emptyMap());
+        RootResult inner = sine.solve(0, 1, 2 * Math.PI - 1, 2, 0); // La malla pasa por π
+        System.out.println("  [1, 2π - 1], 2 segmentos: " + inner.getRoots() + ", " + inner);
+        check("sin(x) en [1, 2π - 1]: π, sin polos", inner.getRoots().size() == 1
+                && Math.abs(inner.getRoots().get(0) - Math.PI) < 1e-12 && inner.getDiscontinuities() == 0);
+        RootResult full = sine.solve(0, 0, 2 * Math.PI, 2, 0);
+        System.out.println("  [0, 2π], 2 segmentos: " + full.getRoots() + ", " + full);
+        check("sin(x) en [0, 2π]: 0 y otra raíz, sin polos", full.getRoots().size() == 2
+                && full.getRoots().get(0) == 0 && full.getDiscontinuities() == 0);
+        RootResult tangent = new RootFinder(ExpressionCache.compile("tan(x)", ResourceLimits.defaults()), "x",
+                Collections.emptyMap()).solve(0, 1, 2, 2, 0);
+        check("tan(x) en [1, 2]: el polo en π/2 se sigue descartando",
+                tangent.getRoots().isEmpty() && tangent.getDiscontinuities() == 1);
+    }
+
+    private static void run(String source, double target, double from, double to) throws Exception {
+        CompiledExpression compiled = ExpressionCache.compile(source, ResourceLimits.defaults());
+        RootFinder finder = new RootFinder(compiled, "x", Collections.emptyMap());
+
+        for (int i = 0; i < 200; i++) {
+            finder.solve(target, from, to); // Calentamiento
+        }
+        long start = System.nanoTime();
+        RootResult result = finder.solve(target, from, to);
+        double millis = (System.nanoTime() - start) / 1e6;
+
+        System.out.printf("%n%s = %s en [%s, %s]%n", source, target, from, to);
+        System.out.println("  " + result);
+        System.out.printf("  Tiempo: %.2f ms, barrido con paso 1e-6: %.0f evaluaciones%n", millis, (to - from) / 1e-6);
+        double worst = 0;
+        for (double root : result.getRoots()) {
+            worst = Math.max(worst, Math.abs(compiled.evaluate(new double[]{root}) - target));
+        }
+        System.out.printf("  Residuo máximo: %.2e%n", worst);
+        System.out.print("  Raíces:");
+        for (double root : result.getRoots()) {
+            System.out.printf(" %.12f", root);
+        }
+        System.out.println();
+    }
+
+    private static void check(String description, boolean ok) {
+        System.out.println((ok ? "✓ " : "✗ ") + description);
+    }
+}
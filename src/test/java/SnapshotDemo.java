@@ -0,0 +1,180 @@
+import domine.Lexer;
+import domine.Parser;
+import domine.compiler.CompiledExpression;
+import domine.compiler.ExpressionCache;
+import domine.compiler.ExpressionCompiler;
+import domine.compiler.ExpressionSnapshot;
+import domine.functions.FunctionDefinition;
+import domine.functions.FunctionRegistry;
+import domine.limits.ResourceLimits;
+import domine.load.ExpressionGenerator;
+import domine.load.WorkloadShape;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Instantáneas binarias de expresiones compiladas.
+ *
+ * 1. Se compilan 100 000 expresiones distintas (más un programa con variables locales y
+ *    llamadas a atan2 y sqrt), se guardan y se cargan; se compara el tiempo de carga con
+ *    el de volver a analizarlas, en frío (la primera vez, como al reiniciar el servicio) y
+ *    con el JIT ya compilado, y se comprueba que los programas y sus resultados coincidan.
+ * 2. Archivos dañados: un byte cambiado, otra versión, un archivo truncado y una función
+ *    que no está en el registro se detectan al cargar.
+ * 3. ExpressionCache.save / load: una caché nueva arranca con todas las expresiones.
+ */
+public class SnapshotDemo {
+    private static final int EXPRESSIONS = 100_000;
+
+    public static void main(String[] args) throws Exception {
+        ExpressionGenerator generator = new ExpressionGenerator(WorkloadShape.defaults(), 17);
+        Set<String> unique = new LinkedHashSet<>();
+        unique.add("r = sqrt(x0*x0 + x1*x1); t = atan2(x1, x0); r * cos(t) - r^2 * sin(t)");
+        while (unique.size() < EXPRESSIONS) {
+            unique.add(generator.next());
+        }
+        List<String> sources = new ArrayList<>(unique);
+        long textBytes = 0;
+        for (String source : sources) {
+            textBytes += source.getBytes(StandardCharsets.UTF_8).length;
+        }
+
+        System.out.println("=== Análisis frente a carga de la instantánea (" + sources.size() + " expresiones) ===");
+        Path file = Files.createTempFile("expresiones", ".bin");
+        file.toFile().deleteOnExit();
+        List<CompiledExpression> parsed = null;
+        List<CompiledExpression> loaded = null;
+        double bestParse = Double.MAX_VALUE;
+        double bestLoad = Double.MAX_VALUE;
+        double coldParse = 0;
+        double coldLoad = 0;
+        for (int round = 1; round <= 3; round++) {
+            parsed = null;
+            loaded = null;
+            System.gc(); // Que ninguna de las dos mediciones pague la recolección de la ronda anterior
+            long start = System.nanoTime();
+            parsed = parseAll(sources);
+            double parse = (System.nanoTime() - start) / 1e6;
+            if (round == 1) {
+                ExpressionSnapshot.write(file, parsed);
+            }
+            System.gc();
+            start = System.nanoTime();
+            loaded = ExpressionSnapshot.read(file);
+            double load = (System.nanoTime() - start) / 1e6;
+            if (round == 1) {
+                coldParse = parse;
+                coldLoad = load;
+            }
+            bestParse = Math.min(bestParse, parse);
+            bestLoad = Math.min(bestLoad, load);
+            System.out.printf("ronda %d: análisis %7.1f ms   carga %6.1f ms%n", round, parse, load);
+        }
+        System.out.printf("Texto %.1f MB, instantánea %.1f MB%n", textBytes / 1e6, Files.size(file) / 1e6);
+        System.out.printf("En frío (como al reiniciar) %.1f×, con el JIT ya compilado %.1f×%n",
+                coldParse / coldLoad, bestParse / bestLoad);
+
+        boolean same = parsed.size() == loaded.size();
+        boolean sameResults = true;
+        for (int i = 0; same && i < parsed.size(); i++) {
+            CompiledExpression a = parsed.get(i);
+            CompiledExpression b = loaded.get(i);
+            same = a.getSource().equals(b.getSource()) && Arrays.equals(a.getCode(), b.getCode())
+                    && Arrays.equals(a.getConstants(), b.getConstants()) && Arrays.equals(a.getVariables(), b.getVariables())
+                    && Arrays.equals(a.getFunctions(), b.getFunctions()) && a.getLocalSlots() == b.getLocalSlots()
+                    && a.getMaxStack() == b.getMaxStack() && a.getFingerprint() == b.getFingerprint();
+            double[] values = new double[a.getVariables().length];
+            Arrays.fill(values, 0.75);
+            sameResults &= Double.compare(evaluate(a, values), evaluate(b, values)) == 0;
+        }
+        check("Mismos programas, tablas y huellas", same);
+        check("Mismos resultados", sameResults);
+        check("En frío la carga es al menos 5 veces más rápida que el análisis", coldParse > 5 * coldLoad);
+
+        System.out.println("\n=== Archivos dañados ===");
+        byte[] bytes = Files.readAllBytes(file);
+        expectError("Un byte cambiado", modified(bytes, bytes.length / 2), "suma de control");
+        expectError("Otra versión", modified(bytes, 5), "versión");
+        expectError("Archivo truncado", Arrays.copyOf(bytes, bytes.length / 3), "suma de control");
+        expectError("No es una instantánea", "x^2 + 1".getBytes(StandardCharsets.UTF_8), "no es una instantánea");
+
+        FunctionRegistry registry = FunctionRegistry.withStandardFunctions();
+        registry.register(FunctionDefinition.unary("sinc", x -> x == 0 ? 1 : Math.sin(x) / x));
+        String source = "sinc(3 * x) + 1";
+        CompiledExpression custom = ExpressionCompiler.compile(source, new Parser(
+                new Lexer(source, ResourceLimits.unlimited(), registry).tokenize()).parseToAST());
+        Path customFile = Files.createTempFile("propias", ".bin");
+        customFile.toFile().deleteOnExit();
+        ExpressionSnapshot.write(customFile, List.of(custom));
+        try {
+            ExpressionSnapshot.read(customFile);
+            check("Función sin registrar", false);
+        } catch (Exception e) {
+            check("Función sin registrar: " + e.getMessage(), e.getMessage().contains("sinc"));
+        }
+        CompiledExpression restored = ExpressionSnapshot.read(customFile, registry).get(0);
+        check("Con el registro que la define", restored.evaluate(new double[]{0.5}) == custom.evaluate(new double[]{0.5}));
+
+        System.out.println("\n=== ExpressionCache ===");
+        ExpressionCache cache = new ExpressionCache(2 * EXPRESSIONS);
+        for (String expression : sources.subList(0, 10_000)) {
+            cache.get(expression);
+        }
+        Path cacheFile = Files.createTempFile("cache", ".bin");
+        cacheFile.toFile().deleteOnExit();
+        cache.save(cacheFile);
+        ExpressionCache restarted = new ExpressionCache(2 * EXPRESSIONS);
+        int added = restarted.load(cacheFile);
+        double value = restarted.get(sources.get(0)).evaluate(Map.of("x0", 0.5, "x1", 1.5));
+        System.out.printf("cargadas %d, aciertos %d, fallos %d, %s = %.6f%n", added, restarted.getHits(),
+                restarted.getMisses(), sources.get(0), value);
+        check("La caché nueva arranca con todas las expresiones",
+                added == 10_000 && restarted.getHits() == 1 && restarted.getMisses() == 0);
+    }
+
+    private static List<CompiledExpression> parseAll(List<String> sources) throws Exception {
+        List<CompiledExpression> compiled = new ArrayList<>(sources.size());
+        for (String source : sources) {
+            compiled.add(ExpressionCompiler.compile(source, new Parser(new Lexer(source).tokenize()).parseToAST()));
+        }
+        return compiled;
+    }
+
+    private static double evaluate(CompiledExpression expression, double[] values) {
+        try {
+            return expression.evaluate(values);
+        } catch (Exception e) {
+            return Double.NaN; // División por cero: ambas versiones deben fallar igual
+        }
+    }
+
+    private static byte[] modified(byte[] bytes, int position) {
+        byte[] copy = bytes.clone();
+        copy[position] ^= 0x10;
+        return copy;
+    }
+
+    private static void expectError(String description, byte[] bytes, String expected) throws Exception {
+        Path file = Files.createTempFile("danada", ".bin");
+        file.toFile().deleteOnExit();
+        Files.write(file, bytes);
+        try {
+            ExpressionSnapshot.read(file);
+            check(description + ": se cargó sin error", false);
+        } catch (Exception e) {
+            check(description + ": " + e.getMessage(), e.getMessage().contains(expected));
+        }
+    }
+
+    private static void check(String description, boolean ok) {
+        System.out.println((ok ? "✓ " : "✗ ") + description);
+    }
+}
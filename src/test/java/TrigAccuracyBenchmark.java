@@ -0,0 +1,87 @@
+import domine.compiler.CompiledExpression;
+import domine.compiler.ExpressionCache;
+import domine.compiler.TrigAccuracy;
+import domine.limits.ResourceLimits;
+
+import java.util.Random;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Error máximo y rendimiento de los niveles de precisión trigonométrica (TrigAccuracy).
+ *
+ * 1. Error relativo máximo de sin, cos y tan frente a Math en varios rangos de argumentos,
+ *    incluidos puntos cercanos a múltiplos de π/2 y argumentos grandes.
+ * 2. Filas por segundo de "sin(x)*cos(y) + tan(x/3)" en modo escalar y por lotes.
+ */
+public class TrigAccuracyBenchmark {
+
+    private static final String SOURCE = "sin(x)*cos(y) + tan(x/3)";
+    private static final int ROWS = 1 << 20;
+    private static final int SAMPLES = 2_000_000;
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== Precisión de los niveles trigonométricos (error relativo máximo) ===");
+        System.out.printf("%-8s %-24s %12s %12s %12s%n", "Nivel", "Rango", "sin", "cos", "tan");
+        for (TrigAccuracy accuracy : TrigAccuracy.values()) {
+            if (accuracy == TrigAccuracy.EXACT) {
+                continue;
+            }
+            errors(accuracy, "[-π/4, π/4]", r -> (r.nextDouble() * 2 - 1) * Math.PI / 4);
+            errors(accuracy, "[-100, 100]", r -> (r.nextDouble() * 2 - 1) * 100);
+            errors(accuracy, "[-1e5, 1e5]", r -> (r.nextDouble() * 2 - 1) * 1e5);
+            errors(accuracy, "k·π/2 ± 1e-6", r -> r.nextInt(200_000) * Math.PI / 2 + (r.nextDouble() * 2 - 1) * 1e-6);
+            errors(accuracy, "[1e6, 1e300]", r -> Math.pow(10, 6 + r.nextDouble() * 294));
+        }
+
+        System.out.println("\n=== Rendimiento: " + SOURCE + " ===");
+        CompiledExpression compiled = ExpressionCache.compile(SOURCE, ResourceLimits.defaults());
+        Random random = new Random(1);
+        double[][] columns = new double[2][ROWS];
+        for (int i = 0; i < ROWS; i++) {
+            columns[0][i] = random.nextDouble() * 200 - 100;
+            columns[1][i] = random.nextDouble() * 200 - 100;
+        }
+        double[] output = new double[ROWS];
+        double[] row = new double[2];
+
+        System.out.printf("%-8s %18s %18s%n", "Nivel", "escalar (Mfilas/s)", "lotes (Mfilas/s)");
+        for (TrigAccuracy accuracy : TrigAccuracy.values()) {
+            double scalar = 0, batch = 0;
+            for (int round = 0; round < 5; round++) {
+                long start = System.nanoTime();
+                for (int i = 0; i < ROWS; i++) {
+                    row[0] = columns[0][i];
+                    row[1] = columns[1][i];
+                    output[i] = compiled.evaluate(row, accuracy);
+                }
+                scalar = Math.max(scalar, ROWS / ((System.nanoTime() - start) / 1e3));
+
+                start = System.nanoTime();
+                compiled.evaluateBatch(columns, output, accuracy);
+                batch = Math.max(batch, ROWS / ((System.nanoTime() - start) / 1e3));
+            }
+            System.out.printf("%-8s %18.1f %18.1f%n", accuracy, scalar, batch);
+        }
+    }
+
+    private interface Generator {
+        double next(Random random);
+    }
+
+    private static void errors(TrigAccuracy accuracy, String label, Generator generator) {
+        Random random = new Random(label.hashCode());
+        double sin = 0, cos = 0, tan = 0;
+        for (int i = 0; i < SAMPLES; i++) {
+            double x = generator.next(random);
+            sin = Math.max(sin, relative(accuracy::sin, Math::sin, x));
+            cos = Math.max(cos, relative(accuracy::cos, Math::cos, x));
+            tan = Math.max(tan, relative(accuracy::tan, Math::tan, x));
+        }
+        System.out.printf("%-8s %-24s %12.2e %12.2e %12.2e%n", accuracy, label, sin, cos, tan);
+    }
+
+    private static double relative(DoubleUnaryOperator approximate, DoubleUnaryOperator exact, double x) {
+        double expected = exact.applyAsDouble(x);
+        return expected == 0 ? 0 : Math.abs(approximate.applyAsDouble(x) - expected) / Math.abs(expected);
+    }
+}